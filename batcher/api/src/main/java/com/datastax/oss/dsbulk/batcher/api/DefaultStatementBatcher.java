@@ -53,7 +53,7 @@ public class DefaultStatementBatcher implements StatementBatcher {
   protected final ProtocolVersion protocolVersion;
   protected final CodecRegistry codecRegistry;
   protected final int maxBatchStatements;
-  protected final long maxSizeInBytes;
+  protected volatile long maxSizeInBytes;
 
   /**
    * Creates a new {@link DefaultStatementBatcher} that produces {@linkplain
@@ -233,6 +233,26 @@ public class DefaultStatementBatcher implements StatementBatcher {
     this.maxSizeInBytes = maxSizeInBytes;
   }
 
+  /** @return the maximum number of bytes of data in one batch; zero or negative if unlimited. */
+  public long getMaxSizeInBytes() {
+    return maxSizeInBytes;
+  }
+
+  /**
+   * Changes the maximum number of bytes of data in one batch. Batches being assembled when this
+   * method is called may or may not observe the new value.
+   *
+   * @param maxSizeInBytes The maximum number of bytes of data in one batch. If set to zero or any
+   *     negative value, the data size is considered unlimited.
+   */
+  public void setMaxSizeInBytes(long maxSizeInBytes) {
+    if (maxBatchStatements <= 0 && maxSizeInBytes <= 0) {
+      throw new IllegalArgumentException(
+          "At least one of maxBatchStatements or maxSizeInBytes must be positive");
+    }
+    this.maxSizeInBytes = maxSizeInBytes;
+  }
+
   @Override
   @NonNull
   public List<Statement<?>> batchByGroupingKey(
@@ -353,8 +373,10 @@ public class DefaultStatementBatcher implements StatementBatcher {
     @Override
     public boolean test(@NonNull BatchableStatement<?> statement) {
       boolean statementsOverflowBuffer = ++statementsCounter >= getMaxBatchStatements();
+      long maxBytes = maxSizeInBytes;
+      // only size statements when the batch size is actually limited
       boolean bytesOverflowBuffer =
-          (bytesInCurrentBatch += calculateSize(statement)) >= getMaxSizeInBytes();
+          maxBytes > 0 && (bytesInCurrentBatch += calculateSize(statement)) >= maxBytes;
       boolean shouldFlush = statementsOverflowBuffer || bytesOverflowBuffer;
       if (shouldFlush) {
         statementsCounter = 0;
@@ -373,12 +395,5 @@ public class DefaultStatementBatcher implements StatementBatcher {
       }
       return maxBatchStatements;
     }
-
-    long getMaxSizeInBytes() {
-      if (maxSizeInBytes <= 0) {
-        return Long.MAX_VALUE;
-      }
-      return maxSizeInBytes;
-    }
   }
 }
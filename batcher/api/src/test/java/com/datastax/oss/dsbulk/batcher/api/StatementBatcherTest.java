@@ -246,6 +246,19 @@ public class StatementBatcherTest {
         .contains(tuple(stmt1, stmt2), tuple(stmt5, stmt6), tuple(stmt3, stmt4));
   }
 
+  @Test
+  void should_honor_changed_max_size_in_bytes() {
+    assignRoutingTokensWitSize();
+    DefaultStatementBatcher batcher = new DefaultStatementBatcher(1000L);
+    batcher.setMaxSizeInBytes(8L);
+    assertThat(batcher.getMaxSizeInBytes()).isEqualTo(8L);
+    List<Statement<?>> statements =
+        batcher.batchByGroupingKey(stmt1, stmt2, stmt3, stmt4, stmt5, stmt6);
+    assertThat(statements)
+        .extracting(EXTRACTOR)
+        .contains(tuple(stmt1, stmt2), tuple(stmt5, stmt6), tuple(stmt3, stmt4));
+  }
+
   @Test
   void should_buffer_until_last_element_if_max_size_in_bytes_high() {
     assignRoutingTokensWitSize();
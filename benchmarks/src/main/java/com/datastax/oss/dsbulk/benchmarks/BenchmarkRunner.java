@@ -0,0 +1,69 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The entry point of the benchmarks jar.
+ *
+ * <p>Accepts the same command line options as JMH's own launcher, but always enables the {@link
+ * GCProfiler}, so that allocation rates are reported alongside throughput.
+ */
+public final class BenchmarkRunner {
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions cli = new CommandLineOptions(args);
+    if (cli.shouldHelp()) {
+      cli.showHelp();
+      return;
+    }
+    if (cli.shouldListProfilers()) {
+      cli.listProfilers();
+      return;
+    }
+    if (cli.shouldListResultFormats()) {
+      cli.listResultFormats();
+      return;
+    }
+    OptionsBuilder builder = new OptionsBuilder();
+    builder.parent(cli);
+    boolean hasGcProfiler =
+        cli.getProfilers().stream()
+            .anyMatch(
+                profiler ->
+                    profiler.getKlass().equals(GCProfiler.class.getName())
+                        || profiler.getKlass().equals("gc"));
+    if (!hasGcProfiler) {
+      builder.addProfiler(GCProfiler.class);
+    }
+    Options options = builder.build();
+    Runner runner = new Runner(options);
+    if (cli.shouldList()) {
+      runner.list();
+    } else if (cli.shouldListWithParams()) {
+      runner.listWithParams(cli);
+    } else {
+      runner.run();
+    }
+  }
+
+  private BenchmarkRunner() {}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.benchmarks.batcher;
+
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.dsbulk.batcher.api.DefaultStatementBatcher;
+import com.datastax.oss.dsbulk.batcher.reactor.ReactorStatementBatcher;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+/**
+ * Measures the cost of grouping statements into batches by partition key, with both the
+ * collection-based {@link DefaultStatementBatcher} and the reactive {@link
+ * ReactorStatementBatcher}.
+ *
+ * <p>Each invocation batches {@link #statements} statements spread over {@link #partitions}
+ * distinct routing keys.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatementBatcherBenchmark {
+
+  @Param({"10000"})
+  public int statements;
+
+  @Param({"10", "1000"})
+  public int partitions;
+
+  @Param({"32"})
+  public int maxBatchStatements;
+
+  private List<BatchableStatement<?>> input;
+  private DefaultStatementBatcher batcher;
+  private ReactorStatementBatcher reactorBatcher;
+
+  @Setup
+  public void setup() {
+    batcher = new DefaultStatementBatcher(maxBatchStatements);
+    reactorBatcher = new ReactorStatementBatcher(maxBatchStatements);
+    ByteBuffer[] routingKeys = new ByteBuffer[partitions];
+    for (int i = 0; i < partitions; i++) {
+      routingKeys[i] = ByteBuffer.allocate(8).putLong(0, i);
+    }
+    // fixed seed, so that all runs operate on the same statements
+    Random random = new Random(0);
+    input = new ArrayList<>(statements);
+    for (int i = 0; i < statements; i++) {
+      input.add(
+          SimpleStatement.newInstance("INSERT INTO ks.t (pk, v) VALUES (?, ?)", i, "value " + i)
+              .setRoutingKey(routingKeys[random.nextInt(partitions)]));
+    }
+  }
+
+  @Benchmark
+  public List<Statement<?>> batchByGroupingKey() {
+    return batcher.batchByGroupingKey(input);
+  }
+
+  @Benchmark
+  public List<Statement<?>> batchAll() {
+    return batcher.batchAll(input);
+  }
+
+  @Benchmark
+  public List<Statement<?>> reactiveBatchByGroupingKey() {
+    return reactorBatcher.batchByGroupingKey(Flux.fromIterable(input)).collectList().block();
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.benchmarks.codecs;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.dsbulk.codecs.api.ConvertingCodec;
+import com.datastax.oss.dsbulk.codecs.api.ConvertingCodecFactory;
+import com.datastax.oss.dsbulk.codecs.text.TextConversionContext;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures text conversions performed by {@code StringToXxxCodec}s, as used by the CSV connector:
+ * parsing and encoding a field when loading, decoding and formatting a column when unloading.
+ *
+ * <p>Codecs are obtained from a {@link ConvertingCodecFactory} with default settings, so that
+ * number, temporal and collection parsing all go through {@code CodecUtils} exactly like in a real
+ * operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StringCodecBenchmark {
+
+  @Param({
+    "int",
+    "bigint",
+    "double",
+    "decimal",
+    "timestamp",
+    "date",
+    "uuid",
+    "text",
+    "list<int>",
+    "map<text,int>"
+  })
+  public String cqlType;
+
+  private ConvertingCodec<String, Object> codec;
+  private String input;
+  private ByteBuffer serialized;
+
+  @Setup
+  public void setup() {
+    ConvertingCodecFactory factory = new ConvertingCodecFactory(new TextConversionContext());
+    codec = factory.createConvertingCodec(dataType(cqlType), GenericType.STRING, true);
+    input = input(cqlType);
+    serialized = codec.encode(input, ProtocolVersion.DEFAULT);
+  }
+
+  @Benchmark
+  public ByteBuffer parseAndEncode() {
+    return codec.encode(input, ProtocolVersion.DEFAULT);
+  }
+
+  @Benchmark
+  public String decodeAndFormat() {
+    return codec.decode(serialized.duplicate(), ProtocolVersion.DEFAULT);
+  }
+
+  private static DataType dataType(String cqlType) {
+    switch (cqlType) {
+      case "int":
+        return DataTypes.INT;
+      case "bigint":
+        return DataTypes.BIGINT;
+      case "double":
+        return DataTypes.DOUBLE;
+      case "decimal":
+        return DataTypes.DECIMAL;
+      case "timestamp":
+        return DataTypes.TIMESTAMP;
+      case "date":
+        return DataTypes.DATE;
+      case "uuid":
+        return DataTypes.UUID;
+      case "text":
+        return DataTypes.TEXT;
+      case "list<int>":
+        return DataTypes.listOf(DataTypes.INT);
+      case "map<text,int>":
+        return DataTypes.mapOf(DataTypes.TEXT, DataTypes.INT);
+      default:
+        throw new IllegalArgumentException("Unknown CQL type: " + cqlType);
+    }
+  }
+
+  private static String input(String cqlType) {
+    switch (cqlType) {
+      case "int":
+        return "123456";
+      case "bigint":
+        return "1234567890123";
+      case "double":
+        return "1234.5678";
+      case "decimal":
+        return "12345678901234567890.123456789";
+      case "timestamp":
+        return "2021-09-14T12:34:56.789Z";
+      case "date":
+        return "2021-09-14";
+      case "uuid":
+        return "a5e6d8f8-1f1c-4d1e-9a3f-6b6d0e2c7a11";
+      case "text":
+        return "The quick brown fox jumps over the lazy dog";
+      case "list<int>":
+        return "[1,2,3,4,5,6,7,8,9,10]";
+      case "map<text,int>":
+        return "{\"foo\":1,\"bar\":2,\"qix\":3}";
+      default:
+        throw new IllegalArgumentException("Unknown CQL type: " + cqlType);
+    }
+  }
+}
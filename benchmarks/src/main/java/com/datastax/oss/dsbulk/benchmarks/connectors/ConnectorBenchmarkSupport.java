@@ -0,0 +1,109 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.benchmarks.connectors;
+
+import com.datastax.oss.dsbulk.config.ConfigUtils;
+import com.datastax.oss.dsbulk.connectors.api.DefaultMappedField;
+import com.datastax.oss.dsbulk.connectors.api.DefaultRecord;
+import com.datastax.oss.dsbulk.connectors.api.Field;
+import com.datastax.oss.dsbulk.connectors.api.Record;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/** Utilities shared by connector benchmarks: generated data, settings and temporary files. */
+final class ConnectorBenchmarkSupport {
+
+  static final String[] COLUMNS = {"id", "name", "created", "score", "uuid"};
+
+  private static final URI RESOURCE = URI.create("file://benchmark");
+
+  /**
+   * Returns the settings of the given connector, as found in the reference configuration, with the
+   * given overrides applied. Overrides are given as alternating keys and HOCON values.
+   */
+  static Config connectorSettings(String connectorName, String... overrides) {
+    Config settings =
+        ConfigUtils.createApplicationConfig(null)
+            .resolve()
+            .getConfig("dsbulk.connector." + connectorName);
+    for (int i = 0; i < overrides.length; i += 2) {
+      settings =
+          ConfigFactory.parseString(overrides[i] + "=" + overrides[i + 1]).withFallback(settings);
+    }
+    return settings;
+  }
+
+  /** Returns the textual values of the generated row with the given index. */
+  static String[] row(int i) {
+    return new String[] {
+      String.valueOf(i),
+      "name " + i,
+      String.format("2021-09-%02dT%02d:%02d:%02dZ", i % 28 + 1, i % 24, i % 60, i % 60),
+      String.valueOf(i * 1.25d),
+      new UUID(i, -i).toString()
+    };
+  }
+
+  /** Generates the given number of mapped records, with the same contents as {@link #row(int)}. */
+  static List<Record> records(int count) {
+    Field[] fields = new Field[COLUMNS.length];
+    for (int i = 0; i < COLUMNS.length; i++) {
+      fields[i] = new DefaultMappedField(COLUMNS[i]);
+    }
+    List<Record> records = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      records.add(DefaultRecord.mapped(null, RESOURCE, i + 1, fields, (Object[]) row(i)));
+    }
+    return records;
+  }
+
+  /** Quotes the given path, so that it can be used as a HOCON string value. */
+  static String quote(Path path) {
+    return '"' + path.toString().replace("\\", "\\\\") + '"';
+  }
+
+  /** Deletes the given directory and its contents, if it exists. */
+  static void deleteRecursively(Path dir) {
+    if (!Files.exists(dir)) {
+      return;
+    }
+    try (Stream<Path> files = Files.walk(dir)) {
+      files.sorted(Comparator.reverseOrder()).forEach(ConnectorBenchmarkSupport::delete);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void delete(Path path) {
+    try {
+      Files.delete(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private ConnectorBenchmarkSupport() {}
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.benchmarks.connectors;
+
+import static com.datastax.oss.dsbulk.benchmarks.connectors.ConnectorBenchmarkSupport.COLUMNS;
+import static com.datastax.oss.dsbulk.benchmarks.connectors.ConnectorBenchmarkSupport.connectorSettings;
+import static com.datastax.oss.dsbulk.benchmarks.connectors.ConnectorBenchmarkSupport.deleteRecursively;
+import static com.datastax.oss.dsbulk.benchmarks.connectors.ConnectorBenchmarkSupport.quote;
+import static com.datastax.oss.dsbulk.benchmarks.connectors.ConnectorBenchmarkSupport.records;
+import static com.datastax.oss.dsbulk.benchmarks.connectors.ConnectorBenchmarkSupport.row;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.datastax.oss.dsbulk.connectors.api.Record;
+import com.datastax.oss.dsbulk.connectors.api.Resource;
+import com.datastax.oss.dsbulk.connectors.json.JsonConnector;
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+/**
+ * Measures the time taken by the Json connector to read or write a file of generated records.
+ *
+ * <p>Each invocation reads or writes the whole file, including connector initialization; divide by
+ * {@link #rows} to get the per-record cost. Generated documents contain one nested array, so that
+ * reads exercise both scalar and tree values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonConnectorBenchmark {
+
+  @Param({"100000"})
+  public int rows;
+
+  private Path dir;
+  private Path input;
+  private List<Record> records;
+  private Path output;
+  private int outputs;
+
+  @Setup
+  public void setup() throws Exception {
+    dir = Files.createTempDirectory("dsbulk-benchmark-json");
+    input = dir.resolve("input.json");
+    try (BufferedWriter writer = Files.newBufferedWriter(input, UTF_8)) {
+      for (int i = 0; i < rows; i++) {
+        String[] values = row(i);
+        writer.write('{');
+        for (int j = 0; j < COLUMNS.length; j++) {
+          writer.write(String.format("\"%s\":", COLUMNS[j]));
+          // numeric columns are written as Json numbers, the others as Json strings
+          writer.write(j == 0 || j == 3 ? values[j] : '"' + values[j] + '"');
+          writer.write(',');
+        }
+        writer.write(String.format("\"tags\":[%d,%d,%d]}", i, i + 1, i + 2));
+        writer.newLine();
+      }
+    }
+    records = records(rows);
+  }
+
+  @TearDown
+  public void tearDown() {
+    deleteRecursively(dir);
+  }
+
+  @Setup(Level.Invocation)
+  public void setupOutput() {
+    output = dir.resolve("output-" + outputs++);
+  }
+
+  @TearDown(Level.Invocation)
+  public void tearDownOutput() {
+    deleteRecursively(output);
+  }
+
+  @Benchmark
+  public long read() throws Exception {
+    JsonConnector connector = new JsonConnector();
+    connector.configure(connectorSettings("json", "url", quote(input)), true, false);
+    connector.init();
+    try {
+      return Flux.from(connector.read()).flatMap(Resource::read).count().block();
+    } finally {
+      connector.close();
+    }
+  }
+
+  @Benchmark
+  public long write() throws Exception {
+    JsonConnector connector = new JsonConnector();
+    connector.configure(
+        connectorSettings("json", "url", quote(output), "maxConcurrentFiles", "1"), false, false);
+    connector.init();
+    try {
+      return Flux.fromIterable(records).transform(connector.write()).count().block();
+    } finally {
+      connector.close();
+    }
+  }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.benchmarks.mapping;
+
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.DefaultProtocolVersion;
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.detach.AttachmentPoint;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.driver.internal.core.cql.DefaultColumnDefinition;
+import com.datastax.oss.driver.internal.core.cql.DefaultColumnDefinitions;
+import com.datastax.oss.driver.internal.core.cql.DefaultPreparedStatement;
+import com.datastax.oss.driver.internal.core.cql.DefaultRow;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSetMultimap;
+import com.datastax.oss.dsbulk.codecs.api.ConvertingCodecFactory;
+import com.datastax.oss.dsbulk.codecs.text.TextConversionContext;
+import com.datastax.oss.dsbulk.connectors.api.DefaultMappedField;
+import com.datastax.oss.dsbulk.connectors.api.DefaultRecord;
+import com.datastax.oss.dsbulk.connectors.api.Field;
+import com.datastax.oss.dsbulk.connectors.api.Record;
+import com.datastax.oss.dsbulk.connectors.api.RecordMetadata;
+import com.datastax.oss.dsbulk.executor.api.result.DefaultReadResult;
+import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
+import com.datastax.oss.dsbulk.mapping.CQLWord;
+import com.datastax.oss.dsbulk.mapping.DefaultMapping;
+import com.datastax.oss.dsbulk.mapping.Mapping;
+import com.datastax.oss.dsbulk.workflow.commons.schema.DefaultReadResultMapper;
+import com.datastax.oss.dsbulk.workflow.commons.schema.DefaultRecordMapper;
+import com.datastax.oss.dsbulk.workflow.commons.statement.RangeReadBoundStatement;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.response.result.ColumnSpec;
+import com.datastax.oss.protocol.internal.response.result.RawType;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the per-record cost of {@link DefaultRecordMapper} (record to bound statement, when
+ * loading) and {@link DefaultReadResultMapper} (row to record, when unloading), with textual field
+ * values as produced and consumed by the CSV connector.
+ *
+ * <p>The prepared statement and rows are real, detached driver objects rather than mocks, so that
+ * the measurements do not include any mocking overhead.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+  private static final String[] COLUMNS = {"id", "name", "created", "score", "uuid"};
+
+  private static final int[] TYPES = {
+    ProtocolConstants.DataType.INT,
+    ProtocolConstants.DataType.VARCHAR,
+    ProtocolConstants.DataType.TIMESTAMP,
+    ProtocolConstants.DataType.DOUBLE,
+    ProtocolConstants.DataType.UUID
+  };
+
+  private static final String[] VALUES = {
+    "42", "name 42", "2021-09-14T12:34:56.789Z", "52.5", "a5e6d8f8-1f1c-4d1e-9a3f-6b6d0e2c7a11"
+  };
+
+  private static final URI RESOURCE = URI.create("cql://ks/t");
+
+  private static final RecordMetadata METADATA = (field, cqlType) -> GenericType.STRING;
+
+  private DefaultRecordMapper recordMapper;
+  private DefaultReadResultMapper readResultMapper;
+  private Field[] fields;
+  private ReadResult result;
+
+  @Setup
+  public void setup() {
+    ProtocolVersion protocolVersion = DefaultProtocolVersion.V4;
+    List<ColumnDefinition> definitions = new ArrayList<>();
+    ImmutableSetMultimap.Builder<Field, CQLWord> fieldsToVariables = ImmutableSetMultimap.builder();
+    fields = new Field[COLUMNS.length];
+    for (int i = 0; i < COLUMNS.length; i++) {
+      definitions.add(
+          new DefaultColumnDefinition(
+              new ColumnSpec("ks", "t", COLUMNS[i], i, RawType.PRIMITIVES.get(TYPES[i])),
+              AttachmentPoint.NONE));
+      fields[i] = new DefaultMappedField(COLUMNS[i]);
+      fieldsToVariables.put(fields[i], CQLWord.fromInternal(COLUMNS[i]));
+    }
+    ColumnDefinitions variables = DefaultColumnDefinitions.valueOf(definitions);
+    Mapping mapping =
+        new DefaultMapping(
+            fieldsToVariables.build(),
+            new ConvertingCodecFactory(new TextConversionContext()),
+            ImmutableSet.of());
+    PreparedStatement insert = prepared(variables, protocolVersion);
+    recordMapper =
+        new DefaultRecordMapper(
+            Collections.singletonList(insert),
+            ImmutableSet.of(CQLWord.fromInternal("id")),
+            ImmutableSet.of(),
+            protocolVersion,
+            mapping,
+            METADATA,
+            true,
+            false,
+            false);
+    readResultMapper = new DefaultReadResultMapper(mapping, METADATA, false);
+    List<ByteBuffer> values = new ArrayList<>();
+    for (int i = 0; i < COLUMNS.length; i++) {
+      DataType cqlType = definitions.get(i).getType();
+      TypeCodec<String> codec =
+          mapping.codec(CQLWord.fromInternal(COLUMNS[i]), cqlType, GenericType.STRING);
+      values.add(codec.encode(VALUES[i], protocolVersion));
+    }
+    Row row = new DefaultRow(variables, values, AttachmentPoint.NONE);
+    RangeReadBoundStatement statement = new RangeReadBoundStatement(insert.bind(), null, RESOURCE);
+    result = new DefaultReadResult(statement, null, row, 1);
+  }
+
+  @Benchmark
+  public BatchableStatement<?> mapRecord() {
+    // records are cleared once mapped, so a new one is needed for each invocation; this is cheap
+    // compared to the mapping itself, and connectors create one per row anyway
+    Record record = DefaultRecord.mapped(null, RESOURCE, 1, fields, (Object[]) VALUES);
+    return recordMapper.map(record).blockFirst();
+  }
+
+  @Benchmark
+  public Record mapReadResult() {
+    return readResultMapper.map(result);
+  }
+
+  private static PreparedStatement prepared(
+      ColumnDefinitions variables, ProtocolVersion protocolVersion) {
+    return new DefaultPreparedStatement(
+        ByteBuffer.wrap(new byte[] {1}),
+        "INSERT INTO ks.t (id, name, created, score, uuid) VALUES (?, ?, ?, ?, ?)",
+        variables,
+        Collections.singletonList(0),
+        null,
+        DefaultColumnDefinitions.valueOf(Collections.emptyList()),
+        CqlIdentifier.fromInternal("ks"),
+        Collections.emptyMap(),
+        null,
+        null,
+        null,
+        null,
+        null,
+        Collections.emptyMap(),
+        null,
+        null,
+        null,
+        -1,
+        ConsistencyLevel.LOCAL_ONE,
+        ConsistencyLevel.LOCAL_SERIAL,
+        false,
+        CodecRegistry.DEFAULT,
+        protocolVersion);
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.benchmarks.partitioner;
+
+import com.datastax.oss.driver.api.core.metadata.EndPoint;
+import com.datastax.oss.driver.internal.core.metadata.DefaultEndPoint;
+import com.datastax.oss.driver.internal.core.metadata.token.Murmur3Token;
+import com.datastax.oss.dsbulk.partitioner.BulkTokenRange;
+import com.datastax.oss.dsbulk.partitioner.TokenRangeClusterer;
+import com.datastax.oss.dsbulk.partitioner.TokenRangeSplitter;
+import com.datastax.oss.dsbulk.partitioner.murmur3.Murmur3BulkTokenFactory;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long it takes to split and group the token ring of a generated cluster, as done by
+ * {@code PartitionGenerator} at the beginning of each unload and count operation.
+ *
+ * <p>The ring is made of {@link #nodes} nodes owning {@link #vnodes} randomly-placed tokens each,
+ * with a replication factor of 3.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenRangeBenchmark {
+
+  private static final int REPLICATION_FACTOR = 3;
+
+  @Param({"6"})
+  public int nodes;
+
+  @Param({"16", "256"})
+  public int vnodes;
+
+  @Param({"1024", "16384"})
+  public int splitCount;
+
+  private List<BulkTokenRange> ring;
+  private List<BulkTokenRange> splits;
+  private int maxGroupSize;
+  private TokenRangeSplitter splitter;
+  private TokenRangeClusterer clusterer;
+
+  @Setup
+  public void setup() {
+    Murmur3BulkTokenFactory tokenFactory = new Murmur3BulkTokenFactory();
+    splitter = tokenFactory.splitter();
+    clusterer = tokenFactory.clusterer();
+    List<EndPoint> endPoints = new ArrayList<>(nodes);
+    for (int i = 0; i < nodes; i++) {
+      endPoints.add(
+          new DefaultEndPoint(InetSocketAddress.createUnresolved("127.0.0." + (i + 1), 9042)));
+    }
+    // fixed seed, so that all runs operate on the same ring
+    Random random = new Random(0);
+    long[] tokens = random.longs(nodes * vnodes).sorted().distinct().toArray();
+    ring = new ArrayList<>(tokens.length);
+    for (int i = 0; i < tokens.length; i++) {
+      Murmur3Token start = new Murmur3Token(tokens[i]);
+      Murmur3Token end = new Murmur3Token(tokens[(i + 1) % tokens.length]);
+      // tokens are assigned to nodes round-robin, and replicas are the next nodes in the ring
+      Set<EndPoint> replicas = new LinkedHashSet<>();
+      for (int j = 0; j < Math.min(REPLICATION_FACTOR, nodes); j++) {
+        replicas.add(endPoints.get((i + j) % nodes));
+      }
+      ring.add(tokenFactory.range(start, end, replicas));
+    }
+    maxGroupSize = ring.size() / nodes;
+    splits = splitter.split(ring, splitCount);
+  }
+
+  @Benchmark
+  public List<BulkTokenRange> split() {
+    return splitter.split(ring, splitCount);
+  }
+
+  @Benchmark
+  public List<BulkTokenRange> group() {
+    return clusterer.group(splits, splitCount, maxGroupSize);
+  }
+}
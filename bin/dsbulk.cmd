@@ -31,6 +31,13 @@ IF DEFINED JAVA_HOME (
   SET JAVA=java
 )
 
+REM Arrow's memory allocator requires reflective access to java.nio on Java 9 and later;
+REM Java 8 reports versions starting with "1." and rejects the option.
+for /F "usebackq tokens=3" %%V in (`"%JAVA%" -version 2^>^&1 ^| findstr /I "version"`) do SET JAVA_VERSION=%%~V
+IF DEFINED JAVA_VERSION IF NOT "!JAVA_VERSION:~0,2!"=="1." (
+  SET DSBULK_JAVA_OPTS=--add-opens=java.base/java.nio=ALL-UNNAMED !DSBULK_JAVA_OPTS!
+)
+
 REM Attempt to find the window width, to make help output look nicer.
 for /F "usebackq tokens=2* delims=: " %%W in (`mode con ^| findstr Columns`) do set COLUMNS=%%W
 
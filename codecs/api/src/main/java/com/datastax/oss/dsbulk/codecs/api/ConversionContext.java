@@ -18,6 +18,7 @@ package com.datastax.oss.dsbulk.codecs.api;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
 public class ConversionContext {
 
@@ -27,8 +28,45 @@ public class ConversionContext {
     attributes.put(key, value);
   }
 
+  /**
+   * Adds an attribute whose value is only created when the attribute is first {@linkplain
+   * #getAttribute(String) retrieved}. Use this for values that are costly to create and that some
+   * operations never need.
+   */
+  public void addLazyAttribute(@NonNull String key, @NonNull Supplier<?> supplier) {
+    attributes.put(key, new LazyAttribute(supplier));
+  }
+
   @SuppressWarnings({"unchecked", "TypeParameterUnusedInFormals"})
   public <T> T getAttribute(@NonNull String key) {
-    return (T) attributes.get(key);
+    Object value = attributes.get(key);
+    if (value instanceof LazyAttribute) {
+      value = ((LazyAttribute) value).get();
+    }
+    return (T) value;
+  }
+
+  private static final class LazyAttribute {
+
+    private final Supplier<?> supplier;
+
+    private volatile Object value;
+
+    private LazyAttribute(Supplier<?> supplier) {
+      this.supplier = supplier;
+    }
+
+    private Object get() {
+      Object result = value;
+      if (result == null) {
+        synchronized (this) {
+          result = value;
+          if (result == null) {
+            value = result = supplier.get();
+          }
+        }
+      }
+      return result;
+    }
   }
 }
@@ -20,15 +20,18 @@ import com.datastax.oss.driver.api.core.type.codec.registry.MutableCodecRegistry
 import com.datastax.oss.driver.api.core.type.reflect.GenericType;
 import com.datastax.oss.driver.internal.core.type.codec.registry.DefaultCodecRegistry;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.ServiceLoader;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /** A factory for {@link ConvertingCodec}s. */
 public class ConvertingCodecFactory {
 
-  private final List<ConvertingCodecProvider> providers = new CopyOnWriteArrayList<>();
+  // the class loader to scan for providers, as ServiceLoader.load(Class) would use at construction
+  private final ClassLoader providersClassLoader;
+  // scanned on first use, as some operations never create converting codecs
+  private volatile List<ConvertingCodecProvider> providers;
   @NonNull private final MutableCodecRegistry codecRegistry;
   private final ConversionContext context;
 
@@ -44,11 +47,7 @@ public class ConvertingCodecFactory {
       @NonNull MutableCodecRegistry codecRegistry, @NonNull ConversionContext context) {
     this.codecRegistry = codecRegistry;
     this.context = context;
-    ServiceLoader<ConvertingCodecProvider> loader =
-        ServiceLoader.load(ConvertingCodecProvider.class);
-    for (ConvertingCodecProvider provider : loader) {
-      providers.add(provider);
-    }
+    this.providersClassLoader = Thread.currentThread().getContextClassLoader();
   }
 
   @NonNull
@@ -66,7 +65,7 @@ public class ConvertingCodecFactory {
       @NonNull DataType cqlType,
       @NonNull GenericType<EXTERNAL> externalJavaType,
       boolean rootCodec) {
-    for (ConvertingCodecProvider provider : providers) {
+    for (ConvertingCodecProvider provider : getProviders()) {
       Optional<ConvertingCodec<?, ?>> maybeCodec =
           provider.maybeProvide(cqlType, externalJavaType, this, rootCodec);
       if (maybeCodec.isPresent()) {
@@ -85,4 +84,23 @@ public class ConvertingCodecFactory {
             new IdempotentConvertingCodec<>(codecRegistry.codecFor(cqlType, externalJavaType));
     return codec;
   }
+
+  @NonNull
+  private List<ConvertingCodecProvider> getProviders() {
+    List<ConvertingCodecProvider> result = providers;
+    if (result == null) {
+      synchronized (this) {
+        result = providers;
+        if (result == null) {
+          result = new ArrayList<>();
+          for (ConvertingCodecProvider provider :
+              ServiceLoader.load(ConvertingCodecProvider.class, providersClassLoader)) {
+            result.add(provider);
+          }
+          providers = result;
+        }
+      }
+    }
+    return result;
+  }
 }
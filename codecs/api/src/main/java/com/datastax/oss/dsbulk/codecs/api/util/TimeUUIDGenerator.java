@@ -61,7 +61,7 @@ public enum TimeUUIDGenerator {
     @Override
     public UUID generate(Instant instant) {
       return new UUID(
-          createMostSignificantBits(toUUIDTimestamp(instant)), FIXED_CLOCK_SEQ_AND_NODE);
+          createMostSignificantBits(toUUIDTimestamp(instant)), FixedClockSeqAndNode.VALUE);
     }
   },
 
@@ -119,8 +119,6 @@ public enum TimeUUIDGenerator {
    */
   public static final long EPOCH_OFFSET = 122192928000000000L;
 
-  private static final long FIXED_CLOCK_SEQ_AND_NODE = makeClockSeqAndNode();
-
   /*
    * The min and max possible lsb for a UUID.
    * Note that his is not 0 and all 1's because Cassandra TimeUUIDType
@@ -137,6 +135,14 @@ public enum TimeUUIDGenerator {
 
   private static final Random RANDOM_CLOCK_SEQ_AND_NODE = new Random(System.currentTimeMillis());
 
+  /**
+   * Holds the fixed clock sequence and node ID. Computing the node ID involves DNS lookups and
+   * network interface scans, so this is only done when the {@link #FIXED} strategy is first used.
+   */
+  private static class FixedClockSeqAndNode {
+    private static final long VALUE = makeClockSeqAndNode();
+  }
+
   /**
    * Generates a version 1 time-based {@link UUID} from the provided {@link Instant}.
    *
@@ -221,7 +227,7 @@ public enum TimeUUIDGenerator {
       InetAddress localhost = InetAddress.getLocalHost();
       allIps.add(localhost.toString());
       // Also return the hostname if available, it won't hurt (this does a dns lookup, it's only
-      // done once at startup)
+      // done once, when the FIXED strategy is first used)
       allIps.add(localhost.getCanonicalHostName());
       InetAddress[] allMyIps = InetAddress.getAllByName(localhost.getCanonicalHostName());
       if (allMyIps != null) {
@@ -17,6 +17,7 @@ package com.datastax.oss.dsbulk.codecs.jdk.collection;
 
 import static com.datastax.oss.dsbulk.codecs.jdk.JdkCodecUtils.isCollection;
 
+import com.datastax.oss.driver.api.core.data.CqlVector;
 import com.datastax.oss.driver.api.core.data.TupleValue;
 import com.datastax.oss.driver.api.core.data.UdtValue;
 import com.datastax.oss.driver.api.core.type.DataType;
@@ -24,6 +25,7 @@ import com.datastax.oss.driver.api.core.type.ListType;
 import com.datastax.oss.driver.api.core.type.SetType;
 import com.datastax.oss.driver.api.core.type.TupleType;
 import com.datastax.oss.driver.api.core.type.UserDefinedType;
+import com.datastax.oss.driver.api.core.type.VectorType;
 import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
 import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
 import com.datastax.oss.driver.api.core.type.reflect.GenericType;
@@ -81,6 +83,14 @@ public class CollectionConvertingCodecsProvider implements ConvertingCodecProvid
         ListToTupleCodec codec =
             new ListToTupleCodec(externalJavaType.getRawType(), tupleCodec, eltCodecs.build());
         return Optional.of(codec);
+      } else if (cqlType instanceof VectorType) {
+        TypeCodec<CqlVector<?>> vectorCodec = codecRegistry.codecFor(cqlType);
+        ConvertingCodec eltCodec =
+            codecFactory.createConvertingCodec(
+                ((VectorType) cqlType).getElementType(), componentType, false);
+        ListToVectorCodec codec =
+            new ListToVectorCodec(externalJavaType.getRawType(), vectorCodec, eltCodec);
+        return Optional.of(codec);
       }
     }
 
@@ -0,0 +1,72 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.codecs.jdk.collection;
+
+import com.datastax.oss.driver.api.core.data.CqlVector;
+import com.datastax.oss.driver.api.core.type.VectorType;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.dsbulk.codecs.api.ConvertingCodec;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A codec that converts lists to CQL vectors, such as the typed lists emitted by columnar
+ * connectors for fixed-size list columns; the vector elements are converted one by one, without any
+ * intermediate text representation.
+ */
+public class ListToVectorCodec<E, SubtypeT extends Number>
+    extends ConvertingCodec<List<E>, CqlVector<SubtypeT>> {
+
+  private final ConvertingCodec<E, SubtypeT> elementCodec;
+  private final int dimensions;
+
+  public ListToVectorCodec(
+      Class<List<E>> javaType,
+      TypeCodec<CqlVector<SubtypeT>> targetCodec,
+      ConvertingCodec<E, SubtypeT> elementCodec) {
+    super(targetCodec, javaType);
+    this.elementCodec = elementCodec;
+    dimensions = ((VectorType) targetCodec.getCqlType()).getDimensions();
+  }
+
+  @Override
+  public CqlVector<SubtypeT> externalToInternal(List<E> external) {
+    if (external == null || external.isEmpty()) {
+      return null;
+    }
+    if (external.size() != dimensions) {
+      throw new IllegalArgumentException(
+          String.format("Expecting %d elements, got %d", dimensions, external.size()));
+    }
+    List<SubtypeT> elements = new ArrayList<>(dimensions);
+    for (E item : external) {
+      elements.add(elementCodec.externalToInternal(item));
+    }
+    return CqlVector.newInstance(elements);
+  }
+
+  @Override
+  public List<E> internalToExternal(CqlVector<SubtypeT> vector) {
+    if (vector == null) {
+      return null;
+    }
+    List<E> result = new ArrayList<>(vector.size());
+    for (SubtypeT element : vector) {
+      result.add(elementCodec.internalToExternal(element));
+    }
+    return result;
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.codecs.jdk.collection;
+
+import static com.datastax.oss.dsbulk.tests.assertions.TestAssertions.assertThat;
+
+import com.datastax.oss.driver.api.core.data.CqlVector;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.VectorType;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.dsbulk.codecs.api.ConvertingCodecFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ListToVectorCodecTest {
+
+  private final VectorType vectorType = DataTypes.vectorOf(DataTypes.FLOAT, 3);
+
+  private final ConvertingCodecFactory codecFactory = new ConvertingCodecFactory();
+
+  @Test
+  void should_convert_when_valid_input() {
+    ListToVectorCodec<Float, Float> codec =
+        (ListToVectorCodec<Float, Float>)
+            codecFactory.<List<Float>, CqlVector<Float>>createConvertingCodec(
+                vectorType, GenericType.listOf(GenericType.FLOAT), true);
+    CqlVector<Float> internal = CqlVector.newInstance(1.1f, 2.2f, 3.3f);
+    List<Float> external = Arrays.asList(1.1f, 2.2f, 3.3f);
+    assertThat(codec)
+        .convertsFromExternal(external)
+        .toInternal(internal)
+        .convertsFromInternal(internal)
+        .toExternal(external)
+        .convertsFromExternal(null)
+        .toInternal(null)
+        .convertsFromExternal(Collections.emptyList())
+        .toInternal(null)
+        .convertsFromInternal(null)
+        .toExternal(null);
+  }
+
+  @Test
+  void should_convert_elements() {
+    ListToVectorCodec<Double, Float> codec =
+        (ListToVectorCodec<Double, Float>)
+            codecFactory.<List<Double>, CqlVector<Float>>createConvertingCodec(
+                vectorType, GenericType.listOf(GenericType.DOUBLE), true);
+    assertThat(codec)
+        .convertsFromExternal(Arrays.asList(1d, 2d, 3d))
+        .toInternal(CqlVector.newInstance(1f, 2f, 3f))
+        .convertsFromInternal(CqlVector.newInstance(1f, 2f, 3f))
+        .toExternal(Arrays.asList(1d, 2d, 3d));
+  }
+
+  @Test
+  void should_not_convert_when_invalid_input() {
+    ListToVectorCodec<Float, Float> codec =
+        (ListToVectorCodec<Float, Float>)
+            codecFactory.<List<Float>, CqlVector<Float>>createConvertingCodec(
+                vectorType, GenericType.listOf(GenericType.FLOAT), true);
+    assertThat(codec).cannotConvertFromExternal(Arrays.asList(1f, 2f));
+  }
+}
@@ -26,7 +26,8 @@ public class TextConversionContext extends CommonConversionContext {
   public static final String OBJECT_MAPPER = "OBJECT_MAPPER";
 
   public TextConversionContext() {
-    addAttribute(OBJECT_MAPPER, JsonCodecUtils.getObjectMapper());
+    // only needed by Json codecs, which many operations never create
+    addLazyAttribute(OBJECT_MAPPER, JsonCodecUtils::getObjectMapper);
   }
 
   public TextConversionContext setObjectMapper(@NonNull ObjectMapper objectMapper) {
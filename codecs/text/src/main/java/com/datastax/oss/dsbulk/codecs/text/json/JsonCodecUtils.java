@@ -16,12 +16,19 @@
 package com.datastax.oss.dsbulk.codecs.text.json;
 
 import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.dsbulk.codecs.api.ConvertingCodec;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.json.JsonReadFeature;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import java.io.IOException;
 import java.math.BigDecimal;
 
 public class JsonCodecUtils {
@@ -56,4 +63,139 @@ public class JsonCodecUtils {
         .enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS)
         .build();
   }
+
+  /**
+   * Parses the given Json text and converts it with the given codec in a single pass over the token
+   * stream.
+   *
+   * <p>This is equivalent to reading the text with {@link ObjectMapper#readTree(String)} and
+   * passing the resulting tree to {@link ConvertingCodec#externalToInternal(Object)}, but codecs
+   * for collections, maps, tuples, UDTs and vectors build their values directly from the parser
+   * tokens instead of walking an intermediate tree.
+   *
+   * @param text The Json text to parse.
+   * @param codec The codec to convert the parsed value with.
+   * @param objectMapper The object mapper to create the parser with.
+   * @param <T> The codec's internal type.
+   * @return The converted value.
+   * @throws IOException If the text is not valid Json.
+   */
+  public static <T> T parse(
+      String text, ConvertingCodec<JsonNode, T> codec, ObjectMapper objectMapper)
+      throws IOException {
+    try (JsonParser parser = objectMapper.createParser(text)) {
+      parser.nextToken();
+      T value = convert(codec, parser);
+      if (objectMapper.isEnabled(DeserializationFeature.FAIL_ON_TRAILING_TOKENS)) {
+        JsonToken trailing = parser.nextToken();
+        if (trailing != null) {
+          throw MismatchedInputException.from(
+              parser,
+              JsonNode.class,
+              String.format("Trailing token (of type %s) found after value", trailing));
+        }
+      }
+      return value;
+    }
+  }
+
+  /**
+   * Converts the Json value the given parser is currently positioned on with the given codec,
+   * streaming through the parser if the codec supports it.
+   *
+   * @param codec The codec to convert the value with.
+   * @param parser The parser, positioned on the first token of the value.
+   * @param <T> The codec's internal type.
+   * @return The converted value.
+   * @throws IOException If the value cannot be read.
+   * @see JsonNodeConvertingCodec#externalToInternal(JsonParser)
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T convert(ConvertingCodec<JsonNode, T> codec, JsonParser parser)
+      throws IOException {
+    if (codec instanceof JsonNodeConvertingCodec) {
+      return ((JsonNodeConvertingCodec<T>) codec).externalToInternal(parser);
+    }
+    return codec.externalToInternal(readNode(parser));
+  }
+
+  /**
+   * Moves the given parser past the remaining tokens of a value that could not be converted, so
+   * that it is positioned on the value's last token again, inside the given enclosing context.
+   *
+   * <p>A codec may fail in the middle of a nested array or object; this allows enclosing codecs to
+   * carry on reading their own elements, e.g. to report schema mismatches first.
+   *
+   * @param parser The parser.
+   * @param context The parsing context of the array or object enclosing the value.
+   * @throws IOException If the value cannot be read.
+   */
+  static void skipRemaining(JsonParser parser, JsonStreamContext context) throws IOException {
+    while (parser.getParsingContext() != context) {
+      if (parser.nextToken() == null) {
+        throw MismatchedInputException.from(parser, JsonNode.class, "Unexpected end of input");
+      }
+    }
+  }
+
+  /**
+   * Reads the Json value the given parser is currently positioned on as a {@link JsonNode}.
+   *
+   * <p>Scalar values are created directly with {@link #JSON_NODE_FACTORY}, honoring the number
+   * coercion features of the parser's object mapper; arrays and objects are read as trees by the
+   * object mapper.
+   *
+   * @param parser The parser, positioned on the first token of the value.
+   * @return The value as a {@link JsonNode}; {@link MissingNode} if there is no value.
+   * @throws IOException If the value cannot be read.
+   */
+  public static JsonNode readNode(JsonParser parser) throws IOException {
+    JsonToken token = parser.currentToken();
+    if (token == null) {
+      return MissingNode.getInstance();
+    }
+    switch (token) {
+      case VALUE_STRING:
+        return JSON_NODE_FACTORY.textNode(parser.getText());
+      case VALUE_TRUE:
+        return JSON_NODE_FACTORY.booleanNode(true);
+      case VALUE_FALSE:
+        return JSON_NODE_FACTORY.booleanNode(false);
+      case VALUE_NULL:
+        return JSON_NODE_FACTORY.nullNode();
+      case VALUE_NUMBER_INT:
+        if (!isEnabled(parser, DeserializationFeature.USE_BIG_INTEGER_FOR_INTS)
+            && !isEnabled(parser, DeserializationFeature.USE_LONG_FOR_INTS)) {
+          switch (parser.getNumberType()) {
+            case INT:
+              return JSON_NODE_FACTORY.numberNode(parser.getIntValue());
+            case LONG:
+              return JSON_NODE_FACTORY.numberNode(parser.getLongValue());
+            default:
+              return JSON_NODE_FACTORY.numberNode(parser.getBigIntegerValue());
+          }
+        }
+        break;
+      case VALUE_NUMBER_FLOAT:
+        if (!isEnabled(parser, DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)) {
+          switch (parser.getNumberType()) {
+            case BIG_DECIMAL:
+              return JSON_NODE_FACTORY.numberNode(parser.getDecimalValue());
+            case FLOAT:
+              return JSON_NODE_FACTORY.numberNode(parser.getFloatValue());
+            default:
+              return JSON_NODE_FACTORY.numberNode(parser.getDoubleValue());
+          }
+        }
+        break;
+      default:
+        break;
+    }
+    return parser.readValueAsTree();
+  }
+
+  private static boolean isEnabled(JsonParser parser, DeserializationFeature feature) {
+    return parser.getCodec() instanceof ObjectMapper
+        && ((ObjectMapper) parser.getCodec()).isEnabled(feature);
+  }
 }
@@ -17,7 +17,9 @@ package com.datastax.oss.dsbulk.codecs.text.json;
 
 import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
 import com.datastax.oss.dsbulk.codecs.api.ConvertingCodec;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
 import java.util.List;
 
 public abstract class JsonNodeConvertingCodec<T> extends ConvertingCodec<JsonNode, T> {
@@ -29,6 +31,25 @@ public abstract class JsonNodeConvertingCodec<T> extends ConvertingCodec<JsonNod
     this.nullStrings = nullStrings;
   }
 
+  /**
+   * Converts the Json value the given parser is currently positioned on.
+   *
+   * <p>When this method returns, the parser is positioned on the last token of the value: the value
+   * token itself for scalars, or the matching end token for arrays and objects.
+   *
+   * <p>The default implementation reads the value as a {@link JsonNode} and delegates to {@link
+   * #externalToInternal(Object)}. Codecs for collections, maps, tuples, UDTs and vectors override
+   * it to build their internal value directly from the token stream, without materializing an
+   * intermediate tree.
+   *
+   * @param parser the parser, positioned on the first token of the value to convert.
+   * @return the value's internal form.
+   * @throws IOException if the value cannot be read.
+   */
+  public T externalToInternal(JsonParser parser) throws IOException {
+    return externalToInternal(JsonCodecUtils.readNode(parser));
+  }
+
   /**
    * Whether the input is null.
    *
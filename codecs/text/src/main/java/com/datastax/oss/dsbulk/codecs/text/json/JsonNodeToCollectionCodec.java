@@ -17,9 +17,12 @@ package com.datastax.oss.dsbulk.codecs.text.json;
 
 import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
 import com.datastax.oss.dsbulk.codecs.api.ConvertingCodec;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -67,6 +70,21 @@ public abstract class JsonNodeToCollectionCodec<E, C extends Collection<E>>
     return collection;
   }
 
+  @Override
+  public C externalToInternal(JsonParser parser) throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      return super.externalToInternal(parser);
+    }
+    if (parser.nextToken() == JsonToken.END_ARRAY) {
+      return emptyCollection;
+    }
+    C collection = collectionSupplier.get();
+    do {
+      collection.add(JsonCodecUtils.convert(eltCodec, parser));
+    } while (parser.nextToken() != JsonToken.END_ARRAY);
+    return collection;
+  }
+
   @Override
   public JsonNode internalToExternal(C value) {
     if (value == null) {
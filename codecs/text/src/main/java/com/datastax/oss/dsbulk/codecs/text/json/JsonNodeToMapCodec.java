@@ -18,9 +18,12 @@ package com.datastax.oss.dsbulk.codecs.text.json;
 import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
 import com.datastax.oss.dsbulk.codecs.api.ConvertingCodec;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -68,6 +71,23 @@ public class JsonNodeToMapCodec<K, V> extends JsonNodeConvertingCodec<Map<K, V>>
     return map;
   }
 
+  @Override
+  public Map<K, V> externalToInternal(JsonParser parser) throws IOException {
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      return super.externalToInternal(parser);
+    }
+    if (parser.nextToken() == JsonToken.END_OBJECT) {
+      return emptyMap;
+    }
+    Map<K, V> map = new LinkedHashMap<>();
+    do {
+      K key = keyCodec.externalToInternal(parser.getCurrentName());
+      parser.nextToken();
+      map.put(key, JsonCodecUtils.convert(valueCodec, parser));
+    } while (parser.nextToken() != JsonToken.END_OBJECT);
+    return map;
+  }
+
   @Override
   public JsonNode internalToExternal(Map<K, V> map) {
     if (map == null) {
@@ -19,9 +19,13 @@ import com.datastax.oss.driver.api.core.data.TupleValue;
 import com.datastax.oss.driver.api.core.type.TupleType;
 import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
 import com.datastax.oss.dsbulk.codecs.api.ConvertingCodec;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import java.io.IOException;
 import java.util.List;
 
 public class JsonNodeToTupleCodec extends JsonNodeConvertingCodec<TupleValue> {
@@ -57,12 +61,7 @@ public class JsonNodeToTupleCodec extends JsonNodeConvertingCodec<TupleValue> {
     }
     int tupleSize = definition.getComponentTypes().size();
     int nodeSize = node.size();
-    if (nodeSize > tupleSize && !allowExtraFields) {
-      throw JsonSchemaMismatchException.arraySizeGreaterThanTupleSize(tupleSize, nodeSize);
-    }
-    if (nodeSize < tupleSize && !allowMissingFields) {
-      throw JsonSchemaMismatchException.arraySizeLesserThanTupleSize(tupleSize, nodeSize);
-    }
+    checkArraySize(tupleSize, nodeSize);
     TupleValue tuple = definition.newValue();
     for (int i = 0; i < tupleSize && i < nodeSize; i++) {
       ConvertingCodec<JsonNode, Object> eltCodec = eltCodecs.get(i);
@@ -72,6 +71,47 @@ public class JsonNodeToTupleCodec extends JsonNodeConvertingCodec<TupleValue> {
     return tuple;
   }
 
+  @Override
+  public TupleValue externalToInternal(JsonParser parser) throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      return super.externalToInternal(parser);
+    }
+    JsonStreamContext context = parser.getParsingContext();
+    int tupleSize = definition.getComponentTypes().size();
+    TupleValue tuple = definition.newValue();
+    RuntimeException conversionError = null;
+    int i = 0;
+    for (; parser.nextToken() != JsonToken.END_ARRAY; i++) {
+      if (i < tupleSize && conversionError == null) {
+        ConvertingCodec<JsonNode, Object> eltCodec = eltCodecs.get(i);
+        try {
+          Object o = JsonCodecUtils.convert(eltCodec, parser);
+          tuple = tuple.set(i, o, eltCodec.getInternalJavaType());
+        } catch (RuntimeException e) {
+          conversionError = e;
+          JsonCodecUtils.skipRemaining(parser, context);
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+    // size errors take precedence over element errors, as when converting a tree
+    checkArraySize(tupleSize, i);
+    if (conversionError != null) {
+      throw conversionError;
+    }
+    return tuple;
+  }
+
+  private void checkArraySize(int tupleSize, int nodeSize) {
+    if (nodeSize > tupleSize && !allowExtraFields) {
+      throw JsonSchemaMismatchException.arraySizeGreaterThanTupleSize(tupleSize, nodeSize);
+    }
+    if (nodeSize < tupleSize && !allowMissingFields) {
+      throw JsonSchemaMismatchException.arraySizeLesserThanTupleSize(tupleSize, nodeSize);
+    }
+  }
+
   @Override
   public JsonNode internalToExternal(TupleValue tuple) {
     if (tuple == null) {
@@ -22,9 +22,13 @@ import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
 import com.datastax.oss.driver.shaded.guava.common.collect.Iterators;
 import com.datastax.oss.driver.shaded.guava.common.collect.Sets;
 import com.datastax.oss.dsbulk.codecs.api.ConvertingCodec;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -36,6 +40,7 @@ public class JsonNodeToUDTCodec extends JsonNodeConvertingCodec<UdtValue> {
 
   private final Map<CqlIdentifier, ConvertingCodec<JsonNode, Object>> fieldCodecs;
   private final UserDefinedType definition;
+  private final Set<String> udtFieldNames;
   private final ObjectMapper objectMapper;
   private final boolean allowExtraFields;
   private final boolean allowMissingFields;
@@ -50,6 +55,10 @@ public class JsonNodeToUDTCodec extends JsonNodeConvertingCodec<UdtValue> {
     super(udtCodec, nullStrings);
     this.fieldCodecs = fieldCodecs;
     definition = (UserDefinedType) udtCodec.getCqlType();
+    udtFieldNames =
+        definition.getFieldNames().stream()
+            .map(CqlIdentifier::asInternal)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
     this.objectMapper = objectMapper;
     this.allowExtraFields = allowExtraFields;
     this.allowMissingFields = allowMissingFields;
@@ -93,13 +102,82 @@ public class JsonNodeToUDTCodec extends JsonNodeConvertingCodec<UdtValue> {
     return value;
   }
 
+  @Override
+  public UdtValue externalToInternal(JsonParser parser) throws IOException {
+    JsonToken token = parser.currentToken();
+    if (token == JsonToken.START_OBJECT) {
+      JsonStreamContext context = parser.getParsingContext();
+      UdtValue value = definition.newValue();
+      Set<String> nodeFieldNames = new LinkedHashSet<>();
+      RuntimeException conversionError = null;
+      while (parser.nextToken() != JsonToken.END_OBJECT) {
+        String name = parser.getCurrentName();
+        nodeFieldNames.add(name);
+        parser.nextToken();
+        CqlIdentifier field = CqlIdentifier.fromInternal(name);
+        ConvertingCodec<JsonNode, Object> fieldCodec = fieldCodecs.get(field);
+        if (fieldCodec == null || conversionError != null) {
+          parser.skipChildren();
+        } else {
+          try {
+            Object o = JsonCodecUtils.convert(fieldCodec, parser);
+            value = value.set(field, o, fieldCodec.getInternalJavaType());
+          } catch (RuntimeException e) {
+            conversionError = e;
+            JsonCodecUtils.skipRemaining(parser, context);
+          }
+        }
+      }
+      // field name errors take precedence over field errors, as when converting a tree
+      if (!nodeFieldNames.isEmpty() || !allowMissingFields) {
+        checkFieldNames(nodeFieldNames);
+      }
+      if (conversionError != null) {
+        throw conversionError;
+      }
+      return value;
+    }
+    if (token == JsonToken.START_ARRAY) {
+      JsonStreamContext context = parser.getParsingContext();
+      UdtValue value = definition.newValue();
+      // The field iteration order is deterministic
+      Iterator<CqlIdentifier> fields = definition.getFieldNames().iterator();
+      RuntimeException conversionError = null;
+      int i = 0;
+      for (; parser.nextToken() != JsonToken.END_ARRAY; i++) {
+        if (fields.hasNext() && conversionError == null) {
+          CqlIdentifier field = fields.next();
+          ConvertingCodec<JsonNode, Object> fieldCodec = fieldCodecs.get(field);
+          try {
+            Object o = JsonCodecUtils.convert(fieldCodec, parser);
+            value = value.set(i, o, fieldCodec.getInternalJavaType());
+          } catch (RuntimeException e) {
+            conversionError = e;
+            JsonCodecUtils.skipRemaining(parser, context);
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+      // size errors take precedence over element errors, as when converting a tree
+      if (i > 0 || !allowMissingFields) {
+        checkArraySize(i);
+      }
+      if (conversionError != null) {
+        throw conversionError;
+      }
+      return value;
+    }
+    return super.externalToInternal(parser);
+  }
+
   private void checkJsonObject(JsonNode node) {
-    Set<String> udtFieldNames =
-        definition.getFieldNames().stream()
-            .map(CqlIdentifier::asInternal)
-            .collect(Collectors.toCollection(LinkedHashSet::new));
     Set<String> nodeFieldNames = new LinkedHashSet<>();
     Iterators.addAll(nodeFieldNames, node.fieldNames());
+    checkFieldNames(nodeFieldNames);
+  }
+
+  private void checkFieldNames(Set<String> nodeFieldNames) {
     if (!udtFieldNames.equals(nodeFieldNames)) {
       Set<String> extraneous = Sets.difference(nodeFieldNames, udtFieldNames);
       Set<String> missing = Sets.difference(udtFieldNames, nodeFieldNames);
@@ -116,8 +194,11 @@ public class JsonNodeToUDTCodec extends JsonNodeConvertingCodec<UdtValue> {
   }
 
   private void checkJsonArray(JsonNode node) {
+    checkArraySize(node.size());
+  }
+
+  private void checkArraySize(int nodeSize) {
     int udtSize = definition.getFieldNames().size();
-    int nodeSize = node.size();
     if (nodeSize > udtSize && !allowExtraFields) {
       throw JsonSchemaMismatchException.arraySizeGreaterThanUDTSize(udtSize, nodeSize);
     }
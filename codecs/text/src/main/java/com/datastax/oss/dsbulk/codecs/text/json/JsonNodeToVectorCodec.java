@@ -19,9 +19,12 @@ import com.datastax.oss.driver.api.core.data.CqlVector;
 import com.datastax.oss.driver.internal.core.type.codec.VectorCodec;
 import com.datastax.oss.driver.shaded.guava.common.collect.Streams;
 import com.datastax.oss.dsbulk.codecs.api.ConvertingCodec;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -52,6 +55,18 @@ public class JsonNodeToVectorCodec<SubtypeT extends Number>
     return CqlVector.newInstance(elems);
   }
 
+  @Override
+  public CqlVector<SubtypeT> externalToInternal(JsonParser parser) throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      return super.externalToInternal(parser);
+    }
+    List<SubtypeT> elems = new ArrayList<>();
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      elems.add(JsonCodecUtils.convert(subtypeCodec, parser));
+    }
+    return CqlVector.newInstance(elems);
+  }
+
   @Override
   public JsonNode internalToExternal(CqlVector<SubtypeT> value) {
     if (value == null) return null;
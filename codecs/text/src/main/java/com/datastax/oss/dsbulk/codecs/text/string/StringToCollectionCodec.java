@@ -16,6 +16,7 @@
 package com.datastax.oss.dsbulk.codecs.text.string;
 
 import com.datastax.oss.dsbulk.codecs.api.ConvertingCodec;
+import com.datastax.oss.dsbulk.codecs.text.json.JsonCodecUtils;
 import com.datastax.oss.dsbulk.codecs.text.utils.StringUtils;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -43,8 +44,7 @@ public abstract class StringToCollectionCodec<E, C extends Collection<E>>
       return null;
     }
     try {
-      JsonNode node = objectMapper.readTree(StringUtils.ensureBrackets(s));
-      return jsonCodec.externalToInternal(node);
+      return JsonCodecUtils.parse(StringUtils.ensureBrackets(s), jsonCodec, objectMapper);
     } catch (IOException e) {
       throw new IllegalArgumentException(String.format("Could not parse '%s' as Json", s), e);
     }
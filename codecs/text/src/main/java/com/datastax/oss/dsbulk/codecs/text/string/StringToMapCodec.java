@@ -16,6 +16,7 @@
 package com.datastax.oss.dsbulk.codecs.text.string;
 
 import com.datastax.oss.dsbulk.codecs.api.ConvertingCodec;
+import com.datastax.oss.dsbulk.codecs.text.json.JsonCodecUtils;
 import com.datastax.oss.dsbulk.codecs.text.utils.StringUtils;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -44,8 +45,7 @@ public class StringToMapCodec<K, V> extends StringConvertingCodec<Map<K, V>> {
       return null;
     }
     try {
-      JsonNode node = objectMapper.readTree(StringUtils.ensureBraces(s));
-      return jsonCodec.externalToInternal(node);
+      return JsonCodecUtils.parse(StringUtils.ensureBraces(s), jsonCodec, objectMapper);
     } catch (IOException e) {
       throw new IllegalArgumentException(String.format("Could not parse '%s' as Json", s), e);
     }
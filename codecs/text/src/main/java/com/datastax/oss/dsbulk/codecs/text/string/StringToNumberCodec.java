@@ -16,6 +16,7 @@
 package com.datastax.oss.dsbulk.codecs.text.string;
 
 import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.dsbulk.codecs.api.format.number.ToStringNumberFormat;
 import com.datastax.oss.dsbulk.codecs.api.format.temporal.TemporalFormat;
 import com.datastax.oss.dsbulk.codecs.api.util.CodecUtils;
 import com.datastax.oss.dsbulk.codecs.api.util.OverflowStrategy;
@@ -72,6 +73,14 @@ public abstract class StringToNumberCodec<N extends Number> extends StringConver
     return CodecUtils.formatNumber(value, numberFormat.get());
   }
 
+  /**
+   * Whether numbers are formatted with {@link Number#toString()}; if so, subclasses can format them
+   * straight from their binary form, without going through the internal codec.
+   */
+  boolean isToStringFormat() {
+    return numberFormat.get() instanceof ToStringNumberFormat;
+  }
+
   Number parseNumber(String s) {
     if (isNullOrEmpty(s)) {
       return null;
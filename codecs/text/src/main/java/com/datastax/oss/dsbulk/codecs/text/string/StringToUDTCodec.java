@@ -17,6 +17,7 @@ package com.datastax.oss.dsbulk.codecs.text.string;
 
 import com.datastax.oss.driver.api.core.data.UdtValue;
 import com.datastax.oss.dsbulk.codecs.api.ConvertingCodec;
+import com.datastax.oss.dsbulk.codecs.text.json.JsonCodecUtils;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -43,8 +44,7 @@ public class StringToUDTCodec extends StringConvertingCodec<UdtValue> {
       return null;
     }
     try {
-      JsonNode node = objectMapper.readTree(s);
-      return jsonCodec.externalToInternal(node);
+      return JsonCodecUtils.parse(s, jsonCodec, objectMapper);
     } catch (IOException e) {
       throw new IllegalArgumentException(String.format("Could not parse '%s' as Json", s), e);
     }
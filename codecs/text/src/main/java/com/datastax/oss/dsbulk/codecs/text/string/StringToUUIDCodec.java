@@ -15,16 +15,30 @@
  */
 package com.datastax.oss.dsbulk.codecs.text.string;
 
+import com.datastax.oss.driver.api.core.ProtocolVersion;
 import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
 import com.datastax.oss.dsbulk.codecs.api.ConvertingCodec;
 import com.datastax.oss.dsbulk.codecs.api.util.CodecUtils;
 import com.datastax.oss.dsbulk.codecs.api.util.TimeUUIDGenerator;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.netty.util.concurrent.FastThreadLocal;
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
 public class StringToUUIDCodec extends StringConvertingCodec<UUID> {
 
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private static final FastThreadLocal<char[]> UUID_CHARS =
+      new FastThreadLocal<char[]>() {
+        @Override
+        protected char[] initialValue() {
+          return new char[36];
+        }
+      };
+
   private final ConvertingCodec<String, Instant> instantCodec;
   private final TimeUUIDGenerator generator;
 
@@ -53,4 +67,25 @@ public class StringToUUIDCodec extends StringConvertingCodec<UUID> {
     }
     return value.toString();
   }
+
+  @Override
+  public String decode(ByteBuffer bytes, @NonNull ProtocolVersion protocolVersion) {
+    // format the UUID straight from its binary form, into a reusable buffer, without creating
+    // a UUID instance; the result is identical to UUID.toString()
+    if (bytes != null && bytes.remaining() == 16) {
+      char[] chars = UUID_CHARS.get();
+      int pos = bytes.position();
+      int c = 0;
+      for (int i = 0; i < 16; i++) {
+        if (i == 4 || i == 6 || i == 8 || i == 10) {
+          chars[c++] = '-';
+        }
+        byte b = bytes.get(pos + i);
+        chars[c++] = HEX_DIGITS[(b >> 4) & 0xF];
+        chars[c++] = HEX_DIGITS[b & 0xF];
+      }
+      return new String(chars);
+    }
+    return super.decode(bytes, protocolVersion);
+  }
 }
@@ -17,6 +17,8 @@ package com.datastax.oss.dsbulk.codecs.text.string;
 
 import static com.datastax.oss.dsbulk.tests.assertions.TestAssertions.assertThat;
 
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
 import com.datastax.oss.driver.shaded.guava.common.collect.Lists;
 import java.util.Map;
@@ -67,4 +69,17 @@ class StringToBooleanCodecTest {
   void should_not_convert_from_invalid_external() {
     assertThat(codec).cannotConvertFromExternal("not a valid boolean");
   }
+
+  @Test
+  void should_format_from_binary_form() {
+    assertThat(
+            codec.decode(
+                TypeCodecs.BOOLEAN.encode(true, ProtocolVersion.DEFAULT), ProtocolVersion.DEFAULT))
+        .isEqualTo("foo");
+    assertThat(
+            codec.decode(
+                TypeCodecs.BOOLEAN.encode(false, ProtocolVersion.DEFAULT), ProtocolVersion.DEFAULT))
+        .isEqualTo("bar");
+    assertThat(codec.decode(null, ProtocolVersion.DEFAULT)).isEqualTo("NULL");
+  }
 }
@@ -17,7 +17,9 @@ package com.datastax.oss.dsbulk.codecs.text.string;
 
 import static com.datastax.oss.dsbulk.tests.assertions.TestAssertions.assertThat;
 
+import com.datastax.oss.driver.api.core.ProtocolVersion;
 import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
 import com.datastax.oss.driver.api.core.type.reflect.GenericType;
 import com.datastax.oss.dsbulk.codecs.api.ConversionContext;
 import com.datastax.oss.dsbulk.codecs.api.ConvertingCodecFactory;
@@ -156,4 +158,25 @@ class StringToIntegerCodecTest {
         .cannotConvertFromExternal("2000-01-01T00:00:00Z") // overflow
     ;
   }
+
+  @Test
+  void should_format_from_binary_form() {
+    assertThat(
+            codec1.decode(
+                TypeCodecs.INT.encode(0, ProtocolVersion.DEFAULT), ProtocolVersion.DEFAULT))
+        .isEqualTo("0");
+    assertThat(
+            codec1.decode(
+                TypeCodecs.INT.encode(Integer.MIN_VALUE, ProtocolVersion.DEFAULT),
+                ProtocolVersion.DEFAULT))
+        .isEqualTo("-2147483648");
+    assertThat(codec1.decode(null, ProtocolVersion.DEFAULT)).isNull();
+    // custom format: the codec path is used
+    assertThat(
+            codec2.decode(
+                TypeCodecs.INT.encode(Integer.MAX_VALUE, ProtocolVersion.DEFAULT),
+                ProtocolVersion.DEFAULT))
+        .isEqualTo("2,147,483,647");
+    assertThat(codec2.decode(null, ProtocolVersion.DEFAULT)).isEqualTo("NULL");
+  }
 }
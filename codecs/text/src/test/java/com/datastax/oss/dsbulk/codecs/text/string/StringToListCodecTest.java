@@ -33,6 +33,7 @@ class StringToListCodecTest {
   private StringToListCodec<Double> codec1;
   private StringToListCodec<Instant> codec2;
   private StringToListCodec<String> codec3;
+  private StringToListCodec<List<Integer>> codec4;
 
   private Instant i1 = Instant.parse("2016-07-24T20:34:12.999Z");
   private Instant i2 = Instant.parse("2018-05-25T18:34:12.999Z");
@@ -53,6 +54,10 @@ class StringToListCodecTest {
         (StringToListCodec<String>)
             codecFactory.<String, List<String>>createConvertingCodec(
                 DataTypes.listOf(DataTypes.TEXT), GenericType.STRING, true);
+    codec4 =
+        (StringToListCodec<List<Integer>>)
+            codecFactory.<String, List<List<Integer>>>createConvertingCodec(
+                DataTypes.listOf(DataTypes.listOf(DataTypes.INT)), GenericType.STRING, true);
   }
 
   @Test
@@ -135,6 +140,17 @@ class StringToListCodecTest {
         .toInternal(null);
   }
 
+  @Test
+  void should_convert_nested_collections_from_valid_external() {
+    assertThat(codec4)
+        .convertsFromExternal("[[1,2],[3]]")
+        .toInternal(Lists.newArrayList(Lists.newArrayList(1, 2), Lists.newArrayList(3)))
+        .convertsFromExternal("[[1,2],[]]")
+        .toInternal(Lists.newArrayList(Lists.newArrayList(1, 2), Lists.newArrayList()))
+        .convertsFromExternal("[[\"1\",null],null]")
+        .toInternal(Lists.newArrayList(Lists.newArrayList(1, null), null));
+  }
+
   @Test
   void should_convert_from_valid_internal() {
     assertThat(codec1)
@@ -176,6 +192,12 @@ class StringToListCodecTest {
 
   @Test
   void should_not_convert_from_invalid_external() {
-    assertThat(codec1).cannotConvertFromExternal("[1,\"not a valid double\"]");
+    assertThat(codec1)
+        .cannotConvertFromExternal("[1,\"not a valid double\"]")
+        .cannotConvertFromExternal("[1,2]]")
+        .cannotConvertFromExternal("[1,2");
+    assertThat(codec4)
+        .cannotConvertFromExternal("[[1,2],3]")
+        .cannotConvertFromExternal("[[1,\"not a valid int\"]]");
   }
 }
@@ -17,7 +17,9 @@ package com.datastax.oss.dsbulk.codecs.text.string;
 
 import static com.datastax.oss.dsbulk.tests.assertions.TestAssertions.assertThat;
 
+import com.datastax.oss.driver.api.core.ProtocolVersion;
 import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
 import com.datastax.oss.driver.api.core.type.reflect.GenericType;
 import com.datastax.oss.dsbulk.codecs.api.ConversionContext;
 import com.datastax.oss.dsbulk.codecs.api.ConvertingCodecFactory;
@@ -90,4 +92,23 @@ class StringToLongCodecTest {
         .cannotConvertFromExternal("9223372036854775808")
         .cannotConvertFromExternal("-9223372036854775809");
   }
+
+  @Test
+  void should_format_from_binary_form() {
+    StringToLongCodec plain =
+        (StringToLongCodec)
+            new ConvertingCodecFactory(new TextConversionContext())
+                .<String, Long>createConvertingCodec(DataTypes.BIGINT, GenericType.STRING, true);
+    assertThat(
+            plain.decode(
+                TypeCodecs.BIGINT.encode(Long.MIN_VALUE, ProtocolVersion.DEFAULT),
+                ProtocolVersion.DEFAULT))
+        .isEqualTo("-9223372036854775808");
+    // custom format: the codec path is used
+    assertThat(
+            codec.decode(
+                TypeCodecs.BIGINT.encode(Long.MAX_VALUE, ProtocolVersion.DEFAULT),
+                ProtocolVersion.DEFAULT))
+        .isEqualTo("9,223,372,036,854,775,807");
+  }
 }
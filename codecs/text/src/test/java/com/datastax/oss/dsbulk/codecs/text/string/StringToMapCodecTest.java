@@ -99,7 +99,12 @@ class StringToMapCodecTest {
     assertThat(codec)
         .cannotConvertFromExternal("{\"not a valid input\":\"foo\"}")
         .cannotConvertFromExternal("[1,\"not a valid object\"]")
-        .cannotConvertFromExternal("42");
+        .cannotConvertFromExternal("42")
+        .cannotConvertFromExternal("{1:[\"foo\"],2:[42,[\"bar\"]]}")
+        // malformed Json
+        .cannotConvertFromExternal("{1:[\"foo\"]")
+        .cannotConvertFromExternal("{1:[\"foo\"]}}")
+        .cannotConvertFromExternal("{1:[\"foo\",2:[\"bar\"]}");
   }
 
   private static Map<Double, List<String>> map(
@@ -16,6 +16,7 @@
 package com.datastax.oss.dsbulk.codecs.text.string;
 
 import static com.datastax.oss.dsbulk.tests.assertions.TestAssertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.datastax.oss.driver.api.core.DefaultProtocolVersion;
 import com.datastax.oss.driver.api.core.data.TupleValue;
@@ -28,6 +29,7 @@ import com.datastax.oss.dsbulk.codecs.api.ConvertingCodecFactory;
 import com.datastax.oss.dsbulk.codecs.text.TextConversionContext;
 import com.datastax.oss.dsbulk.tests.driver.DriverUtils;
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -145,5 +147,28 @@ class StringToTupleCodecTest {
         .cannotConvertFromExternal("[]");
     // should not allow extra elements
     assertThat(codec3).cannotConvertFromExternal("[\"2016-07-24T20:34:12.999Z\",\"+01:00\",42]");
+    // malformed Json
+    assertThat(codec1)
+        .cannotConvertFromExternal("[\"2016-07-24T20:34:12.999Z\",\"+01:00\"")
+        .cannotConvertFromExternal("[\"2016-07-24T20:34:12.999Z\",\"+01:00\"]]")
+        .cannotConvertFromExternal("[\"not a valid timestamp\",[\"+01:00\"");
+  }
+
+  @Test
+  void should_report_size_mismatch_before_element_errors() {
+    assertThatThrownBy(() -> codec1.externalToInternal("[\"not a valid timestamp\"]"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("expecting 2 elements, got 1");
+    assertThatThrownBy(
+            () -> codec1.externalToInternal("[\"not a valid timestamp\",\"+01:00\",[[42],{}]]"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("expecting 2 elements, got 3");
+    assertThatThrownBy(() -> codec3.externalToInternal("[\"not a valid timestamp\",\"+01:00\",42]"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("expecting 2 elements, got 3");
+    // element errors are reported when the size matches
+    assertThatThrownBy(() -> codec1.externalToInternal("[\"not a valid timestamp\",\"+01:00\"]"))
+        .isInstanceOf(DateTimeParseException.class)
+        .hasMessageNotContaining("expecting 2 elements");
   }
 }
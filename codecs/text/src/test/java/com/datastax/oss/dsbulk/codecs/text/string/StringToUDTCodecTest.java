@@ -16,6 +16,7 @@
 package com.datastax.oss.dsbulk.codecs.text.string;
 
 import static com.datastax.oss.dsbulk.tests.assertions.TestAssertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.datastax.oss.driver.api.core.data.UdtValue;
 import com.datastax.oss.driver.api.core.type.DataTypes;
@@ -27,6 +28,7 @@ import com.datastax.oss.dsbulk.codecs.api.ConversionContext;
 import com.datastax.oss.dsbulk.codecs.api.ConvertingCodecFactory;
 import com.datastax.oss.dsbulk.codecs.text.TextConversionContext;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -211,6 +213,44 @@ class StringToUDTCodecTest {
     assertThat(udtCodec4)
         .cannotConvertFromExternal("{\"f1\":42,\"f2\":42,\"f3\":42}")
         .cannotConvertFromExternal("[42,42,42]");
+    // malformed Json
+    assertThat(udtCodec2)
+        .cannotConvertFromExternal("{\"f2a\":{\"F1A\":42,\"f1b\":{}},\"f2b\":[\"2017-09-22\"]")
+        .cannotConvertFromExternal("{\"f2a\":{\"F1A\":42,\"f1b\":{}},\"f2b\":[\"2017-09-22\"]}}")
+        .cannotConvertFromExternal("{\"f2b\":[\"not a valid date\",{\"f2a\":42}");
+  }
+
+  @Test
+  void should_report_schema_mismatch_before_field_errors() {
+    // the nested list fails on its first element, and the extraneous field comes after it
+    assertThatThrownBy(
+            () ->
+                udtCodec2.externalToInternal(
+                    "{\"f2b\":[\"not a valid date\",\"2017-09-22\"],"
+                        + "\"f2a\":{\"F1A\":42,\"f1b\":{}},\"f3\":[42]}"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("found 1 extraneous field: 'f3'");
+    assertThatThrownBy(
+            () ->
+                udtCodec2.externalToInternal("{\"f2a\":{\"F1A\":\"not a valid int\",\"f1b\":{}}}"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("found 1 missing field: 'f2b'");
+    assertThatThrownBy(
+            () ->
+                udtCodec2.externalToInternal(
+                    "[{\"F1A\":42,\"f1b\":{\"foo\":\"not a valid double\"}},[\"2017-09-22\"],42]"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("expecting 2 elements, got 3");
+    assertThatThrownBy(() -> udtCodec4.externalToInternal("[\"not a valid int\",42,42]"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("expecting 2 elements, got 3");
+    // field errors are reported when the fields match
+    assertThatThrownBy(
+            () ->
+                udtCodec2.externalToInternal(
+                    "{\"f2a\":{\"F1A\":42,\"f1b\":{}},\"f2b\":[\"not a valid date\"]}"))
+        .isInstanceOf(DateTimeParseException.class)
+        .hasMessageNotContaining("does not match UDT definition");
   }
 
   @SuppressWarnings("SameParameterValue")
@@ -22,6 +22,7 @@ import static java.time.ZoneOffset.UTC;
 import static java.util.Locale.US;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
+import com.datastax.oss.driver.api.core.ProtocolVersion;
 import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
 import com.datastax.oss.driver.api.core.uuid.Uuids;
 import com.datastax.oss.driver.shaded.guava.common.collect.Lists;
@@ -115,4 +116,22 @@ class StringToUUIDCodecTest {
   void should_not_convert_from_invalid_external() {
     assertThat(codec).cannotConvertFromExternal("not a valid UUID");
   }
+
+  @Test
+  void should_format_from_binary_form() {
+    for (UUID uuid :
+        new UUID[] {
+          UUID.fromString("a15341ec-ebef-4eab-b91d-ff16bf801a79"),
+          UUID.fromString("00000000-0000-0000-0000-000000000000"),
+          UUID.fromString("ffffffff-ffff-ffff-ffff-ffffffffffff"),
+          Uuids.timeBased()
+        }) {
+      assertThat(
+              codec.decode(
+                  TypeCodecs.UUID.encode(uuid, ProtocolVersion.DEFAULT), ProtocolVersion.DEFAULT))
+          .isEqualTo(uuid.toString());
+    }
+    assertThat(codec.decode(null, ProtocolVersion.DEFAULT))
+        .isEqualTo(codec.internalToExternal(null));
+  }
 }
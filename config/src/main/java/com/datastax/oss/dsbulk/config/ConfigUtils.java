@@ -164,13 +164,30 @@ public class ConfigUtils {
    */
   @NonNull
   public static Config createApplicationConfig(@Nullable Path appConfigPath) {
+    return createApplicationConfig(appConfigPath, createReferenceConfig());
+  }
+
+  /**
+   * Creates an unresolved application config for DSBulk, optionally pulling application settings
+   * from the given alternate location, on top of the given reference config.
+   *
+   * <p>This is equivalent to {@link #createApplicationConfig(Path)}, but avoids parsing the
+   * reference config again when the caller already has it at hand.
+   *
+   * @param appConfigPath An alternate location for the application settings, or null to use the
+   *     default application resources.
+   * @param referenceConfig The reference config, as returned by {@link #createReferenceConfig()}.
+   * @return an unresolved application config for DSBulk.
+   */
+  @NonNull
+  public static Config createApplicationConfig(
+      @Nullable Path appConfigPath, @NonNull Config referenceConfig) {
     try {
       if (appConfigPath != null) {
         // If the user specified the -f option (giving us an app config path),
         // set the config.file property to tell TypeSafeConfig.
         System.setProperty("config.file", appConfigPath.toString());
       }
-      Config referenceConfig = createReferenceConfig();
       return ConfigFactory.defaultOverrides()
           .withFallback(ConfigFactory.defaultApplication())
           .withFallback(referenceConfig);
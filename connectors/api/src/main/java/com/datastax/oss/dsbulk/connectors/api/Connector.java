@@ -17,6 +17,7 @@ package com.datastax.oss.dsbulk.connectors.api;
 
 import com.typesafe.config.Config;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Set;
 import java.util.function.Function;
 import org.reactivestreams.Publisher;
 
@@ -182,6 +183,20 @@ public interface Connector extends AutoCloseable {
     return false;
   }
 
+  /**
+   * Informs the connector of the fields that the operation actually consumes.
+   *
+   * <p>Connectors that store fields separately, such as columnar formats, may use this information
+   * to avoid reading fields that would be discarded anyway. Fields not included in the given set
+   * may then be absent from emitted records. This method is only invoked when reading, after the
+   * connector is {@link #init() initialized} and before {@link #read()} is called; it is not
+   * invoked at all if extra fields are not allowed, since every field must then be inspected. The
+   * default implementation does nothing.
+   *
+   * @param fields the fields consumed by the operation.
+   */
+  default void setProjectedFields(@NonNull Set<Field> fields) {}
+
   /**
    * Returns metadata about the records that this connector can read or write.
    *
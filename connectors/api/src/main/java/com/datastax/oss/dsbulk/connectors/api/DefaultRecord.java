@@ -86,6 +86,7 @@ public class DefaultRecord extends LinkedHashMap<Field, Object> implements Recor
   private final Object source;
   private final URI resource;
   private final long position;
+  private long endOffset = -1;
 
   /**
    * Creates an empty record.
@@ -149,6 +150,20 @@ public class DefaultRecord extends LinkedHashMap<Field, Object> implements Recor
     return position;
   }
 
+  @Override
+  public long getEndOffset() {
+    return endOffset;
+  }
+
+  /**
+   * Sets the byte offset at which this record ends inside its resource.
+   *
+   * @param endOffset the record's end offset, or -1 if unknown.
+   */
+  public void setEndOffset(long endOffset) {
+    this.endOffset = endOffset;
+  }
+
   @NonNull
   @Override
   public Set<Field> fields() {
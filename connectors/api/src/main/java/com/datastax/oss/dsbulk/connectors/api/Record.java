@@ -66,6 +66,20 @@ public interface Record {
    */
   long getPosition();
 
+  /**
+   * Returns the byte offset, inside its {@linkplain #getResource() resource}, at which this record
+   * ends, that is, where the next record begins.
+   *
+   * <p>Connectors that are able to resume reading a resource from a given byte offset report this
+   * value so that checkpoints can record where to resume from; see {@link Resource#read(long,
+   * long)}. If the offset cannot be determined, this method should return -1.
+   *
+   * @return the record's end offset, or -1 if the offset cannot be determined.
+   */
+  default long getEndOffset() {
+    return -1;
+  }
+
   /**
    * Returns a set containing all the fields in this record.
    *
@@ -33,4 +33,23 @@ public interface Resource {
   /** @return A publisher that will emit records from this resource. */
   @NonNull
   Publisher<Record> read();
+
+  /**
+   * Returns a publisher that will emit records from this resource, starting with the record at the
+   * given position, which begins at the given byte offset. Positions and offsets are typically
+   * obtained from {@link Record#getPosition()} and {@link Record#getEndOffset()} during a previous
+   * read of the same resource.
+   *
+   * <p>Resources that cannot seek to the given offset read from the beginning instead; the default
+   * implementation simply delegates to {@link #read()}. Callers must therefore be prepared to
+   * receive records located before the requested position.
+   *
+   * @param position the position of the first record to read.
+   * @param offset the byte offset where the first record to read begins.
+   * @return A publisher that will emit records from this resource.
+   */
+  @NonNull
+  default Publisher<Record> read(long position, long offset) {
+    return read();
+  }
 }
@@ -0,0 +1,585 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.arrow;
+
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.dsbulk.config.ConfigUtils;
+import com.datastax.oss.dsbulk.connectors.api.CommonConnectorFeature;
+import com.datastax.oss.dsbulk.connectors.api.ConnectorFeature;
+import com.datastax.oss.dsbulk.connectors.api.DefaultIndexedField;
+import com.datastax.oss.dsbulk.connectors.api.DefaultMappedField;
+import com.datastax.oss.dsbulk.connectors.api.DefaultRecord;
+import com.datastax.oss.dsbulk.connectors.api.Field;
+import com.datastax.oss.dsbulk.connectors.api.IndexedField;
+import com.datastax.oss.dsbulk.connectors.api.MappedField;
+import com.datastax.oss.dsbulk.connectors.api.Record;
+import com.datastax.oss.dsbulk.connectors.api.RecordMetadata;
+import com.datastax.oss.dsbulk.connectors.commons.AbstractFileBasedConnector;
+import com.datastax.oss.dsbulk.io.CompressedIOUtils;
+import com.datastax.oss.dsbulk.io.IOUtils;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigValueFactory;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLStreamHandler;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.DictionaryEncoder;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.ipc.ArrowWriter;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.SynchronousSink;
+
+/**
+ * A connector for Apache Arrow IPC data, in both the file format, also known as Feather V2, and the
+ * streaming format.
+ *
+ * <p>Values are read directly from the Arrow column vectors of each record batch, with the Java
+ * type that matches their Arrow type, and are then converted to their target CQL types by DSBulk's
+ * codecs; no intermediate text representation is involved. Records expose their values both by
+ * column name and by column index. When writing, values are set directly into Arrow vectors, and a
+ * record batch is written each time the configured number of rows has been accumulated.
+ *
+ * <p>It is capable of reading from any URL, provided that there is a {@link URLStreamHandler
+ * handler} installed for it: both formats are read sequentially, so no random access is required.
+ * For file URLs, it is also capable of reading several files at once from a given root directory.
+ *
+ * <p>This connector is highly configurable; see its {@code dsbulk-reference.conf} file, bundled
+ * within its jar archive, for detailed information.
+ */
+public class ArrowConnector extends AbstractFileBasedConnector {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ArrowConnector.class);
+
+  private static final String FORMAT = "format";
+  private static final String BATCH_SIZE = "batchSize";
+
+  /** The magic bytes at the start of the file format, followed by 2 bytes of padding. */
+  private static final byte[] FILE_MAGIC = "ARROW1".getBytes(StandardCharsets.US_ASCII);
+
+  private static final int FILE_MAGIC_PADDED_LENGTH = 8;
+
+  private enum Format {
+    FILE,
+    STREAM
+  }
+
+  private Format format;
+  private int batchSize;
+  private BufferAllocator allocator;
+  private volatile Set<String> projectedNames;
+  private volatile Set<Integer> projectedIndices;
+  private final AtomicReference<Schema> firstSchema = new AtomicReference<>();
+  private final ConcurrentMap<Field, DataType> writeTypes = new ConcurrentHashMap<>();
+
+  @Override
+  @NonNull
+  public String getConnectorName() {
+    return "arrow";
+  }
+
+  @Override
+  public void configure(@NonNull Config settings, boolean read, boolean retainRecordSources) {
+    try {
+      // Arrow data is binary, and its buffers are never compressed by this connector: neutralize
+      // both settings for the parent class
+      super.configure(
+          settings
+              .withValue(
+                  COMPRESSION, ConfigValueFactory.fromAnyRef(CompressedIOUtils.NONE_COMPRESSION))
+              .withValue(ENCODING, ConfigValueFactory.fromAnyRef("UTF-8")),
+          read,
+          retainRecordSources);
+      String formatName = settings.getString(FORMAT);
+      format =
+          Arrays.stream(Format.values())
+              .filter(f -> f.name().equalsIgnoreCase(formatName))
+              .findFirst()
+              .orElseThrow(
+                  () ->
+                      new IllegalArgumentException(
+                          String.format(
+                              "Invalid value for connector.arrow.%s, valid values: %s, got: '%s'",
+                              FORMAT,
+                              Arrays.stream(Format.values())
+                                  .map(Enum::name)
+                                  .collect(Collectors.joining(",")),
+                              formatName)));
+      batchSize = settings.getInt(BATCH_SIZE);
+      if (batchSize <= 0) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Invalid value for connector.arrow.%s: Expecting integer > 0, got: %d",
+                BATCH_SIZE, batchSize));
+      }
+    } catch (ConfigException e) {
+      throw ConfigUtils.convertConfigException(e, "dsbulk.connector.arrow");
+    }
+  }
+
+  @Override
+  public void init() throws URISyntaxException, IOException {
+    super.init();
+    allocator = new RootAllocator();
+  }
+
+  @Override
+  public void setProjectedFields(@NonNull Set<Field> fields) {
+    Set<String> names = new HashSet<>();
+    Set<Integer> indices = new HashSet<>();
+    for (Field field : fields) {
+      if (field instanceof MappedField) {
+        names.add(((MappedField) field).getFieldName());
+      } else if (field instanceof IndexedField) {
+        indices.add(((IndexedField) field).getFieldIndex());
+      }
+    }
+    projectedIndices = indices;
+    projectedNames = names;
+  }
+
+  @NonNull
+  @Override
+  public RecordMetadata getRecordMetadata() {
+    if (read) {
+      // the schema of the first file read is known before any record is emitted
+      return (field, cqlType) -> {
+        Schema schema = firstSchema.get();
+        if (schema != null) {
+          org.apache.arrow.vector.types.pojo.Field arrowField = arrowField(schema, field);
+          if (arrowField != null) {
+            return ArrowTypes.readType(arrowField);
+          }
+        }
+        return GenericType.STRING;
+      };
+    }
+    return (field, cqlType) -> {
+      writeTypes.putIfAbsent(field, cqlType);
+      return ArrowTypes.writeType(cqlType);
+    };
+  }
+
+  private static org.apache.arrow.vector.types.pojo.Field arrowField(
+      @NonNull Schema schema, @NonNull Field field) {
+    List<org.apache.arrow.vector.types.pojo.Field> fields = schema.getFields();
+    if (field instanceof IndexedField) {
+      int index = ((IndexedField) field).getFieldIndex();
+      return index >= 0 && index < fields.size() ? fields.get(index) : null;
+    }
+    if (field instanceof MappedField) {
+      String name = ((MappedField) field).getFieldName();
+      return fields.stream().filter(f -> f.getName().equals(name)).findFirst().orElse(null);
+    }
+    return null;
+  }
+
+  @Override
+  public boolean supports(@NonNull ConnectorFeature feature) {
+    if (feature instanceof CommonConnectorFeature) {
+      CommonConnectorFeature commonFeature = (CommonConnectorFeature) feature;
+      switch (commonFeature) {
+        case MAPPED_RECORDS:
+        case INDEXED_RECORDS:
+          return true;
+        case DATA_SIZE_SAMPLING:
+          return isDataSizeSamplingAvailable();
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void close() {
+    try {
+      super.close();
+    } finally {
+      if (allocator != null) {
+        allocator.close();
+        allocator = null;
+      }
+    }
+  }
+
+  @Override
+  @NonNull
+  protected RecordReader newSingleFileReader(@NonNull URL url, URI resource) throws IOException {
+    return new ArrowRecordReader(url, resource);
+  }
+
+  /**
+   * A reader for Arrow data. Both formats are read with a stream reader: the file format is the
+   * streaming format preceded by a magic string, and followed by a footer that is not needed for
+   * sequential reads.
+   */
+  private class ArrowRecordReader implements RecordReader {
+
+    private final URI resource;
+    private final BufferAllocator readerAllocator;
+    private final ArrowStreamReader reader;
+    private final VectorSchemaRoot root;
+    private final int[] columns;
+    private final Field[] mappedFields;
+    private final Field[] indexedFields;
+    private final ValueVector[] vectors;
+    private final List<ValueVector> decodedVectors = new ArrayList<>();
+
+    private int rowCount;
+    private int row;
+    private long recordNumber = 1;
+
+    private ArrowRecordReader(URL url, URI resource) throws IOException {
+      this.resource = resource;
+      readerAllocator = allocator.newChildAllocator(resource.toString(), 0, Long.MAX_VALUE);
+      BufferedInputStream in = null;
+      try {
+        in = IOUtils.newBufferedInputStream(url);
+        skipFileMagic(in);
+        reader = new ArrowStreamReader(in, readerAllocator);
+        root = reader.getVectorSchemaRoot();
+        Schema schema =
+            new Schema(
+                root.getSchema().getFields().stream()
+                    .map(this::valueField)
+                    .collect(Collectors.toList()));
+        checkSchema(schema, url);
+        List<org.apache.arrow.vector.types.pojo.Field> fields = schema.getFields();
+        columns = project(fields);
+        mappedFields = new Field[columns.length];
+        indexedFields = new Field[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+          mappedFields[i] = new DefaultMappedField(fields.get(columns[i]).getName());
+          indexedFields[i] = new DefaultIndexedField(columns[i]);
+        }
+        vectors = new ValueVector[columns.length];
+      } catch (RuntimeException | IOException e) {
+        if (in != null) {
+          try {
+            in.close();
+          } catch (IOException e1) {
+            e.addSuppressed(e1);
+          }
+        }
+        readerAllocator.close();
+        throw new IOException(String.format("Error reading from %s", url), e);
+      }
+    }
+
+    /**
+     * Returns the field holding the values of the given field: dictionary-encoded fields hold
+     * dictionary indices, whereas their values are held by the dictionary itself.
+     */
+    @NonNull
+    private org.apache.arrow.vector.types.pojo.Field valueField(
+        @NonNull org.apache.arrow.vector.types.pojo.Field field) {
+      DictionaryEncoding encoding = field.getDictionary();
+      if (encoding == null) {
+        return field;
+      }
+      org.apache.arrow.vector.types.pojo.Field dictionaryField =
+          reader.lookup(encoding.getId()).getVector().getField();
+      return new org.apache.arrow.vector.types.pojo.Field(
+          field.getName(),
+          new FieldType(field.isNullable(), dictionaryField.getType(), null),
+          dictionaryField.getChildren());
+    }
+
+    private void skipFileMagic(@NonNull BufferedInputStream in) throws IOException {
+      in.mark(FILE_MAGIC_PADDED_LENGTH);
+      byte[] header = new byte[FILE_MAGIC_PADDED_LENGTH];
+      int read = 0;
+      while (read < header.length) {
+        int n = in.read(header, read, header.length - read);
+        if (n == -1) {
+          break;
+        }
+        read += n;
+      }
+      if (read < FILE_MAGIC.length
+          || !Arrays.equals(Arrays.copyOf(header, FILE_MAGIC.length), FILE_MAGIC)) {
+        in.reset();
+      }
+    }
+
+    private void checkSchema(@NonNull Schema schema, @NonNull URL url) {
+      if (!firstSchema.compareAndSet(null, schema)) {
+        Schema expected = firstSchema.get();
+        for (org.apache.arrow.vector.types.pojo.Field field : schema.getFields()) {
+          org.apache.arrow.vector.types.pojo.Field first =
+              arrowField(expected, new DefaultMappedField(field.getName()));
+          if (first != null && !ArrowTypes.readType(field).equals(ArrowTypes.readType(first))) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Arrow field %s in %s is read as %s, but as %s in the first file read; "
+                        + "all files must have compatible schemas",
+                    field.getName(), url, ArrowTypes.readType(field), ArrowTypes.readType(first)));
+          }
+        }
+      }
+    }
+
+    @NonNull
+    private int[] project(@NonNull List<org.apache.arrow.vector.types.pojo.Field> fields) {
+      Set<String> names = projectedNames;
+      Set<Integer> indices = projectedIndices;
+      if (names != null && indices != null) {
+        int[] projected = new int[fields.size()];
+        int count = 0;
+        for (int i = 0; i < fields.size(); i++) {
+          if (names.contains(fields.get(i).getName()) || indices.contains(i)) {
+            projected[count++] = i;
+          }
+        }
+        // if no field matches, read them all and let the mapping report missing fields
+        if (count > 0) {
+          return Arrays.copyOf(projected, count);
+        }
+      }
+      int[] all = new int[fields.size()];
+      for (int i = 0; i < all.length; i++) {
+        all[i] = i;
+      }
+      return all;
+    }
+
+    @NonNull
+    @Override
+    public RecordReader readNext(@NonNull SynchronousSink<Record> sink) {
+      try {
+        while (row == rowCount) {
+          closeDecodedVectors();
+          if (!reader.loadNextBatch()) {
+            LOGGER.debug("Done reading {}", resource);
+            sink.complete();
+            return this;
+          }
+          rowCount = root.getRowCount();
+          row = 0;
+          prepareVectors();
+        }
+        Object[] values = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+          values[i] = ArrowVectors.read(vectors[i], row);
+        }
+        row++;
+        Object source = retainRecordSources ? toSource(values) : null;
+        DefaultRecord record =
+            DefaultRecord.mapped(source, resource, recordNumber++, mappedFields, values);
+        // also emit indexed fields
+        for (int i = 0; i < columns.length; i++) {
+          record.setFieldValue(indexedFields[i], values[i]);
+        }
+        LOGGER.trace("Emitting record {}", record);
+        sink.next(record);
+      } catch (Exception e) {
+        sink.error(new IOException(String.format("Error reading from %s", resource), e));
+      }
+      return this;
+    }
+
+    /** Decodes dictionary-encoded columns of the current batch, if any. */
+    private void prepareVectors() {
+      for (int i = 0; i < columns.length; i++) {
+        FieldVector vector = root.getVector(columns[i]);
+        DictionaryEncoding encoding = vector.getField().getDictionary();
+        if (encoding == null) {
+          vectors[i] = vector;
+        } else {
+          ValueVector decoded =
+              DictionaryEncoder.decode(vector, reader.lookup(encoding.getId()), readerAllocator);
+          decodedVectors.add(decoded);
+          vectors[i] = decoded;
+        }
+      }
+    }
+
+    private void closeDecodedVectors() {
+      decodedVectors.forEach(ValueVector::close);
+      decodedVectors.clear();
+    }
+
+    @NonNull
+    private Map<String, Object> toSource(@NonNull Object[] values) {
+      Map<String, Object> source = new LinkedHashMap<>();
+      for (int i = 0; i < mappedFields.length; i++) {
+        source.put(((MappedField) mappedFields[i]).getFieldName(), values[i]);
+      }
+      return source;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        closeDecodedVectors();
+        reader.close();
+      } finally {
+        readerAllocator.close();
+      }
+    }
+  }
+
+  @NonNull
+  @Override
+  protected RecordWriter newSingleFileWriter() {
+    return new ArrowRecordWriter();
+  }
+
+  private class ArrowRecordWriter implements RecordWriter {
+
+    private URL url;
+    private BufferAllocator writerAllocator;
+    private VectorSchemaRoot root;
+    private ArrowWriter writer;
+    private List<Field> fields;
+    private FieldVector[] vectors;
+    private int batchRows;
+    private long currentLine;
+
+    @Override
+    public void write(@NonNull Record record) throws IOException {
+      if (writer == null) {
+        open(record);
+      } else if (shouldRoll()) {
+        close();
+        open(record);
+      }
+      try {
+        LOGGER.trace("Writing record {}", record);
+        for (int i = 0; i < vectors.length; i++) {
+          ArrowVectors.write(vectors[i], batchRows, record.getFieldValue(fields.get(i)));
+        }
+        batchRows++;
+        currentLine++;
+        if (batchRows == batchSize) {
+          writeBatch();
+        }
+      } catch (RuntimeException e) {
+        throw new IOException(String.format("Error writing to %s", url), e);
+      }
+    }
+
+    private boolean shouldRoll() {
+      return isWritingToDirectory() && currentLine == maxRecords;
+    }
+
+    private void open(@NonNull Record record) throws IOException {
+      url = getOrCreateDestinationURL();
+      try {
+        // the schema is derived from the first record, and the CQL types reported for its fields
+        fields = new ArrayList<>(record.fields());
+        List<org.apache.arrow.vector.types.pojo.Field> arrowFields =
+            fields.stream()
+                .map(
+                    field ->
+                        ArrowTypes.writeField(
+                            field.getFieldDescription(),
+                            writeTypes.getOrDefault(field, DataTypes.TEXT),
+                            true))
+                .collect(Collectors.toList());
+        writerAllocator = allocator.newChildAllocator(url.toExternalForm(), 0, Long.MAX_VALUE);
+        root = VectorSchemaRoot.create(new Schema(arrowFields), writerAllocator);
+        vectors = root.getFieldVectors().toArray(new FieldVector[0]);
+        root.allocateNew();
+        OutputStream out = IOUtils.newBufferedOutputStream(url);
+        writer =
+            format == Format.FILE
+                ? new ArrowFileWriter(root, null, Channels.newChannel(out))
+                : new ArrowStreamWriter(root, null, out);
+        writer.start();
+        batchRows = 0;
+        currentLine = 0;
+        LOGGER.debug("Writing " + url);
+      } catch (RuntimeException | IOException e) {
+        closeQuietly();
+        throw new IOException(String.format("Error opening %s", url), e);
+      }
+    }
+
+    private void writeBatch() throws IOException {
+      root.setRowCount(batchRows);
+      writer.writeBatch();
+      root.allocateNew();
+      batchRows = 0;
+    }
+
+    @Override
+    public void flush() {
+      // record batches are only written when full, or when the file is closed
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (writer != null) {
+        try {
+          if (batchRows > 0) {
+            writeBatch();
+          }
+          writer.end();
+          LOGGER.debug("Done writing {}", url);
+        } catch (RuntimeException e) {
+          throw new IOException(String.format("Error closing %s", url), e);
+        } finally {
+          closeQuietly();
+        }
+      }
+    }
+
+    private void closeQuietly() {
+      if (writer != null) {
+        writer.close();
+        writer = null;
+      }
+      if (root != null) {
+        root.close();
+        root = null;
+      }
+      if (writerAllocator != null) {
+        writerAllocator.close();
+        writerAllocator = null;
+      }
+    }
+  }
+}
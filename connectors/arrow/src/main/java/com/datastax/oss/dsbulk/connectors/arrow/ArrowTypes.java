@@ -0,0 +1,290 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.arrow;
+
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.ASCII;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.BIGINT;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.BLOB;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.BOOLEAN;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.COUNTER;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.DATE;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.DOUBLE;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.FLOAT;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.INT;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.LIST;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.MAP;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.SET;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.SMALLINT;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.TIME;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.TIMESTAMP;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.TINYINT;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.VARCHAR;
+
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.ListType;
+import com.datastax.oss.driver.api.core.type.MapType;
+import com.datastax.oss.driver.api.core.type.SetType;
+import com.datastax.oss.driver.api.core.type.VectorType;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.arrow.vector.complex.BaseRepeatedValueVector;
+import org.apache.arrow.vector.complex.MapVector;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+
+/**
+ * Maps Arrow types to the Java types emitted when reading, and CQL types to the Arrow types used
+ * when writing.
+ *
+ * <p>When reading, values are emitted with the Java type that most closely matches their Arrow
+ * type; DSBulk's codecs then convert them to the target CQL types. Timestamps without a time zone
+ * are interpreted as UTC. Arrow types that have no Java counterpart (structs, unions, durations,
+ * intervals, etc.) are emitted as strings. When writing, CQL types that have a natural Arrow
+ * counterpart are written natively, and vectors of numbers are written as fixed-size lists; all
+ * other types, as well as collections containing them, are written as strings.
+ */
+final class ArrowTypes {
+
+  private ArrowTypes() {}
+
+  /** Returns the Java type of values read from the given Arrow field. */
+  @NonNull
+  static GenericType<?> readType(@NonNull Field field) {
+    ArrowType type = field.getType();
+    switch (type.getTypeID()) {
+      case Bool:
+        return GenericType.BOOLEAN;
+      case Int:
+        ArrowType.Int intType = (ArrowType.Int) type;
+        switch (intType.getBitWidth()) {
+          case 8:
+            return intType.getIsSigned() ? GenericType.BYTE : GenericType.SHORT;
+          case 16:
+            return intType.getIsSigned() ? GenericType.SHORT : GenericType.INTEGER;
+          case 32:
+            return intType.getIsSigned() ? GenericType.INTEGER : GenericType.LONG;
+          default:
+            return intType.getIsSigned() ? GenericType.LONG : GenericType.BIG_INTEGER;
+        }
+      case FloatingPoint:
+        return ((ArrowType.FloatingPoint) type).getPrecision() == FloatingPointPrecision.DOUBLE
+            ? GenericType.DOUBLE
+            : GenericType.FLOAT;
+      case Utf8:
+      case LargeUtf8:
+        return GenericType.STRING;
+      case Binary:
+      case LargeBinary:
+      case FixedSizeBinary:
+        return GenericType.BYTE_BUFFER;
+      case Decimal:
+        return GenericType.BIG_DECIMAL;
+      case Date:
+        return GenericType.LOCAL_DATE;
+      case Time:
+        return GenericType.LOCAL_TIME;
+      case Timestamp:
+        return GenericType.INSTANT;
+      case List:
+      case LargeList:
+      case FixedSizeList:
+        return GenericType.listOf(readType(field.getChildren().get(0)));
+      case Map:
+        List<Field> keyValue = field.getChildren().get(0).getChildren();
+        return GenericType.mapOf(readType(keyValue.get(0)), readType(keyValue.get(1)));
+      default:
+        return GenericType.STRING;
+    }
+  }
+
+  /**
+   * Returns the Java type of values written for the given CQL type, that is, the type that DSBulk's
+   * codecs should produce for the connector.
+   */
+  @NonNull
+  static GenericType<?> writeType(@NonNull DataType cqlType) {
+    if (!isNative(cqlType)) {
+      return GenericType.STRING;
+    }
+    if (cqlType instanceof VectorType) {
+      return GenericType.listOf(writeType(((VectorType) cqlType).getElementType()));
+    }
+    switch (cqlType.getProtocolCode()) {
+      case BOOLEAN:
+        return GenericType.BOOLEAN;
+      case TINYINT:
+        return GenericType.BYTE;
+      case SMALLINT:
+        return GenericType.SHORT;
+      case INT:
+        return GenericType.INTEGER;
+      case BIGINT:
+      case COUNTER:
+        return GenericType.LONG;
+      case FLOAT:
+        return GenericType.FLOAT;
+      case DOUBLE:
+        return GenericType.DOUBLE;
+      case TIMESTAMP:
+        return GenericType.INSTANT;
+      case DATE:
+        return GenericType.LOCAL_DATE;
+      case TIME:
+        return GenericType.LOCAL_TIME;
+      case BLOB:
+        return GenericType.BYTE_BUFFER;
+      case LIST:
+        return GenericType.listOf(writeType(((ListType) cqlType).getElementType()));
+      case SET:
+        return GenericType.setOf(writeType(((SetType) cqlType).getElementType()));
+      case MAP:
+        MapType mapType = (MapType) cqlType;
+        return GenericType.mapOf(
+            writeType(mapType.getKeyType()), writeType(mapType.getValueType()));
+      default:
+        return GenericType.STRING;
+    }
+  }
+
+  /**
+   * Returns the Arrow field used to write values of the given CQL type. All fields are nullable,
+   * except map keys, which Arrow requires.
+   */
+  @NonNull
+  static Field writeField(@NonNull String name, @NonNull DataType cqlType, boolean nullable) {
+    if (!isNative(cqlType)) {
+      return leaf(name, ArrowType.Utf8.INSTANCE, nullable);
+    }
+    if (cqlType instanceof VectorType) {
+      VectorType vectorType = (VectorType) cqlType;
+      return new Field(
+          name,
+          new FieldType(nullable, new ArrowType.FixedSizeList(vectorType.getDimensions()), null),
+          Collections.singletonList(
+              writeField(
+                  BaseRepeatedValueVector.DATA_VECTOR_NAME, vectorType.getElementType(), true)));
+    }
+    switch (cqlType.getProtocolCode()) {
+      case BOOLEAN:
+        return leaf(name, ArrowType.Bool.INSTANCE, nullable);
+      case TINYINT:
+        return leaf(name, new ArrowType.Int(8, true), nullable);
+      case SMALLINT:
+        return leaf(name, new ArrowType.Int(16, true), nullable);
+      case INT:
+        return leaf(name, new ArrowType.Int(32, true), nullable);
+      case BIGINT:
+      case COUNTER:
+        return leaf(name, new ArrowType.Int(64, true), nullable);
+      case FLOAT:
+        return leaf(name, new ArrowType.FloatingPoint(FloatingPointPrecision.SINGLE), nullable);
+      case DOUBLE:
+        return leaf(name, new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE), nullable);
+      case TIMESTAMP:
+        return leaf(name, new ArrowType.Timestamp(TimeUnit.MILLISECOND, "UTC"), nullable);
+      case DATE:
+        return leaf(name, new ArrowType.Date(DateUnit.DAY), nullable);
+      case TIME:
+        return leaf(name, new ArrowType.Time(TimeUnit.NANOSECOND, 64), nullable);
+      case BLOB:
+        return leaf(name, ArrowType.Binary.INSTANCE, nullable);
+      case LIST:
+      case SET:
+        DataType elementType =
+            cqlType instanceof ListType
+                ? ((ListType) cqlType).getElementType()
+                : ((SetType) cqlType).getElementType();
+        return new Field(
+            name,
+            new FieldType(nullable, ArrowType.List.INSTANCE, null),
+            Collections.singletonList(
+                writeField(BaseRepeatedValueVector.DATA_VECTOR_NAME, elementType, true)));
+      case MAP:
+        MapType mapType = (MapType) cqlType;
+        Field entries =
+            new Field(
+                MapVector.DATA_VECTOR_NAME,
+                FieldType.notNullable(ArrowType.Struct.INSTANCE),
+                Arrays.asList(
+                    writeField(MapVector.KEY_NAME, mapType.getKeyType(), false),
+                    writeField(MapVector.VALUE_NAME, mapType.getValueType(), true)));
+        return new Field(
+            name,
+            new FieldType(nullable, new ArrowType.Map(false), null),
+            Collections.singletonList(entries));
+      default:
+        return leaf(name, ArrowType.Utf8.INSTANCE, nullable);
+    }
+  }
+
+  @NonNull
+  private static Field leaf(@NonNull String name, @NonNull ArrowType type, boolean nullable) {
+    return new Field(name, new FieldType(nullable, type, null), null);
+  }
+
+  /**
+   * Whether the given CQL type can be written natively, that is, without first being formatted as a
+   * string.
+   */
+  static boolean isNative(@NonNull DataType cqlType) {
+    if (cqlType instanceof VectorType) {
+      switch (((VectorType) cqlType).getElementType().getProtocolCode()) {
+        case TINYINT:
+        case SMALLINT:
+        case INT:
+        case BIGINT:
+        case FLOAT:
+        case DOUBLE:
+          return true;
+        default:
+          return false;
+      }
+    }
+    switch (cqlType.getProtocolCode()) {
+      case ASCII:
+      case VARCHAR:
+      case BOOLEAN:
+      case TINYINT:
+      case SMALLINT:
+      case INT:
+      case BIGINT:
+      case COUNTER:
+      case FLOAT:
+      case DOUBLE:
+      case TIMESTAMP:
+      case DATE:
+      case TIME:
+      case BLOB:
+        return true;
+      case LIST:
+        return isNative(((ListType) cqlType).getElementType());
+      case SET:
+        return isNative(((SetType) cqlType).getElementType());
+      case MAP:
+        MapType mapType = (MapType) cqlType;
+        return isNative(mapType.getKeyType()) && isNative(mapType.getValueType());
+      default:
+        return false;
+    }
+  }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.arrow;
+
+import com.datastax.oss.protocol.internal.util.Bytes;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DateMilliVector;
+import org.apache.arrow.vector.Decimal256Vector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.FixedSizeBinaryVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.LargeVarBinaryVector;
+import org.apache.arrow.vector.LargeVarCharVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.TimeMicroVector;
+import org.apache.arrow.vector.TimeMilliVector;
+import org.apache.arrow.vector.TimeNanoVector;
+import org.apache.arrow.vector.TimeSecVector;
+import org.apache.arrow.vector.TimeStampMilliTZVector;
+import org.apache.arrow.vector.TimeStampVector;
+import org.apache.arrow.vector.TinyIntVector;
+import org.apache.arrow.vector.UInt1Vector;
+import org.apache.arrow.vector.UInt2Vector;
+import org.apache.arrow.vector.UInt4Vector;
+import org.apache.arrow.vector.UInt8Vector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.complex.FixedSizeListVector;
+import org.apache.arrow.vector.complex.LargeListVector;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.complex.MapVector;
+import org.apache.arrow.vector.complex.StructVector;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+
+/**
+ * Reads values from, and writes values to, Arrow vectors, using the Java types defined by {@link
+ * ArrowTypes}.
+ */
+final class ArrowVectors {
+
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+  private static final long MICROS_PER_SECOND = 1_000_000L;
+  private static final long MILLIS_PER_DAY = 86_400_000L;
+
+  private ArrowVectors() {}
+
+  /**
+   * Returns the value at the given index, as an instance of the Java type returned by {@link
+   * ArrowTypes#readType(org.apache.arrow.vector.types.pojo.Field)} for the vector's field.
+   */
+  @Nullable
+  static Object read(@NonNull ValueVector vector, int index) {
+    if (vector.isNull(index)) {
+      return null;
+    }
+    if (vector instanceof BitVector) {
+      return ((BitVector) vector).get(index) != 0;
+    }
+    if (vector instanceof TinyIntVector) {
+      return ((TinyIntVector) vector).get(index);
+    }
+    if (vector instanceof SmallIntVector) {
+      return ((SmallIntVector) vector).get(index);
+    }
+    if (vector instanceof IntVector) {
+      return ((IntVector) vector).get(index);
+    }
+    if (vector instanceof BigIntVector) {
+      return ((BigIntVector) vector).get(index);
+    }
+    if (vector instanceof UInt1Vector) {
+      return ((UInt1Vector) vector).getObjectNoOverflow(index);
+    }
+    if (vector instanceof UInt2Vector) {
+      return (int) ((UInt2Vector) vector).get(index);
+    }
+    if (vector instanceof UInt4Vector) {
+      return ((UInt4Vector) vector).getObjectNoOverflow(index);
+    }
+    if (vector instanceof UInt8Vector) {
+      return ((UInt8Vector) vector).getObjectNoOverflow(index);
+    }
+    if (vector instanceof Float4Vector) {
+      return ((Float4Vector) vector).get(index);
+    }
+    if (vector instanceof Float8Vector) {
+      return ((Float8Vector) vector).get(index);
+    }
+    if (vector instanceof VarCharVector) {
+      return new String(((VarCharVector) vector).get(index), StandardCharsets.UTF_8);
+    }
+    if (vector instanceof LargeVarCharVector) {
+      return new String(((LargeVarCharVector) vector).get(index), StandardCharsets.UTF_8);
+    }
+    if (vector instanceof VarBinaryVector) {
+      return ByteBuffer.wrap(((VarBinaryVector) vector).get(index));
+    }
+    if (vector instanceof LargeVarBinaryVector) {
+      return ByteBuffer.wrap(((LargeVarBinaryVector) vector).get(index));
+    }
+    if (vector instanceof FixedSizeBinaryVector) {
+      return ByteBuffer.wrap(((FixedSizeBinaryVector) vector).get(index));
+    }
+    if (vector instanceof DecimalVector) {
+      return ((DecimalVector) vector).getObject(index);
+    }
+    if (vector instanceof Decimal256Vector) {
+      return ((Decimal256Vector) vector).getObject(index);
+    }
+    if (vector instanceof DateDayVector) {
+      return LocalDate.ofEpochDay(((DateDayVector) vector).get(index));
+    }
+    if (vector instanceof DateMilliVector) {
+      return LocalDate.ofEpochDay(
+          Math.floorDiv(((DateMilliVector) vector).get(index), MILLIS_PER_DAY));
+    }
+    if (vector instanceof TimeSecVector) {
+      return LocalTime.ofSecondOfDay(((TimeSecVector) vector).get(index));
+    }
+    if (vector instanceof TimeMilliVector) {
+      return LocalTime.ofNanoOfDay(((TimeMilliVector) vector).get(index) * 1_000_000L);
+    }
+    if (vector instanceof TimeMicroVector) {
+      return LocalTime.ofNanoOfDay(((TimeMicroVector) vector).get(index) * 1_000L);
+    }
+    if (vector instanceof TimeNanoVector) {
+      return LocalTime.ofNanoOfDay(((TimeNanoVector) vector).get(index));
+    }
+    if (vector instanceof TimeStampVector) {
+      return readTimestamp((TimeStampVector) vector, index);
+    }
+    // maps are lists of key-value structs, so check them first
+    if (vector instanceof MapVector) {
+      return readMap((MapVector) vector, index);
+    }
+    if (vector instanceof ListVector) {
+      ListVector list = (ListVector) vector;
+      return readElements(
+          list.getDataVector(), list.getElementStartIndex(index), list.getElementEndIndex(index));
+    }
+    if (vector instanceof LargeListVector) {
+      LargeListVector list = (LargeListVector) vector;
+      return readElements(
+          list.getDataVector(),
+          Math.toIntExact(list.getElementStartIndex(index)),
+          Math.toIntExact(list.getElementEndIndex(index)));
+    }
+    if (vector instanceof FixedSizeListVector) {
+      FixedSizeListVector list = (FixedSizeListVector) vector;
+      int start = index * list.getListSize();
+      return readElements(list.getDataVector(), start, start + list.getListSize());
+    }
+    // structs, unions, durations, intervals, etc. are read as their JSON-like string form
+    return String.valueOf(vector.getObject(index));
+  }
+
+  @NonNull
+  private static Instant readTimestamp(@NonNull TimeStampVector vector, int index) {
+    long value = vector.get(index);
+    switch (((ArrowType.Timestamp) vector.getField().getType()).getUnit()) {
+      case SECOND:
+        return Instant.ofEpochSecond(value);
+      case MILLISECOND:
+        return Instant.ofEpochMilli(value);
+      case MICROSECOND:
+        return Instant.ofEpochSecond(
+            Math.floorDiv(value, MICROS_PER_SECOND),
+            Math.floorMod(value, MICROS_PER_SECOND) * 1_000L);
+      default:
+        return Instant.ofEpochSecond(
+            Math.floorDiv(value, NANOS_PER_SECOND), Math.floorMod(value, NANOS_PER_SECOND));
+    }
+  }
+
+  @NonNull
+  private static List<Object> readElements(@NonNull ValueVector elements, int start, int end) {
+    List<Object> list = new ArrayList<>(end - start);
+    for (int i = start; i < end; i++) {
+      list.add(read(elements, i));
+    }
+    return list;
+  }
+
+  @NonNull
+  private static Map<Object, Object> readMap(@NonNull MapVector vector, int index) {
+    StructVector entries = (StructVector) vector.getDataVector();
+    ValueVector keys = entries.getChildByOrdinal(0);
+    ValueVector values = entries.getChildByOrdinal(1);
+    int end = vector.getElementEndIndex(index);
+    Map<Object, Object> map = new LinkedHashMap<>();
+    for (int i = vector.getElementStartIndex(index); i < end; i++) {
+      map.put(read(keys, i), read(values, i));
+    }
+    return map;
+  }
+
+  /**
+   * Sets the value at the given index of a vector created from a field returned by {@link
+   * ArrowTypes#writeField}; the value must be an instance of the Java type returned by {@link
+   * ArrowTypes#writeType} for the same CQL type.
+   *
+   * @throws IllegalArgumentException if the value cannot be written to the vector.
+   */
+  static void write(@NonNull FieldVector vector, int index, @Nullable Object value) {
+    if (value == null) {
+      vector.setNull(index);
+    } else if (vector instanceof BitVector) {
+      ((BitVector) vector).setSafe(index, (Boolean) value ? 1 : 0);
+    } else if (vector instanceof TinyIntVector) {
+      ((TinyIntVector) vector).setSafe(index, (Byte) value);
+    } else if (vector instanceof SmallIntVector) {
+      ((SmallIntVector) vector).setSafe(index, (Short) value);
+    } else if (vector instanceof IntVector) {
+      ((IntVector) vector).setSafe(index, (Integer) value);
+    } else if (vector instanceof BigIntVector) {
+      ((BigIntVector) vector).setSafe(index, (Long) value);
+    } else if (vector instanceof Float4Vector) {
+      ((Float4Vector) vector).setSafe(index, (Float) value);
+    } else if (vector instanceof Float8Vector) {
+      ((Float8Vector) vector).setSafe(index, (Double) value);
+    } else if (vector instanceof VarCharVector) {
+      ((VarCharVector) vector).setSafe(index, value.toString().getBytes(StandardCharsets.UTF_8));
+    } else if (vector instanceof VarBinaryVector) {
+      ((VarBinaryVector) vector).setSafe(index, Bytes.getArray((ByteBuffer) value));
+    } else if (vector instanceof TimeStampMilliTZVector) {
+      ((TimeStampMilliTZVector) vector).setSafe(index, ((Instant) value).toEpochMilli());
+    } else if (vector instanceof DateDayVector) {
+      ((DateDayVector) vector).setSafe(index, Math.toIntExact(((LocalDate) value).toEpochDay()));
+    } else if (vector instanceof TimeNanoVector) {
+      ((TimeNanoVector) vector).setSafe(index, ((LocalTime) value).toNanoOfDay());
+    } else if (vector instanceof MapVector) {
+      writeMap((MapVector) vector, index, (Map<?, ?>) value);
+    } else if (vector instanceof ListVector) {
+      ListVector list = (ListVector) vector;
+      Collection<?> elements = (Collection<?>) value;
+      int offset = list.startNewValue(index);
+      for (Object element : elements) {
+        write(list.getDataVector(), offset++, element);
+      }
+      list.endValue(index, elements.size());
+    } else if (vector instanceof FixedSizeListVector) {
+      FixedSizeListVector list = (FixedSizeListVector) vector;
+      List<?> elements = (List<?>) value;
+      if (elements.size() != list.getListSize()) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Expecting %d elements for field %s, got %d",
+                list.getListSize(), vector.getName(), elements.size()));
+      }
+      int offset = list.startNewValue(index);
+      for (Object element : elements) {
+        write(list.getDataVector(), offset++, element);
+      }
+    } else {
+      throw new IllegalArgumentException(
+          String.format(
+              "Cannot write %s to field %s of type %s",
+              value.getClass().getName(), vector.getName(), vector.getField().getType()));
+    }
+  }
+
+  private static void writeMap(@NonNull MapVector vector, int index, @NonNull Map<?, ?> map) {
+    StructVector entries = (StructVector) vector.getDataVector();
+    FieldVector keys = (FieldVector) entries.getChildByOrdinal(0);
+    FieldVector values = (FieldVector) entries.getChildByOrdinal(1);
+    int offset = vector.startNewValue(index);
+    for (Map.Entry<?, ?> entry : map.entrySet()) {
+      entries.setIndexDefined(offset);
+      write(keys, offset, entry.getKey());
+      write(values, offset, entry.getValue());
+      offset++;
+    }
+    vector.endValue(index, map.size());
+  }
+}
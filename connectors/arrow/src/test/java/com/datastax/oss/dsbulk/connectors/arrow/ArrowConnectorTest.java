@@ -0,0 +1,340 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.arrow;
+
+import static com.datastax.oss.dsbulk.tests.utils.FileUtils.deleteDirectory;
+import static com.datastax.oss.dsbulk.tests.utils.StringUtils.quoteJson;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.dsbulk.connectors.api.DefaultIndexedField;
+import com.datastax.oss.dsbulk.connectors.api.DefaultMappedField;
+import com.datastax.oss.dsbulk.connectors.api.DefaultRecord;
+import com.datastax.oss.dsbulk.connectors.api.Field;
+import com.datastax.oss.dsbulk.connectors.api.Record;
+import com.datastax.oss.dsbulk.connectors.api.RecordMetadata;
+import com.datastax.oss.dsbulk.connectors.api.Resource;
+import com.datastax.oss.dsbulk.tests.utils.TestConfigUtils;
+import com.datastax.oss.dsbulk.url.BulkLoaderURLStreamHandlerFactory;
+import com.typesafe.config.Config;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryEncoder;
+import org.apache.arrow.vector.dictionary.DictionaryProvider.MapDictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import reactor.core.publisher.Flux;
+
+class ArrowConnectorTest {
+
+  static {
+    BulkLoaderURLStreamHandlerFactory.install();
+  }
+
+  private static final URI RESOURCE = URI.create("cql://ks1/table1");
+
+  private static final Field ID = new DefaultMappedField("id");
+  private static final Field NAME = new DefaultMappedField("name");
+  private static final Field PRICE = new DefaultMappedField("price");
+  private static final Field CREATED = new DefaultMappedField("created");
+  private static final Field DAY = new DefaultMappedField("day");
+  private static final Field TIME = new DefaultMappedField("time");
+  private static final Field UUID_FIELD = new DefaultMappedField("uuid");
+  private static final Field BLOB = new DefaultMappedField("blob");
+  private static final Field TAGS = new DefaultMappedField("tags");
+  private static final Field SCORES = new DefaultMappedField("scores");
+  private static final Field EMBEDDING = new DefaultMappedField("embedding");
+
+  private Path dir;
+
+  @BeforeEach
+  void createDirectory() throws Exception {
+    dir = Files.createTempDirectory("arrow");
+  }
+
+  @AfterEach
+  void deleteTempDirectory() {
+    deleteDirectory(dir);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"FILE", "STREAM"})
+  void should_write_and_read_back_typed_values(String format) throws Exception {
+    Instant created = Instant.parse("2020-01-01T12:34:56.789Z");
+    LocalDate day = LocalDate.of(2020, 1, 1);
+    LocalTime time = LocalTime.of(12, 34, 56, 123456789);
+    UUID uuid = UUID.randomUUID();
+    Map<String, Double> scores = new LinkedHashMap<>();
+    scores.put("a", 1.5d);
+    scores.put("b", null);
+    Map<Field, Object> values = new LinkedHashMap<>();
+    values.put(ID, 1);
+    values.put(NAME, "foo");
+    values.put(PRICE, 1.5f);
+    values.put(CREATED, created);
+    values.put(DAY, day);
+    values.put(TIME, time);
+    values.put(UUID_FIELD, uuid.toString());
+    values.put(BLOB, ByteBuffer.wrap(new byte[] {1, 2, 3}));
+    values.put(TAGS, Arrays.asList("x", null, "y"));
+    values.put(SCORES, scores);
+    values.put(EMBEDDING, Arrays.asList(0.1f, 0.2f, 0.3f));
+    Map<Field, Object> nulls = new LinkedHashMap<>();
+    values.keySet().forEach(field -> nulls.put(field, null));
+    write(
+        Arrays.asList(
+            DefaultRecord.mapped(null, RESOURCE, 1, values),
+            DefaultRecord.mapped(null, RESOURCE, 2, nulls)),
+        "format",
+        format);
+
+    byte[] magic = Arrays.copyOf(Files.readAllBytes(dir.resolve("output-000001.arrow")), 6);
+    assertThat(new String(magic, StandardCharsets.US_ASCII).equals("ARROW1"))
+        .isEqualTo(format.equals("FILE"));
+
+    ArrowConnector connector = newReadConnector();
+    List<Record> records = readAll(connector);
+    RecordMetadata metadata = connector.getRecordMetadata();
+    assertThat(metadata.getFieldType(ID, DataTypes.BIGINT)).isEqualTo(GenericType.INTEGER);
+    assertThat(metadata.getFieldType(new DefaultIndexedField(3), DataTypes.TIMESTAMP))
+        .isEqualTo(GenericType.INSTANT);
+    assertThat(metadata.getFieldType(TAGS, DataTypes.listOf(DataTypes.TEXT)))
+        .isEqualTo(GenericType.listOf(GenericType.STRING));
+    assertThat(metadata.getFieldType(UUID_FIELD, DataTypes.UUID)).isEqualTo(GenericType.STRING);
+    assertThat(metadata.getFieldType(EMBEDDING, DataTypes.vectorOf(DataTypes.FLOAT, 3)))
+        .isEqualTo(GenericType.listOf(GenericType.FLOAT));
+    connector.close();
+    assertThat(records).hasSize(2);
+    Record record = records.get(0);
+    assertThat(record.getPosition()).isOne();
+    assertThat(record.getFieldValue(ID)).isEqualTo(1);
+    assertThat(record.getFieldValue(NAME)).isEqualTo("foo");
+    assertThat(record.getFieldValue(PRICE)).isEqualTo(1.5f);
+    assertThat(record.getFieldValue(CREATED)).isEqualTo(created);
+    assertThat(record.getFieldValue(DAY)).isEqualTo(day);
+    assertThat(record.getFieldValue(TIME)).isEqualTo(time);
+    assertThat(record.getFieldValue(UUID_FIELD)).isEqualTo(uuid.toString());
+    assertThat(record.getFieldValue(BLOB)).isEqualTo(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+    assertThat(record.getFieldValue(TAGS)).isEqualTo(Arrays.asList("x", null, "y"));
+    assertThat(record.getFieldValue(SCORES)).isEqualTo(scores);
+    assertThat(record.getFieldValue(EMBEDDING)).isEqualTo(Arrays.asList(0.1f, 0.2f, 0.3f));
+    // values are also exposed by column index
+    assertThat(record.getFieldValue(new DefaultIndexedField(0))).isEqualTo(1);
+    assertThat(record.getFieldValue(new DefaultIndexedField(1))).isEqualTo("foo");
+    Record empty = records.get(1);
+    assertThat(empty.getPosition()).isEqualTo(2);
+    assertThat(empty.values()).containsOnlyNulls();
+  }
+
+  @Test
+  void should_read_only_projected_fields() throws Exception {
+    write(newRecords(10));
+    ArrowConnector connector = newReadConnector();
+    connector.setProjectedFields(new HashSet<>(Arrays.asList(NAME, new DefaultIndexedField(0))));
+    List<Record> records = readAll(connector);
+    connector.close();
+    assertThat(records).hasSize(10);
+    assertThat(records)
+        .allSatisfy(
+            record ->
+                assertThat(record.fields())
+                    .containsExactly(
+                        ID, NAME, new DefaultIndexedField(0), new DefaultIndexedField(1)));
+    connector = newReadConnector();
+    connector.setProjectedFields(Collections.singleton(NAME));
+    records = readAll(connector);
+    connector.close();
+    assertThat(records)
+        .allSatisfy(
+            record ->
+                assertThat(record.fields()).containsExactly(NAME, new DefaultIndexedField(1)));
+    assertThat(records.get(3).getFieldValue(NAME)).isEqualTo("name3");
+  }
+
+  @Test
+  void should_write_several_record_batches() throws Exception {
+    write(newRecords(1000), "batchSize", 64);
+    ArrowConnector connector = newReadConnector("skipRecords", 100, "maxRecords", 500);
+    List<Record> records = readAll(connector);
+    connector.close();
+    assertThat(records)
+        .extracting(Record::getPosition)
+        .containsExactlyElementsOf(
+            Stream.iterate(101L, i -> i + 1).limit(500).collect(Collectors.toList()));
+    assertThat(records)
+        .allSatisfy(
+            record ->
+                assertThat(record.getFieldValue(NAME))
+                    .isEqualTo("name" + (record.getPosition() - 1)));
+  }
+
+  @Test
+  void should_read_dictionary_encoded_fields() throws Exception {
+    try (BufferAllocator allocator = new RootAllocator();
+        VarCharVector dictionaryVector = new VarCharVector("dictionary", allocator);
+        VarCharVector colors = new VarCharVector("color", allocator)) {
+      dictionaryVector.allocateNew();
+      dictionaryVector.setSafe(0, "red".getBytes(StandardCharsets.UTF_8));
+      dictionaryVector.setSafe(1, "green".getBytes(StandardCharsets.UTF_8));
+      dictionaryVector.setValueCount(2);
+      Dictionary dictionary =
+          new Dictionary(dictionaryVector, new DictionaryEncoding(1L, false, null));
+      colors.allocateNew();
+      colors.setSafe(0, "green".getBytes(StandardCharsets.UTF_8));
+      colors.setSafe(1, "red".getBytes(StandardCharsets.UTF_8));
+      colors.setSafe(2, "green".getBytes(StandardCharsets.UTF_8));
+      colors.setValueCount(3);
+      try (FieldVector encoded = (FieldVector) DictionaryEncoder.encode(colors, dictionary);
+          VectorSchemaRoot root =
+              new VectorSchemaRoot(
+                  Collections.singletonList(encoded.getField()),
+                  Collections.singletonList(encoded),
+                  3);
+          OutputStream out = Files.newOutputStream(dir.resolve("colors.arrows"));
+          ArrowStreamWriter writer =
+              new ArrowStreamWriter(root, new MapDictionaryProvider(dictionary), out)) {
+        writer.start();
+        writer.writeBatch();
+        writer.end();
+      }
+    }
+    ArrowConnector connector = newReadConnector();
+    List<Record> records = readAll(connector);
+    Field color = new DefaultMappedField("color");
+    assertThat(connector.getRecordMetadata().getFieldType(color, DataTypes.TEXT))
+        .isEqualTo(GenericType.STRING);
+    connector.close();
+    assertThat(records)
+        .extracting(record -> record.getFieldValue(color))
+        .containsExactly("green", "red", "green");
+  }
+
+  @Test
+  void should_roll_files_when_max_records_reached() throws Exception {
+    ArrowConnector connector = newWriteConnector("maxRecords", 400);
+    Flux.fromIterable(newRecords(1000)).transform(connector.write()).blockLast();
+    connector.close();
+    assertThat(dir.resolve("output-000001.arrow")).exists();
+    assertThat(dir.resolve("output-000002.arrow")).exists();
+    assertThat(dir.resolve("output-000003.arrow")).exists();
+    ArrowConnector reader = newReadConnector();
+    assertThat(readAll(reader)).hasSize(1000);
+    reader.close();
+  }
+
+  @Test
+  void should_error_on_invalid_format() {
+    ArrowConnector connector = new ArrowConnector();
+    Config settings =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.connector.arrow", "url", quoteJson(dir), "format", "PARQUET");
+    assertThatThrownBy(() -> connector.configure(settings, false, false))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage(
+            "Invalid value for connector.arrow.format, valid values: FILE,STREAM, got: 'PARQUET'");
+  }
+
+  private void write(List<Record> records, Object... settings) throws Exception {
+    ArrowConnector connector = newWriteConnector(settings);
+    Flux.fromIterable(records).transform(connector.write()).blockLast();
+    connector.close();
+  }
+
+  private ArrowConnector newWriteConnector(Object... settings) throws Exception {
+    ArrowConnector connector = new ArrowConnector();
+    connector.configure(config(settings), false, false);
+    connector.init();
+    // the workflow reports the CQL type of each field before writing records
+    RecordMetadata metadata = connector.getRecordMetadata();
+    cqlTypes().forEach(metadata::getFieldType);
+    return connector;
+  }
+
+  private ArrowConnector newReadConnector(Object... settings) throws Exception {
+    ArrowConnector connector = new ArrowConnector();
+    connector.configure(config(settings), true, false);
+    connector.init();
+    return connector;
+  }
+
+  private Config config(Object... settings) {
+    Object[] args = new Object[settings.length + 2];
+    args[0] = "url";
+    args[1] = quoteJson(dir);
+    System.arraycopy(settings, 0, args, 2, settings.length);
+    return TestConfigUtils.createTestConfig("dsbulk.connector.arrow", args);
+  }
+
+  private static List<Record> readAll(ArrowConnector connector) {
+    return Flux.from(connector.read()).concatMap(Resource::read).collectList().block();
+  }
+
+  private static Map<Field, DataType> cqlTypes() {
+    Map<Field, DataType> types = new LinkedHashMap<>();
+    types.put(ID, DataTypes.INT);
+    types.put(NAME, DataTypes.TEXT);
+    types.put(PRICE, DataTypes.FLOAT);
+    types.put(CREATED, DataTypes.TIMESTAMP);
+    types.put(DAY, DataTypes.DATE);
+    types.put(TIME, DataTypes.TIME);
+    types.put(UUID_FIELD, DataTypes.UUID);
+    types.put(BLOB, DataTypes.BLOB);
+    types.put(TAGS, DataTypes.listOf(DataTypes.TEXT));
+    types.put(SCORES, DataTypes.mapOf(DataTypes.TEXT, DataTypes.DOUBLE));
+    types.put(EMBEDDING, DataTypes.vectorOf(DataTypes.FLOAT, 3));
+    return types;
+  }
+
+  private static List<Record> newRecords(int count) {
+    List<Record> records = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      records.add(
+          DefaultRecord.mapped(null, RESOURCE, i + 1, new Field[] {ID, NAME}, i, "name" + i));
+    }
+    return records;
+  }
+}
@@ -0,0 +1,540 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.avro;
+
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.dsbulk.config.ConfigUtils;
+import com.datastax.oss.dsbulk.connectors.api.CommonConnectorFeature;
+import com.datastax.oss.dsbulk.connectors.api.ConnectorFeature;
+import com.datastax.oss.dsbulk.connectors.api.DefaultMappedField;
+import com.datastax.oss.dsbulk.connectors.api.DefaultRecord;
+import com.datastax.oss.dsbulk.connectors.api.DefaultResource;
+import com.datastax.oss.dsbulk.connectors.api.Field;
+import com.datastax.oss.dsbulk.connectors.api.MappedField;
+import com.datastax.oss.dsbulk.connectors.api.Record;
+import com.datastax.oss.dsbulk.connectors.api.RecordMetadata;
+import com.datastax.oss.dsbulk.connectors.api.Resource;
+import com.datastax.oss.dsbulk.connectors.commons.AbstractFileBasedConnector;
+import com.datastax.oss.dsbulk.io.CompressedIOUtils;
+import com.datastax.oss.dsbulk.io.IOUtils;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigValueFactory;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLStreamHandler;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.file.SeekableFileInput;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+
+/**
+ * A connector for Apache Avro object container files.
+ *
+ * <p>Values are read with the Java type that matches their Avro type, as declared by the schema
+ * embedded in each file, and are then converted to their target CQL types by DSBulk's codecs; no
+ * intermediate text representation is involved. Only the fields actually consumed by the operation
+ * are decoded, and large local files are split at block boundaries, using the sync markers of the
+ * container format, so that they can be read in parallel.
+ *
+ * <p>It is capable of reading from any URL, provided that there is a {@link URLStreamHandler
+ * handler} installed for it; resources not located on the local filesystem are read sequentially.
+ * For file URLs, it is also capable of reading several files at once from a given root directory.
+ *
+ * <p>This connector is highly configurable; see its {@code dsbulk-reference.conf} file, bundled
+ * within its jar archive, for detailed information.
+ */
+public class AvroConnector extends AbstractFileBasedConnector {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AvroConnector.class);
+
+  private static final String SPLIT_SIZE = "splitSize";
+
+  private static final Map<String, Supplier<CodecFactory>> SUPPORTED_CODECS;
+
+  static {
+    Map<String, Supplier<CodecFactory>> codecs = new LinkedHashMap<>();
+    codecs.put(CompressedIOUtils.NONE_COMPRESSION, CodecFactory::nullCodec);
+    codecs.put(
+        CompressedIOUtils.DEFLATE_COMPRESSION,
+        () -> CodecFactory.deflateCodec(CodecFactory.DEFAULT_DEFLATE_LEVEL));
+    codecs.put(CompressedIOUtils.SNAPPY_COMPRESSION, CodecFactory::snappyCodec);
+    codecs.put(
+        CompressedIOUtils.ZSTD_COMPRESSION,
+        () -> CodecFactory.zstandardCodec(CodecFactory.DEFAULT_ZSTANDARD_LEVEL));
+    SUPPORTED_CODECS = Collections.unmodifiableMap(codecs);
+  }
+
+  private CodecFactory codec;
+  private long splitSize;
+  private volatile Set<String> projectedFields;
+  private final AtomicReference<Schema> firstSchema = new AtomicReference<>();
+  private final ConcurrentMap<Field, DataType> writeTypes = new ConcurrentHashMap<>();
+
+  @Override
+  @NonNull
+  public String getConnectorName() {
+    return "avro";
+  }
+
+  @Override
+  public void configure(@NonNull Config settings, boolean read, boolean retainRecordSources) {
+    try {
+      // the compression setting designates an Avro block codec, not a stream compression, and
+      // Avro files are binary: neutralize both settings for the parent class
+      super.configure(
+          settings
+              .withValue(
+                  COMPRESSION, ConfigValueFactory.fromAnyRef(CompressedIOUtils.NONE_COMPRESSION))
+              .withValue(ENCODING, ConfigValueFactory.fromAnyRef("UTF-8")),
+          read,
+          retainRecordSources);
+      String codecName = settings.getString(COMPRESSION).toLowerCase();
+      if (!SUPPORTED_CODECS.containsKey(codecName)) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Invalid value for connector.avro.%s, valid values: %s, got: '%s'",
+                COMPRESSION,
+                String.join(",", SUPPORTED_CODECS.keySet()),
+                settings.getString(COMPRESSION)));
+      }
+      codec = SUPPORTED_CODECS.get(codecName).get();
+      splitSize = ConfigUtils.getBytes(settings, SPLIT_SIZE);
+      if (splitSize <= 0) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Invalid value for connector.avro.%s: Expecting integer > 0, got: %d",
+                SPLIT_SIZE, splitSize));
+      }
+    } catch (ConfigException e) {
+      throw ConfigUtils.convertConfigException(e, "dsbulk.connector.avro");
+    }
+  }
+
+  @Override
+  public void init() throws URISyntaxException, IOException {
+    super.init();
+    if (read && isSplittable()) {
+      // count splits as resources, to size the read concurrency accordingly
+      List<URL> sample = Objects.requireNonNull(urlsToRead().take(1000).collectList().block());
+      resourceCount = 0;
+      for (URL url : sample) {
+        Path file = localFile(url);
+        resourceCount += file == null ? 1 : splitCount(file);
+      }
+    }
+  }
+
+  @Override
+  public void setProjectedFields(@NonNull Set<Field> fields) {
+    if (fields.stream().allMatch(MappedField.class::isInstance)) {
+      projectedFields =
+          fields.stream()
+              .map(MappedField.class::cast)
+              .map(MappedField::getFieldName)
+              .collect(Collectors.toSet());
+    }
+  }
+
+  @NonNull
+  @Override
+  public RecordMetadata getRecordMetadata() {
+    if (read) {
+      // the schema of the first file read is known before any record is emitted
+      return (field, cqlType) -> {
+        Schema schema = firstSchema.get();
+        if (schema != null && field instanceof MappedField) {
+          Schema.Field avroField = schema.getField(((MappedField) field).getFieldName());
+          if (avroField != null) {
+            return AvroTypes.readType(avroField.schema());
+          }
+        }
+        return GenericType.STRING;
+      };
+    }
+    return (field, cqlType) -> {
+      writeTypes.putIfAbsent(field, cqlType);
+      return AvroTypes.writeType(cqlType);
+    };
+  }
+
+  @Override
+  public boolean supports(@NonNull ConnectorFeature feature) {
+    if (feature instanceof CommonConnectorFeature) {
+      CommonConnectorFeature commonFeature = (CommonConnectorFeature) feature;
+      switch (commonFeature) {
+        case MAPPED_RECORDS:
+          return true;
+        case INDEXED_RECORDS:
+          return false;
+        case DATA_SIZE_SAMPLING:
+          return isDataSizeSamplingAvailable();
+      }
+    }
+    return false;
+  }
+
+  @NonNull
+  @Override
+  public Publisher<Resource> read() {
+    assert read;
+    return urlsToRead()
+        .concatMap(url -> Mono.fromCallable(() -> resourcesOf(url)).flatMapIterable(r -> r));
+  }
+
+  /**
+   * Per-file limits apply to files as a whole; when any is set, files cannot be split at block
+   * boundaries.
+   */
+  private boolean isSplittable() {
+    return skipRecords <= 0 && maxRecords == -1;
+  }
+
+  private int splitCount(@NonNull Path file) throws IOException {
+    return (int) Math.max(1, (Files.size(file) + splitSize - 1) / splitSize);
+  }
+
+  @NonNull
+  private List<Resource> resourcesOf(@NonNull URL url) throws IOException {
+    URI file = URI.create(url.toExternalForm());
+    Path path = isSplittable() ? localFile(url) : null;
+    int splits = path == null ? 1 : splitCount(path);
+    if (splits <= 1) {
+      Flux<Record> records = readSingleFile(url, file).transform(this::applyPerFileLimits);
+      return Collections.singletonList(new DefaultResource(file, records));
+    }
+    List<Resource> resources = new ArrayList<>(splits);
+    for (int i = 0; i < splits; i++) {
+      long start = i * splitSize;
+      long end = start + splitSize;
+      URI resource = URI.create(file + "#split=" + i);
+      Flux<Record> records =
+          Flux.<Record, RecordReader>generate(
+              () -> {
+                GenericDatumReader<GenericRecord> datumReader = new GenericDatumReader<>();
+                return new AvroRecordReader(
+                    url, resource, datumReader, openFile(path, url, datumReader), start, end);
+              },
+              RecordReader::readNext,
+              reader -> {
+                try {
+                  reader.close();
+                } catch (IOException e) {
+                  LOGGER.error("Error closing " + resource, e);
+                }
+              });
+      resources.add(new DefaultResource(resource, records));
+    }
+    return resources;
+  }
+
+  /**
+   * Returns the local file for the given URL, if it designates a file on a known filesystem, or
+   * null otherwise.
+   */
+  @Nullable
+  private Path localFile(@NonNull URL url) {
+    if (!IOUtils.isStandardStream(url)) {
+      try {
+        return Paths.get(url.toURI());
+      } catch (FileSystemNotFoundException
+          | IllegalArgumentException
+          | URISyntaxException ignored) {
+        // not a path on a known filesystem
+      }
+    }
+    return null;
+  }
+
+  @NonNull
+  private DataFileStream<GenericRecord> openFile(
+      @NonNull Path path, @NonNull URL url, @NonNull GenericDatumReader<GenericRecord> datumReader)
+      throws IOException {
+    try {
+      return new DataFileReader<>(new SeekableFileInput(path.toFile()), datumReader);
+    } catch (RuntimeException | IOException e) {
+      throw new IOException(String.format("Error reading from %s", url), e);
+    }
+  }
+
+  @Override
+  @NonNull
+  protected RecordReader newSingleFileReader(@NonNull URL url, URI resource) throws IOException {
+    GenericDatumReader<GenericRecord> datumReader = new GenericDatumReader<>();
+    Path path = localFile(url);
+    if (path != null) {
+      DataFileStream<GenericRecord> stream = openFile(path, url, datumReader);
+      return new AvroRecordReader(url, resource, datumReader, stream, 0, Long.MAX_VALUE);
+    }
+    try {
+      DataFileStream<GenericRecord> stream =
+          new DataFileStream<>(IOUtils.newBufferedInputStream(url), datumReader);
+      return new AvroRecordReader(url, resource, datumReader, stream, 0, Long.MAX_VALUE);
+    } catch (RuntimeException | IOException e) {
+      throw new IOException(String.format("Error reading from %s", url), e);
+    }
+  }
+
+  /**
+   * A reader for the blocks of an Avro file that start within a given range of bytes. When reading
+   * a split, the reader first moves to the first sync marker after the start of the range, and
+   * stops at the first sync marker after its end.
+   */
+  private class AvroRecordReader implements RecordReader {
+
+    private final URI resource;
+    private final DataFileStream<GenericRecord> stream;
+    private final long end;
+    private final Field[] fields;
+    private final Schema[] schemas;
+
+    private long recordNumber = 1;
+
+    private AvroRecordReader(
+        URL url,
+        URI resource,
+        GenericDatumReader<GenericRecord> datumReader,
+        DataFileStream<GenericRecord> stream,
+        long start,
+        long end)
+        throws IOException {
+      this.resource = resource;
+      this.stream = stream;
+      this.end = end;
+      try {
+        Schema fileSchema = stream.getSchema();
+        if (fileSchema.getType() != Schema.Type.RECORD) {
+          throw new IllegalArgumentException(
+              String.format("Expecting a record schema, got: %s", fileSchema.getType()));
+        }
+        checkSchema(fileSchema, url);
+        Schema requestedSchema = project(fileSchema);
+        datumReader.setExpected(requestedSchema);
+        List<Schema.Field> requestedFields = requestedSchema.getFields();
+        fields =
+            requestedFields.stream()
+                .map(Schema.Field::name)
+                .map(DefaultMappedField::new)
+                .toArray(Field[]::new);
+        schemas = requestedFields.stream().map(Schema.Field::schema).toArray(Schema[]::new);
+        if (start > 0) {
+          ((DataFileReader<GenericRecord>) stream).sync(start);
+        }
+      } catch (RuntimeException e) {
+        stream.close();
+        throw new IOException(String.format("Error reading from %s", url), e);
+      }
+    }
+
+    @NonNull
+    private Schema project(@NonNull Schema fileSchema) {
+      Set<String> projected = projectedFields;
+      if (projected != null) {
+        List<Schema.Field> requested =
+            fileSchema.getFields().stream()
+                .filter(field -> projected.contains(field.name()))
+                .map(field -> new Schema.Field(field, field.schema()))
+                .collect(Collectors.toList());
+        // if no field matches, read them all and let the mapping report missing fields
+        if (!requested.isEmpty()) {
+          return Schema.createRecord(
+              fileSchema.getName(),
+              fileSchema.getDoc(),
+              fileSchema.getNamespace(),
+              fileSchema.isError(),
+              requested);
+        }
+      }
+      return fileSchema;
+    }
+
+    private void checkSchema(@NonNull Schema fileSchema, @NonNull URL url) {
+      if (!firstSchema.compareAndSet(null, fileSchema)) {
+        Schema expected = firstSchema.get();
+        for (Schema.Field field : fileSchema.getFields()) {
+          Schema.Field first = expected.getField(field.name());
+          if (first != null) {
+            GenericType<?> javaType = AvroTypes.readType(field.schema());
+            GenericType<?> expectedType = AvroTypes.readType(first.schema());
+            if (!javaType.equals(expectedType)) {
+              throw new IllegalArgumentException(
+                  String.format(
+                      "Avro field %s in %s is read as %s, but as %s in the first file read; "
+                          + "all files must have compatible schemas",
+                      field.name(), url, javaType, expectedType));
+            }
+          }
+        }
+      }
+    }
+
+    @NonNull
+    @Override
+    public RecordReader readNext(@NonNull SynchronousSink<Record> sink) {
+      try {
+        if (!stream.hasNext() || pastEnd()) {
+          LOGGER.debug("Done reading {}", resource);
+          sink.complete();
+          return this;
+        }
+        // never reuse records: Avro would also reuse the byte buffers they contain
+        GenericRecord avroRecord = stream.next();
+        Object[] values = new Object[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+          values[i] = AvroValues.read(avroRecord.get(i), schemas[i]);
+        }
+        Object source = retainRecordSources ? avroRecord : null;
+        DefaultRecord record =
+            DefaultRecord.mapped(source, resource, recordNumber++, fields, values);
+        LOGGER.trace("Emitting record {}", record);
+        sink.next(record);
+      } catch (Exception e) {
+        sink.error(new IOException(String.format("Error reading from %s", resource), e));
+      }
+      return this;
+    }
+
+    private boolean pastEnd() throws IOException {
+      return end != Long.MAX_VALUE && ((DataFileReader<GenericRecord>) stream).pastSync(end);
+    }
+
+    @Override
+    public void close() throws IOException {
+      stream.close();
+    }
+  }
+
+  @NonNull
+  @Override
+  protected RecordWriter newSingleFileWriter() {
+    return new AvroRecordWriter();
+  }
+
+  private class AvroRecordWriter implements RecordWriter {
+
+    private URL url;
+    private DataFileWriter<GenericRecord> writer;
+    private Schema schema;
+    private List<Field> fields;
+    private Schema[] schemas;
+    private long currentLine;
+
+    @Override
+    public void write(@NonNull Record record) throws IOException {
+      if (writer == null) {
+        open(record);
+      } else if (shouldRoll()) {
+        close();
+        open(record);
+      }
+      try {
+        LOGGER.trace("Writing record {}", record);
+        GenericData.Record avroRecord = new GenericData.Record(schema);
+        for (int i = 0; i < schemas.length; i++) {
+          avroRecord.put(i, AvroValues.write(record.getFieldValue(fields.get(i)), schemas[i]));
+        }
+        writer.append(avroRecord);
+        currentLine++;
+      } catch (RuntimeException e) {
+        throw new IOException(String.format("Error writing to %s", url), e);
+      }
+    }
+
+    private boolean shouldRoll() {
+      return isWritingToDirectory() && currentLine == maxRecords;
+    }
+
+    private void open(@NonNull Record record) throws IOException {
+      url = getOrCreateDestinationURL();
+      try {
+        // the schema is derived from the first record, and the CQL types reported for its fields
+        fields = new ArrayList<>(record.fields());
+        List<Schema.Field> avroFields = new ArrayList<>(fields.size());
+        for (Field field : fields) {
+          avroFields.add(
+              new Schema.Field(
+                  field.getFieldDescription(),
+                  AvroTypes.writeSchema(writeTypes.getOrDefault(field, DataTypes.TEXT)),
+                  null,
+                  Schema.Field.NULL_DEFAULT_VALUE));
+        }
+        schema = Schema.createRecord("Record", null, null, false, avroFields);
+        schemas = avroFields.stream().map(Schema.Field::schema).toArray(Schema[]::new);
+        writer = new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(schema));
+        writer.setCodec(codec);
+        writer.create(schema, IOUtils.newBufferedOutputStream(url));
+        currentLine = 0;
+        LOGGER.debug("Writing " + url);
+      } catch (RuntimeException | IOException e) {
+        writer = null;
+        throw new IOException(String.format("Error opening %s", url), e);
+      }
+    }
+
+    @Override
+    public void flush() {
+      // blocks are written when full, or when the file is closed
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (writer != null) {
+        try {
+          writer.close();
+          LOGGER.debug("Done writing {}", url);
+        } catch (RuntimeException e) {
+          throw new IOException(String.format("Error closing %s", url), e);
+        } finally {
+          writer = null;
+        }
+      }
+    }
+  }
+}
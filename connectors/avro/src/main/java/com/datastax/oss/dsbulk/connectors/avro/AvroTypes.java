@@ -0,0 +1,287 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.avro;
+
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.ASCII;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.BIGINT;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.BLOB;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.BOOLEAN;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.COUNTER;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.DATE;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.DOUBLE;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.FLOAT;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.INT;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.LIST;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.MAP;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.SET;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.SMALLINT;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.TIMESTAMP;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.TIMEUUID;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.TINYINT;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.UUID;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.VARCHAR;
+
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.ListType;
+import com.datastax.oss.driver.api.core.type.MapType;
+import com.datastax.oss.driver.api.core.type.SetType;
+import com.datastax.oss.driver.api.core.type.VectorType;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.Arrays;
+import org.apache.avro.LogicalType;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+
+/**
+ * Maps Avro schemas to the Java types emitted when reading, and CQL types to the Avro schemas used
+ * when writing.
+ *
+ * <p>When reading, values are emitted with the Java type that most closely matches their Avro type
+ * and logical type; DSBulk's codecs then convert them to the target CQL types. Nullable unions are
+ * read as their non-null branch; records and other unions are emitted as their JSON representation.
+ * When writing, CQL types that have a natural Avro counterpart are written natively, and vectors of
+ * numbers are written as arrays; all other types, as well as collections containing them, are
+ * written as strings.
+ */
+final class AvroTypes {
+
+  private AvroTypes() {}
+
+  /** Returns the Java type of values read with the given Avro schema. */
+  @NonNull
+  static GenericType<?> readType(@NonNull Schema schema) {
+    LogicalType logicalType = schema.getLogicalType();
+    switch (schema.getType()) {
+      case UNION:
+        Schema nonNull = nonNullBranch(schema);
+        return nonNull == null ? GenericType.STRING : readType(nonNull);
+      case BOOLEAN:
+        return GenericType.BOOLEAN;
+      case INT:
+        if (logicalType instanceof LogicalTypes.Date) {
+          return GenericType.LOCAL_DATE;
+        }
+        if (logicalType instanceof LogicalTypes.TimeMillis) {
+          return GenericType.LOCAL_TIME;
+        }
+        return GenericType.INTEGER;
+      case LONG:
+        if (logicalType instanceof LogicalTypes.TimestampMillis
+            || logicalType instanceof LogicalTypes.TimestampMicros
+            || logicalType instanceof LogicalTypes.LocalTimestampMillis
+            || logicalType instanceof LogicalTypes.LocalTimestampMicros) {
+          return GenericType.INSTANT;
+        }
+        if (logicalType instanceof LogicalTypes.TimeMicros) {
+          return GenericType.LOCAL_TIME;
+        }
+        return GenericType.LONG;
+      case FLOAT:
+        return GenericType.FLOAT;
+      case DOUBLE:
+        return GenericType.DOUBLE;
+      case STRING:
+        return isUuid(logicalType) ? GenericType.UUID : GenericType.STRING;
+      case BYTES:
+      case FIXED:
+        return logicalType instanceof LogicalTypes.Decimal
+            ? GenericType.BIG_DECIMAL
+            : GenericType.BYTE_BUFFER;
+      case ENUM:
+        return GenericType.STRING;
+      case ARRAY:
+        return GenericType.listOf(readType(schema.getElementType()));
+      case MAP:
+        return GenericType.mapOf(GenericType.STRING, readType(schema.getValueType()));
+      default:
+        return GenericType.STRING;
+    }
+  }
+
+  /**
+   * Returns the non-null branch of a union of null and exactly one other type, or null if the union
+   * has any other form.
+   */
+  @Nullable
+  static Schema nonNullBranch(@NonNull Schema union) {
+    if (union.getTypes().size() != 2) {
+      return null;
+    }
+    Schema first = union.getTypes().get(0);
+    Schema second = union.getTypes().get(1);
+    if (first.getType() == Schema.Type.NULL && second.getType() != Schema.Type.NULL) {
+      return second;
+    }
+    if (second.getType() == Schema.Type.NULL && first.getType() != Schema.Type.NULL) {
+      return first;
+    }
+    return null;
+  }
+
+  static boolean isUuid(@Nullable LogicalType logicalType) {
+    return logicalType != null && logicalType.getName().equals(LogicalTypes.uuid().getName());
+  }
+
+  /**
+   * Returns the Java type of values written for the given CQL type, that is, the type that DSBulk's
+   * codecs should produce for the connector.
+   */
+  @NonNull
+  static GenericType<?> writeType(@NonNull DataType cqlType) {
+    if (!isNative(cqlType)) {
+      return GenericType.STRING;
+    }
+    if (cqlType instanceof VectorType) {
+      return GenericType.listOf(writeType(((VectorType) cqlType).getElementType()));
+    }
+    switch (cqlType.getProtocolCode()) {
+      case BOOLEAN:
+        return GenericType.BOOLEAN;
+      case TINYINT:
+        return GenericType.BYTE;
+      case SMALLINT:
+        return GenericType.SHORT;
+      case INT:
+        return GenericType.INTEGER;
+      case BIGINT:
+      case COUNTER:
+        return GenericType.LONG;
+      case FLOAT:
+        return GenericType.FLOAT;
+      case DOUBLE:
+        return GenericType.DOUBLE;
+      case TIMESTAMP:
+        return GenericType.INSTANT;
+      case DATE:
+        return GenericType.LOCAL_DATE;
+      case UUID:
+      case TIMEUUID:
+        return GenericType.UUID;
+      case BLOB:
+        return GenericType.BYTE_BUFFER;
+      case LIST:
+        return GenericType.listOf(writeType(((ListType) cqlType).getElementType()));
+      case SET:
+        return GenericType.setOf(writeType(((SetType) cqlType).getElementType()));
+      case MAP:
+        return GenericType.mapOf(GenericType.STRING, writeType(((MapType) cqlType).getValueType()));
+      default:
+        return GenericType.STRING;
+    }
+  }
+
+  /**
+   * Returns the Avro schema used to write values of the given CQL type, as a union of null and the
+   * type itself.
+   */
+  @NonNull
+  static Schema writeSchema(@NonNull DataType cqlType) {
+    return Schema.createUnion(Arrays.asList(Schema.create(Schema.Type.NULL), valueSchema(cqlType)));
+  }
+
+  @NonNull
+  private static Schema valueSchema(@NonNull DataType cqlType) {
+    if (!isNative(cqlType)) {
+      return Schema.create(Schema.Type.STRING);
+    }
+    if (cqlType instanceof VectorType) {
+      return Schema.createArray(valueSchema(((VectorType) cqlType).getElementType()));
+    }
+    switch (cqlType.getProtocolCode()) {
+      case BOOLEAN:
+        return Schema.create(Schema.Type.BOOLEAN);
+      case TINYINT:
+      case SMALLINT:
+      case INT:
+        return Schema.create(Schema.Type.INT);
+      case BIGINT:
+      case COUNTER:
+        return Schema.create(Schema.Type.LONG);
+      case FLOAT:
+        return Schema.create(Schema.Type.FLOAT);
+      case DOUBLE:
+        return Schema.create(Schema.Type.DOUBLE);
+      case TIMESTAMP:
+        return LogicalTypes.timestampMillis().addToSchema(Schema.create(Schema.Type.LONG));
+      case DATE:
+        return LogicalTypes.date().addToSchema(Schema.create(Schema.Type.INT));
+      case UUID:
+      case TIMEUUID:
+        return LogicalTypes.uuid().addToSchema(Schema.create(Schema.Type.STRING));
+      case BLOB:
+        return Schema.create(Schema.Type.BYTES);
+      case LIST:
+        return Schema.createArray(writeSchema(((ListType) cqlType).getElementType()));
+      case SET:
+        return Schema.createArray(writeSchema(((SetType) cqlType).getElementType()));
+      case MAP:
+        return Schema.createMap(writeSchema(((MapType) cqlType).getValueType()));
+      default:
+        return Schema.create(Schema.Type.STRING);
+    }
+  }
+
+  /**
+   * Whether the given CQL type can be written natively, that is, without first being formatted as a
+   * string. Time values are written as strings, since Avro cannot represent nanosecond precision;
+   * maps are written natively only when their keys are strings, as required by Avro.
+   */
+  static boolean isNative(@NonNull DataType cqlType) {
+    if (cqlType instanceof VectorType) {
+      switch (((VectorType) cqlType).getElementType().getProtocolCode()) {
+        case TINYINT:
+        case SMALLINT:
+        case INT:
+        case BIGINT:
+        case FLOAT:
+        case DOUBLE:
+          return true;
+        default:
+          return false;
+      }
+    }
+    switch (cqlType.getProtocolCode()) {
+      case ASCII:
+      case VARCHAR:
+      case BOOLEAN:
+      case TINYINT:
+      case SMALLINT:
+      case INT:
+      case BIGINT:
+      case COUNTER:
+      case FLOAT:
+      case DOUBLE:
+      case TIMESTAMP:
+      case DATE:
+      case UUID:
+      case TIMEUUID:
+      case BLOB:
+        return true;
+      case LIST:
+        return isNative(((ListType) cqlType).getElementType());
+      case SET:
+        return isNative(((SetType) cqlType).getElementType());
+      case MAP:
+        MapType mapType = (MapType) cqlType;
+        int keyCode = mapType.getKeyType().getProtocolCode();
+        return (keyCode == VARCHAR || keyCode == ASCII) && isNative(mapType.getValueType());
+      default:
+        return false;
+    }
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.avro;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.apache.avro.LogicalType;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericFixed;
+
+/**
+ * Converts Avro generic data to and from the Java types defined by {@link AvroTypes}.
+ *
+ * <p>Values are converted from and to the generic representation produced and consumed by Avro's
+ * generic datum readers and writers.
+ */
+final class AvroValues {
+
+  private static final long MICROS_PER_SECOND = 1_000_000L;
+
+  private AvroValues() {}
+
+  /**
+   * Returns the given Avro datum as an instance of the Java type returned by {@link
+   * AvroTypes#readType(Schema)} for the same schema.
+   */
+  @Nullable
+  static Object read(@Nullable Object value, @NonNull Schema schema) {
+    if (value == null) {
+      return null;
+    }
+    LogicalType logicalType = schema.getLogicalType();
+    switch (schema.getType()) {
+      case UNION:
+        Schema nonNull = AvroTypes.nonNullBranch(schema);
+        return nonNull == null ? GenericData.get().toString(value) : read(value, nonNull);
+      case INT:
+        int i = (Integer) value;
+        if (logicalType instanceof LogicalTypes.Date) {
+          return LocalDate.ofEpochDay(i);
+        }
+        if (logicalType instanceof LogicalTypes.TimeMillis) {
+          return LocalTime.ofNanoOfDay(i * 1_000_000L);
+        }
+        return i;
+      case LONG:
+        long l = (Long) value;
+        if (logicalType instanceof LogicalTypes.TimestampMillis
+            || logicalType instanceof LogicalTypes.LocalTimestampMillis) {
+          return Instant.ofEpochMilli(l);
+        }
+        if (logicalType instanceof LogicalTypes.TimestampMicros
+            || logicalType instanceof LogicalTypes.LocalTimestampMicros) {
+          return Instant.ofEpochSecond(
+              Math.floorDiv(l, MICROS_PER_SECOND), Math.floorMod(l, MICROS_PER_SECOND) * 1_000L);
+        }
+        if (logicalType instanceof LogicalTypes.TimeMicros) {
+          return LocalTime.ofNanoOfDay(l * 1_000L);
+        }
+        return l;
+      case STRING:
+        return AvroTypes.isUuid(logicalType) ? UUID.fromString(value.toString()) : value.toString();
+      case BYTES:
+        ByteBuffer bytes = (ByteBuffer) value;
+        if (logicalType instanceof LogicalTypes.Decimal) {
+          byte[] unscaled = new byte[bytes.remaining()];
+          bytes.duplicate().get(unscaled);
+          return decimal(unscaled, (LogicalTypes.Decimal) logicalType);
+        }
+        return bytes;
+      case FIXED:
+        byte[] fixed = ((GenericFixed) value).bytes();
+        if (logicalType instanceof LogicalTypes.Decimal) {
+          return decimal(fixed, (LogicalTypes.Decimal) logicalType);
+        }
+        return ByteBuffer.wrap(fixed);
+      case ENUM:
+        return value.toString();
+      case ARRAY:
+        Collection<?> elements = (Collection<?>) value;
+        List<Object> list = new ArrayList<>(elements.size());
+        for (Object element : elements) {
+          list.add(read(element, schema.getElementType()));
+        }
+        return list;
+      case MAP:
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+          map.put(entry.getKey().toString(), read(entry.getValue(), schema.getValueType()));
+        }
+        return map;
+      case BOOLEAN:
+      case FLOAT:
+      case DOUBLE:
+        return value;
+      default:
+        // records are read as their JSON representation
+        return GenericData.get().toString(value);
+    }
+  }
+
+  @NonNull
+  private static BigDecimal decimal(@NonNull byte[] unscaled, LogicalTypes.Decimal decimal) {
+    return new BigDecimal(new BigInteger(unscaled), decimal.getScale());
+  }
+
+  /**
+   * Returns the Avro datum for the given value, which must be an instance of the Java type returned
+   * by {@link AvroTypes#writeType} for the CQL type that the schema was created from.
+   */
+  @Nullable
+  static Object write(@Nullable Object value, @NonNull Schema schema) {
+    if (value == null) {
+      return null;
+    }
+    LogicalType logicalType = schema.getLogicalType();
+    switch (schema.getType()) {
+      case UNION:
+        return write(value, AvroTypes.nonNullBranch(schema));
+      case INT:
+        if (logicalType instanceof LogicalTypes.Date) {
+          return Math.toIntExact(((LocalDate) value).toEpochDay());
+        }
+        return ((Number) value).intValue();
+      case LONG:
+        if (logicalType instanceof LogicalTypes.TimestampMillis) {
+          return ((Instant) value).toEpochMilli();
+        }
+        return ((Number) value).longValue();
+      case STRING:
+        return value.toString();
+      case ARRAY:
+        Collection<?> elements = (Collection<?>) value;
+        List<Object> list = new ArrayList<>(elements.size());
+        for (Object element : elements) {
+          list.add(write(element, schema.getElementType()));
+        }
+        return list;
+      case MAP:
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+          map.put(entry.getKey().toString(), write(entry.getValue(), schema.getValueType()));
+        }
+        return map;
+      default:
+        // booleans, floats, doubles and byte buffers are written as is
+        return value;
+    }
+  }
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.avro;
+
+import static com.datastax.oss.dsbulk.tests.utils.FileUtils.deleteDirectory;
+import static com.datastax.oss.dsbulk.tests.utils.StringUtils.quoteJson;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.dsbulk.connectors.api.DefaultMappedField;
+import com.datastax.oss.dsbulk.connectors.api.DefaultRecord;
+import com.datastax.oss.dsbulk.connectors.api.Field;
+import com.datastax.oss.dsbulk.connectors.api.Record;
+import com.datastax.oss.dsbulk.connectors.api.RecordMetadata;
+import com.datastax.oss.dsbulk.connectors.api.Resource;
+import com.datastax.oss.dsbulk.tests.utils.TestConfigUtils;
+import com.datastax.oss.dsbulk.url.BulkLoaderURLStreamHandlerFactory;
+import com.typesafe.config.Config;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import reactor.core.publisher.Flux;
+
+class AvroConnectorTest {
+
+  static {
+    BulkLoaderURLStreamHandlerFactory.install();
+  }
+
+  private static final URI RESOURCE = URI.create("cql://ks1/table1");
+
+  private static final Field ID = new DefaultMappedField("id");
+  private static final Field NAME = new DefaultMappedField("name");
+  private static final Field PRICE = new DefaultMappedField("price");
+  private static final Field CREATED = new DefaultMappedField("created");
+  private static final Field DAY = new DefaultMappedField("day");
+  private static final Field TIME = new DefaultMappedField("time");
+  private static final Field UUID_FIELD = new DefaultMappedField("uuid");
+  private static final Field BLOB = new DefaultMappedField("blob");
+  private static final Field TAGS = new DefaultMappedField("tags");
+  private static final Field SCORES = new DefaultMappedField("scores");
+  private static final Field EMBEDDING = new DefaultMappedField("embedding");
+
+  private Path dir;
+
+  @BeforeEach
+  void createDirectory() throws Exception {
+    dir = Files.createTempDirectory("avro");
+  }
+
+  @AfterEach
+  void deleteTempDirectory() {
+    deleteDirectory(dir);
+  }
+
+  @Test
+  void should_write_and_read_back_typed_values() throws Exception {
+    Instant created = Instant.parse("2020-01-01T12:34:56.789Z");
+    LocalDate day = LocalDate.of(2020, 1, 1);
+    UUID uuid = UUID.randomUUID();
+    Map<String, Double> scores = new LinkedHashMap<>();
+    scores.put("a", 1.5d);
+    scores.put("b", null);
+    Map<Field, Object> values = new LinkedHashMap<>();
+    values.put(ID, 1);
+    values.put(NAME, "foo");
+    values.put(PRICE, 1.5f);
+    values.put(CREATED, created);
+    values.put(DAY, day);
+    values.put(TIME, "12:34:56.123456789");
+    values.put(UUID_FIELD, uuid);
+    values.put(BLOB, ByteBuffer.wrap(new byte[] {1, 2, 3}));
+    values.put(TAGS, Arrays.asList("x", null, "y"));
+    values.put(SCORES, scores);
+    values.put(EMBEDDING, Arrays.asList(0.1f, 0.2f, 0.3f));
+    Map<Field, Object> nulls = new LinkedHashMap<>();
+    values.keySet().forEach(field -> nulls.put(field, null));
+    write(
+        Arrays.asList(
+            DefaultRecord.mapped(null, RESOURCE, 1, values),
+            DefaultRecord.mapped(null, RESOURCE, 2, nulls)));
+
+    AvroConnector connector = newReadConnector();
+    List<Record> records = readAll(connector);
+    RecordMetadata metadata = connector.getRecordMetadata();
+    assertThat(metadata.getFieldType(ID, DataTypes.BIGINT)).isEqualTo(GenericType.INTEGER);
+    assertThat(metadata.getFieldType(CREATED, DataTypes.TIMESTAMP)).isEqualTo(GenericType.INSTANT);
+    assertThat(metadata.getFieldType(UUID_FIELD, DataTypes.UUID)).isEqualTo(GenericType.UUID);
+    assertThat(metadata.getFieldType(TIME, DataTypes.TIME)).isEqualTo(GenericType.STRING);
+    assertThat(metadata.getFieldType(TAGS, DataTypes.listOf(DataTypes.TEXT)))
+        .isEqualTo(GenericType.listOf(GenericType.STRING));
+    assertThat(metadata.getFieldType(EMBEDDING, DataTypes.vectorOf(DataTypes.FLOAT, 3)))
+        .isEqualTo(GenericType.listOf(GenericType.FLOAT));
+    connector.close();
+    assertThat(records).hasSize(2);
+    Record record = records.get(0);
+    assertThat(record.fields()).containsExactlyElementsOf(values.keySet());
+    assertThat(record.getPosition()).isOne();
+    assertThat(record.getFieldValue(ID)).isEqualTo(1);
+    assertThat(record.getFieldValue(NAME)).isEqualTo("foo");
+    assertThat(record.getFieldValue(PRICE)).isEqualTo(1.5f);
+    assertThat(record.getFieldValue(CREATED)).isEqualTo(created);
+    assertThat(record.getFieldValue(DAY)).isEqualTo(day);
+    assertThat(record.getFieldValue(TIME)).isEqualTo("12:34:56.123456789");
+    assertThat(record.getFieldValue(UUID_FIELD)).isEqualTo(uuid);
+    assertThat(record.getFieldValue(BLOB)).isEqualTo(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+    assertThat(record.getFieldValue(TAGS)).isEqualTo(Arrays.asList("x", null, "y"));
+    assertThat(record.getFieldValue(SCORES)).isEqualTo(scores);
+    assertThat(record.getFieldValue(EMBEDDING)).isEqualTo(Arrays.asList(0.1f, 0.2f, 0.3f));
+    Record empty = records.get(1);
+    assertThat(empty.getPosition()).isEqualTo(2);
+    assertThat(empty.values()).containsOnlyNulls();
+  }
+
+  @Test
+  void should_read_only_projected_fields() throws Exception {
+    write(newRecords(10));
+    AvroConnector connector = newReadConnector();
+    connector.setProjectedFields(Collections.singleton(NAME));
+    List<Record> records = readAll(connector);
+    connector.close();
+    assertThat(records).hasSize(10);
+    assertThat(records).allSatisfy(record -> assertThat(record.fields()).containsExactly(NAME));
+    assertThat(records.get(3).getFieldValue(NAME)).isEqualTo("name3");
+  }
+
+  @Test
+  void should_read_splits_as_separate_resources() throws Exception {
+    write(newRecords(20000));
+    AvroConnector connector = newReadConnector("splitSize", 16384, "maxConcurrentFiles", 4);
+    assertThat(connector.readConcurrency()).isEqualTo(4);
+    List<Resource> resources = Flux.from(connector.read()).collectList().block();
+    assertThat(resources).hasSizeGreaterThan(1);
+    assertThat(resources)
+        .extracting(Resource::getURI)
+        .allSatisfy(uri -> assertThat(uri.getFragment()).startsWith("split="));
+    List<Record> records =
+        Flux.fromIterable(resources).flatMap(Resource::read, 4).collectList().block();
+    connector.close();
+    // each record is read exactly once, by the split containing the start of its block
+    assertThat(records)
+        .extracting(record -> record.getFieldValue(ID))
+        .containsExactlyInAnyOrderElementsOf(
+            Stream.iterate(0, i -> i + 1).limit(20000).collect(Collectors.toList()));
+  }
+
+  @Test
+  void should_not_split_files_when_limits_are_set() throws Exception {
+    write(newRecords(20000));
+    AvroConnector connector =
+        newReadConnector("splitSize", 16384, "skipRecords", 10, "maxRecords", 5);
+    assertThat(connector.readConcurrency()).isOne();
+    List<Record> records = readAll(connector);
+    connector.close();
+    assertThat(records).extracting(Record::getPosition).containsExactly(11L, 12L, 13L, 14L, 15L);
+  }
+
+  @Test
+  void should_roll_files_when_max_records_reached() throws Exception {
+    AvroConnector connector = newWriteConnector("maxRecords", 400);
+    Flux.fromIterable(newRecords(1000)).transform(connector.write()).blockLast();
+    connector.close();
+    assertThat(dir.resolve("output-000001.avro")).exists();
+    assertThat(dir.resolve("output-000002.avro")).exists();
+    assertThat(dir.resolve("output-000003.avro")).exists();
+    AvroConnector reader = newReadConnector();
+    assertThat(readAll(reader)).hasSize(1000);
+    reader.close();
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"none", "deflate", "snappy", "zstd"})
+  void should_write_and_read_with_compression(String compression) throws Exception {
+    write(newRecords(100), "compression", compression);
+    AvroConnector connector = newReadConnector();
+    List<Record> records = readAll(connector);
+    connector.close();
+    assertThat(records).hasSize(100);
+    assertThat(records.get(99).getFieldValue(NAME)).isEqualTo("name99");
+  }
+
+  @Test
+  void should_error_on_invalid_compression() {
+    AvroConnector connector = new AvroConnector();
+    Config settings =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.connector.avro", "url", quoteJson(dir), "compression", "lzo");
+    assertThatThrownBy(() -> connector.configure(settings, false, false))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage(
+            "Invalid value for connector.avro.compression, valid values: "
+                + "none,deflate,snappy,zstd, got: 'lzo'");
+  }
+
+  private void write(List<Record> records, Object... settings) throws Exception {
+    AvroConnector connector = newWriteConnector(settings);
+    Flux.fromIterable(records).transform(connector.write()).blockLast();
+    connector.close();
+  }
+
+  private AvroConnector newWriteConnector(Object... settings) throws Exception {
+    AvroConnector connector = new AvroConnector();
+    connector.configure(config(settings), false, false);
+    connector.init();
+    // the workflow reports the CQL type of each field before writing records
+    RecordMetadata metadata = connector.getRecordMetadata();
+    cqlTypes().forEach(metadata::getFieldType);
+    return connector;
+  }
+
+  private AvroConnector newReadConnector(Object... settings) throws Exception {
+    AvroConnector connector = new AvroConnector();
+    connector.configure(config(settings), true, false);
+    connector.init();
+    return connector;
+  }
+
+  private Config config(Object... settings) {
+    Object[] args = new Object[settings.length + 2];
+    args[0] = "url";
+    args[1] = quoteJson(dir);
+    System.arraycopy(settings, 0, args, 2, settings.length);
+    return TestConfigUtils.createTestConfig("dsbulk.connector.avro", args);
+  }
+
+  private static List<Record> readAll(AvroConnector connector) {
+    return Flux.from(connector.read()).concatMap(Resource::read).collectList().block();
+  }
+
+  private static Map<Field, DataType> cqlTypes() {
+    Map<Field, DataType> types = new LinkedHashMap<>();
+    types.put(ID, DataTypes.INT);
+    types.put(NAME, DataTypes.TEXT);
+    types.put(PRICE, DataTypes.FLOAT);
+    types.put(CREATED, DataTypes.TIMESTAMP);
+    types.put(DAY, DataTypes.DATE);
+    types.put(TIME, DataTypes.TIME);
+    types.put(UUID_FIELD, DataTypes.UUID);
+    types.put(BLOB, DataTypes.BLOB);
+    types.put(TAGS, DataTypes.listOf(DataTypes.TEXT));
+    types.put(SCORES, DataTypes.mapOf(DataTypes.TEXT, DataTypes.DOUBLE));
+    types.put(EMBEDDING, DataTypes.vectorOf(DataTypes.FLOAT, 3));
+    return types;
+  }
+
+  private static List<Record> newRecords(int count) {
+    List<Record> records = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      records.add(
+          DefaultRecord.mapped(null, RESOURCE, i + 1, new Field[] {ID, NAME}, i, "name" + i));
+    }
+    return records;
+  }
+}
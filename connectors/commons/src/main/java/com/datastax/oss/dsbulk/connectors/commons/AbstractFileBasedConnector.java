@@ -17,27 +17,34 @@ package com.datastax.oss.dsbulk.connectors.commons;
 
 import com.datastax.oss.dsbulk.config.ConfigUtils;
 import com.datastax.oss.dsbulk.connectors.api.Connector;
-import com.datastax.oss.dsbulk.connectors.api.DefaultResource;
 import com.datastax.oss.dsbulk.connectors.api.Record;
 import com.datastax.oss.dsbulk.connectors.api.Resource;
 import com.datastax.oss.dsbulk.io.CompressedIOUtils;
 import com.datastax.oss.dsbulk.io.IOUtils;
 import com.typesafe.config.Config;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.file.FileSystemNotFoundException;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Deque;
 import java.util.List;
 import java.util.Objects;
@@ -51,6 +58,8 @@ import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
 
 /** A parent class for connectors that read from and write to text-based files. */
 public abstract class AbstractFileBasedConnector implements Connector {
@@ -67,11 +76,37 @@ public abstract class AbstractFileBasedConnector implements Connector {
   protected static final String MAX_CONCURRENT_FILES = "maxConcurrentFiles";
   protected static final String RECURSIVE = "recursive";
   protected static final String FILE_NAME_FORMAT = "fileNameFormat";
+  protected static final String FILE_ORDER = "fileOrder";
+
+  /**
+   * The maximum number of directories listed concurrently when scanning a root directory; listing
+   * directories is I/O-bound, so this is deliberately not tied to the number of cores.
+   */
+  private static final int MAX_CONCURRENT_SCANS = 16;
+
+  /**
+   * The number of discovered files that are ordered together when {@link FileOrder#LARGEST_FIRST}
+   * is in effect. Files are handed to the workflow one window at a time, so that reading can start
+   * before a large directory has been fully scanned.
+   */
+  private static final int FILE_ORDER_WINDOW = 1024;
+
+  /** The order in which discovered files are handed over to the workflow when reading. */
+  protected enum FileOrder {
+    /** Files are read in the order they are discovered. */
+    DISCOVERY,
+    /**
+     * Larger files are read first, so that the longest-running files do not end up being read alone
+     * at the end of the operation.
+     */
+    LARGEST_FIRST
+  }
 
   protected boolean read;
   protected boolean retainRecordSources;
   protected List<URL> urls;
   protected List<Path> roots = new ArrayList<>();
+  protected URL rootURL;
   protected List<URL> files = new ArrayList<>();
   protected Charset encoding;
   protected String compression;
@@ -82,6 +117,7 @@ public abstract class AbstractFileBasedConnector implements Connector {
   protected long maxRecords;
   protected int resourceCount;
   protected int maxConcurrentFiles;
+  protected FileOrder fileOrder;
   protected Deque<RecordWriter> writers;
   protected RecordWriter singleWriter;
   protected List<RecordWriter> writersToClose;
@@ -99,8 +135,8 @@ public abstract class AbstractFileBasedConnector implements Connector {
   @Override
   public int writeConcurrency() {
     assert !read;
-    // When writing to an URL, force write concurrency to 1
-    if (roots.isEmpty()) {
+    // When writing to a single URL, force write concurrency to 1
+    if (!isWritingToDirectory()) {
       return 1;
     }
     return maxConcurrentFiles;
@@ -139,6 +175,7 @@ public abstract class AbstractFileBasedConnector implements Connector {
     }
     skipRecords = settings.getLong(SKIP_RECORDS);
     maxRecords = settings.getLong(MAX_RECORDS);
+    fileOrder = settings.getEnum(FileOrder.class, FILE_ORDER);
   }
 
   @Override
@@ -150,7 +187,7 @@ public abstract class AbstractFileBasedConnector implements Connector {
       fileCounter = new AtomicInteger(0);
       nextWriterIndex = new AtomicInteger(0);
       writersToClose = new ArrayList<>();
-      if (!roots.isEmpty() && maxConcurrentFiles > 1) {
+      if (isWritingToDirectory() && maxConcurrentFiles > 1) {
         writers = new ConcurrentLinkedDeque<>();
         for (int i = 0; i < maxConcurrentFiles; i++) {
           RecordWriter writer = newSingleFileWriter();
@@ -168,21 +205,51 @@ public abstract class AbstractFileBasedConnector implements Connector {
   @Override
   public Publisher<Resource> read() {
     assert read;
-    return Flux.concat(
-            Flux.fromIterable(roots).flatMap(this::scanRootDirectory), Flux.fromIterable(files))
-        .map(
-            url -> {
-              URI resource = URI.create(url.toExternalForm());
-              Flux<Record> flux = readSingleFile(url, resource).transform(this::applyPerFileLimits);
-              return new DefaultResource(resource, flux);
-            });
+    return urlsToRead().map(url -> new FileResource(url, URI.create(url.toExternalForm())));
+  }
+
+  /**
+   * A file being read. Supports resuming from a given byte offset if the connector {@linkplain
+   * #canSeek(URL) can seek} inside the file.
+   */
+  private class FileResource implements Resource {
+
+    private final URL url;
+    private final URI resource;
+
+    private FileResource(URL url, URI resource) {
+      this.url = url;
+      this.resource = resource;
+    }
+
+    @NonNull
+    @Override
+    public URI getURI() {
+      return resource;
+    }
+
+    @NonNull
+    @Override
+    public Publisher<Record> read() {
+      return readSingleFile(url, resource, 1, 0);
+    }
+
+    @NonNull
+    @Override
+    public Publisher<Record> read(long position, long offset) {
+      if (position > 1 && offset > 0 && canSeek(url)) {
+        LOGGER.debug("Resuming {} at record {} (byte offset {})", url, position, offset);
+        return readSingleFile(url, resource, position, offset);
+      }
+      return read();
+    }
   }
 
   @NonNull
   @Override
   public Function<Publisher<Record>, Publisher<Record>> write() {
     assert !read;
-    if (!roots.isEmpty() && maxConcurrentFiles > 1) {
+    if (isWritingToDirectory() && maxConcurrentFiles > 1) {
       return records ->
           Flux.deferContextual(
                   ctx -> {
@@ -279,6 +346,110 @@ public abstract class AbstractFileBasedConnector implements Connector {
         });
   }
 
+  /**
+   * Reads a single file accessible through the given URL, starting with the record at the given
+   * position, located at the given byte offset. Used during the {@linkplain #read() data reading
+   * phase}.
+   *
+   * <p>This method applies {@code skipRecords} and {@code maxRecords}, taking into account the
+   * records located before the starting position. Records to skip are first {@linkplain
+   * RecordReader#skip(long) fast-forwarded} by the reader, if it supports it.
+   *
+   * @param url The URL to read; must not be null; must be accessible and readable.
+   * @param resource The resource URI.
+   * @param position The position of the first record to read; 1 to read from the beginning.
+   * @param offset The byte offset of the first record to read; 0 to read from the beginning.
+   * @return A stream of {@link Record}s; never null but may be empty.
+   */
+  @NonNull
+  protected Flux<Record> readSingleFile(
+      @NonNull URL url, @NonNull URI resource, long position, long offset) {
+    long recordsToSkip = Math.max(0, skipRecords - position + 1);
+    long recordsToTake =
+        maxRecords == -1 ? -1 : Math.max(0, maxRecords - Math.max(0, position - 1 - skipRecords));
+    return Flux.defer(
+        () -> {
+          RecordReader reader = null;
+          long skipped = 0;
+          try {
+            reader =
+                offset == 0
+                    ? newSingleFileReader(url, resource)
+                    : newSingleFileReader(url, resource, position, offset);
+            if (recordsToSkip > 0) {
+              skipped = reader.skip(recordsToSkip);
+            }
+          } catch (Exception e) {
+            if (reader != null) {
+              closeReader(url, reader);
+            }
+            return Flux.error(e);
+          }
+          RecordReader initialized = reader;
+          Flux<Record> records =
+              Flux.generate(
+                  () -> initialized,
+                  RecordReader::readNext,
+                  recordReader -> closeReader(url, recordReader));
+          if (recordsToSkip > skipped) {
+            records = records.skip(recordsToSkip - skipped);
+          }
+          if (recordsToTake != -1) {
+            records = records.take(recordsToTake);
+          }
+          return records;
+        });
+  }
+
+  private static void closeReader(@NonNull URL url, @NonNull RecordReader reader) {
+    try {
+      reader.close();
+    } catch (Exception e) {
+      LOGGER.error("Error closing " + url, e);
+    }
+  }
+
+  /**
+   * Returns true if this connector can resume reading the given file from an arbitrary record
+   * boundary, see {@link #newSingleFileReader(URL, URI, long, long)}. The default implementation
+   * returns false.
+   *
+   * <p>Connectors that return true should also report the {@linkplain Record#getEndOffset() end
+   * offset} of the records they read from such files.
+   */
+  protected boolean canSeek(@NonNull URL url) {
+    return false;
+  }
+
+  /**
+   * Returns true if the given URL is an uncompressed file on the local filesystem, and its encoding
+   * allows mapping characters to byte offsets; such files can be read from an arbitrary byte
+   * offset.
+   */
+  protected boolean isSeekableTextFile(@NonNull URL url) {
+    return "file".equals(url.getProtocol())
+        && CompressedIOUtils.isNoneCompression(compression)
+        && OffsetTrackingReader.isSupported(encoding);
+  }
+
+  /**
+   * Opens a reader for the given URL, starting at the given byte offset. A non-zero offset is only
+   * allowed if the URL is a {@linkplain #isSeekableTextFile(URL) seekable text file}.
+   */
+  @NonNull
+  protected Reader newBufferedReader(@NonNull URL url, long offset) throws IOException {
+    if (offset == 0) {
+      return CompressedIOUtils.newBufferedReader(url, encoding, compression);
+    }
+    try {
+      FileChannel channel = FileChannel.open(Paths.get(url.toURI()), StandardOpenOption.READ);
+      channel.position(offset);
+      return new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), encoding));
+    } catch (URISyntaxException e) {
+      throw new IOException("Cannot open " + url, e);
+    }
+  }
+
   /**
    * Returns a new {@link RecordReader} instance; cannot be null. Only used when reading. Each
    * invocation of this method is expected to return a newly-allocated instance. The reader is
@@ -289,6 +460,61 @@ public abstract class AbstractFileBasedConnector implements Connector {
   protected abstract RecordReader newSingleFileReader(@NonNull URL url, URI resource)
       throws IOException;
 
+  /**
+   * Returns a new {@link RecordReader} instance that starts reading at the given byte offset, where
+   * the record at the given position begins. Only invoked if {@link #canSeek(URL)} returns true for
+   * the given URL.
+   *
+   * <p>The default implementation ignores the offset: it reads the file from the beginning, and
+   * discards the records preceding the given position.
+   */
+  @NonNull
+  protected RecordReader newSingleFileReader(
+      @NonNull URL url, URI resource, long position, long offset) throws IOException {
+    RecordReader reader = newSingleFileReader(url, resource);
+    try {
+      long toDiscard = position - 1;
+      toDiscard -= reader.skip(toDiscard);
+      DiscardingSink sink = new DiscardingSink();
+      while (toDiscard > 0 && !sink.completed) {
+        reader.readNext(sink);
+        toDiscard--;
+      }
+      return reader;
+    } catch (IOException | RuntimeException e) {
+      closeReader(url, reader);
+      throw e;
+    }
+  }
+
+  /** A sink that discards records, and rethrows errors. */
+  private static class DiscardingSink implements SynchronousSink<Record> {
+
+    private boolean completed;
+
+    @Override
+    public void next(@NonNull Record record) {}
+
+    @Override
+    public void complete() {
+      completed = true;
+    }
+
+    @Override
+    public void error(@NonNull Throwable error) {
+      throw error instanceof RuntimeException
+          ? (RuntimeException) error
+          : new UncheckedIOException(
+              error instanceof IOException ? (IOException) error : new IOException(error));
+    }
+
+    @NonNull
+    @Override
+    public Context currentContext() {
+      return Context.empty();
+    }
+  }
+
   /**
    * A reader for {@link Record}s. Implementors are not expected to deal with thread-safety issues,
    * these are handled by this class.
@@ -309,6 +535,21 @@ public abstract class AbstractFileBasedConnector implements Connector {
     @NonNull
     RecordReader readNext(@NonNull SynchronousSink<Record> sink);
 
+    /**
+     * Fast-forwards this reader past the given number of records, without emitting them. Invoked at
+     * most once, before the first record is read.
+     *
+     * <p>The default implementation does nothing and returns zero; the records are then read and
+     * discarded downstream.
+     *
+     * @param records The number of records to skip.
+     * @return The number of records that were skipped by this reader.
+     * @throws IOException If the records cannot be skipped.
+     */
+    default long skip(long records) throws IOException {
+      return 0;
+    }
+
     /**
      * Closes the underlying file being read. Once this method is called, it is guaranteed that
      * {@link #readNext(SynchronousSink)} will not be called anymore.
@@ -462,6 +703,10 @@ public abstract class AbstractFileBasedConnector implements Connector {
    *
    * <p>This method expects that {@link #loadURLs(Config)} has been previously called, and also
    * expects exactly one URL to be present, which can be either a directory or a file.
+   *
+   * <p>URLs that are not on a known filesystem, such as S3 URLs, are treated as directories if
+   * their path ends with a slash; files are then created under that prefix using {@link
+   * #fileNameFormat}.
    */
   protected void processURLsForWrite() throws URISyntaxException, IOException {
     try {
@@ -486,36 +731,85 @@ public abstract class AbstractFileBasedConnector implements Connector {
       }
     } catch (FileSystemNotFoundException ignored) {
       // not a path on a known filesystem, fall back to writing to URL directly
+      URL url = urls.get(0);
+      if (!IOUtils.isStandardStream(url) && url.getPath().endsWith("/")) {
+        rootURL = url;
+      }
+    }
+  }
+
+  /**
+   * Returns true if the connector writes to a directory of files, either on a known filesystem or
+   * under a URL prefix; false if it writes to a single URL. Not used for reads.
+   */
+  protected boolean isWritingToDirectory() {
+    return !roots.isEmpty() || rootURL != null;
+  }
+
+  /**
+   * Returns all the URLs to read: files found in root directories first, then individual files, in
+   * the order dictated by {@link #fileOrder}. Only used when reading, never when writing.
+   */
+  @NonNull
+  protected Flux<URL> urlsToRead() {
+    Flux<URL> urls =
+        Flux.concat(
+            Flux.fromIterable(roots).flatMap(this::scanRootDirectory), Flux.fromIterable(files));
+    if (fileOrder == FileOrder.LARGEST_FIRST) {
+      urls =
+          urls.map(SizedURL::new)
+              .buffer(FILE_ORDER_WINDOW)
+              .flatMapIterable(
+                  window -> {
+                    // stable sort: files of unknown or equal sizes keep their discovery order
+                    window.sort(Comparator.comparingLong((SizedURL file) -> file.size).reversed());
+                    return window;
+                  })
+              .map(file -> file.url);
     }
+    return urls;
   }
 
   /**
    * Scans a directory for readable files and returns the files found as a stream. Only used when
    * reading, never when writing. Normally used as part of the actual {@linkplain #read() data
    * reading phase}.
+   *
+   * <p>Subdirectories are listed concurrently, and files are emitted as soon as they are found,
+   * without waiting for the whole tree to be scanned. As a consequence, files are not emitted in
+   * any particular order. Symbolic links to directories are not followed.
    */
   @NonNull
   protected Flux<URL> scanRootDirectory(@NonNull Path root) {
-    try {
-      // this stream will be closed by the flux, do not add it to a try-with-resources block
-      @SuppressWarnings({"StreamResourceLeak", "BlockingMethodInNonBlockingContext"})
-      Stream<Path> files = Files.walk(root, recursive ? Integer.MAX_VALUE : 1);
-      PathMatcher matcher = root.getFileSystem().getPathMatcher("glob:" + pattern);
-      return Flux.fromStream(files)
-          .filter(Files::isReadable)
-          .filter(Files::isRegularFile)
-          .filter(matcher::matches)
-          .map(
-              file -> {
-                try {
-                  return file.toUri().toURL();
-                } catch (MalformedURLException e) {
-                  throw new UncheckedIOException(e);
-                }
-              });
-    } catch (IOException e) {
-      throw new UncheckedIOException("Error scanning directory " + root, e);
-    }
+    PathMatcher matcher = root.getFileSystem().getPathMatcher("glob:" + pattern);
+    return scanDirectory(root)
+        .filter(Files::isReadable)
+        .filter(Files::isRegularFile)
+        .filter(matcher::matches)
+        .map(
+            file -> {
+              try {
+                return file.toUri().toURL();
+              } catch (MalformedURLException e) {
+                throw new UncheckedIOException(e);
+              }
+            });
+  }
+
+  @NonNull
+  private Flux<Path> scanDirectory(@NonNull Path dir) {
+    return Flux.using(() -> Files.list(dir), Flux::fromStream, Stream::close)
+        .onErrorMap(
+            IOException.class, e -> new UncheckedIOException("Error scanning directory " + dir, e))
+        .subscribeOn(Schedulers.boundedElastic())
+        .flatMap(
+            path -> {
+              if (recursive && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                return scanDirectory(path);
+              }
+              return Mono.just(path);
+            },
+            MAX_CONCURRENT_SCANS);
   }
 
   /**
@@ -551,6 +845,17 @@ public abstract class AbstractFileBasedConnector implements Connector {
             String.format("Could not create file URL with format %s", fileNameFormat), e);
       }
     }
+    if (rootURL != null) {
+      try {
+        String next = String.format(fileNameFormat, fileCounter.incrementAndGet());
+        // preserve the query string, it may contain settings such as credentials
+        String query = rootURL.getQuery() == null ? "" : "?" + rootURL.getQuery();
+        return new URL(rootURL, rootURL.getPath() + next + query);
+      } catch (MalformedURLException e) {
+        throw new UncheckedIOException(
+            String.format("Could not create file URL with format %s", fileNameFormat), e);
+      }
+    }
     // assume we are writing to a single URL and ignore fileNameFormat
     return urls.get(0);
   }
@@ -567,4 +872,30 @@ public abstract class AbstractFileBasedConnector implements Connector {
   protected boolean isDataSizeSamplingAvailable() {
     return read && urls.stream().noneMatch(IOUtils::isStandardStream);
   }
+
+  /** A URL to read, with the size of the file it points to, or -1 if the size is unknown. */
+  private static final class SizedURL {
+
+    private final URL url;
+    private final long size;
+
+    private SizedURL(@NonNull URL url) {
+      this.url = url;
+      this.size = sizeOf(url);
+    }
+
+    private static long sizeOf(@NonNull URL url) {
+      if (!IOUtils.isStandardStream(url)) {
+        try {
+          return Files.size(Paths.get(url.toURI()));
+        } catch (FileSystemNotFoundException
+            | IllegalArgumentException
+            | URISyntaxException
+            | IOException ignored) {
+          // not a file on a known filesystem, or not readable: the size is unknown
+        }
+      }
+      return -1;
+    }
+  }
 }
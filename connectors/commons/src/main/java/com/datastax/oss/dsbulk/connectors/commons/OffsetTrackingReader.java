@@ -0,0 +1,141 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.commons;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A {@link Reader} that maps character indices back to byte offsets in the underlying input.
+ *
+ * <p>Parsers only expose how many characters they consumed; this reader retains the characters it
+ * handed out until they are {@linkplain #byteOffset(long) resolved}, and computes their encoded
+ * length. This only works for charsets where the encoded length of a character can be derived from
+ * the character alone, see {@link #isSupported(Charset)}.
+ *
+ * <p>Character indices must be resolved in increasing order. Some parsers read their input on a
+ * separate thread, hence this class is thread-safe.
+ */
+public class OffsetTrackingReader extends Reader {
+
+  /**
+   * Returns true if the given charset encodes each character with a number of bytes that only
+   * depends on the character itself: UTF-8 and all single-byte charsets.
+   */
+  public static boolean isSupported(@NonNull Charset charset) {
+    return charset.equals(StandardCharsets.UTF_8)
+        || (charset.canEncode() && charset.newEncoder().maxBytesPerChar() == 1f);
+  }
+
+  private final Reader delegate;
+  private final boolean utf8;
+
+  private char[] buffer = new char[8192];
+  private int start;
+  private int end;
+
+  private long baseChar;
+  private long baseByte;
+
+  /**
+   * Creates a new reader.
+   *
+   * @param delegate the reader to read characters from.
+   * @param charset the charset used to decode the underlying input; must be {@linkplain
+   *     #isSupported(Charset) supported}.
+   * @param initialOffset the byte offset in the underlying input where {@code delegate} starts.
+   */
+  public OffsetTrackingReader(
+      @NonNull Reader delegate, @NonNull Charset charset, long initialOffset) {
+    if (!isSupported(charset)) {
+      throw new IllegalArgumentException("Unsupported charset for offset tracking: " + charset);
+    }
+    this.delegate = delegate;
+    this.utf8 = charset.equals(StandardCharsets.UTF_8);
+    this.baseByte = initialOffset;
+  }
+
+  @Override
+  public int read(@NonNull char[] cbuf, int off, int len) throws IOException {
+    int read = delegate.read(cbuf, off, len);
+    if (read > 0) {
+      retain(cbuf, off, read);
+    }
+    return read;
+  }
+
+  @Override
+  public void close() throws IOException {
+    delegate.close();
+  }
+
+  /**
+   * Returns the byte offset, in the underlying input, of the character at the given index.
+   *
+   * @param charIndex the number of characters read from this reader before the character whose
+   *     offset is requested; must not be lesser than the index passed to the previous invocation.
+   * @return the byte offset of the given character.
+   */
+  public synchronized long byteOffset(long charIndex) {
+    long count = charIndex - baseChar;
+    if (count < 0 || count > end - start) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Character index %d is out of range [%d, %d]",
+              charIndex, baseChar, baseChar + end - start));
+    }
+    long bytes = 0;
+    int limit = start + (int) count;
+    for (int i = start; i < limit; i++) {
+      bytes += encodedLength(buffer[i]);
+    }
+    start = limit;
+    baseChar = charIndex;
+    baseByte += bytes;
+    return baseByte;
+  }
+
+  private synchronized void retain(char[] cbuf, int off, int len) {
+    if (end + len > buffer.length) {
+      int retained = end - start;
+      if (retained + len > buffer.length) {
+        char[] grown = new char[Math.max(buffer.length * 2, retained + len)];
+        System.arraycopy(buffer, start, grown, 0, retained);
+        buffer = grown;
+      } else {
+        System.arraycopy(buffer, start, buffer, 0, retained);
+      }
+      start = 0;
+      end = retained;
+    }
+    System.arraycopy(cbuf, off, buffer, end, len);
+    end += len;
+  }
+
+  private int encodedLength(char c) {
+    if (!utf8 || c < 0x80) {
+      return 1;
+    }
+    if (c < 0x800 || Character.isSurrogate(c)) {
+      // each half of a surrogate pair accounts for half of the 4-byte sequence
+      return 2;
+    }
+    return 3;
+  }
+}
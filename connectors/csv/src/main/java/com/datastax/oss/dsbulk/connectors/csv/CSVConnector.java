@@ -28,6 +28,7 @@ import com.datastax.oss.dsbulk.connectors.api.MappedField;
 import com.datastax.oss.dsbulk.connectors.api.Record;
 import com.datastax.oss.dsbulk.connectors.api.RecordMetadata;
 import com.datastax.oss.dsbulk.connectors.commons.AbstractFileBasedConnector;
+import com.datastax.oss.dsbulk.connectors.commons.OffsetTrackingReader;
 import com.datastax.oss.dsbulk.io.CompressedIOUtils;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigException;
@@ -40,6 +41,7 @@ import com.univocity.parsers.csv.CsvParserSettings;
 import com.univocity.parsers.csv.CsvWriter;
 import com.univocity.parsers.csv.CsvWriterSettings;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import java.io.IOException;
 import java.io.Reader;
 import java.net.URI;
@@ -69,6 +71,7 @@ public class CSVConnector extends AbstractFileBasedConnector {
   private static final Logger LOGGER = LoggerFactory.getLogger(CSVConnector.class);
   private static final GenericType<String> STRING_TYPE = GenericType.STRING;
   private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final long RECORDS_TO_SKIP_AT_ONCE = 1024;
 
   private static final String DELIMITER = "delimiter";
   private static final String QUOTE = "quote";
@@ -167,7 +170,7 @@ public class CSVConnector extends AbstractFileBasedConnector {
       parserSettings.setEmptyValue(AUTO.equalsIgnoreCase(emptyValue) ? "" : emptyValue);
       // do not use this feature as the parser throws an error if the file
       // has fewer lines than skipRecords;
-      // we'll use the skip() operator instead.
+      // we'll skip records in CSVRecordReader.skip() instead.
       // parserSettings.setNumberOfRowsToSkip(skipRecords);
       parserSettings.setHeaderExtractionEnabled(header);
       parserSettings.setMaxCharsPerColumn(maxCharsPerColumn);
@@ -226,10 +229,22 @@ public class CSVConnector extends AbstractFileBasedConnector {
     return false;
   }
 
+  @Override
+  protected boolean canSeek(@NonNull URL url) {
+    return isSeekableTextFile(url);
+  }
+
   @Override
   @NonNull
   protected RecordReader newSingleFileReader(@NonNull URL url, URI resource) throws IOException {
-    return new CSVRecordReader(url, resource);
+    return new CSVRecordReader(url, resource, 1, 0);
+  }
+
+  @Override
+  @NonNull
+  protected RecordReader newSingleFileReader(
+      @NonNull URL url, URI resource, long position, long offset) throws IOException {
+    return new CSVRecordReader(url, resource, position, offset);
   }
 
   private class CSVRecordReader implements RecordReader {
@@ -239,18 +254,42 @@ public class CSVConnector extends AbstractFileBasedConnector {
     private final CsvParser parser;
     private final ParsingContext context;
     private final MappedField[] fieldNames;
+    @Nullable private final OffsetTrackingReader offsets;
 
-    private long recordNumber = 1;
+    private long recordNumber;
 
-    private CSVRecordReader(URL url, URI resource) throws IOException {
+    private CSVRecordReader(URL url, URI resource, long position, long offset) throws IOException {
       this.url = url;
       this.resource = resource;
+      this.recordNumber = position;
       try {
-        parser = new CsvParser(parserSettings);
-        Reader r = CompressedIOUtils.newBufferedReader(url, encoding, compression);
-        parser.beginParsing(r);
-        context = parser.getContext();
-        fieldNames = header ? getFieldNames(url, context) : null;
+        Reader r = newBufferedReader(url, offset);
+        offsets = canSeek(url) ? new OffsetTrackingReader(r, encoding, offset) : null;
+        if (offset == 0) {
+          parser = new CsvParser(parserSettings);
+          parser.beginParsing(offsets == null ? r : offsets);
+          context = parser.getContext();
+          fieldNames = header ? getFieldNames(url, context) : null;
+        } else {
+          // the header line, if any, and the line separator, if it must be detected, are
+          // determined from the beginning of the file, not from the offset
+          CsvParserSettings settings = parserSettings.clone();
+          settings.setHeaderExtractionEnabled(false);
+          CsvParser probe = new CsvParser(parserSettings);
+          try {
+            probe.beginParsing(newBufferedReader(url, 0));
+            fieldNames = header ? getFieldNames(url, probe.getContext()) : null;
+            if (parserSettings.isLineSeparatorDetectionEnabled()) {
+              settings.setLineSeparatorDetectionEnabled(false);
+              settings.getFormat().setLineSeparator(probe.getDetectedFormat().getLineSeparator());
+            }
+          } finally {
+            probe.stopParsing();
+          }
+          parser = new CsvParser(settings);
+          parser.beginParsing(offsets);
+          context = parser.getContext();
+        }
       } catch (Exception e) {
         throw asIOException(url, e, "Error creating CSV parser for " + url);
       }
@@ -304,23 +343,52 @@ public class CSVConnector extends AbstractFileBasedConnector {
       return this;
     }
 
+    @Override
+    public long skip(long records) throws IOException {
+      // Skipped records are parsed, so that multi-line records are skipped as a whole, but no
+      // Record instances are built for them.
+      long skipped = 0;
+      try {
+        while (skipped < records && parser.parseNext() != null) {
+          skipped++;
+          recordNumber++;
+          if (offsets != null && skipped % RECORDS_TO_SKIP_AT_ONCE == 0) {
+            // release the characters retained by the offset tracker
+            offsets.byteOffset(context.currentChar());
+          }
+        }
+      } catch (Exception e) {
+        throw asIOException(
+            url, e, String.format("Error reading from %s at line %d", url, recordNumber));
+      }
+      if (offsets != null) {
+        offsets.byteOffset(context.currentChar());
+      }
+      return skipped;
+    }
+
     @NonNull
     private Record parseNext(com.univocity.parsers.common.record.Record row) {
       String source = retainRecordSources ? context.currentParsedContent() : null;
+      long endOffset = offsets == null ? -1 : offsets.byteOffset(context.currentChar());
       Record record;
       try {
         Object[] values = row.getValues();
+        DefaultRecord defaultRecord;
         if (header) {
-          record = DefaultRecord.mapped(source, resource, recordNumber++, fieldNames, values);
+          defaultRecord =
+              DefaultRecord.mapped(source, resource, recordNumber++, fieldNames, values);
           // also emit indexed fields
           for (int i = 0; i < values.length; i++) {
             DefaultIndexedField field = new DefaultIndexedField(i);
             Object value = values[i];
-            ((DefaultRecord) record).setFieldValue(field, value);
+            defaultRecord.setFieldValue(field, value);
           }
         } else {
-          record = DefaultRecord.indexed(source, resource, recordNumber++, values);
+          defaultRecord = DefaultRecord.indexed(source, resource, recordNumber++, values);
         }
+        defaultRecord.setEndOffset(endOffset);
+        record = defaultRecord;
       } catch (Exception e) {
         record = new DefaultErrorRecord(source, resource, recordNumber, e);
       }
@@ -372,7 +440,7 @@ public class CSVConnector extends AbstractFileBasedConnector {
     }
 
     private boolean shouldRoll() {
-      return !roots.isEmpty() && writer.getRecordCount() == maxRecords;
+      return isWritingToDirectory() && writer.getRecordCount() == maxRecords;
     }
 
     private void open() throws IOException {
@@ -510,6 +510,76 @@ class CSVConnectorTest {
     connector.close();
   }
 
+  @Test
+  void should_read_largest_files_first() throws Exception {
+    CSVConnector connector = new CSVConnector();
+    Path rootPath = Files.createTempDirectory("sizes");
+    try {
+      Files.createDirectories(rootPath.resolve("a/b"));
+      Files.write(rootPath.resolve("small.csv"), "h\n1\n".getBytes(UTF_8));
+      Files.write(rootPath.resolve("a/large.csv"), "h\n1\n2\n3\n4\n".getBytes(UTF_8));
+      Files.write(rootPath.resolve("a/b/medium.csv"), "h\n1\n2\n".getBytes(UTF_8));
+      Config settings =
+          TestConfigUtils.createTestConfig(
+              "dsbulk.connector.csv", "url", StringUtils.quoteJson(rootPath), "recursive", true);
+      connector.configure(settings, true, true);
+      connector.init();
+      List<URI> resources = Flux.from(connector.read()).map(Resource::getURI).collectList().block();
+      assertThat(resources)
+          .containsExactly(
+              rootPath.resolve("a/large.csv").toUri(),
+              rootPath.resolve("a/b/medium.csv").toUri(),
+              rootPath.resolve("small.csv").toUri());
+      connector.close();
+    } finally {
+      FileUtils.deleteDirectory(rootPath);
+    }
+  }
+
+  @Test
+  void should_read_files_in_discovery_order() throws Exception {
+    Path rootPath = Files.createTempDirectory("sizes");
+    try {
+      Path small = Files.write(rootPath.resolve("small.csv"), "h\n1\n".getBytes(UTF_8));
+      Path large = Files.write(rootPath.resolve("large.csv"), "h\n1\n2\n3\n4\n".getBytes(UTF_8));
+      Path medium = Files.write(rootPath.resolve("medium.csv"), "h\n1\n2\n".getBytes(UTF_8));
+      // files listed in a URL file are discovered in the order they are listed
+      Path urlFile =
+          FileUtils.createURLFile(
+              small.toUri().toURL(), large.toUri().toURL(), medium.toUri().toURL());
+      try {
+        CSVConnector connector = new CSVConnector();
+        Config settings =
+            TestConfigUtils.createTestConfig(
+                "dsbulk.connector.csv",
+                "urlfile",
+                StringUtils.quoteJson(urlFile),
+                "fileOrder",
+                "DISCOVERY");
+        connector.configure(settings, true, true);
+        connector.init();
+        List<URI> resources =
+            Flux.from(connector.read()).map(Resource::getURI).collectList().block();
+        assertThat(resources).containsExactly(small.toUri(), large.toUri(), medium.toUri());
+        connector.close();
+        // the same files are size-sorted by default
+        connector = new CSVConnector();
+        settings =
+            TestConfigUtils.createTestConfig(
+                "dsbulk.connector.csv", "urlfile", StringUtils.quoteJson(urlFile));
+        connector.configure(settings, true, true);
+        connector.init();
+        resources = Flux.from(connector.read()).map(Resource::getURI).collectList().block();
+        assertThat(resources).containsExactly(large.toUri(), medium.toUri(), small.toUri());
+        connector.close();
+      } finally {
+        Files.delete(urlFile);
+      }
+    } finally {
+      FileUtils.deleteDirectory(rootPath);
+    }
+  }
+
   @Test
   void should_warn_when_directory_empty(@LogCapture LogInterceptor logs) throws Exception {
     CSVConnector connector = new CSVConnector();
@@ -806,6 +876,29 @@ class CSVConnectorTest {
     assertThat(nextFile.getPath()).endsWith("output-1000000.csv");
   }
 
+  @Test
+  void should_generate_file_names_under_url_prefix() throws Exception {
+    CSVConnector connector = new CSVConnector();
+    Config settings =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.connector.csv",
+            "url",
+            StringUtils.quoteJson("http://localhost:1234/unload/?token=secret"),
+            "maxConcurrentFiles",
+            2);
+    connector.configure(settings, false, true);
+    connector.init();
+    assertThat(connector.writeConcurrency()).isEqualTo(2);
+    Method getOrCreateDestinationURL =
+        ReflectionUtils.locateMethod("getOrCreateDestinationURL", CSVConnector.class, 0);
+    URL nextFile = ReflectionUtils.invokeMethod(getOrCreateDestinationURL, connector, URL.class);
+    assertThat(nextFile.toExternalForm())
+        .isEqualTo("http://localhost:1234/unload/output-000001.csv?token=secret");
+    nextFile = ReflectionUtils.invokeMethod(getOrCreateDestinationURL, connector, URL.class);
+    assertThat(nextFile.toExternalForm())
+        .isEqualTo("http://localhost:1234/unload/output-000002.csv?token=secret");
+  }
+
   @Test
   void should_roll_file_when_max_lines_reached() throws Exception {
     CSVConnector connector = new CSVConnector();
@@ -971,6 +1064,107 @@ class CSVConnectorTest {
     connector.close();
   }
 
+  @Test
+  void should_resume_from_record_end_offsets() throws Exception {
+    Path file = Files.createTempFile("resume", ".csv");
+    try {
+      Files.write(
+          file,
+          "\uFEFFname,city\r\nAmélie,Zürich\r\n\"multi\nline\",東京\r\nBob,\"Paris, \uD83D\uDE00\"\r\nZoé,Oslo\r\n"
+              .getBytes(UTF_8));
+      CSVConnector connector = new CSVConnector();
+      Config settings =
+          TestConfigUtils.createTestConfig(
+              "dsbulk.connector.csv", "url", StringUtils.quoteJson(file), "header", true);
+      connector.configure(settings, true, true);
+      connector.init();
+      Resource resource = Flux.from(connector.read()).blockFirst();
+      assertThat(resource).isNotNull();
+      List<Record> records = Flux.from(resource.read()).collectList().block();
+      assertThat(records).isNotNull().hasSize(4);
+      assertThat(records.get(3).getEndOffset()).isEqualTo(Files.size(file));
+      for (int i = 0; i < 3; i++) {
+        Record last = records.get(i);
+        List<Record> resumed =
+            Flux.from(resource.read(last.getPosition() + 1, last.getEndOffset()))
+                .collectList()
+                .block();
+        assertThat(resumed).isEqualTo(records.subList(i + 1, 4));
+      }
+      connector.close();
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  void should_honor_max_records_and_skip_records_when_resuming() throws Exception {
+    Path file = Files.createTempFile("resume", ".csv");
+    try {
+      Files.write(file, "1\n2\n3\n4\n5\n6\n7\n".getBytes(UTF_8));
+      CSVConnector connector = new CSVConnector();
+      Config settings =
+          TestConfigUtils.createTestConfig(
+              "dsbulk.connector.csv",
+              "url",
+              StringUtils.quoteJson(file),
+              "header",
+              false,
+              "skipRecords",
+              2,
+              "maxRecords",
+              3);
+      connector.configure(settings, true, true);
+      connector.init();
+      Resource resource = Flux.from(connector.read()).blockFirst();
+      assertThat(resource).isNotNull();
+      List<Record> records = Flux.from(resource.read()).collectList().block();
+      assertThat(records).extracting(Record::getPosition).containsExactly(3L, 4L, 5L);
+      // resume right after record 3
+      List<Record> resumed =
+          Flux.from(resource.read(4, records.get(0).getEndOffset())).collectList().block();
+      assertThat(resumed).extracting(Record::getPosition).containsExactly(4L, 5L);
+      assertThat(resumed)
+          .extracting(record -> record.getFieldValue(new DefaultIndexedField(0)))
+          .containsExactly("4", "5");
+      connector.close();
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  void should_skip_multi_line_records() throws Exception {
+    Path file = Files.createTempFile("skip", ".csv");
+    try {
+      Files.write(file, "\"1\nfoo\",a\n#comment\n\n\"2\nbar\nbaz\",b\n3,c\n4,d\n".getBytes(UTF_8));
+      CSVConnector connector = new CSVConnector();
+      Config settings =
+          TestConfigUtils.createTestConfig(
+              "dsbulk.connector.csv",
+              "url",
+              StringUtils.quoteJson(file),
+              "header",
+              false,
+              "comment",
+              "\"#\"",
+              "skipRecords",
+              2);
+      connector.configure(settings, true, true);
+      connector.init();
+      Resource resource = Flux.from(connector.read()).blockFirst();
+      assertThat(resource).isNotNull();
+      List<Record> records = Flux.from(resource.read()).collectList().block();
+      assertThat(records).extracting(Record::getPosition).containsExactly(3L, 4L);
+      assertThat(records)
+          .extracting(record -> record.getFieldValue(new DefaultIndexedField(0)))
+          .containsExactly("3", "4");
+      connector.close();
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
   @Test
   void should_honor_ignoreLeadingWhitespaces_and_ignoreTrailingWhitespaces_when_reading()
       throws Exception {
@@ -15,7 +15,11 @@
  */
 package com.datastax.oss.dsbulk.connectors.json;
 
+import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.FIELD_NAME;
+
 import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.dsbulk.codecs.text.json.JsonCodecUtils;
 import com.datastax.oss.dsbulk.config.ConfigUtils;
 import com.datastax.oss.dsbulk.connectors.api.CommonConnectorFeature;
 import com.datastax.oss.dsbulk.connectors.api.ConnectorFeature;
@@ -25,6 +29,7 @@ import com.datastax.oss.dsbulk.connectors.api.MappedField;
 import com.datastax.oss.dsbulk.connectors.api.Record;
 import com.datastax.oss.dsbulk.connectors.api.RecordMetadata;
 import com.datastax.oss.dsbulk.connectors.commons.AbstractFileBasedConnector;
+import com.datastax.oss.dsbulk.connectors.commons.OffsetTrackingReader;
 import com.datastax.oss.dsbulk.io.CompressedIOUtils;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonFactory;
@@ -36,24 +41,23 @@ import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigException;
 import edu.umd.cs.findbugs.annotations.NonNull;
-import java.io.BufferedReader;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import java.io.IOException;
+import java.io.Reader;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLStreamHandler;
 import java.nio.channels.ClosedChannelException;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
-import java.util.Map.Entry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.SynchronousSink;
@@ -79,6 +83,8 @@ public class JsonConnector extends AbstractFileBasedConnector {
 
   private static final GenericType<JsonNode> JSON_NODE_TYPE_TOKEN = GenericType.of(JsonNode.class);
 
+  private static final int MAX_CACHED_FIELDS = 1024;
+
   private static final String MODE = "mode";
   private static final String PARSER_FEATURES = "parserFeatures";
   private static final String GENERATOR_FEATURES = "generatorFeatures";
@@ -171,62 +177,96 @@ public class JsonConnector extends AbstractFileBasedConnector {
     return false;
   }
 
+  @Override
+  protected boolean canSeek(@NonNull URL url) {
+    // in single-document mode, records are elements of a top-level array and cannot be parsed
+    // starting from the middle of it
+    return mode == DocumentMode.MULTI_DOCUMENT && isSeekableTextFile(url);
+  }
+
   @Override
   @NonNull
   protected RecordReader newSingleFileReader(@NonNull URL url, URI resource) throws IOException {
-    return new JsonRecordReader(url, resource);
+    return new JsonRecordReader(url, resource, 1, 0);
   }
 
+  @Override
+  @NonNull
+  protected RecordReader newSingleFileReader(
+      @NonNull URL url, URI resource, long position, long offset) throws IOException {
+    return new JsonRecordReader(url, resource, position, offset);
+  }
+
+  /**
+   * A reader that walks the parser tokens of each document and builds the record fields directly.
+   *
+   * <p>Scalar values are emitted as leaf {@link JsonNode}s created straight from the current token;
+   * a tree is only built for values that are themselves objects or arrays, typically targeting
+   * collection, tuple or UDT columns. Top-level documents are therefore never materialized as
+   * {@link ObjectNode} trees, unless record sources must be retained.
+   */
   private class JsonRecordReader implements RecordReader {
 
     private final URL url;
     private final URI resource;
     private final JsonParser parser;
-    private final MappingIterator<JsonNode> nodesIterator;
+    private final JsonNodeFactory nodeFactory;
+    private final boolean failOnDuplicateKeys;
+    private final Map<String, MappedField> fieldsCache = new HashMap<>();
+    @Nullable private final OffsetTrackingReader offsets;
 
-    private long recordNumber = 1;
+    private long recordNumber;
 
-    private JsonRecordReader(URL url, URI resource) throws IOException {
+    private JsonRecordReader(URL url, URI resource, long position, long offset) throws IOException {
       this.url = url;
       this.resource = resource;
+      this.recordNumber = position;
       try {
         JsonFactory factory = objectMapper.getFactory();
-        BufferedReader r = CompressedIOUtils.newBufferedReader(url, encoding, compression);
-        parser = factory.createParser(r);
+        Reader r = newBufferedReader(url, offset);
+        offsets = canSeek(url) ? new OffsetTrackingReader(r, encoding, offset) : null;
+        parser = factory.createParser(offsets == null ? r : offsets);
         if (mode == DocumentMode.SINGLE_DOCUMENT) {
           do {
             parser.nextToken();
           } while (parser.currentToken() != JsonToken.START_ARRAY && parser.currentToken() != null);
-          parser.nextToken();
         }
-        nodesIterator = objectMapper.readValues(parser, JsonNode.class);
       } catch (Exception e) {
         throw new IOException(String.format("Error reading from %s", url), e);
       }
+      nodeFactory = objectMapper.getNodeFactory();
+      failOnDuplicateKeys =
+          objectMapper.isEnabled(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY);
     }
 
     @NonNull
     @Override
     public RecordReader readNext(@NonNull SynchronousSink<Record> sink) {
       try {
-        if (nodesIterator.hasNext()) {
-          if (parser.currentToken() != JsonToken.START_OBJECT) {
+        JsonToken token = parser.nextToken();
+        if (token != null && !(mode == DocumentMode.SINGLE_DOCUMENT && token == END_ARRAY)) {
+          if (token != JsonToken.START_OBJECT) {
             throw new JsonParseException(
                 parser,
                 String.format(
                     "Expecting START_OBJECT, got %s. Did you forget to set connector.json.mode to SINGLE_DOCUMENT?",
-                    parser.currentToken()));
+                    token));
           }
-          JsonNode source = nodesIterator.next();
-          Map<MappedField, JsonNode> fields = new HashMap<>();
-          Iterator<Entry<String, JsonNode>> children = source.fields();
-          while (children.hasNext()) {
-            Entry<String, JsonNode> child = children.next();
-            fields.put(new DefaultMappedField(child.getKey()), child.getValue());
+          ObjectNode source = retainRecordSources ? nodeFactory.objectNode() : null;
+          DefaultRecord record = new DefaultRecord(source, resource, recordNumber++);
+          while (parser.nextToken() == FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            JsonNode value = JsonCodecUtils.readNode(parser);
+            if (record.put(getMappedField(name), value) != null && failOnDuplicateKeys) {
+              throw new JsonParseException(
+                  parser, String.format("Duplicate field '%s' for ObjectNode", name));
+            }
+            if (source != null) {
+              source.set(name, value);
+            }
           }
-          Record record =
-              DefaultRecord.mapped(
-                  retainRecordSources ? source : null, resource, recordNumber++, fields);
+          record.setEndOffset(currentOffset());
           LOGGER.trace("Emitting record {}", record);
           sink.next(record);
         } else {
@@ -239,6 +279,44 @@ public class JsonConnector extends AbstractFileBasedConnector {
       return this;
     }
 
+    @Override
+    public long skip(long records) throws IOException {
+      // skipped documents are tokenized, but neither their values nor records are built
+      long skipped = 0;
+      while (skipped < records) {
+        JsonToken token = parser.nextToken();
+        if (token == null || (mode == DocumentMode.SINGLE_DOCUMENT && token == END_ARRAY)) {
+          break;
+        }
+        parser.skipChildren();
+        currentOffset();
+        skipped++;
+      }
+      recordNumber += skipped;
+      return skipped;
+    }
+
+    /**
+     * Returns the byte offset right after the last consumed token, or -1 if offsets are not
+     * tracked.
+     */
+    private long currentOffset() {
+      return offsets == null ? -1 : offsets.byteOffset(parser.getCurrentLocation().getCharOffset());
+    }
+
+    @NonNull
+    private MappedField getMappedField(String name) {
+      MappedField field = fieldsCache.get(name);
+      if (field == null) {
+        field = new DefaultMappedField(name);
+        // only cache a reasonable number of distinct field names
+        if (fieldsCache.size() < MAX_CACHED_FIELDS) {
+          fieldsCache.put(name, field);
+        }
+      }
+      return field;
+    }
+
     @Override
     public void close() throws IOException {
       if (parser != null) {
@@ -283,7 +361,7 @@ public class JsonConnector extends AbstractFileBasedConnector {
     }
 
     private boolean shouldRoll() {
-      return !roots.isEmpty() && currentLine == maxRecords;
+      return isWritingToDirectory() && currentLine == maxRecords;
     }
 
     private void open() throws IOException {
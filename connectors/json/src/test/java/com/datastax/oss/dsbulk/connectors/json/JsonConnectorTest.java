@@ -61,9 +61,12 @@ import java.io.InputStreamReader;
 import java.io.PrintStream;
 import java.io.UncheckedIOException;
 import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -300,6 +303,58 @@ class JsonConnectorTest {
     }
   }
 
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void should_read_typed_scalars_and_nested_values(boolean retainRecordSources) throws Exception {
+    InputStream stdin = System.in;
+    try {
+      String lines =
+          "{\"i\":1,\"l\":12345678901,\"b\":123456789012345678901234567890,\"d\":1.50,"
+              + "\"s\":\"foo\",\"t\":true,\"n\":null,\"a\":[1,[2]],\"o\":{\"f\":{\"g\":1}}}\n"
+              + "{\"i\":2}\n";
+      System.setIn(new ByteArrayInputStream(lines.getBytes(Charsets.UTF_8)));
+      JsonConnector connector = new JsonConnector();
+      Config settings = TestConfigUtils.createTestConfig("dsbulk.connector.json");
+      connector.configure(settings, true, retainRecordSources);
+      connector.init();
+      List<Record> actual =
+          Flux.from(connector.read()).flatMap(Resource::read).collectList().block();
+      assertThat(actual).isNotNull().hasSize(2);
+      Record record = actual.get(0);
+      assertThat(record.fields())
+          .extracting(Field::getFieldDescription)
+          .containsExactly("i", "l", "b", "d", "s", "t", "n", "a", "o");
+      assertThat(record.getFieldValue(new DefaultMappedField("i")))
+          .isEqualTo(factory.numberNode(1));
+      assertThat(record.getFieldValue(new DefaultMappedField("l")))
+          .isEqualTo(factory.numberNode(12345678901L));
+      assertThat(record.getFieldValue(new DefaultMappedField("b")))
+          .isEqualTo(factory.numberNode(new BigInteger("123456789012345678901234567890")));
+      // USE_BIG_DECIMAL_FOR_FLOATS is enabled by default, scale must be preserved
+      assertThat(record.getFieldValue(new DefaultMappedField("d")))
+          .isEqualTo(JsonNodeFactory.withExactBigDecimals(true).numberNode(new BigDecimal("1.50")));
+      assertThat(record.getFieldValue(new DefaultMappedField("s")))
+          .isEqualTo(factory.textNode("foo"));
+      assertThat(record.getFieldValue(new DefaultMappedField("t")))
+          .isEqualTo(factory.booleanNode(true));
+      assertThat(record.getFieldValue(new DefaultMappedField("n"))).isEqualTo(factory.nullNode());
+      assertThat(record.getFieldValue(new DefaultMappedField("a")))
+          .isEqualTo(objectMapper.readTree("[1,[2]]"));
+      assertThat(record.getFieldValue(new DefaultMappedField("o")))
+          .isEqualTo(objectMapper.readTree("{\"f\":{\"g\":1}}"));
+      if (retainRecordSources) {
+        assertThat(record.getSource().toString()).isEqualTo(lines.split("\n")[0]);
+      } else {
+        assertThat(record.getSource()).isNull();
+      }
+      assertThat(actual.get(1).getPosition()).isEqualTo(2L);
+      assertThat(actual.get(1).fields()).containsExactly(new DefaultMappedField("i"));
+      connector.close();
+    } finally {
+      System.setIn(stdin);
+    }
+  }
+
   @Test
   void should_write_to_stdout_with_special_encoding() throws Exception {
     PrintStream stdout = System.out;
@@ -978,6 +1033,41 @@ class JsonConnectorTest {
     connector.close();
   }
 
+  @Test
+  void should_resume_from_record_end_offsets() throws Exception {
+    Path file = Files.createTempFile("resume", ".json");
+    try {
+      Files.write(
+          file,
+          ("{\"name\": \"Amélie\", \"city\": \"Zürich\"}\n"
+                  + "{\n  \"name\": \"Bob\",\n  \"tags\": [\"東京\", {\"a\": 1}]\n}\n"
+                  + "{\"name\": \"\uD83D\uDE00\"} {\"name\": \"Zoé\"}\n")
+              .getBytes(StandardCharsets.UTF_8));
+      JsonConnector connector = new JsonConnector();
+      Config settings =
+          TestConfigUtils.createTestConfig(
+              "dsbulk.connector.json", "url", quoteJson(file), "skipRecords", 1);
+      connector.configure(settings, true, true);
+      connector.init();
+      Resource resource = Flux.from(connector.read()).blockFirst();
+      assertThat(resource).isNotNull();
+      List<Record> records = Flux.from(resource.read()).collectList().block();
+      assertThat(records).extracting(Record::getPosition).containsExactly(2L, 3L, 4L);
+      assertThat(records.get(2).getEndOffset()).isEqualTo(Files.size(file) - 1);
+      for (int i = 0; i < 2; i++) {
+        Record last = records.get(i);
+        List<Record> resumed =
+            Flux.from(resource.read(last.getPosition() + 1, last.getEndOffset()))
+                .collectList()
+                .block();
+        assertThat(resumed).isEqualTo(records.subList(i + 1, 3));
+      }
+      connector.close();
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
   @Test
   void should_error_on_empty_url() {
     try (JsonConnector connector = new JsonConnector()) {
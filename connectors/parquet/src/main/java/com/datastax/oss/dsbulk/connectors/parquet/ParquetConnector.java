@@ -0,0 +1,566 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.parquet;
+
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.dsbulk.config.ConfigUtils;
+import com.datastax.oss.dsbulk.connectors.api.CommonConnectorFeature;
+import com.datastax.oss.dsbulk.connectors.api.ConnectorFeature;
+import com.datastax.oss.dsbulk.connectors.api.DefaultMappedField;
+import com.datastax.oss.dsbulk.connectors.api.DefaultRecord;
+import com.datastax.oss.dsbulk.connectors.api.DefaultResource;
+import com.datastax.oss.dsbulk.connectors.api.Field;
+import com.datastax.oss.dsbulk.connectors.api.MappedField;
+import com.datastax.oss.dsbulk.connectors.api.Record;
+import com.datastax.oss.dsbulk.connectors.api.RecordMetadata;
+import com.datastax.oss.dsbulk.connectors.api.Resource;
+import com.datastax.oss.dsbulk.connectors.commons.AbstractFileBasedConnector;
+import com.datastax.oss.dsbulk.io.CompressedIOUtils;
+import com.datastax.oss.dsbulk.io.IOUtils;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigValueFactory;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLStreamHandler;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.util.HadoopCodecs;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+
+/**
+ * A connector for Apache Parquet files.
+ *
+ * <p>Values are read with the Java type that matches their Parquet type, and are then converted to
+ * their target CQL types by DSBulk's codecs; no intermediate text representation is involved. Only
+ * the columns actually consumed by the operation are read, and the row groups of large files are
+ * exposed as separate resources, so that they can be read in parallel.
+ *
+ * <p>It is capable of reading from any URL, provided that there is a {@link URLStreamHandler
+ * handler} installed for it; since Parquet files require random access, resources not located on
+ * the local filesystem are first copied to a temporary file. For file URLs, it is also capable of
+ * reading several files at once from a given root directory.
+ *
+ * <p>This connector is highly configurable; see its {@code dsbulk-reference.conf} file, bundled
+ * within its jar archive, for detailed information.
+ */
+public class ParquetConnector extends AbstractFileBasedConnector {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ParquetConnector.class);
+
+  private static final String ROW_GROUP_SIZE = "rowGroupSize";
+
+  private static final Set<CompressionCodecName> SUPPORTED_CODECS =
+      EnumSet.of(
+          CompressionCodecName.UNCOMPRESSED,
+          CompressionCodecName.SNAPPY,
+          CompressionCodecName.GZIP,
+          CompressionCodecName.ZSTD,
+          CompressionCodecName.LZ4_RAW);
+
+  private CompressionCodecName codec;
+  private long rowGroupSize;
+  private Configuration configuration;
+  private ParquetReadOptions readOptions;
+  private MessageType firstSchema;
+  private volatile Set<String> projectedFields;
+  private final ConcurrentMap<URL, Path> localCopies = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Field, DataType> writeTypes = new ConcurrentHashMap<>();
+
+  @Override
+  @NonNull
+  public String getConnectorName() {
+    return "parquet";
+  }
+
+  @Override
+  public void configure(@NonNull Config settings, boolean read, boolean retainRecordSources) {
+    try {
+      // the compression setting designates a Parquet page codec, not a stream compression, and
+      // Parquet files are binary: neutralize both settings for the parent class
+      super.configure(
+          settings
+              .withValue(
+                  COMPRESSION, ConfigValueFactory.fromAnyRef(CompressedIOUtils.NONE_COMPRESSION))
+              .withValue(ENCODING, ConfigValueFactory.fromAnyRef("UTF-8")),
+          read,
+          retainRecordSources);
+      String codecName = settings.getString(COMPRESSION);
+      codec =
+          SUPPORTED_CODECS.stream()
+              .filter(c -> c.name().equalsIgnoreCase(codecName))
+              .findFirst()
+              .orElseThrow(
+                  () ->
+                      new IllegalArgumentException(
+                          String.format(
+                              "Invalid value for connector.parquet.%s, valid values: %s, got: '%s'",
+                              COMPRESSION,
+                              SUPPORTED_CODECS.stream()
+                                  .map(Enum::name)
+                                  .collect(Collectors.joining(",")),
+                              codecName)));
+      rowGroupSize = ConfigUtils.getBytes(settings, ROW_GROUP_SIZE);
+      if (rowGroupSize <= 0) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Invalid value for connector.parquet.%s: Expecting integer > 0, got: %d",
+                ROW_GROUP_SIZE, rowGroupSize));
+      }
+    } catch (ConfigException e) {
+      throw ConfigUtils.convertConfigException(e, "dsbulk.connector.parquet");
+    }
+  }
+
+  @Override
+  public void init() throws URISyntaxException, IOException {
+    super.init();
+    // never load Hadoop's default resources, the connector does not rely on any of them
+    configuration = new Configuration(false);
+    if (read) {
+      readOptions =
+          ParquetReadOptions.builder()
+              .withCodecFactory(HadoopCodecs.newFactory(configuration, 0))
+              .build();
+      // count row groups as resources, to size the read concurrency accordingly; also infer the
+      // record metadata from the first file
+      List<URL> sample = Objects.requireNonNull(urlsToRead().take(1000).collectList().block());
+      resourceCount = 0;
+      for (URL url : sample) {
+        try (ParquetFileReader reader = openReader(url)) {
+          if (firstSchema == null) {
+            firstSchema = reader.getFooter().getFileMetaData().getSchema();
+          }
+          resourceCount += isSplittable() ? Math.max(1, reader.getRowGroups().size()) : 1;
+        }
+      }
+    }
+  }
+
+  @Override
+  public void setProjectedFields(@NonNull Set<Field> fields) {
+    if (fields.stream().allMatch(MappedField.class::isInstance)) {
+      projectedFields =
+          fields.stream()
+              .map(MappedField.class::cast)
+              .map(MappedField::getFieldName)
+              .collect(Collectors.toSet());
+    }
+  }
+
+  @NonNull
+  @Override
+  public RecordMetadata getRecordMetadata() {
+    if (read) {
+      return (field, cqlType) -> {
+        if (firstSchema != null && field instanceof MappedField) {
+          String name = ((MappedField) field).getFieldName();
+          if (firstSchema.containsField(name)) {
+            return ParquetTypes.readType(firstSchema.getType(name));
+          }
+        }
+        return GenericType.STRING;
+      };
+    }
+    return (field, cqlType) -> {
+      writeTypes.putIfAbsent(field, cqlType);
+      return ParquetTypes.writeType(cqlType);
+    };
+  }
+
+  @Override
+  public boolean supports(@NonNull ConnectorFeature feature) {
+    if (feature instanceof CommonConnectorFeature) {
+      CommonConnectorFeature commonFeature = (CommonConnectorFeature) feature;
+      switch (commonFeature) {
+        case MAPPED_RECORDS:
+          return true;
+        case INDEXED_RECORDS:
+          return false;
+        case DATA_SIZE_SAMPLING:
+          return isDataSizeSamplingAvailable();
+      }
+    }
+    return false;
+  }
+
+  @NonNull
+  @Override
+  public Publisher<Resource> read() {
+    assert read;
+    return urlsToRead()
+        .concatMap(url -> Mono.fromCallable(() -> resourcesOf(url)).flatMapIterable(r -> r));
+  }
+
+  @Override
+  public void close() {
+    try {
+      super.close();
+    } finally {
+      for (Path copy : localCopies.values()) {
+        try {
+          Files.deleteIfExists(copy);
+        } catch (IOException e) {
+          LOGGER.warn("Could not delete temporary file " + copy, e);
+        }
+      }
+      localCopies.clear();
+    }
+  }
+
+  /**
+   * Per-file limits apply to files as a whole; when any is set, files cannot be split in row
+   * groups.
+   */
+  private boolean isSplittable() {
+    return skipRecords <= 0 && maxRecords == -1;
+  }
+
+  @NonNull
+  private List<Resource> resourcesOf(@NonNull URL url) throws IOException {
+    URI file = URI.create(url.toExternalForm());
+    int rowGroups = 1;
+    if (isSplittable()) {
+      try (ParquetFileReader reader = openReader(url)) {
+        rowGroups = reader.getRowGroups().size();
+      }
+    }
+    if (rowGroups <= 1) {
+      Flux<Record> records = readSingleFile(url, file).transform(this::applyPerFileLimits);
+      return Collections.singletonList(new DefaultResource(file, records));
+    }
+    List<Resource> resources = new ArrayList<>(rowGroups);
+    for (int i = 0; i < rowGroups; i++) {
+      int rowGroup = i;
+      URI resource = URI.create(file + "#rowgroup=" + rowGroup);
+      Flux<Record> records =
+          Flux.<Record, RecordReader>generate(
+              () -> new ParquetRecordReader(url, resource, rowGroup, rowGroup + 1),
+              RecordReader::readNext,
+              reader -> {
+                try {
+                  reader.close();
+                } catch (IOException e) {
+                  LOGGER.error("Error closing " + resource, e);
+                }
+              });
+      resources.add(new DefaultResource(resource, records));
+    }
+    return resources;
+  }
+
+  @NonNull
+  private ParquetFileReader openReader(@NonNull URL url) throws IOException {
+    try {
+      return new ParquetFileReader(new LocalInputFile(localFile(url)), readOptions);
+    } catch (RuntimeException | IOException e) {
+      throw new IOException(String.format("Error reading from %s", url), e);
+    }
+  }
+
+  /**
+   * Returns the local file to read for the given URL: the file itself if the URL designates a file
+   * on a known filesystem, or a temporary copy otherwise, created on first access.
+   */
+  @NonNull
+  private Path localFile(@NonNull URL url) throws IOException {
+    if (!IOUtils.isStandardStream(url)) {
+      try {
+        return Paths.get(url.toURI());
+      } catch (FileSystemNotFoundException
+          | IllegalArgumentException
+          | URISyntaxException ignored) {
+        // not a path on a known filesystem, fall back to copying
+      }
+    }
+    try {
+      return localCopies.computeIfAbsent(
+          url,
+          u -> {
+            try (InputStream in = IOUtils.newBufferedInputStream(u)) {
+              Path copy = Files.createTempFile("dsbulk-", ".parquet");
+              LOGGER.debug("Copying {} to {}", u, copy);
+              Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+              return copy;
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  @Override
+  @NonNull
+  protected RecordReader newSingleFileReader(@NonNull URL url, URI resource) throws IOException {
+    return new ParquetRecordReader(url, resource, 0, Integer.MAX_VALUE);
+  }
+
+  /** A reader for a range of row groups of a Parquet file. */
+  private class ParquetRecordReader implements RecordReader {
+
+    private final URI resource;
+    private final ParquetFileReader reader;
+    private final MessageColumnIO columnIO;
+    private final ParquetRecordMaterializer materializer;
+    private final Field[] fields;
+    private final int lastRowGroup;
+
+    private int nextRowGroup;
+    private long remaining;
+    private org.apache.parquet.io.RecordReader<Object[]> rowReader;
+    private long recordNumber = 1;
+
+    private ParquetRecordReader(URL url, URI resource, int firstRowGroup, int lastRowGroup)
+        throws IOException {
+      this.resource = resource;
+      reader = openReader(url);
+      try {
+        MessageType fileSchema = reader.getFooter().getFileMetaData().getSchema();
+        MessageType requestedSchema = project(fileSchema);
+        checkSchema(requestedSchema, url);
+        reader.setRequestedSchema(requestedSchema);
+        columnIO = new ColumnIOFactory().getColumnIO(requestedSchema, fileSchema);
+        materializer = new ParquetRecordMaterializer(requestedSchema);
+        fields =
+            requestedSchema.getFields().stream()
+                .map(Type::getName)
+                .map(DefaultMappedField::new)
+                .toArray(Field[]::new);
+        List<BlockMetaData> rowGroups = reader.getRowGroups();
+        this.lastRowGroup = Math.min(lastRowGroup, rowGroups.size());
+        nextRowGroup = firstRowGroup;
+        // record numbers are relative to the file, not to the row group
+        for (int i = 0; i < Math.min(firstRowGroup, rowGroups.size()); i++) {
+          recordNumber += rowGroups.get(i).getRowCount();
+        }
+      } catch (RuntimeException e) {
+        reader.close();
+        throw new IOException(String.format("Error reading from %s", url), e);
+      }
+    }
+
+    @NonNull
+    private MessageType project(@NonNull MessageType fileSchema) {
+      Set<String> projected = projectedFields;
+      if (projected != null) {
+        List<Type> requested =
+            fileSchema.getFields().stream()
+                .filter(type -> projected.contains(type.getName()))
+                .collect(Collectors.toList());
+        // if no field matches, read them all and let the mapping report missing fields
+        if (!requested.isEmpty()) {
+          return new MessageType(fileSchema.getName(), requested);
+        }
+      }
+      return fileSchema;
+    }
+
+    private void checkSchema(@NonNull MessageType requestedSchema, @NonNull URL url) {
+      for (Type type : requestedSchema.getFields()) {
+        GenericType<?> javaType = ParquetTypes.readType(type);
+        if (firstSchema != null && firstSchema.containsField(type.getName())) {
+          GenericType<?> expected = ParquetTypes.readType(firstSchema.getType(type.getName()));
+          if (!javaType.equals(expected)) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Parquet field %s in %s is read as %s, but as %s in the first file read; "
+                        + "all files must have compatible schemas",
+                    type.getName(), url, javaType, expected));
+          }
+        }
+      }
+    }
+
+    @NonNull
+    @Override
+    public RecordReader readNext(@NonNull SynchronousSink<Record> sink) {
+      try {
+        while (remaining == 0) {
+          if (nextRowGroup >= lastRowGroup) {
+            LOGGER.debug("Done reading {}", resource);
+            sink.complete();
+            return this;
+          }
+          PageReadStore pages = reader.readRowGroup(nextRowGroup++);
+          remaining = pages.getRowCount();
+          rowReader = columnIO.getRecordReader(pages, materializer);
+        }
+        Object[] values = rowReader.read();
+        remaining--;
+        Object source = retainRecordSources ? toSource(values) : null;
+        DefaultRecord record =
+            DefaultRecord.mapped(source, resource, recordNumber++, fields, values);
+        LOGGER.trace("Emitting record {}", record);
+        sink.next(record);
+      } catch (Exception e) {
+        sink.error(new IOException(String.format("Error reading from %s", resource), e));
+      }
+      return this;
+    }
+
+    @NonNull
+    private Map<String, Object> toSource(@NonNull Object[] values) {
+      Map<String, Object> source = new LinkedHashMap<>();
+      for (int i = 0; i < fields.length; i++) {
+        source.put(((MappedField) fields[i]).getFieldName(), values[i]);
+      }
+      return source;
+    }
+
+    @Override
+    public void close() throws IOException {
+      reader.close();
+    }
+  }
+
+  @NonNull
+  @Override
+  protected RecordWriter newSingleFileWriter() {
+    return new ParquetRecordWriter();
+  }
+
+  private class ParquetRecordWriter implements RecordWriter {
+
+    private URL url;
+    private ParquetWriter<Record> writer;
+    private long currentLine;
+
+    @Override
+    public void write(@NonNull Record record) throws IOException {
+      if (writer == null) {
+        open(record);
+      } else if (shouldRoll()) {
+        close();
+        open(record);
+      }
+      try {
+        LOGGER.trace("Writing record {}", record);
+        writer.write(record);
+        currentLine++;
+      } catch (RuntimeException e) {
+        throw new IOException(String.format("Error writing to %s", url), e);
+      }
+    }
+
+    private boolean shouldRoll() {
+      return isWritingToDirectory() && currentLine == maxRecords;
+    }
+
+    private void open(@NonNull Record record) throws IOException {
+      url = getOrCreateDestinationURL();
+      try {
+        // the schema is derived from the first record, and the CQL types reported for its fields
+        List<Field> fields = new ArrayList<>(record.fields());
+        List<DataType> cqlTypes =
+            fields.stream()
+                .map(field -> writeTypes.getOrDefault(field, DataTypes.TEXT))
+                .collect(Collectors.toList());
+        writer =
+            new RecordParquetWriterBuilder(
+                    new UrlOutputFile(url), new ParquetRecordWriteSupport(fields, cqlTypes))
+                .withConf(configuration)
+                .withCompressionCodec(codec)
+                .withRowGroupSize(rowGroupSize)
+                .build();
+        currentLine = 0;
+        LOGGER.debug("Writing " + url);
+      } catch (RuntimeException | IOException e) {
+        throw new IOException(String.format("Error opening %s", url), e);
+      }
+    }
+
+    @Override
+    public void flush() {
+      // Parquet files cannot be flushed before row groups are full
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (writer != null) {
+        try {
+          writer.close();
+          LOGGER.debug("Done writing {}", url);
+        } catch (RuntimeException e) {
+          throw new IOException(String.format("Error closing %s", url), e);
+        } finally {
+          writer = null;
+        }
+      }
+    }
+  }
+
+  private static class RecordParquetWriterBuilder
+      extends ParquetWriter.Builder<Record, RecordParquetWriterBuilder> {
+
+    private final WriteSupport<Record> writeSupport;
+
+    private RecordParquetWriterBuilder(
+        @NonNull UrlOutputFile file, @NonNull WriteSupport<Record> writeSupport) {
+      super(file);
+      this.writeSupport = writeSupport;
+    }
+
+    @Override
+    protected RecordParquetWriterBuilder self() {
+      return this;
+    }
+
+    @Override
+    protected WriteSupport<Record> getWriteSupport(Configuration conf) {
+      return writeSupport;
+    }
+  }
+}
@@ -0,0 +1,386 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.parquet;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.apache.parquet.column.Dictionary;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.io.api.RecordMaterializer;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.DateLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.DecimalLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.ListLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.MapLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimeLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimestampLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.UUIDLogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+
+/**
+ * Materializes Parquet rows as arrays of typed values, one per field of the requested schema.
+ *
+ * <p>Values are decoded straight from Parquet's physical representation into the Java types
+ * returned by {@link ParquetTypes#readType(Type)}, without any intermediate object model.
+ * Dictionary-encoded columns are decoded once per dictionary, not once per value.
+ */
+class ParquetRecordMaterializer extends RecordMaterializer<Object[]> {
+
+  private static final long JULIAN_EPOCH_DAY = 2_440_588L;
+
+  private final RowConverter root;
+
+  ParquetRecordMaterializer(@NonNull MessageType schema) {
+    root = new RowConverter(schema);
+  }
+
+  @Override
+  public Object[] getCurrentRecord() {
+    return root.values;
+  }
+
+  @Override
+  public GroupConverter getRootConverter() {
+    return root;
+  }
+
+  @NonNull
+  private static Converter newConverter(@NonNull Type type, @NonNull Consumer<Object> parent) {
+    if (type.isPrimitive()) {
+      return new ValueConverter(type.asPrimitiveType(), parent);
+    }
+    LogicalTypeAnnotation annotation = type.getLogicalTypeAnnotation();
+    if (annotation instanceof ListLogicalTypeAnnotation) {
+      return new ListConverter(type.asGroupType(), parent);
+    }
+    if (annotation instanceof MapLogicalTypeAnnotation) {
+      return new MapConverter(type.asGroupType(), parent);
+    }
+    // should have been caught by ParquetTypes.readType
+    throw new IllegalArgumentException("Unsupported Parquet field: " + type);
+  }
+
+  private static class RowConverter extends GroupConverter {
+
+    private final Converter[] converters;
+    private Object[] values;
+
+    private RowConverter(MessageType schema) {
+      converters = new Converter[schema.getFieldCount()];
+      for (int i = 0; i < converters.length; i++) {
+        int index = i;
+        converters[i] = newConverter(schema.getType(i), value -> values[index] = value);
+      }
+    }
+
+    @Override
+    public Converter getConverter(int fieldIndex) {
+      return converters[fieldIndex];
+    }
+
+    @Override
+    public void start() {
+      values = new Object[converters.length];
+    }
+
+    @Override
+    public void end() {}
+  }
+
+  private static class ListConverter extends GroupConverter {
+
+    private final Consumer<Object> parent;
+    private final Converter repeatedConverter;
+    private List<Object> elements;
+
+    private ListConverter(GroupType type, Consumer<Object> parent) {
+      this.parent = parent;
+      Type repeated = type.getType(0);
+      if (ParquetTypes.isElementWrapper(type, repeated)) {
+        repeatedConverter = new ElementConverter(repeated.asGroupType());
+      } else {
+        repeatedConverter = newConverter(repeated, value -> elements.add(value));
+      }
+    }
+
+    @Override
+    public Converter getConverter(int fieldIndex) {
+      return repeatedConverter;
+    }
+
+    @Override
+    public void start() {
+      elements = new ArrayList<>();
+    }
+
+    @Override
+    public void end() {
+      parent.accept(elements);
+    }
+
+    private class ElementConverter extends GroupConverter {
+
+      private final Converter elementConverter;
+      private Object element;
+
+      private ElementConverter(GroupType type) {
+        elementConverter = newConverter(type.getType(0), value -> element = value);
+      }
+
+      @Override
+      public Converter getConverter(int fieldIndex) {
+        return elementConverter;
+      }
+
+      @Override
+      public void start() {
+        element = null;
+      }
+
+      @Override
+      public void end() {
+        elements.add(element);
+      }
+    }
+  }
+
+  private static class MapConverter extends GroupConverter {
+
+    private final Consumer<Object> parent;
+    private final KeyValueConverter keyValueConverter;
+    private Map<Object, Object> entries;
+
+    private MapConverter(GroupType type, Consumer<Object> parent) {
+      this.parent = parent;
+      keyValueConverter = new KeyValueConverter(ParquetTypes.mapKeyValue(type));
+    }
+
+    @Override
+    public Converter getConverter(int fieldIndex) {
+      return keyValueConverter;
+    }
+
+    @Override
+    public void start() {
+      entries = new LinkedHashMap<>();
+    }
+
+    @Override
+    public void end() {
+      parent.accept(entries);
+    }
+
+    private class KeyValueConverter extends GroupConverter {
+
+      private final Converter keyConverter;
+      private final Converter valueConverter;
+      private Object key;
+      private Object value;
+
+      private KeyValueConverter(GroupType type) {
+        keyConverter = newConverter(type.getType(0), k -> key = k);
+        valueConverter = newConverter(type.getType(1), v -> value = v);
+      }
+
+      @Override
+      public Converter getConverter(int fieldIndex) {
+        return fieldIndex == 0 ? keyConverter : valueConverter;
+      }
+
+      @Override
+      public void start() {
+        key = null;
+        value = null;
+      }
+
+      @Override
+      public void end() {
+        entries.put(key, value);
+      }
+    }
+  }
+
+  private static class ValueConverter extends PrimitiveConverter {
+
+    private final PrimitiveTypeName typeName;
+    private final LogicalTypeAnnotation annotation;
+    private final Consumer<Object> parent;
+    private Object[] dictionary;
+
+    private ValueConverter(PrimitiveType type, Consumer<Object> parent) {
+      typeName = type.getPrimitiveTypeName();
+      annotation = type.getLogicalTypeAnnotation();
+      this.parent = parent;
+    }
+
+    @Override
+    public boolean hasDictionarySupport() {
+      return true;
+    }
+
+    @Override
+    public void setDictionary(Dictionary dictionary) {
+      this.dictionary = new Object[dictionary.getMaxId() + 1];
+      for (int id = 0; id <= dictionary.getMaxId(); id++) {
+        switch (typeName) {
+          case BOOLEAN:
+            this.dictionary[id] = dictionary.decodeToBoolean(id);
+            break;
+          case INT32:
+            this.dictionary[id] = decodeInt(dictionary.decodeToInt(id));
+            break;
+          case INT64:
+            this.dictionary[id] = decodeLong(dictionary.decodeToLong(id));
+            break;
+          case FLOAT:
+            this.dictionary[id] = dictionary.decodeToFloat(id);
+            break;
+          case DOUBLE:
+            this.dictionary[id] = dictionary.decodeToDouble(id);
+            break;
+          default:
+            this.dictionary[id] = decodeBinary(dictionary.decodeToBinary(id));
+        }
+      }
+    }
+
+    @Override
+    public void addValueFromDictionary(int dictionaryId) {
+      Object value = dictionary[dictionaryId];
+      if (value instanceof ByteBuffer) {
+        // buffers are not immutable, each record needs its own
+        value = ((ByteBuffer) value).duplicate();
+      }
+      parent.accept(value);
+    }
+
+    @Override
+    public void addBoolean(boolean value) {
+      parent.accept(value);
+    }
+
+    @Override
+    public void addInt(int value) {
+      parent.accept(decodeInt(value));
+    }
+
+    @Override
+    public void addLong(long value) {
+      parent.accept(decodeLong(value));
+    }
+
+    @Override
+    public void addFloat(float value) {
+      parent.accept(value);
+    }
+
+    @Override
+    public void addDouble(double value) {
+      parent.accept(value);
+    }
+
+    @Override
+    public void addBinary(Binary value) {
+      parent.accept(decodeBinary(value));
+    }
+
+    private Object decodeInt(int value) {
+      if (annotation instanceof DateLogicalTypeAnnotation) {
+        return LocalDate.ofEpochDay(value);
+      }
+      if (annotation instanceof TimeLogicalTypeAnnotation) {
+        return LocalTime.ofNanoOfDay(TimeUnit.MILLISECONDS.toNanos(value));
+      }
+      if (annotation instanceof DecimalLogicalTypeAnnotation) {
+        return BigDecimal.valueOf(value, ((DecimalLogicalTypeAnnotation) annotation).getScale());
+      }
+      return value;
+    }
+
+    private Object decodeLong(long value) {
+      if (annotation instanceof TimestampLogicalTypeAnnotation) {
+        switch (((TimestampLogicalTypeAnnotation) annotation).getUnit()) {
+          case MILLIS:
+            return Instant.ofEpochMilli(value);
+          case MICROS:
+            return Instant.ofEpochSecond(
+                Math.floorDiv(value, 1_000_000L), Math.floorMod(value, 1_000_000L) * 1_000L);
+          default:
+            return Instant.ofEpochSecond(
+                Math.floorDiv(value, 1_000_000_000L), Math.floorMod(value, 1_000_000_000L));
+        }
+      }
+      if (annotation instanceof TimeLogicalTypeAnnotation) {
+        switch (((TimeLogicalTypeAnnotation) annotation).getUnit()) {
+          case MILLIS:
+            return LocalTime.ofNanoOfDay(TimeUnit.MILLISECONDS.toNanos(value));
+          case MICROS:
+            return LocalTime.ofNanoOfDay(TimeUnit.MICROSECONDS.toNanos(value));
+          default:
+            return LocalTime.ofNanoOfDay(value);
+        }
+      }
+      if (annotation instanceof DecimalLogicalTypeAnnotation) {
+        return BigDecimal.valueOf(value, ((DecimalLogicalTypeAnnotation) annotation).getScale());
+      }
+      return value;
+    }
+
+    private Object decodeBinary(Binary value) {
+      if (typeName == PrimitiveTypeName.INT96) {
+        // legacy timestamps: nanos of day followed by the Julian day, little-endian
+        ByteBuffer bytes = value.toByteBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        long nanosOfDay = bytes.getLong();
+        long epochDay = bytes.getInt() - JULIAN_EPOCH_DAY;
+        return Instant.ofEpochSecond(TimeUnit.DAYS.toSeconds(epochDay), nanosOfDay);
+      }
+      if (annotation instanceof DecimalLogicalTypeAnnotation) {
+        return new BigDecimal(
+            new BigInteger(value.getBytes()),
+            ((DecimalLogicalTypeAnnotation) annotation).getScale());
+      }
+      if (annotation instanceof UUIDLogicalTypeAnnotation) {
+        ByteBuffer bytes = value.toByteBuffer();
+        return new UUID(bytes.getLong(), bytes.getLong());
+      }
+      if (ParquetTypes.isText(annotation)) {
+        return value.toStringUsingUTF8();
+      }
+      // the underlying bytes may be reused by the reader, copy them
+      return ByteBuffer.wrap(value.getBytes());
+    }
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.parquet;
+
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.BIGINT;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.BLOB;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.BOOLEAN;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.COUNTER;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.DATE;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.DOUBLE;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.FLOAT;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.INT;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.LIST;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.MAP;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.SET;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.SMALLINT;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.TIME;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.TIMESTAMP;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.TIMEUUID;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.TINYINT;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.UUID;
+
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.ListType;
+import com.datastax.oss.driver.api.core.type.MapType;
+import com.datastax.oss.driver.api.core.type.SetType;
+import com.datastax.oss.dsbulk.connectors.api.Field;
+import com.datastax.oss.dsbulk.connectors.api.MappedField;
+import com.datastax.oss.dsbulk.connectors.api.Record;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type.Repetition;
+import org.apache.parquet.schema.Types;
+
+/**
+ * Writes {@link Record}s to Parquet, one field per record field, using the Parquet types returned
+ * by {@link ParquetTypes#writeField(String, DataType, Repetition)}.
+ *
+ * <p>Record values are expected to have the Java types returned by {@link
+ * ParquetTypes#writeType(DataType)}. Null values are simply omitted.
+ */
+class ParquetRecordWriteSupport extends WriteSupport<Record> {
+
+  private final MessageType schema;
+  private final Field[] fields;
+  private final ValueWriter[] writers;
+  private RecordConsumer consumer;
+
+  ParquetRecordWriteSupport(@NonNull List<Field> fields, @NonNull List<DataType> cqlTypes) {
+    this.fields = fields.toArray(new Field[0]);
+    writers = new ValueWriter[this.fields.length];
+    Types.MessageTypeBuilder builder = Types.buildMessage();
+    for (int i = 0; i < this.fields.length; i++) {
+      Field field = this.fields[i];
+      String name =
+          field instanceof MappedField
+              ? ((MappedField) field).getFieldName()
+              : field.getFieldDescription();
+      builder.addField(ParquetTypes.writeField(name, cqlTypes.get(i), Repetition.OPTIONAL));
+      writers[i] = newWriter(cqlTypes.get(i));
+    }
+    schema = builder.named("record");
+  }
+
+  @NonNull
+  MessageType getSchema() {
+    return schema;
+  }
+
+  @Override
+  public WriteContext init(Configuration configuration) {
+    return new WriteContext(schema, Collections.emptyMap());
+  }
+
+  @Override
+  public void prepareForWrite(RecordConsumer recordConsumer) {
+    consumer = recordConsumer;
+  }
+
+  @Override
+  public void write(Record record) {
+    consumer.startMessage();
+    for (int i = 0; i < fields.length; i++) {
+      Object value = record.getFieldValue(fields[i]);
+      if (value != null) {
+        String name = schema.getFieldName(i);
+        consumer.startField(name, i);
+        writers[i].write(value);
+        consumer.endField(name, i);
+      }
+    }
+    consumer.endMessage();
+  }
+
+  @FunctionalInterface
+  private interface ValueWriter {
+    void write(@NonNull Object value);
+  }
+
+  @NonNull
+  private ValueWriter newWriter(@NonNull DataType cqlType) {
+    switch (cqlType.getProtocolCode()) {
+      case BOOLEAN:
+        return value -> consumer.addBoolean((Boolean) value);
+      case TINYINT:
+      case SMALLINT:
+      case INT:
+        return value -> consumer.addInteger(((Number) value).intValue());
+      case BIGINT:
+      case COUNTER:
+        return value -> consumer.addLong((Long) value);
+      case FLOAT:
+        return value -> consumer.addFloat((Float) value);
+      case DOUBLE:
+        return value -> consumer.addDouble((Double) value);
+      case TIMESTAMP:
+        return value -> consumer.addLong(((Instant) value).toEpochMilli());
+      case DATE:
+        return value -> consumer.addInteger((int) ((LocalDate) value).toEpochDay());
+      case TIME:
+        return value -> consumer.addLong(((LocalTime) value).toNanoOfDay());
+      case UUID:
+      case TIMEUUID:
+        return value -> {
+          java.util.UUID uuid = (java.util.UUID) value;
+          ByteBuffer bytes = ByteBuffer.allocate(16);
+          bytes.putLong(uuid.getMostSignificantBits());
+          bytes.putLong(uuid.getLeastSignificantBits());
+          consumer.addBinary(Binary.fromConstantByteArray(bytes.array()));
+        };
+      case BLOB:
+        return value -> consumer.addBinary(Binary.fromReusedByteBuffer((ByteBuffer) value));
+      case LIST:
+      case SET:
+        if (ParquetTypes.isNative(cqlType)) {
+          DataType elementType =
+              cqlType instanceof ListType
+                  ? ((ListType) cqlType).getElementType()
+                  : ((SetType) cqlType).getElementType();
+          return newListWriter(newWriter(elementType));
+        }
+        break;
+      case MAP:
+        if (ParquetTypes.isNative(cqlType)) {
+          MapType mapType = (MapType) cqlType;
+          return newMapWriter(newWriter(mapType.getKeyType()), newWriter(mapType.getValueType()));
+        }
+        break;
+      default:
+        // text, varint, decimal, inet and all non-native types
+        break;
+    }
+    return value -> consumer.addBinary(Binary.fromString(ParquetTypes.asText(value)));
+  }
+
+  @NonNull
+  private ValueWriter newListWriter(@NonNull ValueWriter elementWriter) {
+    return value -> {
+      Collection<?> elements = (Collection<?>) value;
+      consumer.startGroup();
+      if (!elements.isEmpty()) {
+        consumer.startField("list", 0);
+        for (Object element : elements) {
+          consumer.startGroup();
+          if (element != null) {
+            consumer.startField("element", 0);
+            elementWriter.write(element);
+            consumer.endField("element", 0);
+          }
+          consumer.endGroup();
+        }
+        consumer.endField("list", 0);
+      }
+      consumer.endGroup();
+    };
+  }
+
+  @NonNull
+  private ValueWriter newMapWriter(
+      @NonNull ValueWriter keyWriter, @NonNull ValueWriter valueWriter) {
+    return value -> {
+      Map<?, ?> entries = (Map<?, ?>) value;
+      consumer.startGroup();
+      if (!entries.isEmpty()) {
+        consumer.startField("key_value", 0);
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+          consumer.startGroup();
+          consumer.startField("key", 0);
+          keyWriter.write(entry.getKey());
+          consumer.endField("key", 0);
+          if (entry.getValue() != null) {
+            consumer.startField("value", 1);
+            valueWriter.write(entry.getValue());
+            consumer.endField("value", 1);
+          }
+          consumer.endGroup();
+        }
+        consumer.endField("key_value", 0);
+      }
+      consumer.endGroup();
+    };
+  }
+}
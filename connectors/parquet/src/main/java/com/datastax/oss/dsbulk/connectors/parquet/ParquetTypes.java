@@ -0,0 +1,371 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.parquet;
+
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.ASCII;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.BIGINT;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.BLOB;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.BOOLEAN;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.COUNTER;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.DATE;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.DECIMAL;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.DOUBLE;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.FLOAT;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.INET;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.INT;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.LIST;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.MAP;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.SET;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.SMALLINT;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.TIME;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.TIMESTAMP;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.TIMEUUID;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.TINYINT;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.UUID;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.VARCHAR;
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.VARINT;
+
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.ListType;
+import com.datastax.oss.driver.api.core.type.MapType;
+import com.datastax.oss.driver.api.core.type.SetType;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.net.InetAddress;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.DateLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.DecimalLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.EnumLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.JsonLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.ListLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.MapLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.StringLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimeLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimeUnit;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimestampLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.UUIDLogicalTypeAnnotation;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+import org.apache.parquet.schema.Type.Repetition;
+import org.apache.parquet.schema.Types;
+
+/**
+ * Maps Parquet types to the Java types emitted when reading, and CQL types to the Parquet types
+ * used when writing.
+ *
+ * <p>When reading, values are emitted with the Java type that most closely matches the Parquet
+ * physical type and its logical annotation; DSBulk's codecs then convert them to the target CQL
+ * types. When writing, CQL types that have a natural Parquet counterpart are written natively; all
+ * other types (user-defined types, tuples, durations, vectors, etc.), as well as collections
+ * containing them, are written as strings.
+ */
+final class ParquetTypes {
+
+  private static final GenericType<InetAddress> INET_ADDRESS = GenericType.of(InetAddress.class);
+
+  private ParquetTypes() {}
+
+  /**
+   * Returns the Java type of values read from the given Parquet field.
+   *
+   * @throws IllegalArgumentException if the field cannot be read.
+   */
+  @NonNull
+  static GenericType<?> readType(@NonNull Type type) {
+    LogicalTypeAnnotation annotation = type.getLogicalTypeAnnotation();
+    if (type.isPrimitive()) {
+      if (annotation instanceof DecimalLogicalTypeAnnotation) {
+        return GenericType.BIG_DECIMAL;
+      }
+      switch (type.asPrimitiveType().getPrimitiveTypeName()) {
+        case BOOLEAN:
+          return GenericType.BOOLEAN;
+        case INT32:
+          if (annotation instanceof DateLogicalTypeAnnotation) {
+            return GenericType.LOCAL_DATE;
+          }
+          if (annotation instanceof TimeLogicalTypeAnnotation) {
+            return GenericType.LOCAL_TIME;
+          }
+          return GenericType.INTEGER;
+        case INT64:
+          if (annotation instanceof TimestampLogicalTypeAnnotation) {
+            return GenericType.INSTANT;
+          }
+          if (annotation instanceof TimeLogicalTypeAnnotation) {
+            return GenericType.LOCAL_TIME;
+          }
+          return GenericType.LONG;
+        case INT96:
+          return GenericType.INSTANT;
+        case FLOAT:
+          return GenericType.FLOAT;
+        case DOUBLE:
+          return GenericType.DOUBLE;
+        default:
+          if (annotation instanceof UUIDLogicalTypeAnnotation) {
+            return GenericType.UUID;
+          }
+          if (isText(annotation)) {
+            return GenericType.STRING;
+          }
+          return GenericType.BYTE_BUFFER;
+      }
+    }
+    if (annotation instanceof ListLogicalTypeAnnotation) {
+      return GenericType.listOf(readType(listElement(type.asGroupType())));
+    }
+    if (annotation instanceof MapLogicalTypeAnnotation) {
+      GroupType keyValue = mapKeyValue(type.asGroupType());
+      return GenericType.mapOf(readType(keyValue.getType(0)), readType(keyValue.getType(1)));
+    }
+    throw new IllegalArgumentException(
+        String.format(
+            "Parquet field %s cannot be read: only primitive, LIST and MAP fields are supported",
+            type.getName()));
+  }
+
+  static boolean isText(LogicalTypeAnnotation annotation) {
+    return annotation instanceof StringLogicalTypeAnnotation
+        || annotation instanceof EnumLogicalTypeAnnotation
+        || annotation instanceof JsonLogicalTypeAnnotation;
+  }
+
+  /**
+   * Returns the element of a LIST field. Both the standard three-level structure and the legacy
+   * two-level structure, where the repeated field is the element itself, are recognized.
+   */
+  @NonNull
+  static Type listElement(@NonNull GroupType list) {
+    Type repeated = list.getType(0);
+    return isElementWrapper(list, repeated) ? repeated.asGroupType().getType(0) : repeated;
+  }
+
+  static boolean isElementWrapper(@NonNull GroupType list, @NonNull Type repeated) {
+    return !repeated.isPrimitive()
+        && repeated.asGroupType().getFieldCount() == 1
+        && !repeated.getName().equals("array")
+        && !repeated.getName().equals(list.getName() + "_tuple");
+  }
+
+  /** Returns the repeated key-value group of a MAP field. */
+  @NonNull
+  static GroupType mapKeyValue(@NonNull GroupType map) {
+    Type keyValue = map.getType(0);
+    if (keyValue.isPrimitive() || keyValue.asGroupType().getFieldCount() != 2) {
+      throw new IllegalArgumentException(
+          String.format("Parquet field %s is not a valid MAP field", map.getName()));
+    }
+    return keyValue.asGroupType();
+  }
+
+  /**
+   * Returns the Java type of values written for the given CQL type, that is, the type that DSBulk's
+   * codecs should produce for the connector.
+   */
+  @NonNull
+  static GenericType<?> writeType(@NonNull DataType cqlType) {
+    switch (cqlType.getProtocolCode()) {
+      case ASCII:
+      case VARCHAR:
+        return GenericType.STRING;
+      case BOOLEAN:
+        return GenericType.BOOLEAN;
+      case TINYINT:
+        return GenericType.BYTE;
+      case SMALLINT:
+        return GenericType.SHORT;
+      case INT:
+        return GenericType.INTEGER;
+      case BIGINT:
+      case COUNTER:
+        return GenericType.LONG;
+      case FLOAT:
+        return GenericType.FLOAT;
+      case DOUBLE:
+        return GenericType.DOUBLE;
+      case VARINT:
+        return GenericType.BIG_INTEGER;
+      case DECIMAL:
+        return GenericType.BIG_DECIMAL;
+      case TIMESTAMP:
+        return GenericType.INSTANT;
+      case DATE:
+        return GenericType.LOCAL_DATE;
+      case TIME:
+        return GenericType.LOCAL_TIME;
+      case UUID:
+      case TIMEUUID:
+        return GenericType.UUID;
+      case BLOB:
+        return GenericType.BYTE_BUFFER;
+      case INET:
+        return INET_ADDRESS;
+      case LIST:
+        if (isNative(cqlType)) {
+          return GenericType.listOf(writeType(((ListType) cqlType).getElementType()));
+        }
+        return GenericType.STRING;
+      case SET:
+        if (isNative(cqlType)) {
+          return GenericType.setOf(writeType(((SetType) cqlType).getElementType()));
+        }
+        return GenericType.STRING;
+      case MAP:
+        if (isNative(cqlType)) {
+          MapType mapType = (MapType) cqlType;
+          return GenericType.mapOf(
+              writeType(mapType.getKeyType()), writeType(mapType.getValueType()));
+        }
+        return GenericType.STRING;
+      default:
+        return GenericType.STRING;
+    }
+  }
+
+  /**
+   * Returns the Parquet field used to write values of the given CQL type. All fields are optional,
+   * except map keys, which Parquet requires.
+   */
+  @NonNull
+  static Type writeField(
+      @NonNull String name, @NonNull DataType cqlType, @NonNull Repetition repetition) {
+    switch (cqlType.getProtocolCode()) {
+      case BOOLEAN:
+        return Types.primitive(PrimitiveTypeName.BOOLEAN, repetition).named(name);
+      case TINYINT:
+        return Types.primitive(PrimitiveTypeName.INT32, repetition)
+            .as(LogicalTypeAnnotation.intType(8, true))
+            .named(name);
+      case SMALLINT:
+        return Types.primitive(PrimitiveTypeName.INT32, repetition)
+            .as(LogicalTypeAnnotation.intType(16, true))
+            .named(name);
+      case INT:
+        return Types.primitive(PrimitiveTypeName.INT32, repetition).named(name);
+      case BIGINT:
+      case COUNTER:
+        return Types.primitive(PrimitiveTypeName.INT64, repetition).named(name);
+      case FLOAT:
+        return Types.primitive(PrimitiveTypeName.FLOAT, repetition).named(name);
+      case DOUBLE:
+        return Types.primitive(PrimitiveTypeName.DOUBLE, repetition).named(name);
+      case TIMESTAMP:
+        return Types.primitive(PrimitiveTypeName.INT64, repetition)
+            .as(LogicalTypeAnnotation.timestampType(true, TimeUnit.MILLIS))
+            .named(name);
+      case DATE:
+        return Types.primitive(PrimitiveTypeName.INT32, repetition)
+            .as(LogicalTypeAnnotation.dateType())
+            .named(name);
+      case TIME:
+        return Types.primitive(PrimitiveTypeName.INT64, repetition)
+            .as(LogicalTypeAnnotation.timeType(false, TimeUnit.NANOS))
+            .named(name);
+      case UUID:
+      case TIMEUUID:
+        return Types.primitive(PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY, repetition)
+            .length(16)
+            .as(LogicalTypeAnnotation.uuidType())
+            .named(name);
+      case BLOB:
+        return Types.primitive(PrimitiveTypeName.BINARY, repetition).named(name);
+      case LIST:
+      case SET:
+        if (isNative(cqlType)) {
+          DataType elementType =
+              cqlType instanceof ListType
+                  ? ((ListType) cqlType).getElementType()
+                  : ((SetType) cqlType).getElementType();
+          return Types.buildGroup(repetition)
+              .as(LogicalTypeAnnotation.listType())
+              .addField(
+                  Types.repeatedGroup()
+                      .addField(writeField("element", elementType, Repetition.OPTIONAL))
+                      .named("list"))
+              .named(name);
+        }
+        break;
+      case MAP:
+        if (isNative(cqlType)) {
+          MapType mapType = (MapType) cqlType;
+          return Types.buildGroup(repetition)
+              .as(LogicalTypeAnnotation.mapType())
+              .addField(
+                  Types.repeatedGroup()
+                      .addField(writeField("key", mapType.getKeyType(), Repetition.REQUIRED))
+                      .addField(writeField("value", mapType.getValueType(), Repetition.OPTIONAL))
+                      .named("key_value"))
+              .named(name);
+        }
+        break;
+      default:
+        // text, varint, decimal, inet and all non-native types
+        break;
+    }
+    return Types.primitive(PrimitiveTypeName.BINARY, repetition)
+        .as(LogicalTypeAnnotation.stringType())
+        .named(name);
+  }
+
+  /**
+   * Whether the given CQL type can be written natively, that is, without first being formatted as a
+   * string.
+   */
+  static boolean isNative(@NonNull DataType cqlType) {
+    switch (cqlType.getProtocolCode()) {
+      case ASCII:
+      case VARCHAR:
+      case BOOLEAN:
+      case TINYINT:
+      case SMALLINT:
+      case INT:
+      case BIGINT:
+      case COUNTER:
+      case FLOAT:
+      case DOUBLE:
+      case VARINT:
+      case DECIMAL:
+      case TIMESTAMP:
+      case DATE:
+      case TIME:
+      case UUID:
+      case TIMEUUID:
+      case BLOB:
+      case INET:
+        return true;
+      case LIST:
+        return isNative(((ListType) cqlType).getElementType());
+      case SET:
+        return isNative(((SetType) cqlType).getElementType());
+      case MAP:
+        MapType mapType = (MapType) cqlType;
+        return isNative(mapType.getKeyType()) && isNative(mapType.getValueType());
+      default:
+        return false;
+    }
+  }
+
+  /** Returns the Parquet representation of a value whose CQL type has no native counterpart. */
+  @NonNull
+  static String asText(@NonNull Object value) {
+    if (value instanceof InetAddress) {
+      return ((InetAddress) value).getHostAddress();
+    }
+    return value.toString();
+  }
+}
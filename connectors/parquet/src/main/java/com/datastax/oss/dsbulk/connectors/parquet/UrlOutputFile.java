@@ -0,0 +1,89 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.connectors.parquet;
+
+import com.datastax.oss.dsbulk.io.IOUtils;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import org.apache.parquet.io.DelegatingPositionOutputStream;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+
+/**
+ * An {@link OutputFile} that writes sequentially to any URL that DSBulk can write to, keeping track
+ * of the current position itself instead of relying on a seekable stream.
+ */
+class UrlOutputFile implements OutputFile {
+
+  private final URL url;
+
+  UrlOutputFile(@NonNull URL url) {
+    this.url = url;
+  }
+
+  @Override
+  public PositionOutputStream create(long blockSizeHint) throws IOException {
+    return createOrOverwrite(blockSizeHint);
+  }
+
+  @Override
+  public PositionOutputStream createOrOverwrite(long blockSizeHint) throws IOException {
+    OutputStream out = IOUtils.newBufferedOutputStream(url);
+    return new DelegatingPositionOutputStream(out) {
+
+      private long pos;
+
+      @Override
+      public long getPos() {
+        return pos;
+      }
+
+      @Override
+      public void write(int b) throws IOException {
+        super.write(b);
+        pos++;
+      }
+
+      @Override
+      public void write(@NonNull byte[] b) throws IOException {
+        write(b, 0, b.length);
+      }
+
+      @Override
+      public void write(@NonNull byte[] b, int off, int len) throws IOException {
+        super.write(b, off, len);
+        pos += len;
+      }
+    };
+  }
+
+  @Override
+  public boolean supportsBlockSize() {
+    return false;
+  }
+
+  @Override
+  public long defaultBlockSize() {
+    return 0;
+  }
+
+  @Override
+  public String getPath() {
+    return url.toExternalForm();
+  }
+}
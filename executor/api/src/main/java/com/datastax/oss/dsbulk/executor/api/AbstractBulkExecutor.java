@@ -18,6 +18,8 @@ package com.datastax.oss.dsbulk.executor.api;
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
+import com.datastax.oss.dsbulk.executor.api.overload.AdaptiveSemaphore;
+import com.datastax.oss.dsbulk.executor.api.overload.RetryBackoff;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.util.Objects;
@@ -47,6 +49,8 @@ public abstract class AbstractBulkExecutor implements BulkExecutor, AutoCloseabl
 
   protected final @Nullable ExecutionListener listener;
 
+  protected final @Nullable RetryBackoff retryBackoff;
+
   protected AbstractBulkExecutor(CqlSession session) {
     this(
         session,
@@ -54,6 +58,7 @@ public abstract class AbstractBulkExecutor implements BulkExecutor, AutoCloseabl
         DEFAULT_MAX_IN_FLIGHT_REQUESTS,
         DEFAULT_MAX_REQUESTS_PER_SECOND,
         DEFAULT_MAX_BYTES_PER_SECOND,
+        null,
         null);
   }
 
@@ -64,7 +69,10 @@ public abstract class AbstractBulkExecutor implements BulkExecutor, AutoCloseabl
         builder.maxInFlightRequests,
         builder.maxRequestsPerSecond,
         builder.maxBytesPerSecond,
-        builder.listener);
+        builder.listener,
+        builder.maxRetries < 0
+            ? null
+            : new RetryBackoff(builder.maxRetries, builder.baseDelay, builder.maxDelay));
   }
 
   private AbstractBulkExecutor(
@@ -73,19 +81,29 @@ public abstract class AbstractBulkExecutor implements BulkExecutor, AutoCloseabl
       int maxInFlightRequests,
       int maxRequestsPerSecond,
       long maxBytesPerSecond,
-      @Nullable ExecutionListener listener) {
+      @Nullable ExecutionListener listener,
+      @Nullable RetryBackoff retryBackoff) {
     Objects.requireNonNull(session, "session cannot be null");
     this.session = session;
     this.failFast = failFast;
-    this.maxConcurrentRequests =
-        maxInFlightRequests <= 0 ? null : new Semaphore(maxInFlightRequests);
+    if (maxInFlightRequests <= 0) {
+      this.maxConcurrentRequests = null;
+    } else if (retryBackoff != null) {
+      // shed in-flight requests on overload
+      this.maxConcurrentRequests = new AdaptiveSemaphore(maxInFlightRequests);
+    } else {
+      this.maxConcurrentRequests = new Semaphore(maxInFlightRequests);
+    }
     this.rateLimiter = maxRequestsPerSecond <= 0 ? null : RateLimiter.create(maxRequestsPerSecond);
     this.bytesRateLimiter = maxBytesPerSecond <= 0 ? null : RateLimiter.create(maxBytesPerSecond);
     this.listener = listener;
+    this.retryBackoff = retryBackoff;
   }
 
   @Override
   public void close() {
-    // no-op
+    if (retryBackoff != null) {
+      retryBackoff.close();
+    }
   }
 }
@@ -17,6 +17,7 @@ package com.datastax.oss.dsbulk.executor.api;
 
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
+import java.time.Duration;
 
 @SuppressWarnings("WeakerAccess")
 public abstract class AbstractBulkExecutorBuilder<T extends BulkExecutor>
@@ -34,6 +35,12 @@ public abstract class AbstractBulkExecutorBuilder<T extends BulkExecutor>
 
   protected ExecutionListener listener;
 
+  protected int maxRetries = -1;
+
+  protected Duration baseDelay;
+
+  protected Duration maxDelay;
+
   protected AbstractBulkExecutorBuilder(CqlSession session) {
     this.session = session;
   }
@@ -66,6 +73,16 @@ public abstract class AbstractBulkExecutorBuilder<T extends BulkExecutor>
     return this;
   }
 
+  @Override
+  @SuppressWarnings("UnusedReturnValue")
+  public AbstractBulkExecutorBuilder<T> withRetryBackoff(
+      int maxRetries, Duration baseDelay, Duration maxDelay) {
+    this.maxRetries = maxRetries;
+    this.baseDelay = baseDelay;
+    this.maxDelay = maxDelay;
+    return this;
+  }
+
   @Override
   @SuppressWarnings("UnusedReturnValue")
   public AbstractBulkExecutorBuilder<T> withExecutionListener(ExecutionListener listener) {
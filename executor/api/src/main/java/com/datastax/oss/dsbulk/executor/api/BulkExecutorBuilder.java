@@ -21,6 +21,7 @@ import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
 import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
 import com.datastax.oss.dsbulk.executor.api.result.Result;
 import com.datastax.oss.dsbulk.executor.api.result.WriteResult;
+import java.time.Duration;
 
 /** A builder for {@link BulkExecutor} instances. */
 public interface BulkExecutorBuilder<T extends BulkExecutor> {
@@ -99,6 +100,27 @@ public interface BulkExecutorBuilder<T extends BulkExecutor> {
   @SuppressWarnings("UnusedReturnValue")
   BulkExecutorBuilder<T> withMaxBytesPerSecond(long maxBytesPerSecond);
 
+  /**
+   * Enables delayed retries of requests failing because of a server-side overload: read and write
+   * timeouts, and overloaded errors. Such requests are executed again after an
+   * exponentially-growing, randomized delay, without blocking any thread or holding an in-flight
+   * permit in the meantime; non-idempotent writes are never retried.
+   *
+   * <p>If a limit was set with {@link #withMaxInFlightRequests(int)}, this also makes it adaptive:
+   * the limit is halved each time an overload is detected, down to a fraction of the configured
+   * limit, then slowly restored as requests succeed again. Unlimited in-flight requests stay
+   * unlimited.
+   *
+   * <p>By default, such requests are not retried.
+   *
+   * @param maxRetries the maximum number of retries for a given request.
+   * @param baseDelay the delay before the first retry.
+   * @param maxDelay the maximum delay between two retries.
+   * @return this builder (for method chaining).
+   */
+  @SuppressWarnings("UnusedReturnValue")
+  BulkExecutorBuilder<T> withRetryBackoff(int maxRetries, Duration baseDelay, Duration maxDelay);
+
   /**
    * Sets an optional {@link ExecutionListener}.
    *
@@ -0,0 +1,103 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.overload;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link Semaphore} limiting the number of in-flight requests, whose limit adapts to overload
+ * signals.
+ *
+ * <p>The limit is halved each time an overload is signaled (multiplicative decrease), but never
+ * goes below a floor of {@code 1 / MIN_LIMIT_DIVISOR} of the maximum limit, so that a handful of
+ * failing requests cannot serialize a whole operation. It grows by one permit every time as many
+ * requests as the current limit succeed in a row (additive increase). Requests that started before
+ * the last decrease cannot trigger another one: they were sent when concurrency was still too high,
+ * and the decrease already accounts for them. This prevents a burst of timeouts, all caused by the
+ * same overload episode, from collapsing the limit.
+ *
+ * <p>Decreasing the limit never interrupts in-flight requests; instead, new requests are held back
+ * until enough in-flight ones complete.
+ */
+public class AdaptiveSemaphore extends Semaphore {
+
+  /** The floor of the limit, as a fraction of the maximum limit. */
+  static final int MIN_LIMIT_DIVISOR = 8;
+
+  private final int maxLimit;
+  private final int minLimit;
+  private final AtomicInteger successes = new AtomicInteger();
+
+  private volatile int limit;
+  private long lastDecrease;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param maxLimit the maximum number of in-flight requests; must be strictly positive.
+   */
+  public AdaptiveSemaphore(int maxLimit) {
+    super(maxLimit);
+    if (maxLimit <= 0) {
+      throw new IllegalArgumentException("Max limit must be strictly positive, got " + maxLimit);
+    }
+    this.maxLimit = maxLimit;
+    minLimit = Math.max(1, maxLimit / MIN_LIMIT_DIVISOR);
+    limit = maxLimit;
+    lastDecrease = System.nanoTime();
+  }
+
+  /** @return the current limit. */
+  public int getLimit() {
+    return limit;
+  }
+
+  /**
+   * Signals that a request failed because of an overload.
+   *
+   * @param requestStartNanos when the failed request was sent, as given by {@link
+   *     System#nanoTime()}.
+   */
+  public void onOverload(long requestStartNanos) {
+    synchronized (this) {
+      if (requestStartNanos - lastDecrease < 0) {
+        return;
+      }
+      int inFlight = limit - availablePermits();
+      int newLimit = Math.max(minLimit, Math.min(limit, inFlight) / 2);
+      if (newLimit < limit) {
+        reducePermits(limit - newLimit);
+        limit = newLimit;
+      }
+      lastDecrease = System.nanoTime();
+      successes.set(0);
+    }
+  }
+
+  /** Signals that a request succeeded. */
+  public void onSuccess() {
+    if (limit < maxLimit && successes.incrementAndGet() >= limit) {
+      synchronized (this) {
+        if (limit < maxLimit && successes.get() >= limit) {
+          successes.set(0);
+          limit++;
+          release();
+        }
+      }
+    }
+  }
+}
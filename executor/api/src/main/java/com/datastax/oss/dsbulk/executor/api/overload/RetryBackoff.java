@@ -0,0 +1,135 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.overload;
+
+import com.datastax.oss.driver.api.core.AllNodesFailedException;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.servererrors.OverloadedException;
+import com.datastax.oss.driver.api.core.servererrors.ReadTimeoutException;
+import com.datastax.oss.driver.api.core.servererrors.WriteTimeoutException;
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.ThreadFactoryBuilder;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules delayed retries of requests that failed because the cluster is overloaded.
+ *
+ * <p>The delay before the n-th retry is chosen randomly between half and the whole of {@code
+ * baseDelay * 2^n}, capped at {@code maxDelay} ("equal jitter"). Randomization prevents requests
+ * that failed together from being retried together, while the fixed half guarantees that overloaded
+ * replicas always get some time to recover.
+ *
+ * <p>Retries are scheduled on a dedicated timer thread and never block the caller, which is usually
+ * a driver I/O thread.
+ */
+public class RetryBackoff implements AutoCloseable {
+
+  private final int maxRetries;
+  private final long baseDelayNanos;
+  private final long maxDelayNanos;
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param maxRetries the maximum number of times a request can be retried.
+   * @param baseDelay the delay before the first retry; must be strictly positive.
+   * @param maxDelay the maximum delay between two retries.
+   */
+  public RetryBackoff(int maxRetries, @NonNull Duration baseDelay, @NonNull Duration maxDelay) {
+    if (baseDelay.isNegative() || baseDelay.isZero()) {
+      throw new IllegalArgumentException("Base delay must be strictly positive, got " + baseDelay);
+    }
+    if (maxDelay.compareTo(baseDelay) < 0) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Max delay must be greater than or equal to base delay, got %s < %s",
+              maxDelay, baseDelay));
+    }
+    this.maxRetries = maxRetries;
+    this.baseDelayNanos = baseDelay.toNanos();
+    this.maxDelayNanos = maxDelay.toNanos();
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("retry-backoff-%d").setDaemon(true).build());
+  }
+
+  /** @return the maximum number of times a request can be retried. */
+  public int getMaxRetries() {
+    return maxRetries;
+  }
+
+  /**
+   * Computes the delay to wait before the given retry.
+   *
+   * @param retryCount the number of retries already attempted, zero for the first retry.
+   * @return the delay in nanoseconds.
+   */
+  public long delayNanos(int retryCount) {
+    long cap = maxDelayNanos;
+    // only shift when the result cannot overflow; otherwise it would be capped anyway
+    if (retryCount < Long.numberOfLeadingZeros(baseDelayNanos) - 1) {
+      cap = Math.min(maxDelayNanos, baseDelayNanos << retryCount);
+    }
+    long half = cap / 2;
+    return half + ThreadLocalRandom.current().nextLong(cap - half + 1);
+  }
+
+  /**
+   * Schedules the given retry after an appropriate delay.
+   *
+   * @param retry the retry to execute.
+   * @param retryCount the number of retries already attempted, zero for the first retry.
+   * @return {@code true} if the retry was scheduled, {@code false} if this instance was closed.
+   */
+  public boolean schedule(@NonNull Runnable retry, int retryCount) {
+    try {
+      scheduler.schedule(retry, delayNanos(retryCount), TimeUnit.NANOSECONDS);
+      return true;
+    } catch (RejectedExecutionException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns whether the given error is a sign that the cluster is overloaded: server-side read and
+   * write timeouts, and overloaded errors. Client-side timeouts and busy connections are not
+   * considered, since they may be caused by the client alone. When all nodes were tried, all of
+   * them must have failed with such errors.
+   */
+  public static boolean isOverload(@NonNull Throwable error) {
+    if (error instanceof AllNodesFailedException) {
+      Map<Node, List<Throwable>> errors = ((AllNodesFailedException) error).getAllErrors();
+      return !errors.isEmpty()
+          && errors.values().stream().flatMap(List::stream).allMatch(RetryBackoff::isOverload);
+    }
+    return error instanceof ReadTimeoutException
+        || error instanceof WriteTimeoutException
+        || error instanceof OverloadedException;
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+  }
+}
@@ -20,6 +20,7 @@ import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
 import com.datastax.oss.dsbulk.executor.api.AbstractBulkExecutor;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
+import com.datastax.oss.dsbulk.executor.api.overload.RetryBackoff;
 import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
 import com.datastax.oss.dsbulk.executor.api.subscription.ContinuousReadResultSubscription;
 import edu.umd.cs.findbugs.annotations.NonNull;
@@ -43,6 +44,7 @@ public class ContinuousReadResultPublisher implements Publisher<ReadResult> {
   private final @Nullable Semaphore maxConcurrentRequests;
   private final @Nullable RateLimiter rateLimiter;
   private final @Nullable RateLimiter bytesRateLimiter;
+  private final @Nullable RetryBackoff retryBackoff;
   private final boolean failFast;
 
   /**
@@ -79,6 +81,41 @@ public class ContinuousReadResultPublisher implements Publisher<ReadResult> {
       @Nullable Semaphore maxConcurrentRequests,
       @Nullable RateLimiter rateLimiter,
       @Nullable RateLimiter bytesRateLimiter) {
+    this(
+        statement,
+        session,
+        failFast,
+        listener,
+        maxConcurrentRequests,
+        rateLimiter,
+        bytesRateLimiter,
+        null);
+  }
+
+  /**
+   * Creates a new {@link ContinuousReadResultPublisher}.
+   *
+   * @param statement The {@link Statement} to execute.
+   * @param session The {@link ContinuousSession} to use.
+   * @param failFast whether to fail-fast in case of error.
+   * @param listener The {@link ExecutionListener} to use.
+   * @param maxConcurrentRequests The {@link Semaphore} to use to regulate the amount of in-flight
+   *     requests.
+   * @param rateLimiter The {@link RateLimiter} to use to regulate throughput in rows per second.
+   * @param bytesRateLimiter The {@link RateLimiter} to use to regulate throughput in bytes per
+   *     second.
+   * @param retryBackoff The {@link RetryBackoff} to use to retry requests failing because of an
+   *     overload, or {@code null} to never retry such requests.
+   */
+  public ContinuousReadResultPublisher(
+      @NonNull Statement<?> statement,
+      @NonNull ContinuousSession session,
+      boolean failFast,
+      @Nullable ExecutionListener listener,
+      @Nullable Semaphore maxConcurrentRequests,
+      @Nullable RateLimiter rateLimiter,
+      @Nullable RateLimiter bytesRateLimiter,
+      @Nullable RetryBackoff retryBackoff) {
     this.statement = statement;
     this.session = session;
     this.failFast = failFast;
@@ -86,6 +123,7 @@ public class ContinuousReadResultPublisher implements Publisher<ReadResult> {
     this.maxConcurrentRequests = maxConcurrentRequests;
     this.rateLimiter = rateLimiter;
     this.bytesRateLimiter = bytesRateLimiter;
+    this.retryBackoff = retryBackoff;
   }
 
   @Override
@@ -104,6 +142,7 @@ public class ContinuousReadResultPublisher implements Publisher<ReadResult> {
             maxConcurrentRequests,
             rateLimiter,
             bytesRateLimiter,
+            retryBackoff,
             failFast);
     try {
       subscriber.onSubscribe(subscription);
@@ -24,6 +24,7 @@ import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
 import com.datastax.oss.dsbulk.executor.api.exception.BulkExecutionException;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionContext;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
+import com.datastax.oss.dsbulk.executor.api.overload.RetryBackoff;
 import com.datastax.oss.dsbulk.executor.api.result.DefaultReadResult;
 import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
 import com.datastax.oss.dsbulk.sampler.DataSizes;
@@ -49,6 +50,28 @@ public class ContinuousReadResultSubscription
       @Nullable RateLimiter rateLimiter,
       @Nullable RateLimiter bytesRateLimiter,
       boolean failFast) {
+    this(
+        subscriber,
+        statement,
+        attachmentPoint,
+        listener,
+        maxConcurrentRequests,
+        rateLimiter,
+        bytesRateLimiter,
+        null,
+        failFast);
+  }
+
+  public ContinuousReadResultSubscription(
+      @NonNull Subscriber<? super ReadResult> subscriber,
+      @NonNull Statement<?> statement,
+      @NonNull AttachmentPoint attachmentPoint,
+      @Nullable ExecutionListener listener,
+      @Nullable Semaphore maxConcurrentRequests,
+      @Nullable RateLimiter rateLimiter,
+      @Nullable RateLimiter bytesRateLimiter,
+      @Nullable RetryBackoff retryBackoff,
+      boolean failFast) {
     super(
         subscriber,
         statement,
@@ -57,6 +80,7 @@ public class ContinuousReadResultSubscription
         maxConcurrentRequests,
         rateLimiter,
         bytesRateLimiter,
+        retryBackoff,
         failFast);
   }
 
@@ -92,6 +116,13 @@ public class ContinuousReadResultSubscription
     super.cancel();
   }
 
+  @Override
+  boolean isRetryable(Page current) {
+    // Continuous paging requests cannot be resumed once started, only the first page can be
+    // requested again.
+    return !(current instanceof ContinuousPage);
+  }
+
   @Override
   void onRequestStarted(ExecutionContext local) {
     if (listener != null) {
@@ -24,6 +24,7 @@ import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
 import com.datastax.oss.dsbulk.executor.api.exception.BulkExecutionException;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionContext;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
+import com.datastax.oss.dsbulk.executor.api.overload.RetryBackoff;
 import com.datastax.oss.dsbulk.executor.api.result.DefaultReadResult;
 import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
 import com.datastax.oss.dsbulk.sampler.DataSizes;
@@ -48,6 +49,28 @@ public class ReadResultSubscription extends ResultSubscription<ReadResult, Async
       @Nullable RateLimiter rateLimiter,
       @Nullable RateLimiter bytesRateLimiter,
       boolean failFast) {
+    this(
+        subscriber,
+        statement,
+        attachmentPoint,
+        listener,
+        maxConcurrentRequests,
+        rateLimiter,
+        bytesRateLimiter,
+        null,
+        failFast);
+  }
+
+  public ReadResultSubscription(
+      @NonNull Subscriber<? super ReadResult> subscriber,
+      @NonNull Statement<?> statement,
+      @NonNull AttachmentPoint attachmentPoint,
+      @Nullable ExecutionListener listener,
+      @Nullable Semaphore maxConcurrentRequests,
+      @Nullable RateLimiter rateLimiter,
+      @Nullable RateLimiter bytesRateLimiter,
+      @Nullable RetryBackoff retryBackoff,
+      boolean failFast) {
     super(
         subscriber,
         statement,
@@ -56,6 +79,7 @@ public class ReadResultSubscription extends ResultSubscription<ReadResult, Async
         maxConcurrentRequests,
         rateLimiter,
         bytesRateLimiter,
+        retryBackoff,
         failFast);
   }
 
@@ -26,6 +26,8 @@ import com.datastax.oss.dsbulk.executor.api.exception.BulkExecutionException;
 import com.datastax.oss.dsbulk.executor.api.listener.DefaultExecutionContext;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionContext;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
+import com.datastax.oss.dsbulk.executor.api.overload.AdaptiveSemaphore;
+import com.datastax.oss.dsbulk.executor.api.overload.RetryBackoff;
 import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
 import com.datastax.oss.dsbulk.executor.api.result.Result;
 import com.datastax.oss.dsbulk.executor.api.result.WriteResult;
@@ -81,6 +83,8 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
   private final @Nullable Semaphore maxConcurrentRequests;
   final @Nullable RateLimiter rateLimiter;
   final @Nullable RateLimiter bytesRateLimiter;
+  private final @Nullable RetryBackoff retryBackoff;
+  private final @Nullable AdaptiveSemaphore adaptiveLimit;
   private final boolean failFast;
 
   /** The number of writes in the batch. 1 for other types of statement. */
@@ -152,6 +156,7 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
       @Nullable Semaphore maxConcurrentRequests,
       @Nullable RateLimiter rateLimiter,
       @Nullable RateLimiter bytesRateLimiter,
+      @Nullable RetryBackoff retryBackoff,
       boolean failFast) {
     this.subscriber = subscriber;
     this.statement = statement;
@@ -160,6 +165,11 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
     this.maxConcurrentRequests = maxConcurrentRequests;
     this.rateLimiter = rateLimiter;
     this.bytesRateLimiter = bytesRateLimiter;
+    this.retryBackoff = retryBackoff;
+    this.adaptiveLimit =
+        maxConcurrentRequests instanceof AdaptiveSemaphore
+            ? (AdaptiveSemaphore) maxConcurrentRequests
+            : null;
     this.failFast = failFast;
     if (statement instanceof BatchStatement) {
       batchSize = ((BatchStatement) statement).size();
@@ -349,43 +359,98 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
     onBeforeRequestStarted();
     local.start();
     onRequestStarted(local);
-    current
-        .nextPage()
-        // as soon as the response arrives, notify our listener and
-        // update maxConcurrentRequests.
-        .whenComplete(
-            (rs, t) -> {
-              if (maxConcurrentRequests != null) {
-                maxConcurrentRequests.release();
-              }
-              local.stop();
-              if (t == null) {
-                onRequestSuccessful(rs, local);
-              } else {
-                onRequestFailed(t, local);
-              }
-            })
-        // create the new page
-        .handle(
-            (rs, t) -> {
-              Page page;
-              if (t == null) {
-                page = toPage(rs, local);
-              } else {
-                // Unwrap CompletionExceptions created by combined futures
-                if (t instanceof CompletionException) {
-                  t = t.getCause();
-                }
-                page = toErrorPage(t);
-              }
-              return page;
-            })
+    executeRequest(current, local, 0);
+  }
+
+  /**
+   * Executes the request for the next page. If it fails because of an overload, and a {@link
+   * RetryBackoff} is configured, the request is executed again after a delay. Retries are invisible
+   * to our listener: the request-response cycle includes all of them. The in-flight permit is
+   * released while the request is backing off, so that other requests can proceed, and acquired
+   * again before it is retried.
+   */
+  private void executeRequest(Page current, DefaultExecutionContext local, int retryCount) {
+    long attemptStart = System.nanoTime();
+    CompletionStage<Page> response =
+        current
+            .nextPage()
+            .handle(
+                (rs, t) -> {
+                  // Unwrap CompletionExceptions created by combined futures
+                  if (t instanceof CompletionException) {
+                    t = t.getCause();
+                  }
+                  if (t != null && RetryBackoff.isOverload(t)) {
+                    if (adaptiveLimit != null) {
+                      adaptiveLimit.onOverload(attemptStart);
+                    }
+                    if (canRetry(current, retryCount)) {
+                      releasePermit();
+                      Throwable error = t;
+                      if (retryBackoff.schedule(
+                          () -> retryRequest(current, local, retryCount + 1, error), retryCount)) {
+                        return null;
+                      }
+                      return toFinalPage(null, t, local);
+                    }
+                  }
+                  releasePermit();
+                  return toFinalPage(rs, t, local);
+                });
+    enqueueWhenConsumed(current, response);
+  }
+
+  /**
+   * Retries the request for the next page, once an in-flight permit is available. This runs on the
+   * {@link RetryBackoff} timer thread, which must never block: if no permit is available, the retry
+   * is postponed.
+   */
+  private void retryRequest(
+      Page current, DefaultExecutionContext local, int retryCount, Throwable lastError) {
+    if (maxConcurrentRequests == null || maxConcurrentRequests.tryAcquire()) {
+      executeRequest(current, local, retryCount);
+    } else if (cancelled
+        || !retryBackoff.schedule(() -> retryRequest(current, local, retryCount, lastError), 0)) {
+      // the permit was already released, give up with the last error
+      enqueueWhenConsumed(
+          current, CompletableFuture.completedFuture(toFinalPage(null, lastError, local)));
+    }
+  }
+
+  /**
+   * Notifies our listener of the final response for the request-response cycle, and converts it to
+   * a page.
+   */
+  private Page toFinalPage(@Nullable P rs, @Nullable Throwable t, DefaultExecutionContext local) {
+    local.stop();
+    if (t == null) {
+      if (adaptiveLimit != null) {
+        adaptiveLimit.onSuccess();
+      }
+      onRequestSuccessful(rs, local);
+      return toPage(rs, local);
+    } else {
+      onRequestFailed(t, local);
+      return toErrorPage(t);
+    }
+  }
+
+  /**
+   * Enqueues the given page, once the current one is fully consumed, then fetches the next one. A
+   * null page means that the request is being retried.
+   */
+  private void enqueueWhenConsumed(Page current, CompletionStage<Page> next) {
+    next
         // wait until there is free space in the queue
         // before enqueueing the new page
-        .thenCombine(current.fullyConsumed, (rs, v) -> rs)
+        .thenCombine(current.fullyConsumed, (page, v) -> page)
         // enqueue the new page
         .thenAccept(
             page -> {
+              if (page == null) {
+                // the request is being retried
+                return;
+              }
               enqueue(page);
               if (page.hasMorePages() && !cancelled) {
                 // preemptively fetch the next page, if available
@@ -395,6 +460,28 @@ public abstract class ResultSubscription<R extends Result, P extends AsyncPaging
             });
   }
 
+  private void releasePermit() {
+    // as soon as the response arrives, update maxConcurrentRequests.
+    if (maxConcurrentRequests != null) {
+      maxConcurrentRequests.release();
+    }
+  }
+
+  private boolean canRetry(Page current, int retryCount) {
+    return retryBackoff != null
+        && retryCount < retryBackoff.getMaxRetries()
+        && !cancelled
+        && isRetryable(current);
+  }
+
+  /**
+   * Whether the request for the given page can be safely executed again. Requests are retryable by
+   * default; subclasses may override this to prevent retries.
+   */
+  boolean isRetryable(Page current) {
+    return true;
+  }
+
   void onBeforeRequestStarted() {
     if (maxConcurrentRequests != null) {
       maxConcurrentRequests.acquireUninterruptibly();
@@ -15,13 +15,18 @@
  */
 package com.datastax.oss.dsbulk.executor.api.subscription;
 
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
 import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
 import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.api.core.detach.AttachmentPoint;
+import com.datastax.oss.driver.internal.core.cql.Conversions;
 import com.datastax.oss.driver.shaded.guava.common.util.concurrent.RateLimiter;
 import com.datastax.oss.dsbulk.executor.api.exception.BulkExecutionException;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionContext;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
+import com.datastax.oss.dsbulk.executor.api.overload.RetryBackoff;
 import com.datastax.oss.dsbulk.executor.api.result.DefaultWriteResult;
 import com.datastax.oss.dsbulk.executor.api.result.WriteResult;
 import com.datastax.oss.dsbulk.sampler.DataSizes;
@@ -43,6 +48,28 @@ public class WriteResultSubscription extends ResultSubscription<WriteResult, Asy
       @Nullable RateLimiter rateLimiter,
       @Nullable RateLimiter bytesRateLimiter,
       boolean failFast) {
+    this(
+        subscriber,
+        statement,
+        attachmentPoint,
+        listener,
+        maxConcurrentRequests,
+        rateLimiter,
+        bytesRateLimiter,
+        null,
+        failFast);
+  }
+
+  public WriteResultSubscription(
+      @NonNull Subscriber<? super WriteResult> subscriber,
+      @NonNull Statement<?> statement,
+      @NonNull AttachmentPoint attachmentPoint,
+      @Nullable ExecutionListener listener,
+      @Nullable Semaphore maxConcurrentRequests,
+      @Nullable RateLimiter rateLimiter,
+      @Nullable RateLimiter bytesRateLimiter,
+      @Nullable RetryBackoff retryBackoff,
+      boolean failFast) {
     super(
         subscriber,
         statement,
@@ -51,6 +78,7 @@ public class WriteResultSubscription extends ResultSubscription<WriteResult, Asy
         maxConcurrentRequests,
         rateLimiter,
         bytesRateLimiter,
+        retryBackoff,
         failFast);
   }
 
@@ -80,6 +108,18 @@ public class WriteResultSubscription extends ResultSubscription<WriteResult, Asy
     super.onBeforeRequestStarted();
   }
 
+  @Override
+  boolean isRetryable(Page current) {
+    // Same rule as the driver: only idempotent writes can be retried.
+    Boolean idempotent = statement.isIdempotent();
+    if (idempotent == null && attachmentPoint instanceof DriverContext) {
+      DriverExecutionProfile profile =
+          Conversions.resolveExecutionProfile(statement, (DriverContext) attachmentPoint);
+      idempotent = profile.getBoolean(DefaultDriverOption.REQUEST_DEFAULT_IDEMPOTENCE);
+    }
+    return idempotent != null && idempotent;
+  }
+
   @Override
   void onRequestStarted(ExecutionContext local) {
     if (listener != null) {
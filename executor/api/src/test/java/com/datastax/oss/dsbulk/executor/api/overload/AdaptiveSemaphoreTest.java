@@ -0,0 +1,80 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.overload;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveSemaphoreTest {
+
+  @Test
+  void should_halve_limit_on_overload_and_grow_it_back_on_success() {
+    AdaptiveSemaphore semaphore = new AdaptiveSemaphore(8);
+    assertThat(semaphore.tryAcquire(8)).isTrue();
+    semaphore.onOverload(System.nanoTime());
+    assertThat(semaphore.getLimit()).isEqualTo(4);
+    // all 8 in-flight requests complete
+    semaphore.release(8);
+    assertThat(semaphore.availablePermits()).isEqualTo(4);
+    for (int i = 0; i < 4; i++) {
+      semaphore.onSuccess();
+    }
+    assertThat(semaphore.getLimit()).isEqualTo(5);
+    assertThat(semaphore.availablePermits()).isEqualTo(5);
+  }
+
+  @Test
+  void should_not_decrease_limit_for_requests_sent_before_last_decrease() {
+    AdaptiveSemaphore semaphore = new AdaptiveSemaphore(8);
+    assertThat(semaphore.tryAcquire(8)).isTrue();
+    long requestStart = System.nanoTime();
+    semaphore.onOverload(System.nanoTime());
+    assertThat(semaphore.getLimit()).isEqualTo(4);
+    semaphore.onOverload(requestStart);
+    assertThat(semaphore.getLimit()).isEqualTo(4);
+  }
+
+  @Test
+  void should_never_go_below_floor() {
+    AdaptiveSemaphore semaphore = new AdaptiveSemaphore(64);
+    assertThat(semaphore.tryAcquire(64)).isTrue();
+    for (int i = 0; i < 10; i++) {
+      semaphore.onOverload(System.nanoTime());
+    }
+    assertThat(semaphore.getLimit()).isEqualTo(64 / AdaptiveSemaphore.MIN_LIMIT_DIVISOR);
+    semaphore.release(64);
+    assertThat(semaphore.availablePermits()).isEqualTo(64 / AdaptiveSemaphore.MIN_LIMIT_DIVISOR);
+  }
+
+  @Test
+  void should_never_go_below_one_permit() {
+    AdaptiveSemaphore semaphore = new AdaptiveSemaphore(2);
+    for (int i = 0; i < 5; i++) {
+      semaphore.onOverload(System.nanoTime());
+    }
+    assertThat(semaphore.getLimit()).isOne();
+    assertThat(semaphore.availablePermits()).isOne();
+  }
+
+  @Test
+  void should_reject_non_positive_limit() {
+    assertThatThrownBy(() -> new AdaptiveSemaphore(0))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Max limit must be strictly positive, got 0");
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.api.overload;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import com.datastax.oss.driver.api.core.AllNodesFailedException;
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.DefaultConsistencyLevel;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.servererrors.OverloadedException;
+import com.datastax.oss.driver.api.core.servererrors.ReadTimeoutException;
+import com.datastax.oss.driver.api.core.servererrors.SyntaxError;
+import com.datastax.oss.driver.api.core.servererrors.WriteTimeoutException;
+import com.datastax.oss.driver.api.core.servererrors.WriteType;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class RetryBackoffTest {
+
+  private static final ConsistencyLevel ONE = DefaultConsistencyLevel.ONE;
+
+  @Test
+  void should_compute_jittered_exponential_delays() {
+    try (RetryBackoff backoff =
+        new RetryBackoff(10, Duration.ofMillis(100), Duration.ofSeconds(1))) {
+      for (int i = 0; i < 100; i++) {
+        assertThat(backoff.delayNanos(0))
+            .isBetween(Duration.ofMillis(50).toNanos(), Duration.ofMillis(100).toNanos());
+        assertThat(backoff.delayNanos(2))
+            .isBetween(Duration.ofMillis(200).toNanos(), Duration.ofMillis(400).toNanos());
+        assertThat(backoff.delayNanos(4))
+            .isBetween(Duration.ofMillis(500).toNanos(), Duration.ofSeconds(1).toNanos());
+        assertThat(backoff.delayNanos(Integer.MAX_VALUE))
+            .isBetween(Duration.ofMillis(500).toNanos(), Duration.ofSeconds(1).toNanos());
+      }
+    }
+  }
+
+  @Test
+  void should_reject_invalid_delays() {
+    assertThatThrownBy(() -> new RetryBackoff(10, Duration.ZERO, Duration.ofSeconds(1)))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Base delay must be strictly positive");
+    assertThatThrownBy(() -> new RetryBackoff(10, Duration.ofSeconds(2), Duration.ofSeconds(1)))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Max delay must be greater than or equal to base delay");
+  }
+
+  @Test
+  void should_schedule_retries_until_closed() throws InterruptedException {
+    RetryBackoff backoff = new RetryBackoff(10, Duration.ofMillis(1), Duration.ofMillis(1));
+    CountDownLatch latch = new CountDownLatch(1);
+    assertThat(backoff.schedule(latch::countDown, 0)).isTrue();
+    assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+    backoff.close();
+    assertThat(backoff.schedule(() -> {}, 0)).isFalse();
+  }
+
+  @Test
+  void should_detect_overload_errors() {
+    Node node = mock(Node.class);
+    WriteTimeoutException writeTimeout =
+        new WriteTimeoutException(node, ONE, 0, 1, WriteType.SIMPLE);
+    ReadTimeoutException readTimeout = new ReadTimeoutException(node, ONE, 0, 1, false);
+    OverloadedException overloaded = new OverloadedException(node);
+    SyntaxError syntaxError = new SyntaxError(node, "bad query");
+    assertThat(RetryBackoff.isOverload(writeTimeout)).isTrue();
+    assertThat(RetryBackoff.isOverload(readTimeout)).isTrue();
+    assertThat(RetryBackoff.isOverload(overloaded)).isTrue();
+    assertThat(RetryBackoff.isOverload(syntaxError)).isFalse();
+    assertThat(
+            RetryBackoff.isOverload(
+                AllNodesFailedException.fromErrors(Collections.singletonMap(node, overloaded))))
+        .isTrue();
+    assertThat(
+            RetryBackoff.isOverload(
+                AllNodesFailedException.fromErrors(Collections.singletonMap(node, syntaxError))))
+        .isFalse();
+    assertThat(RetryBackoff.isOverload(AllNodesFailedException.fromErrors(Collections.emptyMap())))
+        .isFalse();
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.reactor.simulacron;
+
+import static com.datastax.oss.simulacron.common.codec.ConsistencyLevel.LOCAL_ONE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.datastax.oss.driver.api.core.AllNodesFailedException;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.servererrors.OverloadedException;
+import com.datastax.oss.driver.api.core.servererrors.WriteTimeoutException;
+import com.datastax.oss.dsbulk.executor.api.result.WriteResult;
+import com.datastax.oss.dsbulk.executor.reactor.DefaultReactorBulkExecutor;
+import com.datastax.oss.dsbulk.executor.reactor.DefaultReactorBulkExecutorBuilder;
+import com.datastax.oss.dsbulk.tests.driver.SerializedSession;
+import com.datastax.oss.dsbulk.tests.driver.annotations.SessionConfig;
+import com.datastax.oss.dsbulk.tests.simulacron.SimulacronExtension;
+import com.datastax.oss.dsbulk.tests.simulacron.SimulacronUtils;
+import com.datastax.oss.simulacron.common.codec.WriteType;
+import com.datastax.oss.simulacron.common.stubbing.PrimeDsl;
+import com.datastax.oss.simulacron.server.BoundCluster;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import reactor.core.publisher.Flux;
+
+@ExtendWith(SimulacronExtension.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DefaultReactorBulkExecutorRetryBackoffSimulacronIT {
+
+  private static final String TIMEOUT_QUERY = "INSERT INTO test_timeout (pk, v) VALUES (0, 0)";
+  private static final String OVERLOADED_QUERY =
+      "INSERT INTO test_overloaded (pk, v) VALUES (0, 0)";
+  private static final String SLOW_QUERY = "INSERT INTO test_slow (pk, v) VALUES (0, 0)";
+
+  private final BoundCluster simulacron;
+  private final TrackingSession session;
+
+  DefaultReactorBulkExecutorRetryBackoffSimulacronIT(
+      BoundCluster simulacron,
+      @SessionConfig(settings = "advanced.protocol.version=V4") CqlSession session) {
+    this.simulacron = simulacron;
+    this.session = new TrackingSession(session);
+  }
+
+  @BeforeEach
+  void primeQueries() {
+    SimulacronUtils.primeSystemLocal(simulacron, Collections.emptyMap());
+    SimulacronUtils.primeSystemPeers(simulacron);
+    SimulacronUtils.primeSystemPeersV2(simulacron);
+    simulacron.prime(
+        PrimeDsl.when(TIMEOUT_QUERY)
+            .then(PrimeDsl.writeTimeout(LOCAL_ONE, 0, 1, WriteType.SIMPLE)));
+    simulacron.prime(PrimeDsl.when(OVERLOADED_QUERY).then(PrimeDsl.overloaded("overloaded")));
+    simulacron.prime(
+        PrimeDsl.when(SLOW_QUERY).then(PrimeDsl.noRows()).delay(50, TimeUnit.MILLISECONDS));
+    session.reset();
+  }
+
+  @Test
+  void should_back_off_between_attempts_of_timed_out_writes() {
+    try (DefaultReactorBulkExecutor executor =
+        newExecutor(builder -> builder.withRetryBackoff(3, ofMillis(100), ofMillis(400)))) {
+      WriteResult result = executor.writeSync(statement(TIMEOUT_QUERY));
+      assertThat(result.isSuccess()).isFalse();
+      assertThat(result.getError())
+          .hasValueSatisfying(
+              error -> assertThat(error).hasCauseInstanceOf(WriteTimeoutException.class));
+    }
+    // the n-th delay is at least half of min(400, 100 * 2^n) milliseconds
+    assertBackoff(session.attempts(TIMEOUT_QUERY), 50, 100, 200);
+  }
+
+  @Test
+  void should_back_off_between_attempts_of_overloaded_writes() {
+    try (DefaultReactorBulkExecutor executor =
+        newExecutor(builder -> builder.withRetryBackoff(3, ofMillis(100), ofMillis(400)))) {
+      WriteResult result = executor.writeSync(statement(OVERLOADED_QUERY));
+      assertThat(result.isSuccess()).isFalse();
+      // the driver tried the next node after the overloaded error, but there is only one
+      assertThat(result.getError())
+          .hasValueSatisfying(
+              error -> {
+                assertThat(error).hasCauseInstanceOf(AllNodesFailedException.class);
+                assertThat(((AllNodesFailedException) error.getCause()).getAllErrors().values())
+                    .hasSize(1)
+                    .allSatisfy(
+                        errors -> assertThat(errors).hasOnlyElementsOfType(OverloadedException.class));
+              });
+    }
+    assertBackoff(session.attempts(OVERLOADED_QUERY), 50, 100, 200);
+  }
+
+  @Test
+  void should_shed_in_flight_requests_when_overloaded() {
+    try (DefaultReactorBulkExecutor executor =
+        newExecutor(
+            builder ->
+                builder
+                    .withMaxInFlightRequests(32)
+                    .withRetryBackoff(2, ofMillis(100), ofMillis(100)))) {
+      executeOverloadedThenSlowWrites(executor);
+    }
+    // 32 overloaded writes, each attempted 3 times
+    assertThat(session.attempts(OVERLOADED_QUERY)).hasSize(96);
+    assertThat(session.attempts(SLOW_QUERY)).hasSize(100);
+    // the first overloaded error at least halved the in-flight limit, and 100 successes are not
+    // enough to restore it fully
+    assertThat(session.maxInFlight(SLOW_QUERY)).isBetween(1, 24);
+  }
+
+  @Test
+  void should_not_shed_in_flight_requests_when_backoff_disabled() {
+    try (DefaultReactorBulkExecutor executor =
+        newExecutor(builder -> builder.withMaxInFlightRequests(32))) {
+      executeOverloadedThenSlowWrites(executor);
+    }
+    assertThat(session.attempts(OVERLOADED_QUERY)).hasSize(32);
+    assertThat(session.attempts(SLOW_QUERY)).hasSize(100);
+    assertThat(session.maxInFlight(SLOW_QUERY)).isGreaterThan(24);
+  }
+
+  private DefaultReactorBulkExecutor newExecutor(Consumer<DefaultReactorBulkExecutorBuilder> config) {
+    DefaultReactorBulkExecutorBuilder builder = DefaultReactorBulkExecutor.builder(session);
+    builder.failSafe();
+    config.accept(builder);
+    return builder.build();
+  }
+
+  private static void executeOverloadedThenSlowWrites(DefaultReactorBulkExecutor executor) {
+    List<WriteResult> results =
+        Flux.concat(
+                Flux.range(0, 32).map(i -> OVERLOADED_QUERY),
+                Flux.range(0, 100).map(i -> SLOW_QUERY))
+            .map(DefaultReactorBulkExecutorRetryBackoffSimulacronIT::statement)
+            .flatMap(executor::writeReactive)
+            .collectList()
+            .block();
+    assertThat(results)
+        .filteredOn(WriteResult::isSuccess)
+        .hasSize(100)
+        .allSatisfy(
+            result ->
+                assertThat(((SimpleStatement) result.getStatement()).getQuery())
+                    .isEqualTo(SLOW_QUERY));
+  }
+
+  private static void assertBackoff(List<Long> attempts, long... minDelaysMillis) {
+    assertThat(attempts).hasSize(minDelaysMillis.length + 1);
+    for (int i = 0; i < minDelaysMillis.length; i++) {
+      long delay = TimeUnit.NANOSECONDS.toMillis(attempts.get(i + 1) - attempts.get(i));
+      assertThat(delay).isGreaterThanOrEqualTo(minDelaysMillis[i]);
+    }
+  }
+
+  private static SimpleStatement statement(String query) {
+    return SimpleStatement.newInstance(query).setIdempotent(true);
+  }
+
+  private static Duration ofMillis(long millis) {
+    return Duration.ofMillis(millis);
+  }
+
+  /** Records when each query is attempted, and how many of them are in flight at most. */
+  private static class TrackingSession extends SerializedSession {
+
+    private final Map<String, List<Long>> attempts = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> maxInFlight = new ConcurrentHashMap<>();
+
+    TrackingSession(CqlSession session) {
+      super(session);
+    }
+
+    void reset() {
+      attempts.clear();
+      inFlight.clear();
+      maxInFlight.clear();
+    }
+
+    List<Long> attempts(String query) {
+      return attempts.getOrDefault(query, Collections.emptyList());
+    }
+
+    int maxInFlight(String query) {
+      return maxInFlight.getOrDefault(query, new AtomicInteger()).get();
+    }
+
+    @NonNull
+    @Override
+    public CompletionStage<AsyncResultSet> executeAsync(@NonNull Statement<?> statement) {
+      String query = ((SimpleStatement) statement).getQuery();
+      attempts.computeIfAbsent(query, q -> new CopyOnWriteArrayList<>()).add(System.nanoTime());
+      int current = inFlight.computeIfAbsent(query, q -> new AtomicInteger()).incrementAndGet();
+      maxInFlight.computeIfAbsent(query, q -> new AtomicInteger()).accumulateAndGet(current, Math::max);
+      return super.executeAsync(statement)
+          .whenComplete((rs, error) -> inFlight.get(query).decrementAndGet());
+    }
+  }
+}
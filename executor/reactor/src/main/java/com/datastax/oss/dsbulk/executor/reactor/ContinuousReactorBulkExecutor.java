@@ -75,6 +75,7 @@ public class ContinuousReactorBulkExecutor extends DefaultReactorBulkExecutor
             listener,
             maxConcurrentRequests,
             rateLimiter,
-            bytesRateLimiter));
+            bytesRateLimiter,
+            retryBackoff));
   }
 }
@@ -123,7 +123,8 @@ public class DefaultReactorBulkExecutor extends AbstractBulkExecutor
             listener,
             maxConcurrentRequests,
             rateLimiter,
-            bytesRateLimiter));
+            bytesRateLimiter,
+            retryBackoff));
   }
 
   @Override
@@ -204,7 +205,8 @@ public class DefaultReactorBulkExecutor extends AbstractBulkExecutor
             listener,
             maxConcurrentRequests,
             rateLimiter,
-            bytesRateLimiter));
+            bytesRateLimiter,
+            retryBackoff));
   }
 
   @Override
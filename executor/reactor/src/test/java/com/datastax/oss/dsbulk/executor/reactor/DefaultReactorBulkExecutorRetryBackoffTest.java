@@ -0,0 +1,168 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.executor.reactor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.DefaultConsistencyLevel;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.servererrors.WriteTimeoutException;
+import com.datastax.oss.driver.api.core.servererrors.WriteType;
+import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
+import com.datastax.oss.dsbulk.executor.api.result.WriteResult;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+class DefaultReactorBulkExecutorRetryBackoffTest {
+
+  private final CqlSession session = mock(CqlSession.class);
+  private final ExecutionListener listener = mock(ExecutionListener.class);
+  private final Node node = mock(Node.class);
+
+  private final AtomicInteger attempts = new AtomicInteger();
+
+  @BeforeEach
+  void setUpSession() {
+    AsyncResultSet rs = mock(AsyncResultSet.class);
+    when(rs.currentPage()).thenReturn(Collections.emptyList());
+    when(rs.getExecutionInfo()).thenReturn(mock(ExecutionInfo.class));
+    // simulates an overloaded replica that times out twice before accepting each write
+    when(session.executeAsync(any(SimpleStatement.class)))
+        .thenAnswer(
+            invocation -> {
+              CompletableFuture<AsyncResultSet> future = new CompletableFuture<>();
+              if (attempts.incrementAndGet() % 3 != 0) {
+                future.completeExceptionally(
+                    new WriteTimeoutException(
+                        node, DefaultConsistencyLevel.ONE, 0, 1, WriteType.SIMPLE));
+              } else {
+                future.complete(rs);
+              }
+              return future;
+            });
+  }
+
+  @Test
+  void should_retry_overloaded_writes_with_backoff() {
+    try (DefaultReactorBulkExecutor executor =
+        DefaultReactorBulkExecutor.builder(session)
+            .withExecutionListener(listener)
+            .withMaxInFlightRequests(4)
+            .withRetryBackoff(3, Duration.ofMillis(1), Duration.ofMillis(10))
+            .build()) {
+      WriteResult result =
+          executor.writeSync(SimpleStatement.newInstance("INSERT").setIdempotent(true));
+      assertThat(result.isSuccess()).isTrue();
+      verify(session, times(3)).executeAsync(any(SimpleStatement.class));
+      // retries are invisible to listeners
+      verify(listener).onWriteRequestStarted(any(Statement.class), any());
+      verify(listener).onWriteRequestSuccessful(any(Statement.class), any());
+      verify(listener, never()).onWriteRequestFailed(any(Statement.class), any(), any());
+    }
+  }
+
+  @Test
+  void should_not_retry_non_idempotent_writes() {
+    try (DefaultReactorBulkExecutor executor =
+        DefaultReactorBulkExecutor.builder(session)
+            .withExecutionListener(listener)
+            .withRetryBackoff(3, Duration.ofMillis(1), Duration.ofMillis(10))
+            .failSafe()
+            .build()) {
+      WriteResult result =
+          executor.writeSync(SimpleStatement.newInstance("INSERT").setIdempotent(false));
+      assertThat(result.isSuccess()).isFalse();
+      assertThat(result.getError())
+          .hasValueSatisfying(
+              error -> assertThat(error).hasCauseInstanceOf(WriteTimeoutException.class));
+      verify(session, times(1)).executeAsync(any(SimpleStatement.class));
+      verify(listener).onWriteRequestFailed(any(Statement.class), any(), any());
+    }
+  }
+
+  @Test
+  void should_give_up_after_max_retries() {
+    try (DefaultReactorBulkExecutor executor =
+        DefaultReactorBulkExecutor.builder(session)
+            .withExecutionListener(listener)
+            .withRetryBackoff(1, Duration.ofMillis(1), Duration.ofMillis(10))
+            .failSafe()
+            .build()) {
+      WriteResult result =
+          executor.writeSync(SimpleStatement.newInstance("INSERT").setIdempotent(true));
+      assertThat(result.isSuccess()).isFalse();
+      verify(session, times(2)).executeAsync(any(SimpleStatement.class));
+    }
+  }
+
+  @Test
+  void should_not_hold_permits_while_backing_off() {
+    AsyncResultSet rs = mock(AsyncResultSet.class);
+    when(rs.currentPage()).thenReturn(Collections.emptyList());
+    when(rs.getExecutionInfo()).thenReturn(mock(ExecutionInfo.class));
+    // simulates sporadic timeouts: "SLOW" writes always time out, other writes succeed
+    when(session.executeAsync(any(SimpleStatement.class)))
+        .thenAnswer(
+            invocation -> {
+              SimpleStatement stmt = invocation.getArgument(0);
+              CompletableFuture<AsyncResultSet> future = new CompletableFuture<>();
+              if (stmt.getQuery().equals("SLOW")) {
+                future.completeExceptionally(
+                    new WriteTimeoutException(
+                        node, DefaultConsistencyLevel.ONE, 0, 1, WriteType.SIMPLE));
+              } else {
+                future.complete(rs);
+              }
+              return future;
+            });
+    List<String> completed = new CopyOnWriteArrayList<>();
+    try (DefaultReactorBulkExecutor executor =
+        DefaultReactorBulkExecutor.builder(session)
+            .withMaxInFlightRequests(2)
+            .withRetryBackoff(2, Duration.ofMillis(100), Duration.ofMillis(100))
+            .failSafe()
+            .build()) {
+      Flux.concat(Flux.just("SLOW", "SLOW"), Flux.range(0, 100).map(i -> "FAST"))
+          .map(query -> SimpleStatement.newInstance(query).setIdempotent(true))
+          .flatMap(executor::writeReactive)
+          .doOnNext(result -> completed.add(((SimpleStatement) result.getStatement()).getQuery()))
+          .blockLast();
+    }
+    // while the slow writes back off, they do not prevent the fast ones from being executed
+    assertThat(completed).hasSize(102);
+    assertThat(completed.subList(0, 100)).containsOnly("FAST");
+    assertThat(completed.subList(100, 102)).containsOnly("SLOW");
+    verify(session, times(106)).executeAsync(any(SimpleStatement.class));
+  }
+}
@@ -776,6 +776,9 @@ class CSVEndToEndSimulacronIT extends EndToEndSimulacronITBase {
       "11000",
       "--schema.query",
       "INSERT INTO ks1.table1 (pk,cc,v) VALUES (:pk,:cc,:v)",
+      // this test checks error accounting: retry the writes that always time out immediately
+      "--driver.advanced.retry-policy.backoff.base-delay",
+      "0",
     };
 
     ExitStatus status = new DataStaxBulkLoader(addCommonSettings(args)).run();
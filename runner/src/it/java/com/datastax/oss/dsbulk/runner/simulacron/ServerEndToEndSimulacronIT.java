@@ -0,0 +1,275 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.runner.simulacron;
+
+import static com.datastax.oss.dsbulk.runner.tests.EndToEndUtils.INSERT_INTO_IP_BY_COUNTRY;
+import static com.datastax.oss.dsbulk.runner.tests.EndToEndUtils.IP_BY_COUNTRY_MAPPING_INDEXED;
+import static com.datastax.oss.dsbulk.runner.tests.EndToEndUtils.createSimpleParameterizedQuery;
+import static com.datastax.oss.dsbulk.runner.tests.EndToEndUtils.primeIpByCountryTable;
+import static com.datastax.oss.dsbulk.runner.tests.EndToEndUtils.validateQueryCount;
+import static com.datastax.oss.dsbulk.tests.logging.StreamType.STDERR;
+import static com.datastax.oss.dsbulk.tests.logging.StreamType.STDOUT;
+import static com.datastax.oss.simulacron.common.codec.ConsistencyLevel.LOCAL_ONE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import com.datastax.oss.driver.shaded.guava.common.io.Resources;
+import com.datastax.oss.dsbulk.connectors.api.Resource;
+import com.datastax.oss.dsbulk.connectors.csv.CSVConnector;
+import com.datastax.oss.dsbulk.runner.JobServer;
+import com.datastax.oss.dsbulk.runner.tests.CsvUtils;
+import com.datastax.oss.dsbulk.runner.tests.MockConnector;
+import com.datastax.oss.dsbulk.tests.logging.LogCapture;
+import com.datastax.oss.dsbulk.tests.logging.LogInterceptor;
+import com.datastax.oss.dsbulk.tests.logging.StreamCapture;
+import com.datastax.oss.dsbulk.tests.logging.StreamInterceptor;
+import com.datastax.oss.dsbulk.tests.utils.NetworkUtils;
+import com.datastax.oss.dsbulk.tests.utils.StringUtils;
+import com.datastax.oss.simulacron.common.cluster.RequestPrime;
+import com.datastax.oss.simulacron.common.stubbing.Prime;
+import com.datastax.oss.simulacron.server.BoundCluster;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigRenderOptions;
+import com.typesafe.config.ConfigValueFactory;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+class ServerEndToEndSimulacronIT extends EndToEndSimulacronITBase {
+
+  private Path tokenFile;
+  private JobServer server;
+
+  ServerEndToEndSimulacronIT(
+      BoundCluster simulacron,
+      @LogCapture(loggerName = "com.datastax.oss.dsbulk") LogInterceptor logs,
+      @StreamCapture(STDOUT) StreamInterceptor stdOut,
+      @StreamCapture(STDERR) StreamInterceptor stdErr) {
+    super(simulacron, logs, stdOut, stdErr);
+  }
+
+  @BeforeEach
+  void startServer() throws IOException {
+    tokenFile = Files.createTempFile("server", ".token");
+    server = new JobServer(0, Duration.ofMillis(100), tokenFile, 2, 10);
+    server.start();
+  }
+
+  @AfterEach
+  void stopServer() throws IOException {
+    server.stop();
+    Files.deleteIfExists(tokenFile);
+  }
+
+  @Test
+  void should_run_successive_jobs_with_shared_session() throws IOException {
+
+    primeIpByCountryTable(simulacron);
+    RequestPrime insert = createSimpleParameterizedQuery(INSERT_INTO_IP_BY_COUNTRY);
+    simulacron.prime(new Prime(insert));
+
+    String[] args = {
+      "load",
+      "-header",
+      "false",
+      "--connector.csv.url",
+      StringUtils.quoteJson(CsvUtils.CSV_RECORDS_UNIQUE),
+      "--schema.keyspace",
+      "ks1",
+      "--schema.query",
+      INSERT_INTO_IP_BY_COUNTRY,
+      "--schema.mapping",
+      IP_BY_COUNTRY_MAPPING_INDEXED
+    };
+
+    for (int i = 1; i <= 2; i++) {
+      Config job = submit(addCommonSettings(args));
+      assertThat(job.getInt("id")).isEqualTo(i);
+      Config last = awaitCompletion(i);
+      assertThat(last.getString("state")).isEqualTo("FINISHED");
+      assertThat(last.getString("exitStatus")).isEqualTo("STATUS_OK");
+      assertThat(last.getLong("progress.\"records/total\"")).isEqualTo(24);
+      assertThat(last.getLong("progress.\"records/failed\"")).isZero();
+    }
+    validateQueryCount(simulacron, 48, "INSERT INTO ip_by_country", LOCAL_ONE);
+    // the second job reused the session created by the first one, i.e. its control connection and
+    // its only pooled connection
+    assertThat(simulacron.getLogs().getQueryLogs())
+        .filteredOn(log -> log.getType().equals("STARTUP"))
+        .hasSize(2);
+  }
+
+  @Test
+  void should_stop_exposing_metrics_of_finished_jobs() throws IOException {
+
+    primeIpByCountryTable(simulacron);
+    RequestPrime insert = createSimpleParameterizedQuery(INSERT_INTO_IP_BY_COUNTRY);
+    simulacron.prime(new Prime(insert));
+
+    // a connector that never emits any record: its job runs until it is cancelled
+    MockConnector.setDelegate(
+        new CSVConnector() {
+
+          @Override
+          public void configure(
+              @NonNull Config settings, boolean read, boolean retainRecordSources) {}
+
+          @Override
+          public void init() {}
+
+          @Override
+          public int readConcurrency() {
+            return 1;
+          }
+
+          @NonNull
+          @Override
+          public Publisher<Resource> read() {
+            return Flux.never();
+          }
+        });
+
+    int port = NetworkUtils.findAvailablePort();
+    URL metrics = new URL("http", "localhost", port, "/metrics");
+
+    String[] runningJob = {
+      "load",
+      "-c",
+      "mock",
+      "--engine.executionId",
+      "running_job",
+      // sampling would wait for records forever
+      "--engine.dataSizeSamplingEnabled",
+      "false",
+      "--monitoring.prometheus.pull.enabled",
+      "true",
+      "--monitoring.prometheus.pull.port",
+      String.valueOf(port),
+      "--schema.keyspace",
+      "ks1",
+      "--schema.query",
+      INSERT_INTO_IP_BY_COUNTRY,
+      "--schema.mapping",
+      IP_BY_COUNTRY_MAPPING_INDEXED
+    };
+    String[] finishedJob = {
+      "load",
+      "-header",
+      "false",
+      "--connector.csv.url",
+      StringUtils.quoteJson(CsvUtils.CSV_RECORDS_UNIQUE),
+      "--engine.executionId",
+      "finished_job",
+      "--monitoring.prometheus.pull.enabled",
+      "true",
+      "--monitoring.prometheus.pull.port",
+      String.valueOf(port),
+      "--schema.keyspace",
+      "ks1",
+      "--schema.query",
+      INSERT_INTO_IP_BY_COUNTRY,
+      "--schema.mapping",
+      IP_BY_COUNTRY_MAPPING_INDEXED
+    };
+
+    submit(addCommonSettings(runningJob));
+    await()
+        .atMost(Duration.ofSeconds(30))
+        .ignoreExceptions()
+        .until(() -> scrape(metrics).contains("operation_id=\"running_job\""));
+
+    // the second job shares the metrics HTTP server with the first one
+    submit(addCommonSettings(finishedJob));
+    Config last = awaitCompletion(2);
+    assertThat(last.getString("exitStatus")).isEqualTo("STATUS_OK");
+    assertThat(last.getLong("progress.\"records/total\"")).isEqualTo(24);
+
+    // the series of the finished job are gone, those of the running job are still exposed
+    String scraped = scrape(metrics);
+    assertThat(scraped)
+        .contains("operation_id=\"running_job\"")
+        .doesNotContain("operation_id=\"finished_job\"");
+
+    assertThat(open("DELETE", "/jobs/1").getResponseCode()).isEqualTo(200);
+    assertThat(awaitCompletion(1).getString("state")).isEqualTo("FINISHED");
+    // the HTTP server is closed once no job uses it
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(
+            () ->
+                assertThatThrownBy(() -> metrics.openConnection().connect())
+                    .isInstanceOf(IOException.class));
+  }
+
+  private static String scrape(URL metrics) throws IOException {
+    return String.join("\n", Resources.readLines(metrics, UTF_8));
+  }
+
+  private Config submit(String[] args) throws IOException {
+    String body =
+        ConfigValueFactory.fromMap(Collections.singletonMap("args", Arrays.asList(args)))
+            .render(ConfigRenderOptions.concise());
+    HttpURLConnection connection = open("POST", "/jobs");
+    connection.setRequestProperty("Content-Type", "application/json");
+    connection.setDoOutput(true);
+    try (OutputStream out = connection.getOutputStream()) {
+      out.write(body.getBytes(UTF_8));
+    }
+    assertThat(connection.getResponseCode()).isEqualTo(201);
+    return ConfigFactory.parseString(readLines(connection).get(0));
+  }
+
+  private Config awaitCompletion(int id) throws IOException {
+    HttpURLConnection connection = open("GET", "/jobs/" + id + "/progress");
+    assertThat(connection.getResponseCode()).isEqualTo(200);
+    List<String> lines = readLines(connection);
+    return ConfigFactory.parseString(lines.get(lines.size() - 1));
+  }
+
+  private HttpURLConnection open(String method, String path) throws IOException {
+    URL url = new URL("http", "127.0.0.1", server.getPort(), path);
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setRequestMethod(method);
+    connection.setRequestProperty("Authorization", "Bearer " + server.getToken());
+    return connection;
+  }
+
+  private static List<String> readLines(HttpURLConnection connection) throws IOException {
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(connection.getInputStream(), UTF_8))) {
+      return reader.lines().collect(Collectors.toList());
+    }
+  }
+}
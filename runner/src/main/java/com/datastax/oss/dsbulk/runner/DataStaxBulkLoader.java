@@ -18,8 +18,11 @@ package com.datastax.oss.dsbulk.runner;
 import static com.datastax.oss.dsbulk.runner.ExitStatus.STATUS_CRASHED;
 import static com.datastax.oss.dsbulk.runner.ExitStatus.STATUS_OK;
 
+import com.datastax.oss.dsbulk.config.ConfigUtils;
+import com.datastax.oss.dsbulk.io.IOUtils;
 import com.datastax.oss.dsbulk.runner.cli.CommandLineParser;
 import com.datastax.oss.dsbulk.runner.cli.GlobalHelpRequestException;
+import com.datastax.oss.dsbulk.runner.cli.ParseException;
 import com.datastax.oss.dsbulk.runner.cli.ParsedCommandLine;
 import com.datastax.oss.dsbulk.runner.cli.SectionHelpRequestException;
 import com.datastax.oss.dsbulk.runner.cli.VersionRequestException;
@@ -33,6 +36,9 @@ import java.io.BufferedWriter;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +47,11 @@ public class DataStaxBulkLoader {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(DataStaxBulkLoader.class);
 
+  private static final Duration SERVER_PROGRESS_INTERVAL = Duration.ofSeconds(1);
+
+  private static final Path SERVER_DEFAULT_TOKEN_FILE =
+      Paths.get(System.getProperty("user.home"), ".dsbulk", "server.token");
+
   private final String[] args;
 
   public static void main(String[] args) {
@@ -59,6 +70,37 @@ public class DataStaxBulkLoader {
     Workflow workflow = null;
     try {
 
+      if (args.length > 0 && "job".equals(args[0])) {
+        if (args.length != 2) {
+          throw new ParseException("Expecting exactly one job file path after job");
+        }
+        Path jobFilePath = ConfigUtils.resolvePath(args[1]);
+        IOUtils.assertAccessibleFile(jobFilePath, "Job file");
+        return new JobRunner(JobFile.parse(jobFilePath)).run();
+      }
+
+      if (args.length > 0 && "server".equals(args[0])) {
+        if (args.length != 2 && args.length != 3) {
+          throw new ParseException(
+              "Expecting a port number, optionally followed by a token file path, after server");
+        }
+        int port;
+        try {
+          port = Integer.parseInt(args[1]);
+        } catch (NumberFormatException e) {
+          throw new ParseException("Invalid server port: expecting integer, got: " + args[1]);
+        }
+        Path tokenFile =
+            args.length == 3 ? ConfigUtils.resolvePath(args[2]) : SERVER_DEFAULT_TOKEN_FILE;
+        return new JobServer(
+                port,
+                SERVER_PROGRESS_INTERVAL,
+                tokenFile,
+                JobServer.DEFAULT_MAX_CONCURRENT_JOBS,
+                JobServer.DEFAULT_MAX_FINISHED_JOBS)
+            .run();
+      }
+
       CommandLineParser parser = new CommandLineParser(args);
       ParsedCommandLine result = parser.parse();
       Config config = result.getConfig();
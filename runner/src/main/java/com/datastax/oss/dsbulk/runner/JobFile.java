@@ -0,0 +1,140 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.runner;
+
+import com.datastax.oss.dsbulk.runner.cli.ParseException;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigList;
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.ConfigValue;
+import com.typesafe.config.ConfigValueType;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A job file, describing a list of operations to run in the same JVM.
+ *
+ * <p>A job file is a HOCON file with the following entries:
+ *
+ * <pre>
+ * # Options common to all operations, optional.
+ * args = ["-h", "host1", "-k", "ks1"]
+ * # How many operations to run concurrently, optional, defaults to 1.
+ * concurrency = 2
+ * # The maximum number of in-flight requests for all operations, optional, unlimited by default.
+ * maxInFlight = 2048
+ * # The operations to run, in order; each one is a command followed by its options.
+ * operations = [
+ *   ["load", "-t", "table1", "-url", "table1.csv"],
+ *   ["unload", "-t", "table2", "-url", "table2"]
+ * ]
+ * </pre>
+ */
+public class JobFile {
+
+  private static final ConfigParseOptions JOB_FILE_OPTIONS =
+      ConfigParseOptions.defaults().setOriginDescription("job file").setAllowMissing(false);
+
+  private final List<List<String>> operations;
+  private final int concurrency;
+  private final int maxInFlight;
+
+  JobFile(@NonNull List<List<String>> operations, int concurrency, int maxInFlight) {
+    this.operations = operations;
+    this.concurrency = concurrency;
+    this.maxInFlight = maxInFlight;
+  }
+
+  /**
+   * Parses the given job file.
+   *
+   * @throws ParseException if the file cannot be read, or is not a valid job file.
+   */
+  @NonNull
+  public static JobFile parse(@NonNull Path path) throws ParseException {
+    Config config;
+    try {
+      config = ConfigFactory.parseFile(path.toFile(), JOB_FILE_OPTIONS).resolve();
+    } catch (ConfigException e) {
+      throw new ParseException("Invalid job file " + path + ": " + e.getMessage(), e);
+    }
+    try {
+      List<String> common =
+          config.hasPath("args") ? config.getStringList("args") : Collections.emptyList();
+      int concurrency = config.hasPath("concurrency") ? config.getInt("concurrency") : 1;
+      if (concurrency < 1) {
+        throw new ParseException(
+            "Invalid job file "
+                + path
+                + ": concurrency must be strictly positive, got: "
+                + concurrency);
+      }
+      int maxInFlight = config.hasPath("maxInFlight") ? config.getInt("maxInFlight") : -1;
+      ConfigList list = config.getList("operations");
+      if (list.isEmpty()) {
+        throw new ParseException("Invalid job file " + path + ": no operations to run");
+      }
+      List<List<String>> operations = new ArrayList<>(list.size());
+      for (ConfigValue value : list) {
+        if (value.valueType() != ConfigValueType.LIST || ((ConfigList) value).isEmpty()) {
+          throw new ParseException(
+              String.format(
+                  "Invalid job file %s: expecting operation to be a non-empty list of arguments, got: %s",
+                  path, value.render()));
+        }
+        List<String> args = new ArrayList<>();
+        for (ConfigValue arg : (ConfigList) value) {
+          args.add(String.valueOf(arg.unwrapped()));
+        }
+        // the command must remain the first argument
+        List<String> operation = new ArrayList<>(args.size() + common.size());
+        operation.add(args.get(0));
+        operation.addAll(common);
+        operation.addAll(args.subList(1, args.size()));
+        operations.add(operation);
+      }
+      return new JobFile(operations, concurrency, maxInFlight);
+    } catch (ConfigException e) {
+      throw new ParseException("Invalid job file " + path + ": " + e.getMessage(), e);
+    }
+  }
+
+  /** Returns the command line arguments of each operation, in order. */
+  @NonNull
+  public List<List<String>> getOperations() {
+    return operations;
+  }
+
+  public int getConcurrency() {
+    return concurrency;
+  }
+
+  /**
+   * Returns the maximum number of in-flight requests per operation, so that the total for all
+   * concurrent operations doesn't exceed the job's budget; or -1 if the job has no budget.
+   */
+  public int getMaxInFlightPerOperation() {
+    if (maxInFlight <= 0) {
+      return -1;
+    }
+    return Math.max(1, maxInFlight / Math.min(concurrency, operations.size()));
+  }
+}
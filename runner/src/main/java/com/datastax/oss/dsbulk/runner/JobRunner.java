@@ -0,0 +1,156 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.runner;
+
+import static com.datastax.oss.dsbulk.runner.ExitStatus.STATUS_INTERRUPTED;
+import static com.datastax.oss.dsbulk.runner.ExitStatus.STATUS_OK;
+
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.ThreadFactoryBuilder;
+import com.datastax.oss.dsbulk.runner.cli.CommandLineParser;
+import com.datastax.oss.dsbulk.runner.cli.ParsedCommandLine;
+import com.datastax.oss.dsbulk.url.BulkLoaderURLStreamHandlerFactory;
+import com.datastax.oss.dsbulk.workflow.api.Workflow;
+import com.datastax.oss.dsbulk.workflow.api.session.SharedSessions;
+import com.datastax.oss.dsbulk.workflow.api.utils.OperationScope;
+import com.typesafe.config.Config;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the operations of a {@link JobFile} in the same JVM, sharing one session among all the
+ * operations with the same driver settings.
+ *
+ * <p>Each operation has its own operation directory, log files and metrics, just like when run
+ * alone. All operations are run, even if some of them fail; the exit status of the job is the most
+ * severe exit status of its operations.
+ */
+public class JobRunner {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JobRunner.class);
+
+  private final JobFile jobFile;
+
+  public JobRunner(@NonNull JobFile jobFile) {
+    this.jobFile = jobFile;
+  }
+
+  @NonNull
+  public ExitStatus run() {
+    List<List<String>> operations = jobFile.getOperations();
+    int concurrency = Math.min(jobFile.getConcurrency(), operations.size());
+    ExecutorService pool =
+        Executors.newFixedThreadPool(
+            concurrency, new ThreadFactoryBuilder().setNameFormat("job-runner-%d").build());
+    SharedSessions.enable();
+    try {
+      List<Future<ExitStatus>> results = new ArrayList<>(operations.size());
+      for (List<String> operation : operations) {
+        results.add(pool.submit(() -> runOperation(operation)));
+      }
+      ExitStatus status = STATUS_OK;
+      for (Future<ExitStatus> result : results) {
+        ExitStatus operationStatus;
+        try {
+          operationStatus = result.get();
+        } catch (ExecutionException e) {
+          operationStatus = ErrorHandler.handleUnexpectedError(null, e.getCause());
+        }
+        if (operationStatus.exitCode() > status.exitCode()) {
+          status = operationStatus;
+        }
+      }
+      return status;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return STATUS_INTERRUPTED;
+    } finally {
+      pool.shutdownNow();
+      SharedSessions.closeAll();
+    }
+  }
+
+  @NonNull
+  private ExitStatus runOperation(@NonNull List<String> operation) {
+    List<String> args = new ArrayList<>(operation);
+    int maxInFlight = jobFile.getMaxInFlightPerOperation();
+    if (maxInFlight > 0) {
+      // inserted right after the command, so that explicit options override it
+      args.add(1, "--dsbulk.executor.maxInFlight");
+      args.add(2, String.valueOf(maxInFlight));
+    }
+    return runOperation(args, workflow -> {});
+  }
+
+  /**
+   * Parses the given command line arguments, then runs the resulting workflow to completion on a
+   * dedicated {@link WorkflowThread}. Errors are never thrown, they are converted to an exit status
+   * instead, so that a failed operation cannot affect the other operations running in the JVM.
+   *
+   * <p>The operation runs in its own {@link OperationScope}, which keeps its log file and URL
+   * stream handler settings apart from those of other operations running concurrently.
+   *
+   * @param args the command line arguments of the operation, starting with the command.
+   * @param onCreated a callback invoked once the workflow is created, before it is initialized.
+   * @return the exit status of the operation.
+   */
+  @NonNull
+  static ExitStatus runOperation(
+      @NonNull List<String> args, @NonNull Consumer<Workflow> onCreated) {
+    try (OperationScope scope = OperationScope.open()) {
+      Workflow workflow = null;
+      try {
+        ParsedCommandLine result = new CommandLineParser(args.toArray(new String[0])).parse();
+        Config config = result.getConfig();
+        // only affects the threads of this operation, and the threads they create
+        BulkLoaderURLStreamHandlerFactory.setConfig(config);
+        // closes the S3 clients of this operation, unless other operations still use them
+        scope.onClose(() -> BulkLoaderURLStreamHandlerFactory.releaseConfig(config));
+        workflow = result.getWorkflowProvider().newWorkflow(config);
+        onCreated.accept(workflow);
+        WorkflowThread workflowThread = new WorkflowThread(workflow);
+        CleanupThread cleanupThread = new CleanupThread(workflow, workflowThread);
+        Runtime.getRuntime().addShutdownHook(cleanupThread);
+        workflowThread.start();
+        try {
+          workflowThread.join();
+        } catch (InterruptedException e) {
+          // the operation was cancelled: interrupt the workflow and wait for its termination
+          workflowThread.interrupt();
+          workflowThread.join();
+          Thread.currentThread().interrupt();
+        }
+        try {
+          Runtime.getRuntime().removeShutdownHook(cleanupThread);
+        } catch (IllegalStateException e) {
+          // the JVM is shutting down, the cleanup thread is running
+        }
+        ExitStatus status = workflowThread.getExitStatus();
+        LOGGER.info("{} finished with exit status {}.", workflow, status.exitCode());
+        return status;
+      } catch (Throwable t) {
+        return ErrorHandler.handleUnexpectedError(workflow, t);
+      }
+    }
+  }
+}
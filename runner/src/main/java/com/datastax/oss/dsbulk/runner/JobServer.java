@@ -0,0 +1,552 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.runner;
+
+import static com.datastax.oss.dsbulk.runner.ExitStatus.STATUS_INTERRUPTED;
+import static com.datastax.oss.dsbulk.runner.ExitStatus.STATUS_OK;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.ThreadFactoryBuilder;
+import com.datastax.oss.dsbulk.workflow.api.Workflow;
+import com.datastax.oss.dsbulk.workflow.api.session.SharedSessions;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.ConfigRenderOptions;
+import com.typesafe.config.ConfigSyntax;
+import com.typesafe.config.ConfigValueFactory;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A long-running server that accepts operations over a local HTTP API, and runs them in the same
+ * JVM, sharing one session among all the operations with the same driver settings.
+ *
+ * <p>The server only listens on the loopback interface. Requests must carry the token generated by
+ * the server on startup in an {@code Authorization: Bearer <token>} header; the token is written to
+ * a file readable by its owner only. Requests sent by browsers, i.e. carrying an {@code Origin}
+ * header, are rejected, and so are submissions whose content type is not {@code application/json}.
+ *
+ * <p>The server exposes the following endpoints:
+ *
+ * <ul>
+ *   <li>{@code POST /jobs}: submits a job; the request body is a JSON object with one entry, {@code
+ *       args}, containing the command followed by its options, exactly as they would be passed on
+ *       the command line, e.g. {@code {"args": ["load", "-k", "ks1", "-t", "table1"]}}. Replies
+ *       with the job status, which includes the job id. Submissions are rejected when the maximum
+ *       number of concurrent jobs is reached.
+ *   <li>{@code GET /jobs}: lists the status of all the jobs submitted so far.
+ *   <li>{@code GET /jobs/<id>}: the status of the given job: its state, the exit status of its
+ *       operation once finished, and the operation progress, as reported by its metrics.
+ *   <li>{@code GET /jobs/<id>/progress}: streams the job status, one JSON object per line, at
+ *       regular intervals, until the job is finished.
+ *   <li>{@code DELETE /jobs/<id>}: cancels the given job.
+ * </ul>
+ *
+ * <p>Each job has its own operation directory, log files and metrics, just like when run alone. A
+ * job that fails or crashes does not affect the other jobs, nor the server itself. Only the most
+ * recent finished jobs are retained.
+ */
+public class JobServer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JobServer.class);
+
+  private static final ConfigParseOptions REQUEST_OPTIONS =
+      ConfigParseOptions.defaults()
+          .setOriginDescription("request body")
+          .setSyntax(ConfigSyntax.JSON);
+
+  private static final String JSON = "application/json";
+
+  private static final String JSON_LINES = "application/x-ndjson";
+
+  private static final Duration SHUTDOWN_GRACE_PERIOD = Duration.ofSeconds(10);
+
+  private static final String BEARER = "Bearer ";
+
+  private static final int TOKEN_LENGTH = 32;
+
+  /** The default maximum number of jobs running concurrently. */
+  public static final int DEFAULT_MAX_CONCURRENT_JOBS = 4;
+
+  /** The default maximum number of finished jobs whose status is retained. */
+  public static final int DEFAULT_MAX_FINISHED_JOBS = 1000;
+
+  private enum JobState {
+    RUNNING,
+    FINISHED
+  }
+
+  private final int port;
+  private final Duration progressInterval;
+  private final Path tokenFile;
+  private final int maxConcurrentJobs;
+  private final int maxFinishedJobs;
+
+  private final ConcurrentNavigableMap<Integer, Job> jobs = new ConcurrentSkipListMap<>();
+  private final AtomicInteger jobIds = new AtomicInteger();
+  private final AtomicBoolean stopped = new AtomicBoolean();
+  private final CountDownLatch terminated = new CountDownLatch(1);
+
+  private volatile HttpServer httpServer;
+  private volatile ExecutorService jobExecutor;
+  private volatile byte[] token;
+
+  /**
+   * Creates a new server.
+   *
+   * @param port the port to listen on, or zero to listen on any free port.
+   * @param progressInterval the interval between two status lines when streaming a job's progress.
+   * @param tokenFile the file to write the authentication token to; it is replaced if it exists.
+   * @param maxConcurrentJobs the maximum number of jobs running concurrently.
+   * @param maxFinishedJobs the maximum number of finished jobs whose status is retained.
+   */
+  public JobServer(
+      int port,
+      @NonNull Duration progressInterval,
+      @NonNull Path tokenFile,
+      int maxConcurrentJobs,
+      int maxFinishedJobs) {
+    if (port < 0 || port > 65535) {
+      throw new IllegalArgumentException("Invalid server port: expecting 0-65535, got: " + port);
+    }
+    if (maxConcurrentJobs <= 0) {
+      throw new IllegalArgumentException(
+          "Invalid maximum number of concurrent jobs: expecting positive integer, got: "
+              + maxConcurrentJobs);
+    }
+    if (maxFinishedJobs < 0) {
+      throw new IllegalArgumentException(
+          "Invalid maximum number of finished jobs: expecting positive integer or zero, got: "
+              + maxFinishedJobs);
+    }
+    this.port = port;
+    this.progressInterval = progressInterval;
+    this.tokenFile = tokenFile;
+    this.maxConcurrentJobs = maxConcurrentJobs;
+    this.maxFinishedJobs = maxFinishedJobs;
+  }
+
+  /**
+   * Starts the server, then blocks until it is {@linkplain #stop() stopped}, either explicitly or
+   * because the JVM is shutting down.
+   */
+  @NonNull
+  public ExitStatus run() throws IOException {
+    start();
+    Runtime.getRuntime().addShutdownHook(new Thread(this::stop, "job-server-shutdown"));
+    try {
+      terminated.await();
+      return STATUS_OK;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      stop();
+      return STATUS_INTERRUPTED;
+    }
+  }
+
+  /** Starts the server, without blocking. */
+  public void start() throws IOException {
+    String token = writeToken();
+    this.token = token.getBytes(UTF_8);
+    SharedSessions.enable();
+    // no queue: submissions are rejected once all the threads are busy
+    ThreadPoolExecutor jobExecutor =
+        new ThreadPoolExecutor(
+            maxConcurrentJobs,
+            maxConcurrentJobs,
+            60,
+            TimeUnit.SECONDS,
+            new SynchronousQueue<>(),
+            new ThreadFactoryBuilder().setNameFormat("job-server-job-%d").build());
+    jobExecutor.allowCoreThreadTimeOut(true);
+    this.jobExecutor = jobExecutor;
+    httpServer =
+        HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    // streaming a job's progress holds a thread for as long as the job is running
+    httpServer.setExecutor(
+        Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder()
+                .setNameFormat("job-server-http-%d")
+                .setDaemon(true)
+                .build()));
+    httpServer.createContext("/jobs", this::handle);
+    httpServer.start();
+    LOGGER.info(
+        "Job server listening on http://{}:{}, authentication token written to {}",
+        httpServer.getAddress().getHostString(),
+        getPort(),
+        tokenFile);
+  }
+
+  /** Returns the port the server listens on. */
+  public int getPort() {
+    return httpServer.getAddress().getPort();
+  }
+
+  /** Returns the authentication token that requests must carry. */
+  @NonNull
+  public String getToken() {
+    return new String(token, UTF_8);
+  }
+
+  /**
+   * Generates a new random token, and writes it to the token file; on POSIX file systems, the file
+   * is only readable and writable by its owner.
+   */
+  private String writeToken() throws IOException {
+    byte[] bytes = new byte[TOKEN_LENGTH];
+    new SecureRandom().nextBytes(bytes);
+    String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    Path parent = tokenFile.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    // recreate the file rather than truncating it, so that it never has wider permissions
+    Files.deleteIfExists(tokenFile);
+    if (tokenFile.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+      Files.createFile(
+          tokenFile,
+          PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+    } else {
+      Files.createFile(tokenFile);
+    }
+    Files.write(tokenFile, token.getBytes(UTF_8));
+    return token;
+  }
+
+  /**
+   * Stops the server: stops accepting requests, cancels all running jobs, waits for their
+   * termination, then closes all the sessions.
+   */
+  public void stop() {
+    if (stopped.compareAndSet(false, true)) {
+      try {
+        if (httpServer != null) {
+          httpServer.stop(0);
+        }
+        if (jobExecutor != null) {
+          jobExecutor.shutdownNow();
+          if (!jobExecutor.awaitTermination(
+              SHUTDOWN_GRACE_PERIOD.toMillis(), TimeUnit.MILLISECONDS)) {
+            LOGGER.error("Some jobs did not terminate in time.");
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        SharedSessions.closeAll();
+        try {
+          Files.deleteIfExists(tokenFile);
+        } catch (IOException e) {
+          LOGGER.warn("Could not delete " + tokenFile, e);
+        }
+        LOGGER.info("Job server stopped.");
+        terminated.countDown();
+      }
+    }
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      if (exchange.getRequestHeaders().containsKey("Origin")) {
+        // browsers send this header with cross-origin requests, which this API never expects
+        error(exchange, 403, "Cross-origin requests are not allowed");
+        return;
+      }
+      if (!isAuthorized(exchange)) {
+        exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+        error(exchange, 401, "Missing or invalid authentication token");
+        return;
+      }
+      String method = exchange.getRequestMethod();
+      String path = exchange.getRequestURI().getPath().substring("/jobs".length());
+      String[] segments =
+          path.isEmpty() || path.equals("/") ? new String[0] : path.substring(1).split("/", -1);
+      if (segments.length == 0) {
+        if (method.equals("POST")) {
+          submit(exchange);
+        } else if (method.equals("GET")) {
+          List<Object> all = new ArrayList<>();
+          jobs.values().forEach(job -> all.add(job.toMap()));
+          reply(exchange, 200, all);
+        } else {
+          error(exchange, 405, "Unsupported method: " + method);
+        }
+        return;
+      }
+      Job job = findJob(segments[0]);
+      if (job == null
+          || segments.length > 2
+          || (segments.length == 2 && !segments[1].equals("progress"))) {
+        error(exchange, 404, "Not found: " + exchange.getRequestURI().getPath());
+      } else if (segments.length == 2) {
+        if (method.equals("GET")) {
+          streamProgress(exchange, job);
+        } else {
+          error(exchange, 405, "Unsupported method: " + method);
+        }
+      } else if (method.equals("GET")) {
+        reply(exchange, 200, job.toMap());
+      } else if (method.equals("DELETE")) {
+        job.cancel();
+        reply(exchange, 200, job.toMap());
+      } else {
+        error(exchange, 405, "Unsupported method: " + method);
+      }
+    } catch (IOException e) {
+      // most likely the client went away
+      LOGGER.debug("Could not reply to " + exchange.getRequestURI(), e);
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private boolean isAuthorized(HttpExchange exchange) {
+    String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+    if (authorization == null || !authorization.startsWith(BEARER)) {
+      return false;
+    }
+    byte[] candidate = authorization.substring(BEARER.length()).trim().getBytes(UTF_8);
+    return MessageDigest.isEqual(candidate, token);
+  }
+
+  private static boolean isJson(HttpExchange exchange) {
+    String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+    if (contentType == null) {
+      return false;
+    }
+    int semicolon = contentType.indexOf(';');
+    String mediaType = semicolon == -1 ? contentType : contentType.substring(0, semicolon);
+    return mediaType.trim().equalsIgnoreCase(JSON);
+  }
+
+  private void submit(HttpExchange exchange) throws IOException {
+    if (!isJson(exchange)) {
+      error(exchange, 415, "Unsupported content type: expecting " + JSON);
+      return;
+    }
+    List<String> args;
+    try {
+      String body = new String(readFully(exchange.getRequestBody()), UTF_8);
+      args = ConfigFactory.parseString(body, REQUEST_OPTIONS).getStringList("args");
+    } catch (ConfigException e) {
+      error(exchange, 400, "Invalid request body: " + e.getMessage());
+      return;
+    }
+    if (args.isEmpty()) {
+      error(exchange, 400, "Invalid request body: args cannot be empty");
+      return;
+    }
+    Job job = new Job(jobIds.incrementAndGet(), args, this::evictFinishedJobs);
+    jobs.put(job.id, job);
+    try {
+      jobExecutor.execute(job::run);
+    } catch (RejectedExecutionException e) {
+      jobs.remove(job.id);
+      if (stopped.get()) {
+        error(exchange, 503, "Server is stopping");
+      } else {
+        error(exchange, 429, "Too many concurrent jobs, maximum is " + maxConcurrentJobs);
+      }
+      return;
+    }
+    LOGGER.info("Job {} submitted: {}", job.id, args);
+    exchange.getResponseHeaders().set("Location", "/jobs/" + job.id);
+    reply(exchange, 201, job.toMap());
+  }
+
+  private void streamProgress(HttpExchange exchange, Job job) throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", JSON_LINES);
+    // a zero length means that the response is sent in chunks
+    exchange.sendResponseHeaders(200, 0);
+    OutputStream out = exchange.getResponseBody();
+    try {
+      boolean finished;
+      do {
+        finished = job.awaitTermination(progressInterval);
+        out.write(render(job.toMap()));
+        out.write('\n');
+        out.flush();
+      } while (!finished);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** Removes the oldest finished jobs, so that at most maxFinishedJobs of them are retained. */
+  private synchronized void evictFinishedJobs() {
+    long finished = jobs.values().stream().filter(Job::isFinished).count();
+    for (Iterator<Job> it = jobs.values().iterator();
+        finished > maxFinishedJobs && it.hasNext(); ) {
+      if (it.next().isFinished()) {
+        it.remove();
+        finished--;
+      }
+    }
+  }
+
+  @Nullable
+  private Job findJob(String id) {
+    try {
+      return jobs.get(Integer.parseInt(id));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static void error(HttpExchange exchange, int code, String message) throws IOException {
+    reply(exchange, code, Collections.singletonMap("error", message));
+  }
+
+  private static void reply(HttpExchange exchange, int code, Object body) throws IOException {
+    byte[] bytes = render(body);
+    exchange.getResponseHeaders().set("Content-Type", JSON);
+    exchange.sendResponseHeaders(code, bytes.length);
+    exchange.getResponseBody().write(bytes);
+  }
+
+  private static byte[] render(Object body) {
+    return ConfigValueFactory.fromAnyRef(body)
+        .render(ConfigRenderOptions.concise())
+        .getBytes(UTF_8);
+  }
+
+  private static byte[] readFully(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      out.write(buffer, 0, read);
+    }
+    return out.toByteArray();
+  }
+
+  private static class Job {
+
+    private final int id;
+    private final List<String> args;
+    private final Runnable onFinished;
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    private volatile JobState state = JobState.RUNNING;
+    private volatile Workflow workflow;
+    private volatile ExitStatus exitStatus;
+
+    // guarded by this
+    private Thread runner;
+    private boolean cancelled;
+
+    private Job(int id, List<String> args, Runnable onFinished) {
+      this.id = id;
+      this.args = args;
+      this.onFinished = onFinished;
+    }
+
+    private void run() {
+      try {
+        synchronized (this) {
+          if (cancelled) {
+            exitStatus = STATUS_INTERRUPTED;
+            return;
+          }
+          runner = Thread.currentThread();
+        }
+        exitStatus = JobRunner.runOperation(args, created -> workflow = created);
+        LOGGER.info("Job {} finished with exit status {}.", id, exitStatus.exitCode());
+      } catch (Throwable t) {
+        // never let a job failure escape and affect the server
+        exitStatus = ErrorHandler.handleUnexpectedError(workflow, t);
+      } finally {
+        synchronized (this) {
+          runner = null;
+          // clear any pending cancellation, the pooled thread will run other jobs
+          Thread.interrupted();
+        }
+        state = JobState.FINISHED;
+        done.countDown();
+        onFinished.run();
+      }
+    }
+
+    private boolean isFinished() {
+      return state == JobState.FINISHED;
+    }
+
+    private synchronized void cancel() {
+      cancelled = true;
+      if (runner != null) {
+        runner.interrupt();
+      }
+    }
+
+    private boolean awaitTermination(Duration timeout) throws InterruptedException {
+      return done.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private Map<String, Object> toMap() {
+      Map<String, Object> map = new LinkedHashMap<>();
+      map.put("id", id);
+      map.put("args", args);
+      map.put("state", state.name());
+      Workflow workflow = this.workflow;
+      if (workflow != null) {
+        map.put("operation", workflow.toString());
+        map.put("progress", workflow.getProgress());
+      }
+      ExitStatus exitStatus = this.exitStatus;
+      if (state == JobState.FINISHED && exitStatus != null) {
+        map.put("exitStatus", exitStatus.name());
+        map.put("exitCode", exitStatus.exitCode());
+      }
+      return map;
+    }
+  }
+}
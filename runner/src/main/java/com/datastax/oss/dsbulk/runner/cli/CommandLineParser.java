@@ -84,7 +84,8 @@ public class CommandLineParser {
 
     ConfigFactory.invalidateCaches();
     Config referenceConfig = ConfigUtils.createReferenceConfig();
-    Config applicationConfig = ConfigUtils.createApplicationConfig(applicationPath);
+    Config applicationConfig =
+        ConfigUtils.createApplicationConfig(applicationPath, referenceConfig);
 
     BiMap<String, String> shortcuts =
         ShortcutsFactory.createShortcutsMap(
@@ -89,6 +89,10 @@ public class HelpEmitter {
             .a("dsbulk <command> [options]")
             .newline()
             .a("       dsbulk help [section]")
+            .newline()
+            .a("       dsbulk job <job file>")
+            .newline()
+            .a("       dsbulk server <port> [<token file>]")
             .reset()
             .newline();
     System.out.println(header);
@@ -0,0 +1,101 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.runner;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.datastax.oss.dsbulk.runner.cli.ParseException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JobFileTest {
+
+  private Path jobFile;
+
+  @BeforeEach
+  void createJobFile() throws IOException {
+    jobFile = Files.createTempFile("job", ".conf");
+  }
+
+  @AfterEach
+  void deleteJobFile() throws IOException {
+    Files.deleteIfExists(jobFile);
+  }
+
+  @Test
+  void should_parse_job_file() throws Exception {
+    write(
+        "args = [\"-h\", \"host1\", \"-k\", \"ks\"]",
+        "concurrency = 4",
+        "maxInFlight = 1000",
+        "operations = [",
+        "  [\"load\", \"-t\", \"t1\", \"-url\", \"t1.csv\"]",
+        "  [\"unload\", \"-t\", \"t2\", \"-url\", \"t2\"]",
+        "]");
+    JobFile job = JobFile.parse(jobFile);
+    assertThat(job.getOperations())
+        .containsExactly(
+            Arrays.asList("load", "-h", "host1", "-k", "ks", "-t", "t1", "-url", "t1.csv"),
+            Arrays.asList("unload", "-h", "host1", "-k", "ks", "-t", "t2", "-url", "t2"));
+    assertThat(job.getConcurrency()).isEqualTo(4);
+    // only 2 operations can run concurrently
+    assertThat(job.getMaxInFlightPerOperation()).isEqualTo(500);
+  }
+
+  @Test
+  void should_parse_job_file_with_defaults() throws Exception {
+    write("operations = [[\"count\", \"-k\", \"ks\", \"-t\", \"t1\"]]");
+    JobFile job = JobFile.parse(jobFile);
+    assertThat(job.getOperations()).containsExactly(Arrays.asList("count", "-k", "ks", "-t", "t1"));
+    assertThat(job.getConcurrency()).isEqualTo(1);
+    assertThat(job.getMaxInFlightPerOperation()).isEqualTo(-1);
+  }
+
+  @Test
+  void should_error_out_when_no_operations() throws Exception {
+    write("operations = []");
+    assertThatThrownBy(() -> JobFile.parse(jobFile))
+        .isInstanceOf(ParseException.class)
+        .hasMessageContaining("no operations to run");
+  }
+
+  @Test
+  void should_error_out_when_operation_not_a_list() throws Exception {
+    write("operations = [\"load -k ks -t t1\"]");
+    assertThatThrownBy(() -> JobFile.parse(jobFile))
+        .isInstanceOf(ParseException.class)
+        .hasMessageContaining("expecting operation to be a non-empty list of arguments");
+  }
+
+  @Test
+  void should_error_out_when_invalid_concurrency() throws Exception {
+    write("concurrency = 0", "operations = [[\"load\"]]");
+    assertThatThrownBy(() -> JobFile.parse(jobFile))
+        .isInstanceOf(ParseException.class)
+        .hasMessageContaining("concurrency must be strictly positive, got: 0");
+  }
+
+  private void write(String... lines) throws IOException {
+    Files.write(jobFile, Arrays.asList(lines), UTF_8);
+  }
+}
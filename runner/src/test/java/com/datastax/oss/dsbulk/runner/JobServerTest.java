@@ -0,0 +1,250 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.runner;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JobServerTest {
+
+  private static final String JSON = "application/json";
+
+  private Path tokenFile;
+  private JobServer server;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    tokenFile = Files.createTempDirectory("server").resolve("server.token");
+    server = new JobServer(0, Duration.ofMillis(10), tokenFile, 2, 3);
+    server.start();
+  }
+
+  @AfterEach
+  void stopServer() throws IOException {
+    server.stop();
+    Files.deleteIfExists(tokenFile);
+    Files.deleteIfExists(tokenFile.getParent());
+  }
+
+  @Test
+  void should_run_failing_job_without_affecting_server() throws Exception {
+    HttpURLConnection submit = request("POST", "/jobs", "{\"args\": [\"nonexistent\"]}");
+    assertThat(submit.getResponseCode()).isEqualTo(201);
+    assertThat(submit.getHeaderField("Location")).isEqualTo("/jobs/1");
+    Config submitted = body(submit);
+    assertThat(submitted.getInt("id")).isEqualTo(1);
+    assertThat(submitted.getStringList("args")).containsExactly("nonexistent");
+    // the progress stream ends once the job is finished
+    HttpURLConnection progress = request("GET", "/jobs/1/progress", null);
+    assertThat(progress.getResponseCode()).isEqualTo(200);
+    List<String> lines;
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(progress.getInputStream(), UTF_8))) {
+      lines = reader.lines().collect(Collectors.toList());
+    }
+    assertThat(lines).isNotEmpty();
+    Config last = ConfigFactory.parseString(lines.get(lines.size() - 1));
+    assertThat(last.getString("state")).isEqualTo("FINISHED");
+    assertThat(last.getString("exitStatus")).isEqualTo("STATUS_ABORTED_FATAL_ERROR");
+    assertThat(last.getInt("exitCode")).isEqualTo(3);
+    // the server keeps accepting jobs
+    assertThat(request("POST", "/jobs", "{\"args\": [\"nonexistent\"]}").getResponseCode())
+        .isEqualTo(201);
+    HttpURLConnection list = request("GET", "/jobs", null);
+    assertThat(list.getResponseCode()).isEqualTo(200);
+    assertThat(ConfigFactory.parseString("jobs = " + read(list.getInputStream())).getList("jobs"))
+        .hasSize(2);
+  }
+
+  @Test
+  void should_reply_bad_request_when_body_invalid() throws Exception {
+    assertThat(request("POST", "/jobs", "not json").getResponseCode()).isEqualTo(400);
+    assertThat(request("POST", "/jobs", "{\"foo\": 1}").getResponseCode()).isEqualTo(400);
+    HttpURLConnection empty = request("POST", "/jobs", "{\"args\": []}");
+    assertThat(empty.getResponseCode()).isEqualTo(400);
+    assertThat(read(empty.getErrorStream())).contains("args cannot be empty");
+  }
+
+  @Test
+  void should_reply_not_found_when_job_unknown() throws Exception {
+    assertThat(request("GET", "/jobs/42", null).getResponseCode()).isEqualTo(404);
+    assertThat(request("GET", "/jobs/foo", null).getResponseCode()).isEqualTo(404);
+    assertThat(request("GET", "/jobs/42/progress", null).getResponseCode()).isEqualTo(404);
+    assertThat(request("GET", "/other", null).getResponseCode()).isEqualTo(404);
+  }
+
+  @Test
+  void should_write_token_to_file_readable_by_owner_only() throws Exception {
+    assertThat(new String(Files.readAllBytes(tokenFile), UTF_8)).isEqualTo(server.getToken());
+    assertThat(server.getToken()).hasSize(43);
+    if (tokenFile.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+      assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(tokenFile)))
+          .isEqualTo("rw-------");
+    }
+    server.stop();
+    assertThat(tokenFile).doesNotExist();
+  }
+
+  @Test
+  void should_reject_requests_without_valid_token() throws Exception {
+    HttpURLConnection missing = request("GET", "/jobs", null, null, JSON);
+    assertThat(missing.getResponseCode()).isEqualTo(401);
+    assertThat(missing.getHeaderField("WWW-Authenticate")).isEqualTo("Bearer");
+    assertThat(request("GET", "/jobs", null, "not the token", JSON).getResponseCode())
+        .isEqualTo(401);
+    assertThat(
+            request("POST", "/jobs", "{\"args\": [\"nonexistent\"]}", "wrong", JSON)
+                .getResponseCode())
+        .isEqualTo(401);
+    assertThat(request("GET", "/jobs", null).getResponseCode()).isEqualTo(200);
+  }
+
+  @Test
+  void should_reject_cross_origin_and_non_json_requests() throws Exception {
+    String token = server.getToken();
+    String body = "{\"args\": [\"nonexistent\"]}";
+    assertThat(originRequest("POST", body, token, "http://evil.example.com")).isEqualTo(403);
+    assertThat(originRequest("GET", null, token, "null")).isEqualTo(403);
+    assertThat(request("POST", "/jobs", body, token, "text/plain").getResponseCode())
+        .isEqualTo(415);
+    assertThat(request("POST", "/jobs", body, token, null).getResponseCode()).isEqualTo(415);
+    assertThat(
+            request("POST", "/jobs", body, token, "application/json; charset=utf-8")
+                .getResponseCode())
+        .isEqualTo(201);
+  }
+
+  @Test
+  void should_retain_most_recent_finished_jobs_only() throws Exception {
+    for (int i = 1; i <= 5; i++) {
+      assertThat(request("POST", "/jobs", "{\"args\": [\"nonexistent\"]}").getResponseCode())
+          .isEqualTo(201);
+      // the progress stream ends once the job is finished
+      read(request("GET", "/jobs/" + i + "/progress", null).getInputStream());
+    }
+    await()
+        .untilAsserted(
+            () -> {
+              HttpURLConnection list = request("GET", "/jobs", null);
+              assertThat(
+                      ConfigFactory.parseString("jobs = " + read(list.getInputStream()))
+                          .getConfigList("jobs"))
+                  .extracting(job -> job.getInt("id"))
+                  .containsExactly(3, 4, 5);
+            });
+    assertThat(request("GET", "/jobs/1", null).getResponseCode()).isEqualTo(404);
+  }
+
+  @Test
+  void should_reject_invalid_port() {
+    assertThatThrownBy(() -> new JobServer(-1, Duration.ofSeconds(1), tokenFile, 1, 1))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Invalid server port: expecting 0-65535, got: -1");
+  }
+
+  private HttpURLConnection request(String method, String path, String body) throws IOException {
+    return request(method, path, body, server.getToken(), JSON);
+  }
+
+  private HttpURLConnection request(
+      String method, String path, String body, String token, String contentType)
+      throws IOException {
+    URL url = new URL("http", "127.0.0.1", server.getPort(), path);
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setRequestMethod(method);
+    if (token != null) {
+      connection.setRequestProperty("Authorization", "Bearer " + token);
+    }
+    if (body != null) {
+      if (contentType != null) {
+        connection.setRequestProperty("Content-Type", contentType);
+      }
+      connection.setDoOutput(true);
+      try (OutputStream out = connection.getOutputStream()) {
+        out.write(body.getBytes(UTF_8));
+      }
+    }
+    return connection;
+  }
+
+  /**
+   * Sends a request with an Origin header, which HttpURLConnection does not allow, and returns the
+   * response status code.
+   */
+  private int originRequest(String method, String body, String token, String origin)
+      throws IOException {
+    try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+      byte[] content = body == null ? new byte[0] : body.getBytes(UTF_8);
+      String request =
+          method
+              + " /jobs HTTP/1.1\r\n"
+              + "Host: 127.0.0.1\r\n"
+              + "Authorization: Bearer "
+              + token
+              + "\r\n"
+              + "Origin: "
+              + origin
+              + "\r\n"
+              + "Content-Type: "
+              + JSON
+              + "\r\n"
+              + "Content-Length: "
+              + content.length
+              + "\r\n"
+              + "Connection: close\r\n\r\n";
+      OutputStream out = socket.getOutputStream();
+      out.write(request.getBytes(UTF_8));
+      out.write(content);
+      out.flush();
+      BufferedReader reader =
+          new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF_8));
+      // e.g. HTTP/1.1 403 Forbidden
+      return Integer.parseInt(reader.readLine().split(" ")[1]);
+    }
+  }
+
+  private static Config body(HttpURLConnection connection) throws IOException {
+    return ConfigFactory.parseString(read(connection.getInputStream()));
+  }
+
+  private static String read(InputStream in) throws IOException {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, UTF_8))) {
+      return reader.lines().collect(Collectors.joining("\n"));
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.sampler;
+
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.UniformReservoir;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An online sampler of the sizes and latencies of write statements, that keeps updating while an
+ * operation is running.
+ *
+ * <p>Sizes are kept in an exponentially-decaying reservoir biased towards the last five minutes, so
+ * that statistics follow changes in the shape of the data, e.g. when moving on to a resource with
+ * wider rows. Latencies are sampled per interval instead: each call to {@link #pollLatencies()}
+ * returns the latencies recorded since the previous call, so that a latency spike is only reported
+ * once.
+ */
+public class ContinuousWriteSampler {
+
+  private final Histogram sizes = new Histogram(new ExponentiallyDecayingReservoir());
+  private final AtomicReference<Histogram> latencies = new AtomicReference<>(newLatencies());
+
+  /**
+   * Seeds this sampler with sizes sampled before the operation started, e.g. with {@link
+   * DataSizeSampler#sampleWrites}.
+   *
+   * @param sample the initial sample of data sizes, in bytes.
+   */
+  public void seed(@NonNull Snapshot sample) {
+    for (long size : sample.getValues()) {
+      sizes.update(size);
+    }
+  }
+
+  /** @param dataSize the data size of a statement, in bytes. */
+  public void sampleSize(long dataSize) {
+    sizes.update(dataSize);
+  }
+
+  /** @param latencyNanos the latency of a write, in nanoseconds. */
+  public void sampleLatency(long latencyNanos) {
+    latencies.get().update(latencyNanos);
+  }
+
+  /** @return the total number of sizes sampled so far, including the seed. */
+  public long getSizeCount() {
+    return sizes.getCount();
+  }
+
+  /** @return a snapshot of the sizes sampled so far, biased towards the most recent ones. */
+  @NonNull
+  public Snapshot getSizes() {
+    return sizes.getSnapshot();
+  }
+
+  /**
+   * Returns the latencies sampled since the last invocation of this method, and starts a new
+   * sampling interval.
+   *
+   * @return the latencies, in nanoseconds, sampled during the interval that just ended.
+   */
+  @NonNull
+  public Histogram pollLatencies() {
+    return latencies.getAndSet(newLatencies());
+  }
+
+  private static Histogram newLatencies() {
+    return new Histogram(new UniformReservoir());
+  }
+}
@@ -15,7 +15,6 @@
  */
 package com.datastax.oss.dsbulk.sampler;
 
-import com.datastax.oss.driver.api.core.CqlIdentifier;
 import com.datastax.oss.driver.api.core.ProtocolVersion;
 import com.datastax.oss.driver.api.core.cql.BatchStatement;
 import com.datastax.oss.driver.api.core.cql.BoundStatement;
@@ -25,11 +24,19 @@ import com.datastax.oss.driver.api.core.cql.SimpleStatement;
 import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.api.core.data.GettableByIndex;
 import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
-import com.datastax.oss.driver.internal.core.cql.Conversions;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.Inet4Address;
+import java.net.InetAddress;
 import java.nio.ByteBuffer;
-import java.util.List;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.Map;
+import java.util.UUID;
 
 public class DataSizes {
 
@@ -70,16 +77,12 @@ public class DataSizes {
     } else if (stmt instanceof SimpleStatement) {
       SimpleStatement rs = (SimpleStatement) stmt;
       if (!rs.getNamedValues().isEmpty()) {
-        Map<CqlIdentifier, Object> values = rs.getNamedValues();
-        Map<String, ByteBuffer> bbs = Conversions.encode(values, registry, version);
-        for (ByteBuffer bb : bbs.values()) {
-          dataSize += bb == null ? 0 : bb.remaining();
+        for (Object value : rs.getNamedValues().values()) {
+          dataSize += getValueSize(value, version, registry);
         }
       } else if (!rs.getPositionalValues().isEmpty()) {
-        List<Object> values = rs.getPositionalValues();
-        List<ByteBuffer> bbs = Conversions.encode(values, registry, version);
-        for (ByteBuffer bb : bbs) {
-          dataSize += bb == null ? 0 : bb.remaining();
+        for (Object value : rs.getPositionalValues()) {
+          dataSize += getValueSize(value, version, registry);
         }
       }
     } else if (stmt instanceof BatchStatement) {
@@ -107,6 +110,91 @@ public class DataSizes {
     return getDataSize(row, row.getColumnDefinitions());
   }
 
+  /**
+   * Evaluates the number of bytes required to encode the given value, as found in simple
+   * statements.
+   *
+   * <p>The size of common types is inferred from the value's Java type, without encoding it; for
+   * collections, this includes the protocol overhead for the number of elements and the length of
+   * each element. Other types, such as user-defined types and tuples, are encoded with the
+   * appropriate codec from the given registry.
+   *
+   * @param value The value to inspect; may be {@code null}.
+   * @param version The protocol version to use; cannot be {@code null}.
+   * @param registry The codec registry to use; cannot be {@code null}.
+   * @return The size in bytes of the encoded value.
+   */
+  public static long getValueSize(
+      @Nullable Object value, @NonNull ProtocolVersion version, @NonNull CodecRegistry registry) {
+    if (value == null) {
+      return 0;
+    } else if (value instanceof String) {
+      return utf8Length((String) value);
+    } else if (value instanceof ByteBuffer) {
+      return ((ByteBuffer) value).remaining();
+    } else if (value instanceof Integer || value instanceof Float || value instanceof LocalDate) {
+      return 4;
+    } else if (value instanceof Long
+        || value instanceof Double
+        || value instanceof Instant
+        || value instanceof LocalTime) {
+      return 8;
+    } else if (value instanceof UUID) {
+      return 16;
+    } else if (value instanceof Boolean || value instanceof Byte) {
+      return 1;
+    } else if (value instanceof Short) {
+      return 2;
+    } else if (value instanceof BigInteger) {
+      return ((BigInteger) value).bitLength() / 8 + 1;
+    } else if (value instanceof BigDecimal) {
+      return 4 + ((BigDecimal) value).unscaledValue().bitLength() / 8 + 1;
+    } else if (value instanceof InetAddress) {
+      return value instanceof Inet4Address ? 4 : 16;
+    } else if (value instanceof Collection) {
+      // number of elements, then length and contents of each element
+      long size = 4;
+      for (Object element : (Collection<?>) value) {
+        size += 4 + getValueSize(element, version, registry);
+      }
+      return size;
+    } else if (value instanceof Map) {
+      long size = 4;
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        size += 4 + getValueSize(entry.getKey(), version, registry);
+        size += 4 + getValueSize(entry.getValue(), version, registry);
+      }
+      return size;
+    } else {
+      ByteBuffer bb = registry.codecFor(value).encode(value, version);
+      return bb == null ? 0 : bb.remaining();
+    }
+  }
+
+  private static long utf8Length(String s) {
+    long length = 0;
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) {
+        length += 1;
+      } else if (c < 0x800) {
+        length += 2;
+      } else if (Character.isHighSurrogate(c)
+          && i + 1 < s.length()
+          && Character.isLowSurrogate(s.charAt(i + 1))) {
+        // supplementary code point, encoded with 4 bytes
+        length += 4;
+        i++;
+      } else if (Character.isSurrogate(c)) {
+        // unpaired surrogates are replaced with '?' when encoding
+        length += 1;
+      } else {
+        length += 3;
+      }
+    }
+    return length;
+  }
+
   private static long getDataSize(GettableByIndex container, ColumnDefinitions metadata) {
     long dataSize = 0L;
     if (metadata.size() > 0) {
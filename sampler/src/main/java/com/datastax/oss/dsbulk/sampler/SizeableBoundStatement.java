@@ -44,6 +44,18 @@ public class SizeableBoundStatement implements BoundStatement, Sizeable {
         new StatementSizeMemoizer(delegate, delegate.protocolVersion(), delegate.codecRegistry());
   }
 
+  /**
+   * Creates a new instance whose data size is already known, typically because the caller just
+   * encoded all the bound values.
+   *
+   * @param delegate The statement to wrap.
+   * @param dataSize The total number of bytes of all the bound values.
+   */
+  public SizeableBoundStatement(@NonNull BoundStatement delegate, long dataSize) {
+    this.delegate = delegate;
+    this.dataSize = () -> dataSize;
+  }
+
   @Override
   public long getDataSize() {
     return dataSize.getAsLong();
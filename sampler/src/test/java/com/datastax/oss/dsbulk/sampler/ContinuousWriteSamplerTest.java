@@ -0,0 +1,54 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.sampler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.UniformReservoir;
+import org.junit.jupiter.api.Test;
+
+class ContinuousWriteSamplerTest {
+
+  @Test
+  void should_seed_and_keep_sampling_sizes() {
+    ContinuousWriteSampler sampler = new ContinuousWriteSampler();
+    Histogram seed = new Histogram(new UniformReservoir());
+    seed.update(10);
+    seed.update(30);
+    sampler.seed(seed.getSnapshot());
+    sampler.sampleSize(20);
+    assertThat(sampler.getSizeCount()).isEqualTo(3);
+    assertThat(sampler.getSizes().getMean()).isEqualTo(20, within(0.1));
+    assertThat(sampler.getSizes().getMax()).isEqualTo(30);
+  }
+
+  @Test
+  void should_report_latencies_once_per_interval() {
+    ContinuousWriteSampler sampler = new ContinuousWriteSampler();
+    sampler.sampleLatency(100);
+    sampler.sampleLatency(300);
+    Histogram latencies = sampler.pollLatencies();
+    assertThat(latencies.getCount()).isEqualTo(2);
+    assertThat(latencies.getSnapshot().getMax()).isEqualTo(300);
+    sampler.sampleLatency(50);
+    latencies = sampler.pollLatencies();
+    assertThat(latencies.getCount()).isOne();
+    assertThat(latencies.getSnapshot().getMax()).isEqualTo(50);
+    assertThat(sampler.pollLatencies().getCount()).isZero();
+  }
+}
@@ -31,24 +31,41 @@ import com.datastax.oss.driver.api.core.cql.PreparedStatement;
 import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.core.cql.SimpleStatement;
 import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.data.CqlDuration;
 import com.datastax.oss.driver.api.core.detach.AttachmentPoint;
 import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
 import com.datastax.oss.driver.internal.core.cql.DefaultColumnDefinition;
 import com.datastax.oss.driver.internal.core.cql.DefaultColumnDefinitions;
 import com.datastax.oss.driver.internal.core.type.codec.IntCodec;
 import com.datastax.oss.driver.internal.core.type.codec.StringCodec;
 import com.datastax.oss.driver.internal.core.type.codec.registry.DefaultCodecRegistry;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
 import com.datastax.oss.driver.shaded.guava.common.collect.Iterators;
 import com.datastax.oss.driver.shaded.guava.common.collect.Lists;
 import com.datastax.oss.protocol.internal.ProtocolConstants.DataType;
 import com.datastax.oss.protocol.internal.response.result.ColumnSpec;
 import com.datastax.oss.protocol.internal.response.result.RawType;
 import com.datastax.oss.protocol.internal.util.Bytes;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 class DataSizesTest {
@@ -95,6 +112,44 @@ class DataSizesTest {
         .isEqualTo(expectedSize); // payload not taken into account
   }
 
+  @ParameterizedTest
+  @MethodSource
+  void should_estimate_value_size_without_encoding(Object value) {
+    ByteBuffer bb = CodecRegistry.DEFAULT.codecFor(value).encode(value, DseProtocolVersion.DSE_V2);
+    assertThat(DataSizes.getValueSize(value, DseProtocolVersion.DSE_V2, CodecRegistry.DEFAULT))
+        .isEqualTo(bb == null ? 0 : bb.remaining());
+  }
+
+  @SuppressWarnings("unused")
+  private static Stream<Arguments> should_estimate_value_size_without_encoding()
+      throws UnknownHostException {
+    return Stream.of(
+        Arguments.of("ascii"),
+        Arguments.of("non-ascii: é, 中文, \uD83D\uDE00"),
+        Arguments.of(""),
+        Arguments.of(ByteBuffer.wrap(new byte[] {1, 2, 3})),
+        Arguments.of(true),
+        Arguments.of((byte) 1),
+        Arguments.of((short) 1),
+        Arguments.of(1),
+        Arguments.of(1L),
+        Arguments.of(1f),
+        Arguments.of(1d),
+        Arguments.of(new BigInteger("-123456789012345678901234567890")),
+        Arguments.of(BigInteger.ZERO),
+        Arguments.of(new BigDecimal("-12345678901234567890.1234567890")),
+        Arguments.of(UUID.randomUUID()),
+        Arguments.of(Instant.now()),
+        Arguments.of(LocalDate.now()),
+        Arguments.of(LocalTime.now()),
+        Arguments.of(InetAddress.getByName("127.0.0.1")),
+        Arguments.of(InetAddress.getByName("::1")),
+        Arguments.of(Arrays.asList(1, 2, 3)),
+        Arguments.of(ImmutableSet.of("a", "bc")),
+        Arguments.of(ImmutableMap.of("a", Arrays.asList(1L, 2L), "b", Collections.emptyList())),
+        Arguments.of(CqlDuration.from("1h2m3s")));
+  }
+
   @Test
   void should_measure_size_of_bound_statement() {
     BoundStatement bs = mockBoundStatement(null, null);
@@ -18,11 +18,21 @@ package com.datastax.oss.dsbulk.url;
 import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
 import com.typesafe.config.Config;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.io.IOException;
 import java.net.URL;
+import java.net.URLConnection;
 import java.net.URLStreamHandler;
 import java.net.URLStreamHandlerFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ServiceLoader;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,17 +68,46 @@ public class BulkLoaderURLStreamHandlerFactory implements URLStreamHandlerFactor
     }
   }
 
+  /**
+   * Sets the configuration of the URL stream handlers used by the current thread and the threads it
+   * creates from now on; it also becomes the default configuration for all other threads.
+   *
+   * <p>Since the JVM caches URL stream handlers, the handlers returned by this factory look up the
+   * configuration each time they open a connection, so that operations running in the same JVM can
+   * each use their own configuration.
+   *
+   * <p>Operations that set a configuration should {@linkplain #releaseConfig(Config) release} it
+   * once they are done.
+   */
   public static void setConfig(Config config) {
     if (!INSTALLED.get()) {
       throw new IllegalStateException(
           "You must install the URL stream handler factories before setting the config.");
     }
-    INSTANCE.config = config;
+    INSTANCE.defaultConfig = config;
+    INSTANCE.threadConfig.set(config);
+    INSTANCE.retain(config);
+  }
+
+  /**
+   * Releases a configuration previously set with {@link #setConfig(Config)}. Once all the
+   * operations that set it released it, the handlers created for it are discarded, and closed if
+   * they hold resources such as S3 clients.
+   */
+  public static void releaseConfig(Config config) {
+    INSTANCE.release(config);
   }
 
   private final ImmutableList<URLStreamHandlerProvider> providers;
 
-  private Config config;
+  private final InheritableThreadLocal<Config> threadConfig = new InheritableThreadLocal<>();
+
+  private volatile Config defaultConfig;
+
+  // guarded by this
+  private final Map<Config, Integer> configUsages = new HashMap<>();
+
+  private final List<ConfigAwareURLStreamHandler> handlers = new CopyOnWriteArrayList<>();
 
   private BulkLoaderURLStreamHandlerFactory() {
     // IMPORTANT: the discovery must be done *before* this factory is installed,
@@ -86,18 +125,89 @@ public class BulkLoaderURLStreamHandlerFactory implements URLStreamHandlerFactor
   @Override
   public URLStreamHandler createURLStreamHandler(String protocol) {
     LOGGER.debug("Creating URL stream handler for protocol: {}", protocol);
-    URLStreamHandler handler = null;
+    ConfigAwareURLStreamHandler handler = null;
     if (protocol != null) {
-      for (URLStreamHandlerProvider provider : providers) {
-        Optional<URLStreamHandler> maybeHandler =
-            provider.maybeCreateURLStreamHandler(protocol, config);
-        if (maybeHandler.isPresent()) {
-          handler = maybeHandler.get();
-          break;
-        }
+      handler = new ConfigAwareURLStreamHandler(protocol);
+      if (handler.getDelegate() == null) {
+        handler = null;
+      } else {
+        handlers.add(handler);
       }
     }
     LOGGER.debug("Returning URL stream handler for protocol {}: {}", protocol, handler);
     return handler;
   }
+
+  private synchronized void retain(Config config) {
+    configUsages.merge(config, 1, Integer::sum);
+  }
+
+  private void release(Config config) {
+    synchronized (this) {
+      Integer usages = configUsages.get(config);
+      if (usages == null) {
+        return;
+      }
+      if (usages > 1) {
+        configUsages.put(config, usages - 1);
+        return;
+      }
+      configUsages.remove(config);
+    }
+    for (ConfigAwareURLStreamHandler handler : handlers) {
+      URLStreamHandler delegate = handler.handlers.remove(config);
+      if (delegate instanceof AutoCloseable) {
+        try {
+          ((AutoCloseable) delegate).close();
+        } catch (Exception e) {
+          LOGGER.warn("Error closing URL stream handler for protocol " + handler.protocol, e);
+        }
+      }
+    }
+  }
+
+  private Config currentConfig() {
+    Config config = threadConfig.get();
+    return config == null ? defaultConfig : config;
+  }
+
+  @Nullable
+  private URLStreamHandler newHandler(@NonNull String protocol, Config config) {
+    for (URLStreamHandlerProvider provider : providers) {
+      Optional<URLStreamHandler> maybeHandler =
+          provider.maybeCreateURLStreamHandler(protocol, config);
+      if (maybeHandler.isPresent()) {
+        return maybeHandler.get();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * A handler that delegates to the handler created for the current configuration, since the JVM
+   * only ever asks this factory once for each protocol.
+   */
+  @VisibleForTesting
+  class ConfigAwareURLStreamHandler extends URLStreamHandler {
+
+    private final String protocol;
+
+    // operations with the same config share the same handler
+    private final Map<Config, URLStreamHandler> handlers =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    private ConfigAwareURLStreamHandler(@NonNull String protocol) {
+      this.protocol = protocol;
+    }
+
+    @VisibleForTesting
+    URLStreamHandler getDelegate() {
+      return handlers.computeIfAbsent(currentConfig(), config -> newHandler(protocol, config));
+    }
+
+    @Override
+    protected URLConnection openConnection(URL url) throws IOException {
+      return new URL(url, url.toExternalForm(), getDelegate()).openConnection();
+    }
+  }
 }
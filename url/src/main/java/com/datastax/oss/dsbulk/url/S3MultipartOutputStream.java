@@ -0,0 +1,379 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.url;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+/**
+ * An output stream that writes an S3 object with a multipart upload.
+ *
+ * <p>Written bytes are accumulated in a part buffer; when the buffer is full, it is uploaded
+ * asynchronously while the writer fills the next one. At most {@code maxConcurrentParts} parts are
+ * in flight at any time, and the writer blocks when that limit is reached, so memory usage is
+ * bounded by {@code (maxConcurrentParts + 1) * partSize} bytes.
+ *
+ * <p>The multipart upload is only created once the first part is full; objects smaller than one
+ * part are written with a single PUT request when the stream is closed. Each part is retried
+ * independently up to {@code maxRetries} times, delays between attempts being waited for on the
+ * given scheduler rather than on the transfer executor; if a part ultimately fails, the multipart
+ * upload is aborted, so that no incomplete object and no orphaned parts are left behind. Since S3
+ * may keep parts that were still being uploaded when the upload was aborted, the stream first waits
+ * for all in-flight parts to terminate, and retries the abort request if it fails.
+ */
+class S3MultipartOutputStream extends OutputStream {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(S3MultipartOutputStream.class);
+
+  /** The minimum part size accepted by S3, except for the last part. */
+  static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+  private static final long INITIAL_RETRY_DELAY_MILLIS = 100;
+
+  private final S3Client s3Client;
+  private final String bucket;
+  private final String key;
+  private final int partSize;
+  private final int maxRetries;
+  private final Executor executor;
+  private final ScheduledExecutorService scheduler;
+
+  private final Semaphore inFlightParts;
+  private final ConcurrentLinkedQueue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+  private final List<CompletableFuture<CompletedPart>> uploads = new ArrayList<>();
+
+  private byte[] buffer;
+  private int position;
+  private int nextPartNumber = 1;
+  private String uploadId;
+  private volatile Throwable failure;
+  private boolean closed;
+
+  S3MultipartOutputStream(
+      @NonNull S3Client s3Client,
+      @NonNull String bucket,
+      @NonNull String key,
+      int partSize,
+      int maxConcurrentParts,
+      int maxRetries,
+      @NonNull Executor executor,
+      @NonNull ScheduledExecutorService scheduler) {
+    if (partSize < MIN_PART_SIZE) {
+      throw new IllegalArgumentException(
+          String.format(
+              "S3 write part size must be at least %d bytes, got: %d", MIN_PART_SIZE, partSize));
+    }
+    if (maxConcurrentParts <= 0) {
+      throw new IllegalArgumentException("S3 write concurrent parts must be strictly positive.");
+    }
+    this.s3Client = s3Client;
+    this.bucket = bucket;
+    this.key = key;
+    this.partSize = partSize;
+    this.maxRetries = Math.max(0, maxRetries);
+    this.executor = executor;
+    this.scheduler = scheduler;
+    inFlightParts = new Semaphore(maxConcurrentParts);
+    buffer = new byte[partSize];
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureOpen();
+    if (position == partSize) {
+      uploadCurrentPart();
+    }
+    buffer[position++] = (byte) b;
+  }
+
+  @Override
+  public void write(@NonNull byte[] b, int off, int len) throws IOException {
+    if (off < 0 || len < 0 || len > b.length - off) {
+      throw new IndexOutOfBoundsException();
+    }
+    ensureOpen();
+    while (len > 0) {
+      if (position == partSize) {
+        uploadCurrentPart();
+      }
+      int n = Math.min(len, partSize - position);
+      System.arraycopy(b, off, buffer, position, n);
+      position += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      checkFailure();
+      if (uploadId == null) {
+        putObject();
+      } else {
+        if (position > 0) {
+          uploadCurrentPart();
+        }
+        completeMultipartUpload();
+      }
+    } catch (IOException | RuntimeException e) {
+      abort(e);
+      throw e;
+    } finally {
+      buffer = null;
+      buffers.clear();
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    checkFailure();
+  }
+
+  private void checkFailure() throws IOException {
+    Throwable t = failure;
+    if (t != null) {
+      throw new IOException(
+          String.format("Could not upload part of S3 object '%s': %s", key, t.getMessage()), t);
+    }
+  }
+
+  private void uploadCurrentPart() throws IOException {
+    if (uploadId == null) {
+      uploadId =
+          s3Client
+              .createMultipartUpload(
+                  CreateMultipartUploadRequest.builder().bucket(bucket).key(key).build())
+              .uploadId();
+      LOGGER.debug("Started multipart upload {} for S3 object '{}'", uploadId, key);
+    }
+    checkFailure();
+    try {
+      inFlightParts.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for S3 part upload");
+    }
+    try {
+      // a part may have failed while we were waiting for the permit
+      checkFailure();
+    } catch (IOException e) {
+      inFlightParts.release();
+      throw e;
+    }
+    int partNumber = nextPartNumber++;
+    byte[] part = buffer;
+    int length = position;
+    UploadPartRequest request =
+        UploadPartRequest.builder()
+            .bucket(bucket)
+            .key(key)
+            .uploadId(uploadId)
+            .partNumber(partNumber)
+            .contentLength((long) length)
+            .build();
+    CompletableFuture<CompletedPart> upload = new CompletableFuture<>();
+    executor.execute(() -> uploadPart(upload, request, part, 0));
+    uploads.add(
+        upload.whenComplete(
+            (completed, error) -> {
+              if (error != null && failure == null) {
+                failure = error instanceof CompletionException ? error.getCause() : error;
+              }
+              buffers.offer(part);
+              inFlightParts.release();
+            }));
+    byte[] recycled = buffers.poll();
+    buffer = recycled == null ? new byte[partSize] : recycled;
+    position = 0;
+  }
+
+  /** Uploads a part and completes the given future with it, unless a retry is scheduled. */
+  private void uploadPart(
+      CompletableFuture<CompletedPart> upload,
+      UploadPartRequest request,
+      byte[] part,
+      int attempt) {
+    if (failure != null) {
+      upload.completeExceptionally(new IllegalStateException("Multipart upload already failed"));
+      return;
+    }
+    try {
+      UploadPartResponse response =
+          s3Client.uploadPart(request, requestBody(part, request.contentLength().intValue()));
+      upload.complete(
+          CompletedPart.builder().partNumber(request.partNumber()).eTag(response.eTag()).build());
+    } catch (SdkException e) {
+      if (attempt >= maxRetries) {
+        upload.completeExceptionally(e);
+        return;
+      }
+      LOGGER.debug(
+          String.format(
+              "Uploading part %d of S3 object '%s' failed (attempt %d of %d), retrying",
+              request.partNumber(), key, attempt + 1, maxRetries + 1),
+          e);
+      try {
+        scheduler.schedule(
+            () -> {
+              try {
+                executor.execute(() -> uploadPart(upload, request, part, attempt + 1));
+              } catch (RejectedExecutionException ree) {
+                upload.completeExceptionally(e);
+              }
+            },
+            INITIAL_RETRY_DELAY_MILLIS << Math.min(attempt, 6),
+            TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException ree) {
+        upload.completeExceptionally(e);
+      }
+    } catch (RuntimeException e) {
+      upload.completeExceptionally(e);
+    }
+  }
+
+  /** Sleeps before the next attempt to abort the upload; returns false if interrupted. */
+  private static boolean backOff(int attempt) {
+    try {
+      Thread.sleep(INITIAL_RETRY_DELAY_MILLIS << Math.min(attempt, 6));
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private void completeMultipartUpload() throws IOException {
+    List<CompletedPart> parts = new ArrayList<>(uploads.size());
+    for (CompletableFuture<CompletedPart> upload : uploads) {
+      try {
+        parts.add(upload.get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for S3 part upload");
+      } catch (ExecutionException e) {
+        checkFailure();
+        throw new IOException("Could not upload part of S3 object " + key, e.getCause());
+      }
+    }
+    parts.sort(Comparator.comparing(CompletedPart::partNumber));
+    s3Client.completeMultipartUpload(
+        CompleteMultipartUploadRequest.builder()
+            .bucket(bucket)
+            .key(key)
+            .uploadId(uploadId)
+            .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+            .build());
+    LOGGER.debug(
+        "Completed multipart upload {} for S3 object '{}' ({} parts)", uploadId, key, parts.size());
+  }
+
+  private void putObject() {
+    s3Client.putObject(
+        PutObjectRequest.builder().bucket(bucket).key(key).contentLength((long) position).build(),
+        requestBody(buffer, position));
+  }
+
+  private void abort(Throwable cause) {
+    if (failure == null) {
+      failure = cause;
+    }
+    if (uploadId != null) {
+      // parts still being uploaded when the upload is aborted could be kept by S3; now that the
+      // failure is set, pending parts fail fast, and running ones stop before their next attempt.
+      awaitUploads();
+      AbortMultipartUploadRequest request =
+          AbortMultipartUploadRequest.builder().bucket(bucket).key(key).uploadId(uploadId).build();
+      for (int attempt = 0; ; attempt++) {
+        try {
+          s3Client.abortMultipartUpload(request);
+          LOGGER.debug("Aborted multipart upload {} for S3 object '{}'", uploadId, key);
+          return;
+        } catch (SdkException e) {
+          if (attempt >= maxRetries || !backOff(attempt)) {
+            cause.addSuppressed(e);
+            return;
+          }
+          LOGGER.debug(
+              String.format(
+                  "Aborting multipart upload %s for S3 object '%s' failed (attempt %d of %d), retrying",
+                  uploadId, key, attempt + 1, maxRetries + 1),
+              e);
+        }
+      }
+    }
+  }
+
+  private void awaitUploads() {
+    boolean interrupted = false;
+    for (CompletableFuture<CompletedPart> upload : uploads) {
+      while (true) {
+        try {
+          upload.get();
+          break;
+        } catch (InterruptedException e) {
+          // keep waiting: aborting now could leave orphaned parts behind
+          interrupted = true;
+        } catch (ExecutionException | CancellationException e) {
+          break;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static RequestBody requestBody(byte[] bytes, int length) {
+    // avoid copying the part buffer, which RequestBody.fromBytes would do
+    return RequestBody.fromInputStream(new ByteArrayInputStream(bytes, 0, length), length);
+  }
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.url;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+/**
+ * An input stream that reads an S3 object with ranged GET requests.
+ *
+ * <p>The object is split in parts of a fixed size; up to {@code prefetchParts} parts are downloaded
+ * concurrently ahead of the reader, so that downloading overlaps with parsing. Memory usage is
+ * bounded by {@code (prefetchParts + 1) * partSize} bytes regardless of the object size, since part
+ * buffers are recycled once consumed.
+ *
+ * <p>Each part is retried independently up to {@code maxRetries} times, with an exponential delay
+ * between attempts. Delays are waited for on the given scheduler, so that parts backing off do not
+ * hold threads of the transfer executor. All parts are requested with the ETag returned by the
+ * initial HEAD request, so that a concurrent modification of the object fails the read instead of
+ * producing a mix of two versions; such a failure is not retried.
+ *
+ * <p>Closing the stream aborts the HTTP responses of parts being downloaded, since the synchronous
+ * S3 client does not react to thread interruptions.
+ */
+class S3RangedInputStream extends InputStream {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(S3RangedInputStream.class);
+
+  private static final long INITIAL_RETRY_DELAY_MILLIS = 100;
+
+  /** The status code returned by S3 when the object does not match the If-Match ETag anymore. */
+  private static final int PRECONDITION_FAILED = 412;
+
+  private final S3Client s3Client;
+  private final GetObjectRequest request;
+  private final int partSize;
+  private final int prefetchParts;
+  private final int maxRetries;
+  private final Executor executor;
+  private final ScheduledExecutorService scheduler;
+
+  private final String eTag;
+  private final long objectSize;
+
+  private final Deque<Future<Part>> pending = new ArrayDeque<>();
+  private final Deque<byte[]> buffers = new ArrayDeque<>();
+  private final Set<ResponseInputStream<GetObjectResponse>> responses =
+      ConcurrentHashMap.newKeySet();
+
+  private long nextPartStart = 0;
+  private Part current;
+  private int position;
+  private volatile boolean closed;
+
+  S3RangedInputStream(
+      @NonNull S3Client s3Client,
+      @NonNull GetObjectRequest request,
+      int partSize,
+      int prefetchParts,
+      int maxRetries,
+      @NonNull Executor executor,
+      @NonNull ScheduledExecutorService scheduler) {
+    if (partSize <= 0) {
+      throw new IllegalArgumentException("S3 read part size must be strictly positive.");
+    }
+    if (prefetchParts <= 0) {
+      throw new IllegalArgumentException("S3 read prefetch parts must be strictly positive.");
+    }
+    this.s3Client = s3Client;
+    this.request = request;
+    this.partSize = partSize;
+    this.prefetchParts = prefetchParts;
+    this.maxRetries = Math.max(0, maxRetries);
+    this.executor = executor;
+    this.scheduler = scheduler;
+    HeadObjectResponse head =
+        s3Client.headObject(
+            HeadObjectRequest.builder().bucket(request.bucket()).key(request.key()).build());
+    eTag = head.eTag();
+    objectSize = head.contentLength() == null ? 0 : head.contentLength();
+    LOGGER.debug(
+        "Reading S3 object '{}' in bucket '{}' ({} bytes) in parts of {} bytes",
+        request.key(),
+        request.bucket(),
+        objectSize,
+        partSize);
+    schedule();
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!ensureData()) {
+      return -1;
+    }
+    return current.buffer[position++] & 0xFF;
+  }
+
+  @Override
+  public int read(@NonNull byte[] b, int off, int len) throws IOException {
+    if (off < 0 || len < 0 || len > b.length - off) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (len == 0) {
+      return 0;
+    }
+    if (!ensureData()) {
+      return -1;
+    }
+    int n = Math.min(len, current.length - position);
+    System.arraycopy(current.buffer, position, b, off, n);
+    position += n;
+    return n;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    long skipped = 0;
+    while (skipped < n && ensureData()) {
+      int step = (int) Math.min(n - skipped, current.length - position);
+      position += step;
+      skipped += step;
+    }
+    return skipped;
+  }
+
+  @Override
+  public int available() {
+    return current == null ? 0 : current.length - position;
+  }
+
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      for (Future<Part> future : pending) {
+        future.cancel(false);
+      }
+      for (ResponseInputStream<GetObjectResponse> response : responses) {
+        response.abort();
+      }
+      pending.clear();
+      buffers.clear();
+      current = null;
+    }
+  }
+
+  private boolean ensureData() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    while (current == null || position == current.length) {
+      if (current != null) {
+        buffers.push(current.buffer);
+        current = null;
+      }
+      Future<Part> next = pending.poll();
+      if (next == null) {
+        return false;
+      }
+      schedule();
+      current = await(next);
+      position = 0;
+    }
+    return true;
+  }
+
+  private void schedule() {
+    while (pending.size() < prefetchParts && nextPartStart < objectSize) {
+      long start = nextPartStart;
+      long end = Math.min(start + partSize, objectSize) - 1;
+      byte[] buffer = buffers.isEmpty() ? new byte[(int) (end - start + 1)] : buffers.pop();
+      GetObjectRequest partRequest =
+          request.toBuilder().range("bytes=" + start + "-" + end).ifMatch(eTag).build();
+      CompletableFuture<Part> part = new CompletableFuture<>();
+      executor.execute(() -> fetch(part, partRequest, buffer, (int) (end - start + 1), 0));
+      pending.add(part);
+      nextPartStart = end + 1;
+    }
+  }
+
+  /** Downloads a part and completes the given future with it, unless a retry is scheduled. */
+  private void fetch(
+      CompletableFuture<Part> part,
+      GetObjectRequest partRequest,
+      byte[] buffer,
+      int expected,
+      int attempt) {
+    if (closed) {
+      part.completeExceptionally(
+          new UncheckedIOException(new InterruptedIOException("Stream closed")));
+      return;
+    }
+    try {
+      part.complete(download(partRequest, buffer, expected));
+    } catch (SdkException | IOException e) {
+      if (closed) {
+        part.completeExceptionally(
+            new UncheckedIOException(new InterruptedIOException("Stream closed")));
+      } else if (e instanceof S3Exception
+          && ((S3Exception) e).statusCode() == PRECONDITION_FAILED) {
+        part.completeExceptionally(
+            new UncheckedIOException(
+                new IOException(
+                    String.format(
+                        "S3 object '%s' was modified while being read (ETag %s does not match anymore)",
+                        request.key(), eTag),
+                    e)));
+      } else if (attempt >= maxRetries) {
+        part.completeExceptionally(
+            e instanceof IOException ? new UncheckedIOException((IOException) e) : e);
+      } else {
+        LOGGER.debug(
+            String.format(
+                "Reading S3 object part %s of '%s' failed (attempt %d of %d), retrying",
+                partRequest.range(), request.key(), attempt + 1, maxRetries + 1),
+            e);
+        retry(part, partRequest, buffer, expected, attempt + 1, e);
+      }
+    } catch (RuntimeException e) {
+      part.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * Schedules the next attempt to download a part after a delay; the attempt itself runs on the
+   * transfer executor.
+   */
+  private void retry(
+      CompletableFuture<Part> part,
+      GetObjectRequest partRequest,
+      byte[] buffer,
+      int expected,
+      int attempt,
+      Exception lastError) {
+    try {
+      scheduler.schedule(
+          () -> {
+            try {
+              executor.execute(() -> fetch(part, partRequest, buffer, expected, attempt));
+            } catch (RejectedExecutionException e) {
+              part.completeExceptionally(lastError);
+            }
+          },
+          INITIAL_RETRY_DELAY_MILLIS << Math.min(attempt - 1, 6),
+          TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      part.completeExceptionally(lastError);
+    }
+  }
+
+  private Part download(GetObjectRequest partRequest, byte[] buffer, int expected)
+      throws IOException {
+    ResponseInputStream<GetObjectResponse> in = s3Client.getObject(partRequest);
+    responses.add(in);
+    try {
+      if (closed) {
+        // the stream was closed before the response could be registered
+        in.abort();
+      }
+      int length = 0;
+      while (length < expected) {
+        int n = in.read(buffer, length, expected - length);
+        if (n == -1) {
+          throw new IOException(
+              String.format(
+                  "Premature end of S3 object part %s: expected %d bytes, got %d",
+                  partRequest.range(), expected, length));
+        }
+        length += n;
+      }
+      return new Part(buffer, length);
+    } finally {
+      responses.remove(in);
+      in.close();
+    }
+  }
+
+  private static Part await(Future<Part> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for S3 object part");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) cause).getCause();
+      }
+      throw new IOException("Could not read S3 object part: " + cause.getMessage(), cause);
+    }
+  }
+
+  private static class Part {
+
+    private final byte[] buffer;
+    private final int length;
+
+    private Part(byte[] buffer, int length) {
+      this.buffer = buffer;
+      this.length = length;
+    }
+  }
+}
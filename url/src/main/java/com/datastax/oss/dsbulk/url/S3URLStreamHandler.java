@@ -16,6 +16,7 @@
 package com.datastax.oss.dsbulk.url;
 
 import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.ThreadFactoryBuilder;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import java.io.InputStream;
@@ -30,11 +31,13 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.ProfileCredentialsProvider;
-import software.amazon.awssdk.http.SdkHttpClient;
 import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
@@ -42,8 +45,17 @@ import software.amazon.awssdk.services.s3.S3ClientBuilder;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.utils.StringUtils;
 
-/** A {@link URLStreamHandler} for reading from AWS S3 URls. */
-public class S3URLStreamHandler extends URLStreamHandler {
+/**
+ * A {@link URLStreamHandler} for reading from and writing to AWS S3 URls.
+ *
+ * <p>Objects are read with ranged GET requests, several parts being downloaded ahead of the reader;
+ * see {@link S3RangedInputStream}. Objects are written with multipart uploads, several parts being
+ * uploaded while the writer fills the next one; see {@link S3MultipartOutputStream}.
+ *
+ * <p>The S3 clients created by this handler, and their HTTP connection pools, are kept until the
+ * handler is {@linkplain #close() closed}.
+ */
+public class S3URLStreamHandler extends URLStreamHandler implements AutoCloseable {
 
   private static final String REGION = "region";
   private static final String PROFILE = "profile";
@@ -53,29 +65,51 @@ public class S3URLStreamHandler extends URLStreamHandler {
   private static final Logger LOGGER = LoggerFactory.getLogger(S3URLStreamHandler.class);
 
   private final Cache<S3ClientInfo, S3Client> s3ClientCache;
+  private final S3TransferOptions transferOptions;
 
   S3URLStreamHandler(int s3ClientCacheSize) {
+    this(s3ClientCacheSize, S3TransferOptions.DEFAULT);
+  }
+
+  S3URLStreamHandler(int s3ClientCacheSize, S3TransferOptions transferOptions) {
     this.s3ClientCache = Caffeine.newBuilder().maximumSize(s3ClientCacheSize).build();
+    this.transferOptions = transferOptions;
   }
 
   @Override
   protected URLConnection openConnection(URL url) {
-    return new S3Connection(url, s3ClientCache);
+    return new S3Connection(url, s3ClientCache, transferOptions);
+  }
+
+  /** Closes all the S3 clients created by this handler so far. */
+  @Override
+  public void close() {
+    for (S3Client s3Client : s3ClientCache.asMap().values()) {
+      try {
+        s3Client.close();
+      } catch (RuntimeException e) {
+        LOGGER.warn("Error closing S3 client", e);
+      }
+    }
+    s3ClientCache.invalidateAll();
   }
 
   @VisibleForTesting
   static class S3Connection extends URLConnection {
 
     private final Cache<S3ClientInfo, S3Client> s3ClientCache;
+    private final S3TransferOptions transferOptions;
 
     @Override
     public void connect() {
       // Nothing to see here...
     }
 
-    S3Connection(URL url, Cache<S3ClientInfo, S3Client> s3ClientCache) {
+    S3Connection(
+        URL url, Cache<S3ClientInfo, S3Client> s3ClientCache, S3TransferOptions transferOptions) {
       super(url);
       this.s3ClientCache = s3ClientCache;
+      this.transferOptions = transferOptions;
     }
 
     @Override
@@ -85,26 +119,63 @@ public class S3URLStreamHandler extends URLStreamHandler {
       LOGGER.debug("Getting S3 input stream for object '{}' in bucket '{}'...", key, bucket);
       GetObjectRequest getObjectRequest =
           GetObjectRequest.builder().bucket(bucket).key(key).build();
+      return getInputStream(resolveS3Client(), getObjectRequest);
+    }
+
+    @VisibleForTesting
+    InputStream getInputStream(S3Client s3Client, GetObjectRequest getObjectRequest) {
+      return new S3RangedInputStream(
+          s3Client,
+          getObjectRequest,
+          transferOptions.readPartSize,
+          transferOptions.readPrefetchParts,
+          transferOptions.maxRetries,
+          S3TransferOptions.EXECUTOR,
+          S3TransferOptions.SCHEDULER);
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+      String bucket = url.getHost();
+      String key = url.getPath().substring(1); // Strip leading '/'.
+      if (key.isEmpty() || key.endsWith("/")) {
+        throw new IllegalArgumentException(
+            String.format("Cannot write to S3 URL %s: the object key must not be empty.", url));
+      }
+      LOGGER.debug("Getting S3 output stream for object '{}' in bucket '{}'...", key, bucket);
+      return getOutputStream(resolveS3Client(), bucket, key);
+    }
+
+    @VisibleForTesting
+    OutputStream getOutputStream(S3Client s3Client, String bucket, String key) {
+      return new S3MultipartOutputStream(
+          s3Client,
+          bucket,
+          key,
+          transferOptions.writePartSize,
+          transferOptions.writeConcurrentParts,
+          transferOptions.maxRetries,
+          S3TransferOptions.EXECUTOR,
+          S3TransferOptions.SCHEDULER);
+    }
+
+    private S3Client resolveS3Client() {
       String query = url.getQuery();
       if (StringUtils.isBlank(query)) {
         throw new IllegalArgumentException(
             "You must provide S3 client credentials in the URL query parameters.");
       }
       S3ClientInfo s3ClientInfo = new S3ClientInfo(query);
-      S3Client s3Client = s3ClientCache.get(s3ClientInfo, this::getS3Client);
-      return getInputStream(s3Client, getObjectRequest);
-    }
-
-    @VisibleForTesting
-    InputStream getInputStream(S3Client s3Client, GetObjectRequest getObjectRequest) {
-      return s3Client.getObjectAsBytes(getObjectRequest).asInputStream();
+      return s3ClientCache.get(s3ClientInfo, this::getS3Client);
     }
 
     @VisibleForTesting
     S3Client getS3Client(S3ClientInfo s3ClientInfo) {
-      SdkHttpClient httpClient = UrlConnectionHttpClient.builder().build();
+      // let the client build its own HTTP client, so that closing the former also closes the latter
       S3ClientBuilder builder =
-          S3Client.builder().httpClient(httpClient).region(Region.of(s3ClientInfo.getRegion()));
+          S3Client.builder()
+              .httpClientBuilder(UrlConnectionHttpClient.builder())
+              .region(Region.of(s3ClientInfo.getRegion()));
 
       String profile = s3ClientInfo.getProfile();
       String accessKeyId = s3ClientInfo.getAccessKeyId();
@@ -127,10 +198,81 @@ public class S3URLStreamHandler extends URLStreamHandler {
 
       return builder.build();
     }
+  }
 
-    @Override
-    public OutputStream getOutputStream() {
-      throw new UnsupportedOperationException("Writing to S3 has not yet been implemented.");
+  @VisibleForTesting
+  static class S3TransferOptions {
+
+    static final int DEFAULT_READ_PART_SIZE = 8 * 1024 * 1024;
+    static final int DEFAULT_READ_PREFETCH_PARTS = 4;
+    static final int DEFAULT_WRITE_PART_SIZE = 8 * 1024 * 1024;
+    static final int DEFAULT_WRITE_CONCURRENT_PARTS = 4;
+    static final int DEFAULT_MAX_RETRIES = 3;
+
+    static final S3TransferOptions DEFAULT =
+        new S3TransferOptions(
+            DEFAULT_READ_PART_SIZE,
+            DEFAULT_READ_PREFETCH_PARTS,
+            DEFAULT_WRITE_PART_SIZE,
+            DEFAULT_WRITE_CONCURRENT_PARTS,
+            DEFAULT_MAX_RETRIES);
+
+    /**
+     * The executor used to download and upload object parts. Its threads are daemon threads, and
+     * the number of concurrent transfers per stream is bounded by the number of prefetched or
+     * concurrent parts.
+     */
+    private static final ExecutorService EXECUTOR =
+        Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("s3-transfer-%d").setDaemon(true).build());
+
+    /**
+     * The scheduler used to wait before retrying failed part transfers, so that transfers backing
+     * off do not hold threads of {@link #EXECUTOR}. Its tasks only hand attempts over to the
+     * executor, so a single thread is enough.
+     */
+    private static final ScheduledExecutorService SCHEDULER =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("s3-retry-%d").setDaemon(true).build());
+
+    private final int readPartSize;
+    private final int readPrefetchParts;
+    private final int writePartSize;
+    private final int writeConcurrentParts;
+    private final int maxRetries;
+
+    S3TransferOptions(
+        int readPartSize,
+        int readPrefetchParts,
+        int writePartSize,
+        int writeConcurrentParts,
+        int maxRetries) {
+      if (readPartSize <= 0) {
+        throw new IllegalArgumentException(
+            "Invalid value for dsbulk.s3.readPartSize: expecting positive integer, got: "
+                + readPartSize);
+      }
+      if (readPrefetchParts <= 0) {
+        throw new IllegalArgumentException(
+            "Invalid value for dsbulk.s3.readPrefetchParts: expecting positive integer, got: "
+                + readPrefetchParts);
+      }
+      if (writePartSize < S3MultipartOutputStream.MIN_PART_SIZE) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Invalid value for dsbulk.s3.writePartSize: expecting at least %d bytes, got: %d",
+                S3MultipartOutputStream.MIN_PART_SIZE, writePartSize));
+      }
+      if (writeConcurrentParts <= 0) {
+        throw new IllegalArgumentException(
+            "Invalid value for dsbulk.s3.writeConcurrentParts: expecting positive integer, got: "
+                + writeConcurrentParts);
+      }
+      this.readPartSize = readPartSize;
+      this.readPrefetchParts = readPrefetchParts;
+      this.writePartSize = writePartSize;
+      this.writeConcurrentParts = writeConcurrentParts;
+      this.maxRetries = maxRetries;
     }
   }
 
@@ -15,6 +15,7 @@
  */
 package com.datastax.oss.dsbulk.url;
 
+import com.datastax.oss.dsbulk.url.S3URLStreamHandler.S3TransferOptions;
 import com.typesafe.config.Config;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.net.URLStreamHandler;
@@ -24,6 +25,11 @@ public class S3URLStreamHandlerProvider implements URLStreamHandlerProvider {
 
   private static final String S3CLIENT_CACHE_SIZE_PATH = "dsbulk.s3.clientCacheSize";
   private static final int DEFAULT_S3CLIENT_CACHE_SIZE = 20; // Totally arbitrary default.
+  private static final String READ_PART_SIZE_PATH = "dsbulk.s3.readPartSize";
+  private static final String READ_PREFETCH_PARTS_PATH = "dsbulk.s3.readPrefetchParts";
+  private static final String WRITE_PART_SIZE_PATH = "dsbulk.s3.writePartSize";
+  private static final String WRITE_CONCURRENT_PARTS_PATH = "dsbulk.s3.writeConcurrentParts";
+  private static final String MAX_RETRIES_PATH = "dsbulk.s3.maxRetries";
 
   /** The protocol for AWS S3 URLs. I.e., URLs beginning with {@code s3://} */
   public static final String S3_STREAM_PROTOCOL = "s3";
@@ -37,8 +43,27 @@ public class S3URLStreamHandlerProvider implements URLStreamHandlerProvider {
           config.hasPath(S3CLIENT_CACHE_SIZE_PATH)
               ? config.getInt(S3CLIENT_CACHE_SIZE_PATH)
               : DEFAULT_S3CLIENT_CACHE_SIZE;
-      return Optional.of(new S3URLStreamHandler(s3ClientCacheSize));
+      S3TransferOptions transferOptions =
+          new S3TransferOptions(
+              getBytes(config, READ_PART_SIZE_PATH, S3TransferOptions.DEFAULT_READ_PART_SIZE),
+              getInt(
+                  config, READ_PREFETCH_PARTS_PATH, S3TransferOptions.DEFAULT_READ_PREFETCH_PARTS),
+              getBytes(config, WRITE_PART_SIZE_PATH, S3TransferOptions.DEFAULT_WRITE_PART_SIZE),
+              getInt(
+                  config,
+                  WRITE_CONCURRENT_PARTS_PATH,
+                  S3TransferOptions.DEFAULT_WRITE_CONCURRENT_PARTS),
+              getInt(config, MAX_RETRIES_PATH, S3TransferOptions.DEFAULT_MAX_RETRIES));
+      return Optional.of(new S3URLStreamHandler(s3ClientCacheSize, transferOptions));
     }
     return Optional.empty();
   }
+
+  private static int getInt(Config config, String path, int defaultValue) {
+    return config.hasPath(path) ? config.getInt(path) : defaultValue;
+  }
+
+  private static int getBytes(Config config, String path, int defaultValue) {
+    return config.hasPath(path) ? Math.toIntExact(config.getBytes(path)) : defaultValue;
+  }
 }
@@ -19,7 +19,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import com.datastax.oss.dsbulk.url.BulkLoaderURLStreamHandlerFactory.ConfigAwareURLStreamHandler;
 import com.typesafe.config.Config;
+import java.net.URLStreamHandler;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
@@ -37,14 +40,66 @@ class BulkLoaderURLStreamHandlerFactoryTest {
     BulkLoaderURLStreamHandlerFactory.setConfig(config);
     BulkLoaderURLStreamHandlerFactory factory = BulkLoaderURLStreamHandlerFactory.INSTANCE;
 
-    assertThat(factory.createURLStreamHandler("std"))
+    assertThat(delegate(factory.createURLStreamHandler("std")))
         .isNotNull()
         .isInstanceOf(StdinStdoutURLStreamHandler.class);
-    assertThat(factory.createURLStreamHandler("STD"))
+    assertThat(delegate(factory.createURLStreamHandler("STD")))
         .isNotNull()
         .isInstanceOf(StdinStdoutURLStreamHandler.class);
-    assertThat(factory.createURLStreamHandler("s3"))
+    assertThat(delegate(factory.createURLStreamHandler("s3")))
         .isNotNull()
         .isInstanceOf(S3URLStreamHandler.class);
+    assertThat(factory.createURLStreamHandler("unknown")).isNull();
+  }
+
+  @Test
+  void should_create_handlers_for_the_config_of_the_current_thread() throws Exception {
+    Config config1 = mock(Config.class);
+    Config config2 = mock(Config.class);
+
+    BulkLoaderURLStreamHandlerFactory.install();
+    BulkLoaderURLStreamHandlerFactory.setConfig(config1);
+    BulkLoaderURLStreamHandlerFactory factory = BulkLoaderURLStreamHandlerFactory.INSTANCE;
+    URLStreamHandler handler = factory.createURLStreamHandler("s3");
+    URLStreamHandler delegate1 = delegate(handler);
+    assertThat(delegate(handler)).isSameAs(delegate1);
+
+    AtomicReference<URLStreamHandler> delegate2 = new AtomicReference<>();
+    Thread thread =
+        new Thread(
+            () -> {
+              BulkLoaderURLStreamHandlerFactory.setConfig(config2);
+              delegate2.set(delegate(handler));
+            });
+    thread.start();
+    thread.join();
+
+    assertThat(delegate2.get()).isInstanceOf(S3URLStreamHandler.class).isNotSameAs(delegate1);
+    // the other thread changed the default config, but not the config of this thread
+    assertThat(delegate(handler)).isSameAs(delegate1);
+  }
+
+  @Test
+  void should_discard_handlers_once_config_released_by_all_operations() {
+    Config config = mock(Config.class);
+
+    BulkLoaderURLStreamHandlerFactory.install();
+    // two operations with the same config
+    BulkLoaderURLStreamHandlerFactory.setConfig(config);
+    BulkLoaderURLStreamHandlerFactory.setConfig(config);
+    BulkLoaderURLStreamHandlerFactory factory = BulkLoaderURLStreamHandlerFactory.INSTANCE;
+    URLStreamHandler handler = factory.createURLStreamHandler("s3");
+    URLStreamHandler delegate = delegate(handler);
+
+    BulkLoaderURLStreamHandlerFactory.releaseConfig(config);
+    assertThat(delegate(handler)).isSameAs(delegate);
+
+    BulkLoaderURLStreamHandlerFactory.releaseConfig(config);
+    assertThat(delegate(handler)).isInstanceOf(S3URLStreamHandler.class).isNotSameAs(delegate);
+  }
+
+  private static URLStreamHandler delegate(URLStreamHandler handler) {
+    assertThat(handler).isInstanceOf(ConfigAwareURLStreamHandler.class);
+    return ((ConfigAwareURLStreamHandler) handler).getDelegate();
   }
 }
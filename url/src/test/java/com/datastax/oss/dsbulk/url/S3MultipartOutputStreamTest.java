@@ -0,0 +1,272 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.url;
+
+import static com.datastax.oss.dsbulk.url.S3MultipartOutputStream.MIN_PART_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+class S3MultipartOutputStreamTest {
+
+  private final Map<Integer, byte[]> uploadedParts = new ConcurrentHashMap<>();
+  private final Map<Integer, AtomicInteger> attempts = new ConcurrentHashMap<>();
+
+  private ExecutorService executor;
+  private ScheduledExecutorService scheduler;
+  private S3Client s3Client;
+  private byte[] putObjectContent;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+    s3Client = mock(S3Client.class);
+    when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+        .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+    when(s3Client.completeMultipartUpload(any(CompleteMultipartUploadRequest.class)))
+        .thenReturn(CompleteMultipartUploadResponse.builder().build());
+    when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
+        .thenAnswer(
+            invocation -> {
+              putObjectContent = readAll(invocation.getArgument(1));
+              return PutObjectResponse.builder().build();
+            });
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  void should_write_small_object_with_single_put() throws IOException {
+    mockUploadPart(0);
+    byte[] content = randomBytes(1000);
+    try (OutputStream out = newStream(2, 0)) {
+      out.write(content);
+    }
+    assertThat(putObjectContent).isEqualTo(content);
+    verify(s3Client, never()).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+  }
+
+  @Test
+  void should_write_large_object_with_multipart_upload() throws IOException {
+    mockUploadPart(0);
+    byte[] content = randomBytes(MIN_PART_SIZE * 2 + 1234);
+    try (OutputStream out = newStream(2, 0)) {
+      // mix single-byte and bulk writes
+      out.write(content[0]);
+      out.write(content, 1, content.length - 1);
+    }
+    ArgumentCaptor<CompleteMultipartUploadRequest> captor =
+        ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+    verify(s3Client).completeMultipartUpload(captor.capture());
+    assertThat(captor.getValue().uploadId()).isEqualTo("upload-1");
+    assertThat(captor.getValue().multipartUpload().parts())
+        .extracting(CompletedPart::partNumber, CompletedPart::eTag)
+        .containsExactly(tuple(1, "etag-1"), tuple(2, "etag-2"), tuple(3, "etag-3"));
+    ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+    for (int i = 1; i <= 3; i++) {
+      uploaded.write(uploadedParts.get(i));
+    }
+    assertThat(uploaded.toByteArray()).isEqualTo(content);
+    verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+  }
+
+  @Test
+  void should_retry_failed_parts() throws IOException {
+    mockUploadPart(1);
+    byte[] content = randomBytes(MIN_PART_SIZE + 1);
+    try (OutputStream out = newStream(1, 1)) {
+      out.write(content);
+    }
+    assertThat(attempts.get(1)).hasValue(2);
+    assertThat(attempts.get(2)).hasValue(2);
+    verify(s3Client).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+  }
+
+  @Test
+  void should_abort_multipart_upload_when_part_fails() {
+    mockUploadPart(Integer.MAX_VALUE);
+    byte[] content = randomBytes(MIN_PART_SIZE + 1);
+    Throwable error =
+        catchThrowable(
+            () -> {
+              try (OutputStream out = newStream(1, 0)) {
+                out.write(content);
+              }
+            });
+    assertThat(error)
+        .isInstanceOf(IOException.class)
+        .hasMessageContaining("Could not upload part of S3 object 'test-key'");
+    verify(s3Client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    verify(s3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+  }
+
+  @Test
+  void should_wait_for_in_flight_parts_before_aborting() throws Exception {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger runningWhenAborted = new AtomicInteger(-1);
+    when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+        .thenAnswer(
+            invocation -> {
+              UploadPartRequest request = invocation.getArgument(0);
+              if (request.partNumber() != 1) {
+                throw SdkClientException.create("simulated failure");
+              }
+              running.incrementAndGet();
+              try {
+                Thread.sleep(500);
+                return UploadPartResponse.builder().eTag("etag-1").build();
+              } finally {
+                running.decrementAndGet();
+              }
+            });
+    when(s3Client.abortMultipartUpload(any(AbortMultipartUploadRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              runningWhenAborted.set(running.get());
+              return AbortMultipartUploadResponse.builder().build();
+            });
+    OutputStream out = newStream(2, 0);
+    out.write(randomBytes(MIN_PART_SIZE * 2 + 1));
+    // let part 2 fail while part 1 is still being uploaded
+    Thread.sleep(100);
+    Throwable error = catchThrowable(out::close);
+    assertThat(error).isInstanceOf(IOException.class);
+    assertThat(runningWhenAborted).hasValue(0);
+  }
+
+  @Test
+  void should_retry_abort() {
+    mockUploadPart(Integer.MAX_VALUE);
+    when(s3Client.abortMultipartUpload(any(AbortMultipartUploadRequest.class)))
+        .thenThrow(SdkClientException.create("simulated failure"))
+        .thenReturn(AbortMultipartUploadResponse.builder().build());
+    byte[] content = randomBytes(MIN_PART_SIZE + 1);
+    Throwable error =
+        catchThrowable(
+            () -> {
+              try (OutputStream out = newStream(1, 1)) {
+                out.write(content);
+              }
+            });
+    assertThat(error).isInstanceOf(IOException.class);
+    assertThat(error.getSuppressed()).isEmpty();
+    verify(s3Client, times(2)).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+  }
+
+  @Test
+  void should_reject_part_size_below_s3_minimum() {
+    Throwable error =
+        catchThrowable(
+            () ->
+                new S3MultipartOutputStream(
+                    s3Client,
+                    "test-bucket",
+                    "test-key",
+                    MIN_PART_SIZE - 1,
+                    1,
+                    0,
+                    executor,
+                    scheduler));
+    assertThat(error).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private OutputStream newStream(int maxConcurrentParts, int maxRetries) {
+    return new S3MultipartOutputStream(
+        s3Client,
+        "test-bucket",
+        "test-key",
+        MIN_PART_SIZE,
+        maxConcurrentParts,
+        maxRetries,
+        executor,
+        scheduler);
+  }
+
+  private void mockUploadPart(int failuresPerPart) {
+    when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+        .thenAnswer(
+            invocation -> {
+              UploadPartRequest request = invocation.getArgument(0);
+              int partNumber = request.partNumber();
+              int attempt =
+                  attempts.computeIfAbsent(partNumber, n -> new AtomicInteger()).incrementAndGet();
+              if (attempt <= failuresPerPart) {
+                throw SdkClientException.create("simulated failure");
+              }
+              uploadedParts.put(partNumber, readAll(invocation.getArgument(1)));
+              return UploadPartResponse.builder().eTag("etag-" + partNumber).build();
+            });
+  }
+
+  private static byte[] readAll(RequestBody body) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (InputStream in = body.contentStreamProvider().newStream()) {
+      byte[] buffer = new byte[8192];
+      int n;
+      while ((n = in.read(buffer)) != -1) {
+        out.write(buffer, 0, n);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] randomBytes(int size) {
+    byte[] bytes = new byte[size];
+    new Random(size).nextBytes(bytes);
+    return bytes;
+  }
+}
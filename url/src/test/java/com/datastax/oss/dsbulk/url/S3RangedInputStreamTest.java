@@ -0,0 +1,293 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.url;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+class S3RangedInputStreamTest {
+
+  private static final GetObjectRequest REQUEST =
+      GetObjectRequest.builder().bucket("test-bucket").key("test-key").build();
+
+  private final List<String> requestedRanges = new CopyOnWriteArrayList<>();
+
+  private ExecutorService executor;
+  private ScheduledExecutorService scheduler;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+    scheduler.shutdownNow();
+  }
+
+  @ParameterizedTest
+  @CsvSource({"0,10,2", "1,10,2", "10,10,2", "1000,10,1", "1000,7,3", "1000,2000,4"})
+  void should_read_object_in_parts(int objectSize, int partSize, int prefetchParts)
+      throws IOException {
+    byte[] content = randomBytes(objectSize);
+    S3Client s3Client = mockS3Client(content, 0);
+    try (InputStream in =
+        new S3RangedInputStream(
+            s3Client, REQUEST, partSize, prefetchParts, 0, executor, scheduler)) {
+      assertThat(readFully(in)).isEqualTo(content);
+      assertThat(in.read()).isEqualTo(-1);
+    }
+    int expectedParts = (objectSize + partSize - 1) / partSize;
+    assertThat(requestedRanges).hasSize(expectedParts);
+    if (expectedParts > 0) {
+      assertThat(requestedRanges).contains("bytes=0-" + (Math.min(partSize, objectSize) - 1));
+    }
+  }
+
+  @Test
+  void should_read_single_bytes_and_skip() throws IOException {
+    byte[] content = randomBytes(100);
+    S3Client s3Client = mockS3Client(content, 0);
+    try (InputStream in =
+        new S3RangedInputStream(s3Client, REQUEST, 16, 2, 0, executor, scheduler)) {
+      assertThat(in.read()).isEqualTo(content[0] & 0xFF);
+      assertThat(in.skip(50)).isEqualTo(50);
+      assertThat(in.read()).isEqualTo(content[51] & 0xFF);
+      assertThat(readFully(in)).isEqualTo(Arrays.copyOfRange(content, 52, 100));
+    }
+  }
+
+  @Test
+  void should_retry_failed_parts() throws IOException {
+    byte[] content = randomBytes(100);
+    S3Client s3Client = mockS3Client(content, 2);
+    try (InputStream in =
+        new S3RangedInputStream(s3Client, REQUEST, 10, 3, 2, executor, scheduler)) {
+      assertThat(readFully(in)).isEqualTo(content);
+    }
+    // every part failed twice before succeeding
+    verify(s3Client, times(30)).getObject(any(GetObjectRequest.class));
+  }
+
+  @Test
+  void should_not_hold_transfer_threads_while_backing_off() throws Exception {
+    byte[] content = randomBytes(30);
+    S3Client s3Client = mockS3Client(content, 1);
+    ExecutorService singleThread = Executors.newSingleThreadExecutor();
+    ScheduledExecutorService manualScheduler = mock(ScheduledExecutorService.class);
+    BlockingQueue<Runnable> retries = new LinkedBlockingQueue<>();
+    when(manualScheduler.schedule(any(Runnable.class), eq(100L), eq(TimeUnit.MILLISECONDS)))
+        .thenAnswer(
+            invocation -> {
+              retries.add(invocation.getArgument(0));
+              return null;
+            });
+    try (InputStream in =
+        new S3RangedInputStream(s3Client, REQUEST, 10, 3, 1, singleThread, manualScheduler)) {
+      List<Runnable> scheduled = new ArrayList<>();
+      while (scheduled.size() < 3) {
+        Runnable retry = retries.poll(10, TimeUnit.SECONDS);
+        assertThat(retry).isNotNull();
+        scheduled.add(retry);
+      }
+      // all 3 parts are backing off, yet the only transfer thread is free
+      assertThat(singleThread.submit(() -> true).get(10, TimeUnit.SECONDS)).isTrue();
+      scheduled.forEach(Runnable::run);
+      assertThat(readFully(in)).isEqualTo(content);
+    } finally {
+      singleThread.shutdownNow();
+    }
+    verify(s3Client, times(6)).getObject(any(GetObjectRequest.class));
+  }
+
+  @Test
+  void should_fail_when_part_retries_exhausted() {
+    byte[] content = randomBytes(100);
+    S3Client s3Client = mockS3Client(content, 2);
+    Throwable error =
+        catchThrowable(
+            () -> {
+              try (InputStream in =
+                  new S3RangedInputStream(s3Client, REQUEST, 10, 3, 1, executor, scheduler)) {
+                readFully(in);
+              }
+            });
+    assertThat(error).isInstanceOf(IOException.class).hasMessageContaining("simulated failure");
+  }
+
+  @Test
+  void should_not_request_parts_for_empty_object() throws IOException {
+    S3Client s3Client = mockS3Client(new byte[0], 0);
+    try (InputStream in =
+        new S3RangedInputStream(s3Client, REQUEST, 10, 3, 0, executor, scheduler)) {
+      assertThat(in.read()).isEqualTo(-1);
+    }
+    verify(s3Client, never()).getObject(any(GetObjectRequest.class));
+  }
+
+  @Test
+  void should_fail_reading_after_close() throws IOException {
+    byte[] content = randomBytes(100);
+    S3Client s3Client = mockS3Client(content, 0);
+    InputStream in = new S3RangedInputStream(s3Client, REQUEST, 10, 3, 0, executor, scheduler);
+    in.close();
+    assertThat(catchThrowable(in::read)).isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void should_not_retry_when_object_was_modified() {
+    S3Client s3Client = mockS3Client(randomBytes(10), 0);
+    when(s3Client.getObject(any(GetObjectRequest.class)))
+        .thenThrow(S3Exception.builder().statusCode(412).message("Precondition Failed").build());
+    Throwable error =
+        catchThrowable(
+            () -> {
+              try (InputStream in =
+                  new S3RangedInputStream(s3Client, REQUEST, 10, 1, 3, executor, scheduler)) {
+                readFully(in);
+              }
+            });
+    assertThat(error)
+        .isInstanceOf(IOException.class)
+        .hasMessageContaining("S3 object 'test-key' was modified while being read");
+    verify(s3Client).getObject(any(GetObjectRequest.class));
+  }
+
+  @Test
+  void should_abort_part_downloads_when_closed() throws Exception {
+    S3Client s3Client = mockS3Client(randomBytes(10), 0);
+    CountDownLatch downloading = new CountDownLatch(1);
+    CountDownLatch aborted = new CountDownLatch(1);
+    InputStream blocking =
+        new InputStream() {
+          @Override
+          public int read() throws IOException {
+            downloading.countDown();
+            try {
+              // the synchronous client ignores interruptions, only an abort unblocks it
+              while (!aborted.await(10, TimeUnit.MILLISECONDS)) {
+                Thread.interrupted();
+              }
+            } catch (InterruptedException e) {
+              throw new IOException(e);
+            }
+            throw new IOException("aborted");
+          }
+        };
+    when(s3Client.getObject(any(GetObjectRequest.class)))
+        .thenReturn(
+            new ResponseInputStream<>(
+                GetObjectResponse.builder().contentLength(10L).build(),
+                AbortableInputStream.create(blocking, aborted::countDown)));
+    InputStream in = new S3RangedInputStream(s3Client, REQUEST, 10, 1, 3, executor, scheduler);
+    assertThat(downloading.await(10, TimeUnit.SECONDS)).isTrue();
+    in.close();
+    assertThat(aborted.await(10, TimeUnit.SECONDS)).isTrue();
+    // the download is not retried once the stream is closed
+    verify(s3Client).getObject(any(GetObjectRequest.class));
+  }
+
+  private S3Client mockS3Client(byte[] content, int failuresPerPart) {
+    S3Client s3Client = mock(S3Client.class);
+    when(s3Client.headObject(any(HeadObjectRequest.class)))
+        .thenReturn(
+            HeadObjectResponse.builder()
+                .contentLength((long) content.length)
+                .eTag("test-etag")
+                .build());
+    Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+    when(s3Client.getObject(any(GetObjectRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              GetObjectRequest request = invocation.getArgument(0);
+              assertThat(request.ifMatch()).isEqualTo("test-etag");
+              String range = request.range();
+              int attempt =
+                  attempts.computeIfAbsent(range, r -> new AtomicInteger()).incrementAndGet();
+              if (attempt <= failuresPerPart) {
+                throw SdkClientException.create("simulated failure");
+              }
+              requestedRanges.add(range);
+              String[] bounds = range.substring("bytes=".length()).split("-");
+              int start = Integer.parseInt(bounds[0]);
+              int end = Math.min(Integer.parseInt(bounds[1]), content.length - 1);
+              byte[] slice = Arrays.copyOfRange(content, start, end + 1);
+              return new ResponseInputStream<>(
+                  GetObjectResponse.builder().contentLength((long) slice.length).build(),
+                  AbortableInputStream.create(new ByteArrayInputStream(slice)));
+            });
+    return s3Client;
+  }
+
+  private static byte[] readFully(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[13];
+    int n;
+    while ((n = in.read(buffer)) != -1) {
+      out.write(buffer, 0, n);
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] randomBytes(int size) {
+    byte[] bytes = new byte[size];
+    new Random(size).nextBytes(bytes);
+    return bytes;
+  }
+}
@@ -18,6 +18,7 @@ package com.datastax.oss.dsbulk.url;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -29,9 +30,9 @@ import static org.mockito.Mockito.when;
 import com.datastax.oss.dsbulk.url.S3URLStreamHandler.S3ClientInfo;
 import com.datastax.oss.dsbulk.url.S3URLStreamHandler.S3Connection;
 import com.typesafe.config.Config;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -42,15 +43,15 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.stubbing.Answer;
-import software.amazon.awssdk.core.ResponseBytes;
 import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.GetObjectRequest;
-import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 
 class S3URLStreamHandlerTest {
 
   @Mock private Config config;
   @Mock private InputStream mockInputStream;
+  @Mock private OutputStream mockOutputStream;
 
   private AutoCloseable mocks;
 
@@ -116,22 +117,17 @@ class S3URLStreamHandlerTest {
     S3Connection connection2 = spy((S3Connection) url2.openConnection());
 
     S3Client mockClient = mock(S3Client.class);
-    when(mockClient.getObjectAsBytes(any(GetObjectRequest.class)))
+    when(mockClient.headObject(any(HeadObjectRequest.class)))
         .thenAnswer(
-            (Answer<ResponseBytes<GetObjectResponse>>)
-                invocation -> {
-                  GetObjectResponse response = GetObjectResponse.builder().build();
-                  byte[] bytes = new byte[] {};
-                  InputStream is = new ByteArrayInputStream(bytes);
-                  return ResponseBytes.fromInputStream(response, is);
-                });
+            (Answer<HeadObjectResponse>)
+                invocation -> HeadObjectResponse.builder().contentLength(0L).eTag("tag").build());
     doReturn(mockClient).when(connection1).getS3Client(any());
 
     InputStream stream1 = connection1.getInputStream();
     InputStream stream2 = connection2.getInputStream();
 
     assertThat(stream1).isNotSameAs(stream2); // Two different URls produce different streams.
-    verify(mockClient, times(2)).getObjectAsBytes(any(GetObjectRequest.class));
+    verify(mockClient, times(2)).headObject(any(HeadObjectRequest.class));
     verify(connection1)
         .getS3Client(
             new S3ClientInfo(
@@ -140,15 +136,53 @@ class S3URLStreamHandlerTest {
   }
 
   @Test
-  void should_not_support_writing_to_s3() throws IOException {
-    URL url = new URL("s3://test-bucket/test-key");
+  void should_close_cached_clients() throws IOException {
+    S3URLStreamHandler handler = new S3URLStreamHandler(2);
+    URL url =
+        new URL(null, "s3://test-bucket/test-key?region=us-west-1&test=should_close", handler);
+    S3Connection connection1 = spy((S3Connection) url.openConnection());
+    S3Connection connection2 = spy((S3Connection) url.openConnection());
+
+    S3Client mockClient = mock(S3Client.class);
+    doReturn(mockClient).when(connection1).getS3Client(any());
+    doReturn(mockClient).when(connection2).getS3Client(any());
+    doReturn(mockInputStream).when(connection1).getInputStream(any(), any());
+    doReturn(mockInputStream).when(connection2).getInputStream(any(), any());
+
+    connection1.getInputStream();
+    handler.close();
+    verify(mockClient).close();
+
+    // closed clients are not reused
+    connection2.getInputStream();
+    verify(connection2).getS3Client(any());
+  }
+
+  @Test
+  void should_provide_output_stream_when_parameters_are_correct() throws IOException {
+    URL url = new URL("s3://test-bucket/test-dir/test-key?region=us-west-1");
+    S3Connection connection = spy((S3Connection) url.openConnection());
+
+    doReturn(mockOutputStream).when(connection).getOutputStream(any(), any(), any());
+
+    assertThat(connection.getOutputStream()).isSameAs(mockOutputStream);
+    verify(connection).getOutputStream(any(), eq("test-bucket"), eq("test-dir/test-key"));
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "s3://test-bucket/test-key,You must provide S3 client credentials in the URL query parameters.",
+    "s3://test-bucket/?region=us-west-1,Cannot write to S3 URL s3://test-bucket/?region=us-west-1: the object key must not be empty."
+  })
+  void should_not_provide_output_stream_when_url_is_invalid(String s3Url, String errorMessage)
+      throws IOException {
+    URL url = new URL(s3Url);
     S3Connection connection = spy((S3Connection) url.openConnection());
 
+    doReturn(mockOutputStream).when(connection).getOutputStream(any(), any(), any());
+
     Throwable t = catchThrowable(connection::getOutputStream);
 
-    assertThat(t)
-        .isNotNull()
-        .isInstanceOf(UnsupportedOperationException.class)
-        .hasMessage("Writing to S3 has not yet been implemented.");
+    assertThat(t).isNotNull().isInstanceOf(IllegalArgumentException.class).hasMessage(errorMessage);
   }
 }
@@ -16,6 +16,8 @@
 package com.datastax.oss.dsbulk.workflow.api;
 
 import com.datastax.oss.dsbulk.workflow.api.error.TooManyErrorsException;
+import java.util.Collections;
+import java.util.Map;
 
 /** Defines a pipeline of transformations to apply. */
 public interface Workflow extends AutoCloseable {
@@ -43,6 +45,19 @@ public interface Workflow extends AutoCloseable {
    */
   boolean execute() throws TooManyErrorsException, Exception;
 
+  /**
+   * Returns a snapshot of the workflow's progress, as counts keyed by metric name (for example,
+   * {@code records/total}).
+   *
+   * <p>This method may be called from any thread, at any time, including before the workflow is
+   * initialized and after it is closed. The default implementation returns an empty map.
+   *
+   * @return a snapshot of the workflow's progress; never {@code null}.
+   */
+  default Map<String, Long> getProgress() {
+    return Collections.emptyMap();
+  }
+
   /**
    * Closes the workflow and releases all open resources (file descriptors, socket connections,
    * etc.).
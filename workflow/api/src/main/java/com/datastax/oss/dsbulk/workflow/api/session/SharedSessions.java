@@ -0,0 +1,119 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.api.session;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.internal.core.session.SessionWrapper;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigRenderOptions;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A registry of sessions shared by several operations running in the same JVM.
+ *
+ * <p>When sharing is enabled, operations obtain their session through {@link #getOrCreate}, and all
+ * the operations with the same driver configuration share the same session. Operations closing a
+ * shared session have no effect on it; shared sessions are only closed by {@link #closeAll()}.
+ *
+ * <p>Sharing is disabled by default, and is meant to be enabled by runners executing several
+ * operations in a row, such as job files.
+ */
+public final class SharedSessions {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SharedSessions.class);
+
+  private static final Map<String, CqlSession> SESSIONS = new ConcurrentHashMap<>();
+
+  private static volatile boolean enabled;
+
+  private SharedSessions() {}
+
+  /** Enables session sharing for all subsequent operations. */
+  public static void enable() {
+    enabled = true;
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Closes all the shared sessions, and disables session sharing for subsequent operations.
+   *
+   * @return the first error encountered while closing sessions, or null if none.
+   */
+  public static Exception closeAll() {
+    enabled = false;
+    Exception error = null;
+    List<CqlSession> sessions = new ArrayList<>(SESSIONS.values());
+    SESSIONS.clear();
+    for (CqlSession session : sessions) {
+      try {
+        ((SharedSession) session).closeDelegate();
+      } catch (Exception e) {
+        LOGGER.warn("Could not close shared session", e);
+        if (error == null) {
+          error = e;
+        }
+      }
+    }
+    return error;
+  }
+
+  /**
+   * Returns the session shared by all operations with the given driver configuration, creating it
+   * with the given factory if it does not exist yet.
+   */
+  @NonNull
+  public static CqlSession getOrCreate(
+      @NonNull Config driverConfig, @NonNull Supplier<CqlSession> factory) {
+    String key = driverConfig.root().render(ConfigRenderOptions.concise());
+    return SESSIONS.computeIfAbsent(key, k -> new SharedSession(factory.get()));
+  }
+
+  private static class SharedSession extends SessionWrapper implements CqlSession {
+
+    private SharedSession(@NonNull CqlSession delegate) {
+      super(delegate);
+    }
+
+    @NonNull
+    @Override
+    public CompletionStage<Void> closeAsync() {
+      // shared sessions are closed by closeAll()
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @NonNull
+    @Override
+    public CompletionStage<Void> forceCloseAsync() {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    private void closeDelegate() {
+      getDelegate().close();
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.api.utils;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Identifies the operation that threads work for, when several operations run in the same JVM.
+ *
+ * <p>A scope is opened by the thread about to run an operation, and is inherited by all the threads
+ * it creates, directly or indirectly. Resources that are global to the JVM, such as log appenders,
+ * can use it to tell the operations apart, and register hooks to be run when the operation ends.
+ *
+ * <p>Note that threads shared by several operations, such as the I/O threads of a shared session,
+ * belong to the scope of the operation that created them.
+ */
+public final class OperationScope implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(OperationScope.class);
+
+  private static final InheritableThreadLocal<OperationScope> CURRENT =
+      new InheritableThreadLocal<>();
+
+  private static final AtomicInteger COUNTER = new AtomicInteger();
+
+  private final String id = "operation-" + COUNTER.incrementAndGet();
+
+  private final List<Runnable> closeHooks = new ArrayList<>();
+
+  private OperationScope() {}
+
+  /**
+   * Opens a new scope for the current thread and the threads it creates from now on.
+   *
+   * @return the new scope; it should be closed once the operation is done.
+   */
+  @NonNull
+  public static OperationScope open() {
+    OperationScope scope = new OperationScope();
+    CURRENT.set(scope);
+    return scope;
+  }
+
+  /** @return the scope of the current thread, or null if operations are not scoped. */
+  @Nullable
+  public static OperationScope current() {
+    return CURRENT.get();
+  }
+
+  /** @return a unique identifier for this scope. */
+  @NonNull
+  public String getId() {
+    return id;
+  }
+
+  /** Registers a hook to be run when this scope is closed. */
+  public synchronized void onClose(@NonNull Runnable hook) {
+    closeHooks.add(hook);
+  }
+
+  /** Runs the hooks registered so far, and leaves this scope if the current thread is in it. */
+  @Override
+  public void close() {
+    if (CURRENT.get() == this) {
+      CURRENT.remove();
+    }
+    List<Runnable> hooks;
+    synchronized (this) {
+      hooks = new ArrayList<>(closeHooks);
+      closeHooks.clear();
+    }
+    for (Runnable hook : hooks) {
+      try {
+        hook.run();
+      } catch (RuntimeException e) {
+        LOGGER.warn("Error closing " + id, e);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return id;
+  }
+}
@@ -15,22 +15,48 @@
  */
 package com.datastax.oss.dsbulk.workflow.commons.log;
 
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
 import com.datastax.oss.dsbulk.executor.api.reader.BulkReader;
+import com.datastax.oss.dsbulk.executor.api.result.DefaultReadResult;
 import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
 import com.datastax.oss.dsbulk.workflow.commons.statement.RangeReadBoundStatement;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.List;
 import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
 
 public class DefaultRangeReadResource implements RangeReadResource {
 
   private final RangeReadBoundStatement statement;
   private final BulkReader executor;
+  @Nullable private final TokenMap tokenMap;
 
   public DefaultRangeReadResource(
       @NonNull RangeReadBoundStatement statement, @NonNull BulkReader executor) {
+    this(statement, executor, null);
+  }
+
+  /**
+   * Creates a range read resource that can be resumed from a token, if the statement allows it.
+   *
+   * @param statement the statement to execute.
+   * @param executor the executor to use.
+   * @param tokenMap the token map to use to compute and parse tokens; if null, this resource cannot
+   *     be resumed, and is always read entirely.
+   */
+  public DefaultRangeReadResource(
+      @NonNull RangeReadBoundStatement statement,
+      @NonNull BulkReader executor,
+      @Nullable TokenMap tokenMap) {
     this.statement = statement;
     this.executor = executor;
+    this.tokenMap = tokenMap;
   }
 
   @NonNull
@@ -44,4 +70,83 @@ public class DefaultRangeReadResource implements RangeReadResource {
   public Publisher<ReadResult> read() {
     return executor.readReactive(statement);
   }
+
+  @NonNull
+  @Override
+  public Publisher<ReadResult> read(long position, @NonNull String token) {
+    if (tokenMap == null || !statement.isResumable()) {
+      return read();
+    }
+    Token start = tokenMap.parse(token);
+    if (!statement.getTokenRange().contains(start)) {
+      // not a token of this range, probably a checkpoint from another table or cluster
+      return read();
+    }
+    RangeReadBoundStatement remaining = statement.withStart(start);
+    long shift = position - 1;
+    return Flux.from(executor.readReactive(remaining)).map(result -> shift(result, shift));
+  }
+
+  @Nullable
+  @Override
+  public ByteBuffer[] getPartitionKey(@NonNull ReadResult result) {
+    if (tokenMap == null || !statement.isResumable() || !result.getRow().isPresent()) {
+      return null;
+    }
+    Row row = result.getRow().get();
+    List<CqlIdentifier> partitionKey = statement.getPartitionKey();
+    ByteBuffer[] components = new ByteBuffer[partitionKey.size()];
+    for (int i = 0; i < components.length; i++) {
+      int index = row.getColumnDefinitions().firstIndexOf(partitionKey.get(i));
+      if (index == -1) {
+        // partition key not selected, tokens cannot be computed
+        return null;
+      }
+      components[i] = row.getBytesUnsafe(index);
+      if (components[i] == null) {
+        return null;
+      }
+    }
+    return components;
+  }
+
+  @NonNull
+  @Override
+  public Token getToken(@NonNull ByteBuffer[] partitionKey) {
+    return tokenMap().newToken(partitionKey);
+  }
+
+  @Override
+  public boolean canFollow(@NonNull Token token, @Nullable Token previousToken) {
+    return tokenMap != null
+        && statement.getTokenRange().contains(token)
+        && (previousToken == null || token.compareTo(previousToken) >= 0);
+  }
+
+  @NonNull
+  @Override
+  public String formatToken(@NonNull Token token) {
+    return tokenMap().format(token);
+  }
+
+  @NonNull
+  private TokenMap tokenMap() {
+    if (tokenMap == null) {
+      throw new UnsupportedOperationException("This resource cannot be resumed");
+    }
+    return tokenMap;
+  }
+
+  @NonNull
+  private static ReadResult shift(@NonNull ReadResult result, long shift) {
+    // failed results have no position
+    if (!result.isSuccess() || !result.getRow().isPresent()) {
+      return result;
+    }
+    return new DefaultReadResult(
+        result.getStatement(),
+        result.getExecutionInfo().orElseThrow(IllegalStateException::new),
+        result.getRow().get(),
+        result.getPosition() + shift);
+  }
 }
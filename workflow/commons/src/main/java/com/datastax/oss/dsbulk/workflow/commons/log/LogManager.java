@@ -34,6 +34,7 @@ import com.datastax.oss.driver.api.core.cql.BatchStatement;
 import com.datastax.oss.driver.api.core.cql.BatchableStatement;
 import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
 import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
 import com.datastax.oss.driver.api.core.servererrors.InvalidQueryException;
 import com.datastax.oss.driver.api.core.servererrors.QueryExecutionException;
 import com.datastax.oss.driver.api.core.servererrors.ServerError;
@@ -57,7 +58,10 @@ import com.datastax.oss.dsbulk.workflow.commons.log.checkpoint.ReplayStrategy;
 import com.datastax.oss.dsbulk.workflow.commons.schema.InvalidMappingException;
 import com.datastax.oss.dsbulk.workflow.commons.schema.ReadResultMapper;
 import com.datastax.oss.dsbulk.workflow.commons.schema.RecordMapper;
+import com.datastax.oss.dsbulk.workflow.commons.schema.StatementDeduplicator;
 import com.datastax.oss.dsbulk.workflow.commons.settings.LogSettings;
+import com.datastax.oss.dsbulk.workflow.commons.statement.AggregatedCounterStatement;
+import com.datastax.oss.dsbulk.workflow.commons.statement.CollapsedStatement;
 import com.datastax.oss.dsbulk.workflow.commons.statement.MappedStatement;
 import com.datastax.oss.dsbulk.workflow.commons.statement.RangeReadStatement;
 import com.datastax.oss.dsbulk.workflow.commons.statement.UnmappableStatement;
@@ -68,11 +72,15 @@ import edu.umd.cs.findbugs.annotations.Nullable;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.Set;
 import java.util.TreeMap;
@@ -80,7 +88,9 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
@@ -141,6 +151,7 @@ public class LogManager implements AutoCloseable {
   private FluxSink<ErrorRecord> failedRecordSink;
   private FluxSink<ErrorRecord> unmappableRecordSink;
   private FluxSink<UnmappableStatement> unmappableStatementSink;
+  private FluxSink<CollapsedStatement> collapsedStatementSink;
   private FluxSink<WriteResult> failedWriteSink;
   private FluxSink<WriteResult> failedCASWriteSink;
   private FluxSink<ReadResult> failedReadSink;
@@ -181,6 +192,7 @@ public class LogManager implements AutoCloseable {
     failedRecordSink = newFailedRecordSink();
     unmappableRecordSink = newUnmappableRecordSink();
     unmappableStatementSink = newUnmappableStatementSink();
+    collapsedStatementSink = newCollapsedStatementSink();
     failedWriteSink = newFailedWriteResultSink();
     failedCASWriteSink = newFailedCASWriteSink();
     failedReadSink = newFailedReadResultSink();
@@ -215,6 +227,7 @@ public class LogManager implements AutoCloseable {
     failedRecordSink.complete();
     unmappableRecordSink.complete();
     unmappableStatementSink.complete();
+    collapsedStatementSink.complete();
     failedWriteSink.complete();
     failedCASWriteSink.complete();
     failedReadSink.complete();
@@ -281,6 +294,7 @@ public class LogManager implements AutoCloseable {
             .doOnTerminate(failedRecordSink::complete)
             .doOnTerminate(unmappableRecordSink::complete)
             .doOnTerminate(unmappableStatementSink::complete)
+            .doOnTerminate(collapsedStatementSink::complete)
             .doOnTerminate(failedWriteSink::complete)
             .doOnTerminate(failedReadSink::complete)
             .doOnTerminate(failedCASWriteSink::complete)
@@ -323,6 +337,31 @@ public class LogManager implements AutoCloseable {
             1);
   }
 
+  /**
+   * Handler for collapsed statements produced by the {@linkplain StatementDeduplicator statement
+   * deduplicator}.
+   *
+   * <p>Used only in load workflows.
+   *
+   * <p>Removes collapsed statements from the main flow and forwards them to the collapsed statement
+   * processor for further processing. Collapsed statements are not errors.
+   *
+   * @return a handler for collapsed statements.
+   */
+  @NonNull
+  public Function<Flux<BatchableStatement<?>>, Flux<BatchableStatement<?>>>
+      newCollapsedStatementsHandler() {
+    return upstream ->
+        upstream.filter(
+            stmt -> {
+              if (stmt instanceof CollapsedStatement) {
+                collapsedStatementSink.next((CollapsedStatement) stmt);
+                return false;
+              }
+              return true;
+            });
+  }
+
   /**
    * Handler for failed records. A failed record is a record that the connector could not read or
    * write.
@@ -404,10 +443,10 @@ public class LogManager implements AutoCloseable {
                   failedWriteSink.next(r);
                   assert r.getError().isPresent();
                   Throwable cause = r.getError().get().getCause();
-                  return maybeTriggerOnError(cause, errors.addAndGet(r.getBatchSize()));
+                  return maybeTriggerOnError(cause, errors.addAndGet(countRecords(r)));
                 } else if (!r.wasApplied()) {
                   failedCASWriteSink.next(r);
-                  return maybeTriggerOnError(null, errors.addAndGet(r.getBatchSize()));
+                  return maybeTriggerOnError(null, errors.addAndGet(countRecords(r)));
                 } else {
                   return Flux.just(r);
                 }
@@ -544,8 +583,17 @@ public class LogManager implements AutoCloseable {
                 return Flux.empty();
               }
               replayStrategy.reset(initial);
-              return Flux.from(resource.read())
+              // if possible, resume reading right after the last record that won't be replayed;
+              // records before the first one to replay can still be emitted, and are filtered out
+              Entry<Long, String> resumePoint = initial.getResumePoint();
+              Publisher<Record> records =
+                  resumePoint == null
+                      ? resource.read()
+                      : resource.read(
+                          resumePoint.getKey() + 1, Long.parseLong(resumePoint.getValue()));
+              return Flux.from(records)
                   .doOnComplete(() -> initial.setComplete(true))
+                  .doOnNext(r -> initial.addResumePoint(r.getPosition(), r.getEndOffset()))
                   .filter(record -> replayStrategy.shouldReplay(initial, record.getPosition()))
                   // increment even for failed records since they will be considered
                   // processed and will increment the position manager.
@@ -565,9 +613,18 @@ public class LogManager implements AutoCloseable {
                 return Flux.empty();
               }
               replayStrategy.reset(initial);
+              // if possible, resume reading right after the last partition that was entirely
+              // read; rows before the first one to replay can still be emitted, and are filtered
+              // out
+              Entry<Long, String> resumePoint = initial.getResumePoint();
+              Publisher<ReadResult> results =
+                  resumePoint == null
+                      ? resource.read()
+                      : resource.read(resumePoint.getKey() + 1, resumePoint.getValue());
               AtomicBoolean failed = new AtomicBoolean();
-              return Flux.from(resource.read())
+              return Flux.from(results)
                   .doOnComplete(() -> initial.setComplete(!failed.get()))
+                  .doOnNext(new PartitionResumePointTracker(resource, initial))
                   .filter(record -> replayStrategy.shouldReplay(initial, record.getPosition()))
                   .doOnNext(
                       r -> {
@@ -583,11 +640,35 @@ public class LogManager implements AutoCloseable {
             });
   }
 
+  /**
+   * Returns the number of records that the given write result's statement was mapped from.
+   *
+   * <p>This is usually the result's batch size, unless the statement combines several records,
+   * which happens when counter updates are aggregated.
+   */
+  private static int countRecords(@NonNull WriteResult result) {
+    Statement<?> statement = result.getStatement();
+    if (statement instanceof AggregatedCounterStatement) {
+      return ((AggregatedCounterStatement) statement).getRecords().size();
+    } else if (statement instanceof BatchStatement) {
+      int count = 0;
+      for (BatchableStatement<?> child : (BatchStatement) statement) {
+        count +=
+            child instanceof AggregatedCounterStatement
+                ? ((AggregatedCounterStatement) child).getRecords().size()
+                : 1;
+      }
+      return count;
+    }
+    return result.getBatchSize();
+  }
+
   /**
    * Maps statements into records.
    *
    * <p>If the statement is a batch, then each of its children is mapped individually, otherwise the
-   * statement is mapped to a record in a one-to-one fashion.
+   * statement is mapped to a record in a one-to-one fashion. Aggregated counter updates are mapped
+   * to all the records they combine.
    *
    * <p>Note that all non-batch statements are required to be of type {@link MappedStatement}.
    *
@@ -604,8 +685,11 @@ public class LogManager implements AutoCloseable {
                 return Flux.just(statement);
               }
             })
-        .cast(MappedStatement.class)
-        .map(MappedStatement::getRecord);
+        .flatMapIterable(
+            statement ->
+                statement instanceof AggregatedCounterStatement
+                    ? ((AggregatedCounterStatement) statement).getRecords()
+                    : Collections.singletonList(((MappedStatement) statement).getRecord()));
   }
 
   /**
@@ -683,6 +767,28 @@ public class LogManager implements AutoCloseable {
     return processor.sink(OverflowStrategy.BUFFER);
   }
 
+  /**
+   * A sink for collapsed statements produced by the {@linkplain StatementDeduplicator statement
+   * deduplicator}.
+   *
+   * <p>Used only in the load workflow.
+   *
+   * <p>Extracts the statement's record, then forwards the record's position to the position manager
+   * as a processed record, since the row it was meant to write is written by another record.
+   *
+   * @return A processor for collapsed statements.
+   */
+  @NonNull
+  private FluxSink<CollapsedStatement> newCollapsedStatementSink() {
+    UnicastProcessor<CollapsedStatement> processor = UnicastProcessor.create();
+    Flux<Record> flux = processor.transform(this::extractRecordFromMappedStatement);
+    if (checkpointEnabled) {
+      flux = flux.transform(r -> recordCheckpoint(r, true));
+    }
+    flux.subscribe(v -> {}, this::onSinkError);
+    return processor.sink(OverflowStrategy.BUFFER);
+  }
+
   /**
    * A sink for failed write results.
    *
@@ -1097,4 +1203,58 @@ public class LogManager implements AutoCloseable {
       writer.flush();
     }
   }
+
+  /**
+   * Records resume points for a range read, each time it moves to a new partition: when this
+   * happens, all the rows of the previous partition were read, the last one being at the previous
+   * position. Rows of a token range are returned in token order; if a row does not belong to the
+   * range, or comes out of order, e.g. because the query does not restrict tokens as expected,
+   * resuming from a token could skip rows: all resume points are then discarded, and no more are
+   * recorded.
+   */
+  private static class PartitionResumePointTracker implements Consumer<ReadResult> {
+
+    private final RangeReadResource resource;
+    private final Checkpoint checkpoint;
+
+    private ByteBuffer[] lastPartitionKey;
+    private Token lastToken;
+    private long lastPosition;
+    private boolean ordered = true;
+
+    private PartitionResumePointTracker(
+        @NonNull RangeReadResource resource, @NonNull Checkpoint checkpoint) {
+      this.resource = resource;
+      this.checkpoint = checkpoint;
+    }
+
+    @Override
+    public void accept(ReadResult result) {
+      if (!ordered || !result.isSuccess()) {
+        return;
+      }
+      ByteBuffer[] partitionKey = resource.getPartitionKey(result);
+      if (partitionKey == null) {
+        return;
+      }
+      // rows of the same partition are contiguous: only compute tokens when the partition changes
+      if (!Arrays.equals(partitionKey, lastPartitionKey)) {
+        Token token = resource.getToken(partitionKey);
+        if (!resource.canFollow(token, lastToken)) {
+          ordered = false;
+          checkpoint.clearResumePoints();
+          return;
+        }
+        // distinct partitions may share a token: resuming between them would skip rows
+        if (lastToken != null
+            && !lastToken.equals(token)
+            && checkpoint.acceptsResumePoint(lastPosition)) {
+          checkpoint.addResumePoint(lastPosition, resource.formatToken(lastToken));
+        }
+        lastPartitionKey = partitionKey;
+        lastToken = token;
+      }
+      lastPosition = result.getPosition();
+    }
+  }
 }
@@ -15,9 +15,12 @@
  */
 package com.datastax.oss.dsbulk.workflow.commons.log;
 
+import com.datastax.oss.driver.api.core.metadata.token.Token;
 import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import org.reactivestreams.Publisher;
 
 /**
@@ -31,4 +34,65 @@ public interface RangeReadResource {
 
   @NonNull
   Publisher<ReadResult> read();
+
+  /**
+   * Reads this resource starting right after the given token, that is, skipping all the rows
+   * belonging to partitions whose token is lesser than or equal to it.
+   *
+   * <p>This is used to resume an interrupted read: the given token must have been obtained with
+   * {@link #formatToken(Token)}, and all the rows up to and including its partition must have been
+   * read before, the last one being at {@code position - 1}. Emitted results are numbered starting
+   * from {@code position}, so that they keep the positions they had in the initial read.
+   *
+   * <p>The default implementation ignores its arguments and reads the entire resource.
+   *
+   * @param position the position of the first result to emit.
+   * @param token the last token to skip, as returned by {@link #formatToken(Token)}.
+   */
+  @NonNull
+  default Publisher<ReadResult> read(long position, @NonNull String token) {
+    return read();
+  }
+
+  /**
+   * Returns the partition key of the given result, as bytes; or null if this resource cannot be
+   * resumed from it. Consecutive results of the same partition have equal partition keys, so that
+   * callers only need to compute a token when the partition key changes.
+   *
+   * <p>The default implementation returns null.
+   */
+  @Nullable
+  default ByteBuffer[] getPartitionKey(@NonNull ReadResult result) {
+    return null;
+  }
+
+  /**
+   * Returns the token of the given partition key, as returned by {@link
+   * #getPartitionKey(ReadResult)}.
+   */
+  @NonNull
+  default Token getToken(@NonNull ByteBuffer[] partitionKey) {
+    throw new UnsupportedOperationException("This resource cannot be resumed");
+  }
+
+  /**
+   * Returns whether a result with the given token can follow a result with the previous token when
+   * this resource is read, that is, whether the token belongs to this resource, and is not lesser
+   * than the previous one. When this is not the case, rows are not returned in token order, and
+   * this resource cannot be safely resumed from a token.
+   *
+   * <p>The default implementation returns false.
+   *
+   * @param token a token returned by {@link #getToken(ByteBuffer[])}.
+   * @param previousToken the token of the previous result, or null if there is none.
+   */
+  default boolean canFollow(@NonNull Token token, @Nullable Token previousToken) {
+    return false;
+  }
+
+  /** Formats the given token in a form suitable for {@link #read(long, String)}. */
+  @NonNull
+  default String formatToken(@NonNull Token token) {
+    throw new UnsupportedOperationException("This resource cannot be resumed");
+  }
 }
@@ -15,18 +15,44 @@
  */
 package com.datastax.oss.dsbulk.workflow.commons.log.checkpoint;
 
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import net.jcip.annotations.NotThreadSafe;
 
 /**
  * A checkpoint holds information about a resource that can be used to resume a previous run.
  *
+ * <p>Besides the positions of the records consumed so far, a checkpoint may also hold resume
+ * points: pairs of a record position and a marker telling where that record ends in the resource.
+ * The marker is opaque to the checkpoint: for files, it is the byte offset where the record ends;
+ * for token range reads, it is the last token that was fully read. When resuming, the resource can
+ * then be read starting from the resume point that immediately precedes the first record to replay,
+ * instead of from the beginning. Resume points are sampled every {@value #RESUME_POINT_INTERVAL}
+ * records, and their number is bounded: the most recent ones are kept, older ones are progressively
+ * thinned out.
+ *
  * <p>Checkpoint instances are not thread-safe. They should be used by a single thread at a time,
  * then be merged together to get a global result.
  */
 @NotThreadSafe
 public class Checkpoint {
 
+  @VisibleForTesting static final long RESUME_POINT_INTERVAL = 1000;
+
+  @VisibleForTesting static final int MAX_RESUME_POINTS = 128;
+
   @NonNull
   public static Checkpoint parse(@NonNull String line) {
     String[] tokens = line.split(";", -1);
@@ -34,13 +60,23 @@ public class Checkpoint {
     long produced = Long.parseLong(tokens[1]);
     RangeSet consumedSuccessful = RangeSet.parse(tokens[2]);
     RangeSet consumedFailed = RangeSet.parse(tokens[3]);
-    return new Checkpoint(produced, consumedSuccessful, consumedFailed, complete);
+    Checkpoint checkpoint = new Checkpoint(produced, consumedSuccessful, consumedFailed, complete);
+    // resume points are optional, for compatibility with checkpoints written by older versions
+    if (tokens.length > 4 && !tokens[4].isEmpty()) {
+      for (String resumePoint : tokens[4].split(",")) {
+        int i = resumePoint.indexOf(':');
+        checkpoint.resumePoints.put(
+            Long.parseLong(resumePoint.substring(0, i)), resumePoint.substring(i + 1));
+      }
+    }
+    return checkpoint;
   }
 
   private long produced;
   private final RangeSet consumedSuccessful;
   private final RangeSet consumedFailed;
   private boolean complete;
+  private final TreeMap<Long, String> resumePoints = new TreeMap<>();
 
   public Checkpoint() {
     this(0, new RangeSet(), new RangeSet(), false);
@@ -93,6 +129,81 @@ public class Checkpoint {
     this.complete = complete;
   }
 
+  /**
+   * Records that the record at the given position ends at the given byte offset, if at least
+   * {@value #RESUME_POINT_INTERVAL} records were produced since the last recorded resume point.
+   *
+   * <p>This is meant to be called for each record produced by the resource, in order.
+   *
+   * @param position the record position.
+   * @param endOffset the byte offset where the record ends; negative if unknown, in which case this
+   *     method does nothing.
+   */
+  public void addResumePoint(long position, long endOffset) {
+    if (endOffset >= 0) {
+      addResumePoint(position, Long.toString(endOffset));
+    }
+  }
+
+  /**
+   * Records that the record at the given position ends at the given marker, if at least {@value
+   * #RESUME_POINT_INTERVAL} records were produced since the last recorded resume point.
+   *
+   * <p>This is meant to be called in order, as records are produced by the resource.
+   *
+   * @param position the record position.
+   * @param marker where the record ends in the resource; must not contain any of the characters
+   *     {@code ;,:}.
+   */
+  public void addResumePoint(long position, @NonNull String marker) {
+    if (!acceptsResumePoint(position)) {
+      return;
+    }
+    resumePoints.put(position, marker);
+    if (resumePoints.size() > MAX_RESUME_POINTS) {
+      // keep the most recent half intact, and remove every other entry from the older half
+      Iterator<Long> it = resumePoints.keySet().iterator();
+      for (int i = 0; i < MAX_RESUME_POINTS / 2; i++) {
+        it.next();
+        if (i % 2 == 1) {
+          it.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns whether {@link #addResumePoint(long, String)} would record a resume point at the given
+   * position, so that callers can avoid computing markers that would be discarded.
+   */
+  public boolean acceptsResumePoint(long position) {
+    return resumePoints.isEmpty() || position - resumePoints.lastKey() >= RESUME_POINT_INTERVAL;
+  }
+
+  /**
+   * Returns the resume point to use when replaying the resource, that is, the last known record
+   * boundary before the first record that was not consumed; or null if there is no such resume
+   * point.
+   *
+   * <p>The returned entry maps the position of the last record to skip to the marker where it ends.
+   * This method should be called after the checkpoint was {@linkplain
+   * ReplayStrategy#reset(Checkpoint) reset}.
+   */
+  @Nullable
+  public Entry<Long, String> getResumePoint() {
+    return resumePoints.floorEntry(consumedPrefix(consumedSuccessful, consumedFailed));
+  }
+
+  /** Removes all resume points, so that the resource will be read again from its beginning. */
+  public void clearResumePoints() {
+    resumePoints.clear();
+  }
+
+  @VisibleForTesting
+  NavigableMap<Long, String> getResumePoints() {
+    return resumePoints;
+  }
+
   public void merge(Checkpoint other) {
     produced += other.produced;
     // Note: we don't need to care about duplicate positions appearing both in consumedSuccessful
@@ -100,6 +211,7 @@ public class Checkpoint {
     // already present in any of the range sets.
     consumedSuccessful.merge(other.consumedSuccessful);
     consumedFailed.merge(other.consumedFailed);
+    resumePoints.putAll(other.resumePoints);
     complete |= other.complete;
   }
 
@@ -123,7 +235,10 @@ public class Checkpoint {
     if (!consumedSuccessful.equals(that.consumedSuccessful)) {
       return false;
     }
-    return consumedFailed.equals(that.consumedFailed);
+    if (!consumedFailed.equals(that.consumedFailed)) {
+      return false;
+    }
+    return resumePoints.equals(that.resumePoints);
   }
 
   @Override
@@ -131,6 +246,7 @@ public class Checkpoint {
     int result = (int) (produced ^ (produced >>> 32));
     result = 31 * result + consumedSuccessful.hashCode();
     result = 31 * result + consumedFailed.hashCode();
+    result = 31 * result + resumePoints.hashCode();
     result = 31 * result + (complete ? 1 : 0);
     return result;
   }
@@ -144,6 +260,8 @@ public class Checkpoint {
         + consumedSuccessful
         + ", consumedFailed="
         + consumedFailed
+        + ", resumePoints="
+        + resumePoints
         + ", complete="
         + complete
         + '}';
@@ -151,12 +269,52 @@ public class Checkpoint {
 
   @NonNull
   public String asCsv() {
-    return (complete ? 1 : 0)
-        + ";"
-        + produced
-        + ";"
-        + consumedSuccessful.asText()
-        + ";"
-        + consumedFailed.asText();
+    String csv =
+        (complete ? 1 : 0)
+            + ";"
+            + produced
+            + ";"
+            + consumedSuccessful.asText()
+            + ";"
+            + consumedFailed.asText();
+    if (resumePoints.isEmpty()) {
+      return csv;
+    }
+    // Only keep the resume points that the next run could use: the one preceding the first
+    // record not consumed, and the one preceding the first record not consumed successfully, in
+    // case the next run replays failed records.
+    SortedSet<Entry<Long, String>> kept = new TreeSet<>(Entry.comparingByKey());
+    Stream.of(
+            resumePoints.floorEntry(consumedPrefix(consumedSuccessful, consumedFailed)),
+            resumePoints.floorEntry(consumedPrefix(consumedSuccessful)))
+        .filter(Objects::nonNull)
+        .forEach(kept::add);
+    return kept.isEmpty()
+        ? csv
+        : csv
+            + ";"
+            + kept.stream()
+                .map(e -> e.getKey() + ":" + e.getValue())
+                .collect(Collectors.joining(","));
+  }
+
+  /**
+   * Returns the highest position p such that all positions in [1, p] are contained in at least one
+   * of the given range sets, or zero if position 1 is not contained in any of them.
+   */
+  private static long consumedPrefix(RangeSet... rangeSets) {
+    List<Range> ranges =
+        Stream.of(rangeSets)
+            .flatMap(RangeSet::stream)
+            .sorted(Comparator.comparingLong(Range::getLower))
+            .collect(Collectors.toList());
+    long prefix = 0;
+    for (Range range : ranges) {
+      if (range.getLower() > prefix + 1) {
+        break;
+      }
+      prefix = Math.max(prefix, range.getUpper());
+    }
+    return prefix;
   }
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches heap occupancy and garbage collection overhead through the {@code memory/*} gauges, and
+ * tells workflows by how much they should scale down their in-flight limits.
+ *
+ * <p>The heap is considered under pressure when, at a given sample, either a garbage collection ran
+ * since the previous sample and the heap is still occupied above the heap pressure threshold right
+ * after it, or the fraction of time spent in garbage collection since the previous sample exceeds
+ * the GC overhead threshold. Heap occupancy is read from the {@code memory/used_after_gc} gauge,
+ * since the current heap usage also counts garbage that the next collection will reclaim; if the
+ * JVM does not report it, the current heap usage is used instead. Each sample under pressure halves
+ * the current scale, down to {@link #MIN_SCALE}; once heap occupancy and GC overhead are both
+ * comfortably below their thresholds, each sample doubles it back, up to 1.
+ *
+ * <p>The current scale is also exposed as a gauge named {@code memory/pressure_scale}.
+ */
+public class HeapPressureGovernor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(HeapPressureGovernor.class);
+
+  /** The lowest scale that can be applied to in-flight limits. */
+  public static final double MIN_SCALE = 1d / 64;
+
+  /** Pressure is considered relieved below this fraction of each threshold. */
+  private static final double RELIEF_RATIO = 0.9;
+
+  private final MetricRegistry registry;
+  private final double heapPressureThreshold;
+  private final double gcOverheadThreshold;
+
+  private volatile double scale = 1;
+
+  private long lastSampleNanos = -1;
+  private long lastGcCount;
+  private long lastGcTime;
+
+  HeapPressureGovernor(
+      @NonNull MetricRegistry registry, double heapPressureThreshold, double gcOverheadThreshold) {
+    this.registry = registry;
+    this.heapPressureThreshold = heapPressureThreshold;
+    this.gcOverheadThreshold = gcOverheadThreshold;
+    registry.gauge("memory/pressure_scale", () -> (Gauge<Double>) this::getScale);
+  }
+
+  /**
+   * Returns the factor by which in-flight limits should currently be multiplied: 1 when the heap is
+   * not under pressure, and down to {@link #MIN_SCALE} otherwise.
+   */
+  public double getScale() {
+    return scale;
+  }
+
+  /** Returns true if in-flight limits should currently be lowered. */
+  public boolean isUnderPressure() {
+    return scale < 1;
+  }
+
+  /** Scales the given limit by the current scale; the result is never lower than 1. */
+  public int scale(int limit) {
+    return Math.max(1, (int) (limit * scale));
+  }
+
+  /**
+   * Samples heap occupancy and GC overhead and updates the current scale. This method is meant to
+   * be invoked periodically, typically every second.
+   */
+  public void sample() {
+    sample(System.nanoTime());
+  }
+
+  synchronized void sample(long nowNanos) {
+    long used = getGauge("memory/used_after_gc");
+    if (used < 0) {
+      used = getGauge("memory/used");
+    }
+    long available = getGauge("memory/available");
+    long gcCount = getGauge("memory/gc_count");
+    long gcTime = getGauge("memory/gc_time");
+    if (lastSampleNanos != -1) {
+      long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(nowNanos - lastSampleNanos);
+      double occupancy = available <= 0 ? 0 : (double) used / available;
+      double overhead = elapsedMillis <= 0 ? 0 : (double) (gcTime - lastGcTime) / elapsedMillis;
+      boolean collected = gcCount > lastGcCount;
+      boolean heapPressure =
+          heapPressureThreshold > 0 && collected && occupancy >= heapPressureThreshold;
+      boolean gcPressure = gcOverheadThreshold > 0 && overhead >= gcOverheadThreshold;
+      if (heapPressure || gcPressure) {
+        lower(occupancy, overhead);
+      } else if ((heapPressureThreshold <= 0 || occupancy < heapPressureThreshold * RELIEF_RATIO)
+          && (gcOverheadThreshold <= 0 || overhead < gcOverheadThreshold * RELIEF_RATIO)) {
+        raise();
+      }
+    }
+    lastSampleNanos = nowNanos;
+    lastGcCount = gcCount;
+    lastGcTime = gcTime;
+  }
+
+  private void lower(double occupancy, double overhead) {
+    double current = scale;
+    if (current > MIN_SCALE) {
+      scale = Math.max(MIN_SCALE, current / 2);
+      if (current == 1) {
+        LOGGER.warn(
+            "Heap under pressure (heap occupancy: {}%, time spent in GC: {}%), "
+                + "lowering in-flight limits until it is relieved.",
+            Math.round(occupancy * 100), Math.round(overhead * 100));
+      } else {
+        LOGGER.debug("Heap still under pressure, scaling in-flight limits by {}", scale);
+      }
+    }
+  }
+
+  private void raise() {
+    double current = scale;
+    if (current < 1) {
+      scale = Math.min(1, current * 2);
+      if (scale == 1) {
+        LOGGER.info("Heap pressure relieved, in-flight limits restored.");
+      } else {
+        LOGGER.debug("Heap pressure decreasing, scaling in-flight limits by {}", scale);
+      }
+    }
+  }
+
+  private long getGauge(String name) {
+    Gauge<?> gauge = registry.getGauges().get(name);
+    return gauge == null ? 0 : ((Number) gauge.getValue()).longValue();
+  }
+}
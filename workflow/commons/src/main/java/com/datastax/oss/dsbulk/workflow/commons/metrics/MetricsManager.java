@@ -43,11 +43,22 @@ import com.datastax.oss.dsbulk.workflow.commons.metrics.jmx.BulkLoaderObjectName
 import com.datastax.oss.dsbulk.workflow.commons.metrics.prometheus.PrometheusManager;
 import com.datastax.oss.dsbulk.workflow.commons.settings.LogSettings.Verbosity;
 import com.datastax.oss.dsbulk.workflow.commons.settings.RowType;
+import com.datastax.oss.dsbulk.workflow.commons.statement.CollapsedStatement;
 import com.datastax.oss.dsbulk.workflow.commons.statement.UnmappableStatement;
+import com.sun.management.GcInfo;
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -86,10 +97,12 @@ public class MetricsManager implements AutoCloseable {
 
   private Counter totalItems;
   private Counter failedItems;
+  private Counter collapsedItems;
   private Histogram batchSize;
   private RecordReporter recordReporter;
   private BatchReporter batchesReporter;
   private MemoryReporter memoryReporter;
+  private StageReporter stagesReporter;
   private WritesReportingExecutionListener writesReporter;
   private ReadsReportingExecutionListener readsReporter;
   private JmxReporter jmxReporter;
@@ -100,6 +113,8 @@ public class MetricsManager implements AutoCloseable {
   private boolean success;
 
   private final AtomicBoolean running = new AtomicBoolean(false);
+  private final Map<String, StageMonitor> stages = new LinkedHashMap<>();
+  private final boolean stageMetrics;
 
   public MetricsManager(
       MetricRegistry registry,
@@ -111,6 +126,7 @@ public class MetricsManager implements AutoCloseable {
       long expectedWrites,
       long expectedReads,
       boolean trackBytes,
+      boolean stageMetrics,
       boolean jmx,
       boolean csv,
       boolean console,
@@ -133,6 +149,7 @@ public class MetricsManager implements AutoCloseable {
     this.durationUnit = durationUnit;
     this.expectedWrites = expectedWrites;
     this.expectedReads = expectedReads;
+    this.stageMetrics = stageMetrics;
     this.jmx = jmx;
     this.csv = csv;
     this.prometheus = prometheus;
@@ -147,6 +164,7 @@ public class MetricsManager implements AutoCloseable {
   public void init(long total, int errors) {
     totalItems = registry.counter("records/total");
     failedItems = registry.counter("records/failed");
+    collapsedItems = registry.counter("records/collapsed");
     totalItems.inc(total);
     failedItems.inc(errors);
     // don't increment executor listener counters, we want them to reflect what was actually read or
@@ -192,6 +210,9 @@ public class MetricsManager implements AutoCloseable {
       }
       startMemoryReporter();
       startRecordReporter();
+      if (!stages.isEmpty()) {
+        startStagesReporter();
+      }
       if (monitorWrites) {
         if (batchingEnabled) {
           startBatchesReporter();
@@ -237,6 +258,40 @@ public class MetricsManager implements AutoCloseable {
               return runtime.maxMemory() / bytesPerMeg;
             });
 
+    registry.gauge(
+        "memory/used_after_gc",
+        () -> {
+          Set<String> heapPools = new HashSet<>();
+          for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+              heapPools.add(pool.getName());
+            }
+          }
+          return () -> {
+            // Heap usage right after the most recent collection, i.e. without garbage; -1 if no
+            // collection occurred yet, or if the JVM does not report it.
+            GcInfo last = null;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+              if (gc instanceof com.sun.management.GarbageCollectorMXBean) {
+                GcInfo info = ((com.sun.management.GarbageCollectorMXBean) gc).getLastGcInfo();
+                if (info != null && (last == null || info.getEndTime() > last.getEndTime())) {
+                  last = info;
+                }
+              }
+            }
+            if (last == null) {
+              return -1L;
+            }
+            long used = 0;
+            for (Map.Entry<String, MemoryUsage> entry : last.getMemoryUsageAfterGc().entrySet()) {
+              if (heapPools.contains(entry.getKey())) {
+                used += entry.getValue().getUsed();
+              }
+            }
+            return used / bytesPerMeg;
+          };
+        });
+
     registry.gauge(
         "memory/gc_count",
         () ->
@@ -314,6 +369,15 @@ public class MetricsManager implements AutoCloseable {
     }
   }
 
+  private void startStagesReporter() {
+    stagesReporter =
+        new StageReporter(registry, logSink, scheduler, new ArrayList<>(stages.keySet()));
+    // periodic reporting is only enabled in verbose mode
+    if (verbosity.compareTo(Verbosity.normal) > 0) {
+      stagesReporter.start(reportInterval.getSeconds(), SECONDS);
+    }
+  }
+
   private void startWritesReporter() {
     AbstractMetricsReportingExecutionListenerBuilder<WritesReportingExecutionListener> builder =
         WritesReportingExecutionListener.builder()
@@ -419,6 +483,9 @@ public class MetricsManager implements AutoCloseable {
     if (memoryReporter != null) {
       memoryReporter.close();
     }
+    if (stagesReporter != null) {
+      stagesReporter.close();
+    }
     if (writesReporter != null) {
       writesReporter.close();
     }
@@ -435,6 +502,7 @@ public class MetricsManager implements AutoCloseable {
     if (recordReporter != null
         || batchesReporter != null
         || memoryReporter != null
+        || stagesReporter != null
         || writesReporter != null
         || readsReporter != null) {
       LOGGER.info(METRICS_MARKER, "Final stats:");
@@ -447,6 +515,9 @@ public class MetricsManager implements AutoCloseable {
       if (memoryReporter != null) {
         memoryReporter.report();
       }
+      if (stagesReporter != null) {
+        stagesReporter.report();
+      }
       if (writesReporter != null) {
         writesReporter.report();
       }
@@ -507,6 +578,28 @@ public class MetricsManager implements AutoCloseable {
             });
   }
 
+  /**
+   * Returns a new monitor that will increment the records/collapsed metric when a record was
+   * superseded by another record writing to the same row (that is, the resulting statement is an
+   * instance of {@link CollapsedStatement}).
+   *
+   * <p>This monitor is suitable for use in the following cases:
+   *
+   * <ul>
+   *   <li>when loading with deduplication enabled, to count records that won't be written.
+   * </ul>
+   */
+  public Function<Flux<BatchableStatement<?>>, Flux<BatchableStatement<?>>>
+      newCollapsedStatementsMonitor() {
+    return upstream ->
+        upstream.doOnNext(
+            item -> {
+              if (item instanceof CollapsedStatement) {
+                collapsedItems.inc();
+              }
+            });
+  }
+
   /**
    * Returns a new monitor that will increment the records/failed metric when a record cannot be
    * written to or read from the database (that is, when {@link Result#isSuccess()} returns false).
@@ -554,7 +647,48 @@ public class MetricsManager implements AutoCloseable {
             });
   }
 
+  /**
+   * Returns the monitor for the given pipeline stage, creating it if necessary. Stages are reported
+   * in the order they were first requested, so workflows should request them in pipeline order, and
+   * before the metrics manager is {@linkplain #start() started}.
+   *
+   * <p>If stage metrics are disabled, returns {@link StageMonitor#DISABLED}, and the stage is not
+   * reported.
+   */
+  public StageMonitor newStageMonitor(String stage) {
+    if (!stageMetrics) {
+      return StageMonitor.DISABLED;
+    }
+    return stages.computeIfAbsent(stage, name -> new StageMonitor(registry, name));
+  }
+
+  /**
+   * Creates a governor watching the memory gauges of this manager; see {@link
+   * HeapPressureGovernor}. The manager must have been {@linkplain #init(long, int) initialized}.
+   *
+   * @param heapPressureThreshold the fraction of the maximum heap size above which the heap is
+   *     considered under pressure, or zero to ignore heap occupancy.
+   * @param gcOverheadThreshold the fraction of time spent in garbage collection above which the
+   *     heap is considered under pressure, or zero to ignore garbage collection overhead.
+   */
+  public HeapPressureGovernor newHeapPressureGovernor(
+      double heapPressureThreshold, double gcOverheadThreshold) {
+    return new HeapPressureGovernor(registry, heapPressureThreshold, gcOverheadThreshold);
+  }
+
   public MetricsCollectingExecutionListener getExecutionListener() {
     return listener;
   }
+
+  /**
+   * Returns a point-in-time snapshot of the counts of all counters, meters and timers in the
+   * registry, keyed by metric name, in alphabetical order.
+   */
+  public Map<String, Long> getProgress() {
+    Map<String, Long> progress = new TreeMap<>();
+    registry.getCounters().forEach((name, counter) -> progress.put(name, counter.getCount()));
+    registry.getMeters().forEach((name, meter) -> progress.put(name, meter.getCount()));
+    registry.getTimers().forEach((name, timer) -> progress.put(name, timer.getCount()));
+    return progress;
+  }
 }
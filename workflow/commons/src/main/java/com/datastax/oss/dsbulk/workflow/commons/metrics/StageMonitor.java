@@ -0,0 +1,335 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Operators;
+import reactor.util.context.Context;
+
+/**
+ * Instruments one stage of a workflow pipeline, e.g. reading, mapping, batching or writing.
+ *
+ * <p>Each stage exposes two metrics: a timer named {@code stages/<stage>/time}, that records the
+ * time spent by items in the stage, and a gauge named {@code stages/<stage>/pending}, that reports
+ * the number of items that entered the stage but did not leave it yet. Depending on how the stage
+ * is instrumented, either or both of them may stay empty.
+ *
+ * <p>To keep the overhead low, the timer only records one item in {@link #SAMPLE_RATE}; items are
+ * chosen at random, so that every thread samples independently of the others.
+ *
+ * <p>Stage metrics are disabled by default; when they are, workflows get the {@link #DISABLED}
+ * monitor, which leaves pipelines untouched.
+ */
+public class StageMonitor {
+
+  /** The stage timer records one item in this many. */
+  public static final int SAMPLE_RATE = 64;
+
+  /** A monitor that instruments nothing, and does not register any metric. */
+  public static final StageMonitor DISABLED = new StageMonitor();
+
+  /** The maximum number of items that can be timed at once by {@link #enterTimed()}. */
+  private static final int MAX_TIMED_ITEMS = 1024;
+
+  private final boolean enabled;
+  private final Timer timer;
+  private final LongAdder pending = new LongAdder();
+
+  /** The start times of the sampled items, keyed by {@link IdentityKey}. */
+  private final Map<IdentityKey, Long> startTimes = new ConcurrentHashMap<>();
+
+  StageMonitor(@NonNull MetricRegistry registry, @NonNull String stage) {
+    enabled = true;
+    timer = registry.timer("stages/" + stage + "/time");
+    registry.gauge("stages/" + stage + "/pending", () -> (Gauge<Long>) pending::sum);
+  }
+
+  private StageMonitor() {
+    enabled = false;
+    timer = new Timer();
+  }
+
+  /** Returns the stage timer. */
+  @NonNull
+  public Timer getTimer() {
+    return timer;
+  }
+
+  /** Returns the number of items currently in the stage. */
+  public long getPending() {
+    return pending.sum();
+  }
+
+  /** Counts the items entering the stage. */
+  @NonNull
+  public <T> Function<Flux<T>, Flux<T>> enter() {
+    if (!enabled) {
+      return upstream -> upstream;
+    }
+    return upstream -> upstream.doOnNext(item -> pending.increment());
+  }
+
+  /** Counts the items leaving the stage. */
+  @NonNull
+  public <T> Function<Flux<T>, Flux<T>> exit() {
+    if (!enabled) {
+      return upstream -> upstream;
+    }
+    return upstream -> upstream.doOnNext(item -> pending.decrement());
+  }
+
+  /**
+   * Counts the items leaving the stage, when each item stands for a number of items that entered
+   * it, e.g. a batch standing for its children.
+   */
+  @NonNull
+  public <T> Function<Flux<T>, Flux<T>> exit(@NonNull ToLongFunction<T> weight) {
+    if (!enabled) {
+      return upstream -> upstream;
+    }
+    return upstream -> upstream.doOnNext(item -> pending.add(-weight.applyAsLong(item)));
+  }
+
+  /**
+   * Counts the items entering the stage, and remembers when sampled items entered it. The stage
+   * must then be left through {@link #exitTimed()}, and must emit the same item instances that
+   * entered it.
+   */
+  @NonNull
+  public <T> Function<Flux<T>, Flux<T>> enterTimed() {
+    if (!enabled) {
+      return upstream -> upstream;
+    }
+    return upstream ->
+        upstream.doOnNext(
+            item -> {
+              pending.increment();
+              if (isSampled()) {
+                // items that never leave the stage, e.g. because they failed, must not pile up
+                if (startTimes.size() >= MAX_TIMED_ITEMS) {
+                  startTimes.clear();
+                }
+                startTimes.put(new IdentityKey(item), System.nanoTime());
+              }
+            });
+  }
+
+  /** Counts the items leaving the stage, and times the sampled ones. */
+  @NonNull
+  public <T> Function<Flux<T>, Flux<T>> exitTimed() {
+    if (!enabled) {
+      return upstream -> upstream;
+    }
+    return upstream ->
+        upstream.doOnNext(
+            item -> {
+              pending.decrement();
+              // lookups do not lock, so only sampled items contend on the map when removed
+              if (!startTimes.isEmpty()) {
+                IdentityKey key = new IdentityKey(item);
+                if (startTimes.containsKey(key)) {
+                  Long start = startTimes.remove(key);
+                  if (start != null) {
+                    timer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                  }
+                }
+              }
+            });
+  }
+
+  /** Wraps the given synchronous function, timing sampled invocations. */
+  @NonNull
+  public <T, R> Function<T, R> timed(@NonNull Function<T, R> function) {
+    if (!enabled) {
+      return function;
+    }
+    return item -> {
+      if (isSampled()) {
+        long start = System.nanoTime();
+        try {
+          return function.apply(item);
+        } finally {
+          timer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+      }
+      return function.apply(item);
+    };
+  }
+
+  /**
+   * Wraps the given asynchronous function, counting the items being processed and timing sampled
+   * ones, from the invocation of the function to the termination of the publisher it returns.
+   */
+  @NonNull
+  public <T, R> Function<T, Flux<R>> timedAsync(@NonNull Function<T, Publisher<R>> function) {
+    if (!enabled) {
+      return item -> Flux.from(function.apply(item));
+    }
+    return item -> {
+      boolean sampled = isSampled();
+      return Flux.defer(
+          () -> {
+            pending.increment();
+            long start = sampled ? System.nanoTime() : 0;
+            return Flux.from(function.apply(item))
+                .doFinally(
+                    signal -> {
+                      pending.decrement();
+                      if (sampled) {
+                        timer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                      }
+                    });
+          });
+    };
+  }
+
+  /**
+   * Times how long the upstream publisher takes to produce items, e.g. how long a connector takes
+   * to parse a record, or how long the cluster takes to return a row.
+   *
+   * <p>The time to produce an item is measured from the moment the previous item was fully
+   * processed downstream, or from the moment more items were requested, whichever happens last, to
+   * the moment the item is emitted. Time spent downstream, or waiting for downstream demand, is
+   * thus not counted.
+   *
+   * <p>The timer is not a {@link reactor.core.Fuseable.QueueSubscription}, so the upstream
+   * publisher is hidden and cannot take part in operator fusion; this is one of the reasons why
+   * stage metrics are disabled by default.
+   */
+  @NonNull
+  public <T> Function<Flux<T>, Flux<T>> timeProduction() {
+    if (!enabled) {
+      return upstream -> upstream;
+    }
+    return upstream ->
+        upstream
+            .hide()
+            .transform(Operators.<T, T>lift((scannable, actual) -> new ProductionTimer<>(actual)));
+  }
+
+  private static boolean isSampled() {
+    return ThreadLocalRandom.current().nextInt(SAMPLE_RATE) == 0;
+  }
+
+  /** Compares items by identity, since items of some stages have value-based equality. */
+  private static final class IdentityKey {
+
+    private final Object item;
+
+    private IdentityKey(Object item) {
+      this.item = item;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof IdentityKey && ((IdentityKey) o).item == item;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(item);
+    }
+  }
+
+  private class ProductionTimer<T> implements CoreSubscriber<T>, Subscription {
+
+    private final CoreSubscriber<? super T> actual;
+    private final AtomicLong demand = new AtomicLong();
+
+    private Subscription subscription;
+
+    /** Whether the next item should be timed. */
+    private volatile boolean sampleNext;
+
+    /** When production of the next item started, if it is being timed, or zero. */
+    private volatile long start;
+
+    private ProductionTimer(CoreSubscriber<? super T> actual) {
+      this.actual = actual;
+    }
+
+    @Override
+    @NonNull
+    public Context currentContext() {
+      return actual.currentContext();
+    }
+
+    @Override
+    public void onSubscribe(@NonNull Subscription s) {
+      subscription = s;
+      actual.onSubscribe(this);
+    }
+
+    @Override
+    public void request(long n) {
+      if (Operators.validate(n)) {
+        long previous = demand.getAndUpdate(d -> Operators.addCap(d, n));
+        if (previous == 0 && sampleNext) {
+          start = System.nanoTime();
+        }
+        subscription.request(n);
+      }
+    }
+
+    @Override
+    public void cancel() {
+      subscription.cancel();
+    }
+
+    @Override
+    public void onNext(T item) {
+      long started = start;
+      if (started != 0) {
+        timer.update(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        start = 0;
+      }
+      if (demand.get() != Long.MAX_VALUE) {
+        demand.decrementAndGet();
+      }
+      actual.onNext(item);
+      sampleNext = isSampled();
+      // if there is no demand left, the timer starts when more items are requested
+      if (sampleNext && demand.get() > 0) {
+        start = System.nanoTime();
+      }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      actual.onError(t);
+    }
+
+    @Override
+    public void onComplete() {
+      actual.onComplete();
+    }
+  }
+}
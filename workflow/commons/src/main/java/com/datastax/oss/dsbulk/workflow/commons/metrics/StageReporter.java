@@ -0,0 +1,86 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.metrics;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricFilter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.ScheduledReporter;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.datastax.oss.dsbulk.executor.api.listener.LogSink;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.ScheduledExecutorService;
+
+public class StageReporter extends ScheduledReporter {
+
+  private static final String MSG = "%s: %,.3f ms mean, %,.3f ms p99, %,d pending";
+
+  private final LogSink sink;
+  private final List<String> stages;
+
+  StageReporter(
+      MetricRegistry registry,
+      LogSink sink,
+      ScheduledExecutorService scheduler,
+      List<String> stages) {
+    super(registry, "stage-reporter", createFilter(), SECONDS, MILLISECONDS, scheduler);
+    this.sink = sink;
+    this.stages = stages;
+  }
+
+  private static MetricFilter createFilter() {
+    return (name, metric) -> name.startsWith("stages/");
+  }
+
+  @Override
+  public void report(
+      SortedMap<String, Gauge> gauges,
+      SortedMap<String, Counter> counters,
+      SortedMap<String, Histogram> histograms,
+      SortedMap<String, Meter> meters,
+      SortedMap<String, Timer> timers) {
+    if (!sink.isEnabled()) {
+      return;
+    }
+    List<String> parts = new ArrayList<>();
+    for (String stage : stages) {
+      Timer timer = timers.get("stages/" + stage + "/time");
+      Gauge<?> pending = gauges.get("stages/" + stage + "/pending");
+      if (timer != null && pending != null) {
+        Snapshot snapshot = timer.getSnapshot();
+        parts.add(
+            String.format(
+                MSG,
+                stage,
+                convertDuration(snapshot.getMean()),
+                convertDuration(snapshot.get99thPercentile()),
+                (Long) pending.getValue()));
+      }
+    }
+    if (!parts.isEmpty()) {
+      sink.accept("Stages: " + String.join("; ", parts));
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.metrics.prometheus;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.prometheus.client.Collector;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A {@link Collector} that caches the samples of another collector for a given amount of time.
+ *
+ * <p>Collecting Dropwizard metrics walks the whole registry and takes a snapshot of every timer,
+ * which in turn forces the timers' reservoirs to swap their recording intervals; doing so on every
+ * scrape would compete with the threads recording latencies. With this collector, frequent or
+ * concurrent scrapes within the maximum age share the same snapshot, and only one thread refreshes
+ * it at a time.
+ */
+public class CachingCollector extends Collector {
+
+  private final Collector delegate;
+  private final long maxAgeNanos;
+
+  private volatile List<MetricFamilySamples> snapshot;
+  private volatile long snapshotTime;
+
+  public CachingCollector(@NonNull Collector delegate, @NonNull Duration maxAge) {
+    this.delegate = delegate;
+    this.maxAgeNanos = maxAge.toNanos();
+  }
+
+  @Override
+  public List<MetricFamilySamples> collect() {
+    if (maxAgeNanos <= 0) {
+      return delegate.collect();
+    }
+    List<MetricFamilySamples> current = snapshot;
+    if (current == null || isExpired()) {
+      synchronized (this) {
+        current = snapshot;
+        // another thread may have refreshed the snapshot while we were waiting for the lock
+        if (current == null || isExpired()) {
+          current = delegate.collect();
+          snapshot = current;
+          snapshotTime = System.nanoTime();
+        }
+      }
+    }
+    return current;
+  }
+
+  private boolean isExpired() {
+    return System.nanoTime() - snapshotTime >= maxAgeNanos;
+  }
+}
@@ -19,10 +19,13 @@ import com.codahale.metrics.MetricFilter;
 import com.codahale.metrics.MetricRegistry;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.MoreExecutors;
+import com.datastax.oss.driver.shaded.guava.common.util.concurrent.ThreadFactoryBuilder;
 import com.datastax.oss.dsbulk.workflow.api.utils.ThrowableUtils;
 import com.datastax.oss.dsbulk.workflow.commons.settings.DriverSettings;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
+import io.prometheus.client.Collector;
 import io.prometheus.client.CollectorRegistry;
 import io.prometheus.client.Gauge;
 import io.prometheus.client.dropwizard.DropwizardExports;
@@ -34,9 +37,13 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.URL;
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,10 +53,17 @@ public class PrometheusManager {
 
     @NonNull private final String hostname;
     private final int port;
+    @NonNull private final Duration snapshotMaxAge;
 
     public PullConfig(@NonNull String pullHostname, int pullPort) {
+      this(pullHostname, pullPort, Duration.ZERO);
+    }
+
+    public PullConfig(
+        @NonNull String pullHostname, int pullPort, @NonNull Duration snapshotMaxAge) {
       this.hostname = pullHostname;
       this.port = pullPort;
+      this.snapshotMaxAge = snapshotMaxAge;
     }
   }
 
@@ -61,6 +75,7 @@ public class PrometheusManager {
     private final boolean groupByInstance;
     private final boolean groupByOperation;
     @NonNull private final ImmutableMap<String, String> groupByKeys;
+    @NonNull private final Duration interval;
 
     public PushConfig(
         @NonNull URL gatewayUrl,
@@ -69,6 +84,25 @@ public class PrometheusManager {
         boolean groupByInstance,
         boolean groupByOperation,
         @NonNull ImmutableMap<String, String> groupByKeys) {
+      this(
+          gatewayUrl,
+          username,
+          password,
+          groupByInstance,
+          groupByOperation,
+          groupByKeys,
+          Duration.ZERO);
+    }
+
+    public PushConfig(
+        @NonNull URL gatewayUrl,
+        @NonNull String username,
+        @NonNull String password,
+        boolean groupByInstance,
+        boolean groupByOperation,
+        @NonNull ImmutableMap<String, String> groupByKeys,
+        @NonNull Duration interval) {
+      this.interval = interval;
       this.gatewayUrl = gatewayUrl;
       this.username = username;
       this.password = password;
@@ -80,7 +114,10 @@ public class PrometheusManager {
 
   /**
    * The metrics to push to PushGateway. We only push a few ones that are relevant after the
-   * operation has finished.
+   * operation has finished. They are all cumulative counts, which makes them suitable for periodic
+   * pushes as well: the difference between two pushes gives the activity in between, and a failed
+   * push loses nothing. None of them is backed by an HDR histogram, so collecting them does not
+   * interfere with latency recording.
    */
   private static final List<String> PUSH_GATEWAY_METRIC_NAMES =
       ImmutableList.of(
@@ -112,7 +149,10 @@ public class PrometheusManager {
   @NonNull private final ImmutableMap<String, String> labels;
   @NonNull private final BulkLoaderSampleBuilder sampleBuilder;
 
-  private HTTPServer prometheusMetricsServer;
+  private PullEndpoint pullEndpoint;
+  private Collector pullCollector;
+  private ScheduledExecutorService pushScheduler;
+  private long startTime;
 
   public PrometheusManager(
       @NonNull MetricRegistry registry,
@@ -138,78 +178,113 @@ public class PrometheusManager {
 
   public void init() {
     if (pullConfig != null) {
-      DefaultExports.initialize();
-      new DropwizardExports(registry, sampleBuilder).register();
+      pullEndpoint = PullEndpoint.acquire(pullConfig.hostname, pullConfig.port);
+      pullCollector =
+          new CachingCollector(
+                  new DropwizardExports(registry, sampleBuilder), pullConfig.snapshotMaxAge)
+              .register(pullEndpoint.collectorRegistry);
     }
   }
 
   public void start() {
-    if (pullConfig != null) {
+    startTime = System.nanoTime();
+    if (pullEndpoint != null) {
       try {
-        prometheusMetricsServer =
-            new HTTPServer.Builder()
-                .withDaemonThreads(true)
-                .withHostname(pullConfig.hostname.isEmpty() ? null : pullConfig.hostname)
-                .withPort(pullConfig.port)
-                .build();
+        pullEndpoint.start();
       } catch (IOException e) {
         throw new UncheckedIOException("Failed to start Prometheus Metrics HTTP server", e);
       }
-      LOGGER.info(
-          "Prometheus Metrics HTTP server listening on {}:{}",
-          pullConfig.hostname.isEmpty() ? "0.0.0.0" : pullConfig.hostname,
-          pullConfig.port);
+    }
+    if (pushConfig != null && pushConfig.interval.toMillis() > 0) {
+      pushScheduler =
+          Executors.newSingleThreadScheduledExecutor(
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("prometheus-push-%d")
+                  .setPriority(Thread.MIN_PRIORITY)
+                  .build());
+      long interval = pushConfig.interval.toMillis();
+      pushScheduler.scheduleAtFixedRate(
+          this::pushRunningMetrics, interval, interval, TimeUnit.MILLISECONDS);
     }
   }
 
   public void close() {
-    if (prometheusMetricsServer != null) {
-      prometheusMetricsServer.close();
+    stopPeriodicPush();
+    if (pullEndpoint != null) {
+      // stop exposing this operation's metrics, the endpoint may outlive it
+      pullEndpoint.collectorRegistry.unregister(pullCollector);
+      pullEndpoint.release();
+      pullEndpoint = null;
     }
   }
 
   public void pushMetrics(Duration elapsed, boolean success) {
     if (pushConfig != null) {
-      try {
-        CollectorRegistry collectorRegistry = new CollectorRegistry();
-        new DropwizardExports(registry, PUSH_METRIC_FILTER, sampleBuilder)
-            .register(collectorRegistry);
-        addFinalMetrics(elapsed, success, collectorRegistry);
-        PushGateway pg = new PushGateway(pushConfig.gatewayUrl);
-        if (!pushConfig.username.isEmpty() && !pushConfig.password.isEmpty()) {
-          pg.setConnectionFactory(
-              new BasicAuthHttpConnectionFactory(pushConfig.username, pushConfig.password));
-        }
-        Map<String, String> groupingKeys = new LinkedHashMap<>();
-        if (pushConfig.groupByInstance) {
-          groupingKeys.putAll(PushGateway.instanceIPGroupingKey());
-        }
-        if (pushConfig.groupByOperation) {
-          groupingKeys.put(OPERATION_ID_LABEL, executionId);
-        }
-        groupingKeys.putAll(pushConfig.groupByKeys);
-        pg.pushAdd(collectorRegistry, jobName, groupingKeys);
-      } catch (Exception e) {
-        LOGGER.error(
-            String.format(
-                "Push to Prometheus PushGateway %s failed. %s",
-                pushConfig.gatewayUrl, ThrowableUtils.getSanitizedErrorMessage(e)),
-            e);
+      // make sure that a periodic push cannot overwrite the final metrics
+      stopPeriodicPush();
+      CollectorRegistry collectorRegistry = newPushRegistry();
+      addFinalMetrics(elapsed, success, collectorRegistry);
+      push(collectorRegistry, false);
+    }
+  }
+
+  private void pushRunningMetrics() {
+    CollectorRegistry collectorRegistry = newPushRegistry();
+    addElapsedTime(Duration.ofNanos(System.nanoTime() - startTime), collectorRegistry);
+    push(collectorRegistry, true);
+  }
+
+  private void stopPeriodicPush() {
+    if (pushScheduler != null) {
+      MoreExecutors.shutdownAndAwaitTermination(pushScheduler, 1, TimeUnit.MINUTES);
+      pushScheduler = null;
+    }
+  }
+
+  @NonNull
+  private CollectorRegistry newPushRegistry() {
+    CollectorRegistry collectorRegistry = new CollectorRegistry();
+    new DropwizardExports(registry, PUSH_METRIC_FILTER, sampleBuilder).register(collectorRegistry);
+    return collectorRegistry;
+  }
+
+  private void push(@NonNull CollectorRegistry collectorRegistry, boolean periodic) {
+    assert pushConfig != null;
+    try {
+      PushGateway pg = new PushGateway(pushConfig.gatewayUrl);
+      if (!pushConfig.username.isEmpty() && !pushConfig.password.isEmpty()) {
+        pg.setConnectionFactory(
+            new BasicAuthHttpConnectionFactory(pushConfig.username, pushConfig.password));
+      }
+      Map<String, String> groupingKeys = new LinkedHashMap<>();
+      if (pushConfig.groupByInstance) {
+        groupingKeys.putAll(PushGateway.instanceIPGroupingKey());
+      }
+      if (pushConfig.groupByOperation) {
+        groupingKeys.put(OPERATION_ID_LABEL, executionId);
+      }
+      groupingKeys.putAll(pushConfig.groupByKeys);
+      pg.pushAdd(collectorRegistry, jobName, groupingKeys);
+    } catch (Exception e) {
+      String message =
+          String.format(
+              "Push to Prometheus PushGateway %s failed. %s",
+              pushConfig.gatewayUrl, ThrowableUtils.getSanitizedErrorMessage(e));
+      if (periodic) {
+        // the next push will carry the same cumulative values, do not flood the logs
+        LOGGER.warn(message);
+      } else {
+        LOGGER.error(message, e);
       }
     }
   }
 
   private void addFinalMetrics(
       Duration elapsed, boolean success, CollectorRegistry collectorRegistry) {
+    addElapsedTime(elapsed, collectorRegistry);
     String[] labelNames = labels.keySet().toArray(new String[0]);
     String[] labelValues = labels.values().toArray(new String[0]);
-    Gauge.build()
-        .name("dsbulk_elapsed_time_seconds")
-        .help("Duration of DSBulk execution in seconds.")
-        .labelNames(labelNames)
-        .register(collectorRegistry)
-        .labels(labelValues)
-        .set(elapsed.getSeconds());
     Gauge.build()
         .name("dsbulk_success")
         .help("Whether DSBulk execution completed successfully.")
@@ -235,4 +310,85 @@ public class PrometheusManager {
           .setToCurrentTime();
     }
   }
+
+  private void addElapsedTime(Duration elapsed, CollectorRegistry collectorRegistry) {
+    Gauge.build()
+        .name("dsbulk_elapsed_time_seconds")
+        .help("Duration of DSBulk execution in seconds.")
+        .labelNames(labels.keySet().toArray(new String[0]))
+        .register(collectorRegistry)
+        .labels(labels.values().toArray(new String[0]))
+        .set(elapsed.getSeconds());
+  }
+
+  /**
+   * The HTTP endpoint that scrapers pull metrics from.
+   *
+   * <p>Operations running in the same JVM, e.g. the operations of a job, or the jobs of a job
+   * server, cannot each bind the same port. Instead, those with the same host name and port share
+   * one endpoint, through which each of them exposes its metrics, labeled with its own operation
+   * id, until it finishes. The endpoint is closed when the last operation using it finishes.
+   */
+  private static class PullEndpoint {
+
+    private static final Map<String, PullEndpoint> ENDPOINTS = new HashMap<>();
+
+    @NonNull private final String hostname;
+    private final int port;
+    @NonNull private final CollectorRegistry collectorRegistry = new CollectorRegistry();
+
+    // guarded by ENDPOINTS
+    private HTTPServer server;
+    private int references;
+
+    private PullEndpoint(@NonNull String hostname, int port) {
+      this.hostname = hostname;
+      this.port = port;
+      DefaultExports.register(collectorRegistry);
+    }
+
+    @NonNull
+    static PullEndpoint acquire(@NonNull String hostname, int port) {
+      synchronized (ENDPOINTS) {
+        PullEndpoint endpoint =
+            ENDPOINTS.computeIfAbsent(key(hostname, port), k -> new PullEndpoint(hostname, port));
+        endpoint.references++;
+        return endpoint;
+      }
+    }
+
+    void start() throws IOException {
+      synchronized (ENDPOINTS) {
+        if (server == null) {
+          server =
+              new HTTPServer.Builder()
+                  .withDaemonThreads(true)
+                  .withHostname(hostname.isEmpty() ? null : hostname)
+                  .withPort(port)
+                  .withRegistry(collectorRegistry)
+                  .build();
+          LOGGER.info(
+              "Prometheus Metrics HTTP server listening on {}:{}",
+              hostname.isEmpty() ? "0.0.0.0" : hostname,
+              port);
+        }
+      }
+    }
+
+    void release() {
+      synchronized (ENDPOINTS) {
+        if (--references == 0) {
+          ENDPOINTS.remove(key(hostname, port));
+          if (server != null) {
+            server.close();
+          }
+        }
+      }
+    }
+
+    @NonNull
+    private static String key(@NonNull String hostname, int port) {
+      return hostname + ':' + port;
+    }
+  }
 }
@@ -16,29 +16,67 @@
 package com.datastax.oss.dsbulk.workflow.commons.policies.retry;
 
 import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.connection.ClosedConnectionException;
 import com.datastax.oss.driver.api.core.connection.HeartbeatException;
 import com.datastax.oss.driver.api.core.context.DriverContext;
 import com.datastax.oss.driver.api.core.retry.RetryDecision;
 import com.datastax.oss.driver.api.core.retry.RetryPolicy;
 import com.datastax.oss.driver.api.core.servererrors.CoordinatorException;
+import com.datastax.oss.driver.api.core.servererrors.OverloadedException;
 import com.datastax.oss.driver.api.core.servererrors.ReadFailureException;
 import com.datastax.oss.driver.api.core.servererrors.WriteFailureException;
 import com.datastax.oss.driver.api.core.servererrors.WriteType;
 import com.datastax.oss.driver.api.core.session.Request;
 import com.datastax.oss.dsbulk.workflow.commons.settings.BulkDriverOption;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import java.time.Duration;
 
+/**
+ * A retry policy that opinionately retries most errors up to a maximum number of times.
+ *
+ * <p>Errors that are signs of an overloaded replica – read and write timeouts, and overloaded
+ * errors – are handled differently when backoff is enabled: retrying them immediately would only
+ * make the overload worse. They are instead rethrown, and the bulk executor retries them itself
+ * after a randomized, exponentially-growing delay, and reduces its maximum number of in-flight
+ * requests in the meantime, if there is one (see {@code BulkExecutorBuilder.withRetryBackoff}).
+ */
 public class MultipleRetryPolicy implements RetryPolicy {
 
   private final int maxRetryCount;
+  private final Duration baseDelay;
+  private final Duration maxDelay;
 
   public MultipleRetryPolicy(DriverContext context, String profileName) {
-    this.maxRetryCount =
-        context
-            .getConfig()
-            .getProfile(profileName)
-            .getInt(BulkDriverOption.RETRY_POLICY_MAX_RETRIES, 10);
+    DriverExecutionProfile profile = context.getConfig().getProfile(profileName);
+    this.maxRetryCount = profile.getInt(BulkDriverOption.RETRY_POLICY_MAX_RETRIES, 10);
+    this.baseDelay =
+        profile.getDuration(
+            BulkDriverOption.RETRY_POLICY_BACKOFF_BASE_DELAY, Duration.ofMillis(100));
+    this.maxDelay = profile.getDuration(BulkDriverOption.RETRY_POLICY_BACKOFF_MAX_DELAY, baseDelay);
+  }
+
+  /** @return the maximum number of retries for a given request. */
+  public int getMaxRetryCount() {
+    return maxRetryCount;
+  }
+
+  /**
+   * @return whether requests failing because of an overload should be retried with backoff by the
+   *     bulk executor, instead of being retried immediately by the driver.
+   */
+  public boolean isBackoffEnabled() {
+    return !baseDelay.isZero() && !baseDelay.isNegative();
+  }
+
+  /** @return the delay before the first retry of a request failing because of an overload. */
+  public Duration getBaseDelay() {
+    return baseDelay;
+  }
+
+  /** @return the maximum delay between two retries of a request failing because of an overload. */
+  public Duration getMaxDelay() {
+    return maxDelay;
   }
 
   @Override
@@ -50,7 +88,9 @@ public class MultipleRetryPolicy implements RetryPolicy {
       int received,
       boolean dataPresent,
       int retryCount) {
-    return retryCount < maxRetryCount ? RetryDecision.RETRY_SAME : RetryDecision.RETHROW;
+    return retryCount < maxRetryCount && !isBackoffEnabled()
+        ? RetryDecision.RETRY_SAME
+        : RetryDecision.RETHROW;
   }
 
   @Override
@@ -62,7 +102,9 @@ public class MultipleRetryPolicy implements RetryPolicy {
       int blockFor,
       int received,
       int retryCount) {
-    return retryCount < maxRetryCount ? RetryDecision.RETRY_SAME : RetryDecision.RETHROW;
+    return retryCount < maxRetryCount && !isBackoffEnabled()
+        ? RetryDecision.RETRY_SAME
+        : RetryDecision.RETHROW;
   }
 
   @Override
@@ -89,9 +131,13 @@ public class MultipleRetryPolicy implements RetryPolicy {
   @Deprecated
   public RetryDecision onErrorResponse(
       @NonNull Request request, @NonNull CoordinatorException error, int retryCount) {
-    return (error instanceof ReadFailureException || error instanceof WriteFailureException)
-        ? RetryDecision.RETHROW
-        : RetryDecision.RETRY_NEXT;
+    if (error instanceof ReadFailureException || error instanceof WriteFailureException) {
+      return RetryDecision.RETHROW;
+    }
+    if (error instanceof OverloadedException && isBackoffEnabled()) {
+      return RetryDecision.RETHROW;
+    }
+    return RetryDecision.RETRY_NEXT;
   }
 
   @Override
@@ -0,0 +1,109 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.policies.specex;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.api.core.specex.SpeculativeExecutionPolicy;
+import com.datastax.oss.dsbulk.workflow.commons.settings.BulkDriverOption;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A speculative execution policy that waits longer and longer before each new speculative
+ * execution.
+ *
+ * <p>The delay before the n-th speculative execution is chosen randomly between half and the whole
+ * of {@code delay * 2^(n-1)}, capped at {@code max-delay}. Unlike constant delays, growing delays
+ * do not flood a slow replica's neighbors with speculative executions; and randomization prevents
+ * requests that were sent together from being speculatively executed together.
+ *
+ * <p>Speculative executions are scheduled by the driver on its timer thread and never block driver
+ * I/O threads.
+ *
+ * @see DefaultDriverOption#SPECULATIVE_EXECUTION_MAX
+ * @see DefaultDriverOption#SPECULATIVE_EXECUTION_DELAY
+ * @see BulkDriverOption#SPECULATIVE_EXECUTION_MAX_DELAY
+ */
+public class ExponentialSpeculativeExecutionPolicy implements SpeculativeExecutionPolicy {
+
+  private final int maxExecutions;
+  private final long baseDelayMillis;
+  private final long maxDelayMillis;
+
+  /**
+   * Constructor required by the driver to create an instance of this policy.
+   *
+   * @param context The driver context to get the configuration from.
+   * @param profileName The execution profile name.
+   */
+  @SuppressWarnings("unused")
+  public ExponentialSpeculativeExecutionPolicy(DriverContext context, String profileName) {
+    DriverExecutionProfile profile = context.getConfig().getProfile(profileName);
+    this.maxExecutions = profile.getInt(DefaultDriverOption.SPECULATIVE_EXECUTION_MAX);
+    if (maxExecutions < 1) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Max executions for %s must be strictly positive, got %d",
+              getClass().getSimpleName(), maxExecutions));
+    }
+    Duration baseDelay = profile.getDuration(DefaultDriverOption.SPECULATIVE_EXECUTION_DELAY);
+    if (baseDelay.isNegative() || baseDelay.isZero()) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Delay for %s must be strictly positive, got %s",
+              getClass().getSimpleName(), baseDelay));
+    }
+    Duration maxDelay =
+        profile.getDuration(BulkDriverOption.SPECULATIVE_EXECUTION_MAX_DELAY, baseDelay);
+    if (maxDelay.compareTo(baseDelay) < 0) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Max delay for %s must be greater than or equal to delay, got %s < %s",
+              getClass().getSimpleName(), maxDelay, baseDelay));
+    }
+    this.baseDelayMillis = baseDelay.toMillis();
+    this.maxDelayMillis = maxDelay.toMillis();
+  }
+
+  @Override
+  public long nextExecution(
+      @NonNull Node node,
+      @Nullable CqlIdentifier keyspace,
+      @NonNull Request request,
+      int runningExecutions) {
+    if (runningExecutions >= maxExecutions) {
+      return -1;
+    }
+    int shift = runningExecutions - 1;
+    long cap = maxDelayMillis;
+    // only shift when the result cannot overflow; otherwise it would be capped anyway
+    if (shift < Long.numberOfLeadingZeros(baseDelayMillis) - 1) {
+      cap = Math.min(maxDelayMillis, baseDelayMillis << shift);
+    }
+    long half = cap / 2;
+    return half + ThreadLocalRandom.current().nextLong(cap - half + 1);
+  }
+
+  @Override
+  public void close() {}
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.schema;
+
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.dsbulk.connectors.api.Record;
+import com.datastax.oss.dsbulk.mapping.CQLWord;
+import com.datastax.oss.dsbulk.workflow.commons.statement.AggregatedCounterStatement;
+import com.datastax.oss.dsbulk.workflow.commons.statement.MappedBoundStatement;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Combines counter updates to the same row within a bounded window of statements.
+ *
+ * <p>Statements are keyed by their prepared statement and by the values bound to the primary key
+ * columns. Statements with the same key are combined into one single {@link
+ * AggregatedCounterStatement}, whose increments are the sums of the combined increments, and which
+ * keeps track of all the records it was mapped from, so that each of them can be reported
+ * individually if the combined update fails.
+ *
+ * <p>Statements leave the window in the order they entered it, when the window is full, when they
+ * have been in the window for longer than the maximum age, or when the upstream flow completes; the
+ * maximum age bounds how long increments are held back when the window never fills up, e.g. when a
+ * large resource updates fewer distinct rows than the window size. Statements that cannot be
+ * combined are emitted immediately: statements that don't bind the entire primary key, and
+ * statements binding variables other than primary key columns and counter increments. A statement
+ * that cannot be combined with the one in the window, because one of them binds a null increment or
+ * because the sum would overflow, takes its place, and the one in the window is emitted.
+ */
+public class CounterAggregator {
+
+  private final int windowSize;
+  private final Duration maxAge;
+  private final Set<CQLWord> keyVariables;
+  private final ConcurrentMap<PreparedStatement, Layout> layouts = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new aggregator.
+   *
+   * @param windowSize the maximum number of rows to keep in the window; must be strictly positive.
+   * @param maxAge the maximum time a row is kept in the window; rows are checked for expiration
+   *     every half of this duration, so they may stay up to 1.5 times longer. Zero disables
+   *     expiration.
+   * @param keyVariables the variables bound to the primary key columns; statements that don't bind
+   *     all of them are never combined.
+   */
+  public CounterAggregator(
+      int windowSize, @NonNull Duration maxAge, @NonNull Set<CQLWord> keyVariables) {
+    if (windowSize < 1) {
+      throw new IllegalArgumentException("Invalid aggregation window: " + windowSize);
+    }
+    if (maxAge.isNegative()) {
+      throw new IllegalArgumentException("Invalid aggregation max age: " + maxAge);
+    }
+    this.windowSize = windowSize;
+    this.maxAge = maxAge;
+    this.keyVariables = keyVariables;
+  }
+
+  /**
+   * Aggregates the given flow of counter updates; each subscription to the returned flow uses its
+   * own window.
+   */
+  @NonNull
+  public Flux<BatchableStatement<?>> aggregate(@NonNull Flux<BatchableStatement<?>> statements) {
+    return Flux.defer(
+        () -> {
+          Window window = new Window();
+          Flux<BatchableStatement<?>> aggregated =
+              statements
+                  .concatMapIterable(window::add)
+                  .concatWith(Flux.defer(() -> Flux.fromIterable(window.drain())));
+          if (maxAge.isZero()) {
+            return aggregated;
+          }
+          Duration period = maxAge.dividedBy(2).isZero() ? maxAge : maxAge.dividedBy(2);
+          return aggregated.publish(
+              upstream ->
+                  Flux.merge(
+                      upstream,
+                      Flux.interval(period)
+                          .onBackpressureDrop()
+                          .concatMapIterable(tick -> window.expire(System.nanoTime()))
+                          // errors are propagated by the upstream branch
+                          .takeUntilOther(
+                              upstream.ignoreElements().onErrorResume(e -> Mono.empty()))));
+        });
+  }
+
+  @NonNull
+  private Layout layout(@NonNull PreparedStatement ps) {
+    ColumnDefinitions variables = ps.getVariableDefinitions();
+    List<Integer> keyIndices = new ArrayList<>();
+    List<Integer> counterIndices = new ArrayList<>();
+    Set<CQLWord> found = new HashSet<>();
+    for (int i = 0; i < variables.size(); i++) {
+      CQLWord name = CQLWord.fromInternal(variables.get(i).getName().asInternal());
+      DataType type = variables.get(i).getType();
+      if (keyVariables.contains(name)) {
+        keyIndices.add(i);
+        found.add(name);
+      } else if (type.equals(DataTypes.COUNTER) || type.equals(DataTypes.BIGINT)) {
+        counterIndices.add(i);
+      } else {
+        // not a counter update
+        return Layout.NOT_AGGREGATABLE;
+      }
+    }
+    if (keyVariables.isEmpty() || !found.equals(keyVariables)) {
+      return Layout.NOT_AGGREGATABLE;
+    }
+    return new Layout(
+        keyIndices.stream().mapToInt(Integer::intValue).toArray(),
+        counterIndices.stream().mapToInt(Integer::intValue).toArray());
+  }
+
+  private static class Layout {
+
+    private static final Layout NOT_AGGREGATABLE = new Layout(new int[0], new int[0]);
+
+    private final int[] keyIndices;
+    private final int[] counterIndices;
+
+    private Layout(int[] keyIndices, int[] counterIndices) {
+      this.keyIndices = keyIndices;
+      this.counterIndices = counterIndices;
+    }
+  }
+
+  private static class Aggregate {
+
+    private final Layout layout;
+    private final MappedBoundStatement first;
+    private final long startNanos = System.nanoTime();
+    private final List<Record> records = new ArrayList<>();
+    // the running sums; null when unset in all the combined statements
+    private final Long[] sums;
+
+    private Aggregate(Layout layout, MappedBoundStatement first) {
+      this.layout = layout;
+      this.first = first;
+      sums = new Long[layout.counterIndices.length];
+    }
+
+    /** Starts a new aggregate, or returns null if the statement has null increments. */
+    @Nullable
+    static Aggregate start(@NonNull Layout layout, @NonNull MappedBoundStatement first) {
+      Aggregate aggregate = new Aggregate(layout, first);
+      return aggregate.add(first) ? aggregate : null;
+    }
+
+    /**
+     * Returns the increments of the given statement, or null if one of them is null or malformed.
+     */
+    @Nullable
+    private Long[] increments(@NonNull BoundStatement bs) {
+      Long[] increments = new Long[layout.counterIndices.length];
+      for (int i = 0; i < increments.length; i++) {
+        int index = layout.counterIndices[i];
+        if (bs.isSet(index)) {
+          ByteBuffer bytes = bs.getBytesUnsafe(index);
+          if (bytes == null || bytes.remaining() != 8) {
+            return null;
+          }
+          increments[i] = bytes.getLong(bytes.position());
+        }
+      }
+      return increments;
+    }
+
+    /** Adds the increments of the given statement, if they can be combined with the sums. */
+    private boolean add(@NonNull MappedBoundStatement bs) {
+      Long[] increments = increments(bs);
+      if (increments == null) {
+        return false;
+      }
+      Long[] result = new Long[sums.length];
+      for (int i = 0; i < sums.length; i++) {
+        if (sums[i] == null) {
+          result[i] = increments[i];
+        } else if (increments[i] == null) {
+          result[i] = sums[i];
+        } else {
+          long sum = sums[i] + increments[i];
+          // overflow iff both operands have the same sign, and the result has the opposite sign
+          if (((sums[i] ^ sum) & (increments[i] ^ sum)) < 0) {
+            return false;
+          }
+          result[i] = sum;
+        }
+      }
+      System.arraycopy(result, 0, sums, 0, sums.length);
+      records.add(bs.getRecord());
+      return true;
+    }
+
+    @NonNull
+    private BatchableStatement<?> toStatement() {
+      if (records.size() == 1) {
+        return first;
+      }
+      BoundStatement combined = first;
+      for (int i = 0; i < sums.length; i++) {
+        if (sums[i] != null) {
+          combined =
+              combined.setBytesUnsafe(
+                  layout.counterIndices[i], TypeCodecs.BIGINT.encodePrimitive(sums[i], null));
+        }
+      }
+      return new AggregatedCounterStatement(records, combined, first.getDataSize());
+    }
+  }
+
+  /**
+   * The rows being aggregated, in the order they entered the window. Guarded by the window's lock,
+   * since expired rows are removed from a timer thread.
+   */
+  private class Window {
+
+    private final Map<RowKey, Aggregate> entries = new LinkedHashMap<>();
+
+    @NonNull
+    synchronized List<BatchableStatement<?>> add(@NonNull BatchableStatement<?> statement) {
+      if (!(statement instanceof MappedBoundStatement)) {
+        return Collections.singletonList(statement);
+      }
+      MappedBoundStatement bs = (MappedBoundStatement) statement;
+      Layout layout = layouts.computeIfAbsent(bs.getPreparedStatement(), ps -> layout(ps));
+      RowKey key = layout.keyIndices.length == 0 ? null : RowKey.of(bs, layout.keyIndices);
+      if (key == null) {
+        return Collections.singletonList(statement);
+      }
+      Aggregate existing = entries.get(key);
+      if (existing != null && existing.add(bs)) {
+        return Collections.emptyList();
+      }
+      Aggregate aggregate = Aggregate.start(layout, bs);
+      if (aggregate == null) {
+        return Collections.singletonList(statement);
+      }
+      if (existing != null) {
+        // move the key to the end of the window, to keep entries ordered by age
+        entries.remove(key);
+      }
+      entries.put(key, aggregate);
+      if (existing == null) {
+        return evictIfFull();
+      }
+      // the new statement takes the place of the existing one
+      return Collections.singletonList(existing.toStatement());
+    }
+
+    @NonNull
+    private List<BatchableStatement<?>> evictIfFull() {
+      if (entries.size() <= windowSize) {
+        return Collections.emptyList();
+      }
+      Iterator<Aggregate> it = entries.values().iterator();
+      Aggregate eldest = it.next();
+      it.remove();
+      return Collections.singletonList(eldest.toStatement());
+    }
+
+    @NonNull
+    synchronized List<BatchableStatement<?>> expire(long nowNanos) {
+      List<BatchableStatement<?>> expired = new ArrayList<>();
+      Iterator<Aggregate> it = entries.values().iterator();
+      while (it.hasNext()) {
+        Aggregate aggregate = it.next();
+        if (nowNanos - aggregate.startNanos < maxAge.toNanos()) {
+          break;
+        }
+        it.remove();
+        expired.add(aggregate.toStatement());
+      }
+      return expired;
+    }
+
+    @NonNull
+    synchronized List<BatchableStatement<?>> drain() {
+      List<BatchableStatement<?>> remaining = new ArrayList<>(entries.size());
+      for (Aggregate aggregate : entries.values()) {
+        remaining.add(aggregate.toStatement());
+      }
+      entries.clear();
+      return remaining;
+    }
+  }
+}
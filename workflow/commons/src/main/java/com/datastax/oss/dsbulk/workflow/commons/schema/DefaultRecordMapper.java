@@ -59,6 +59,7 @@ public class DefaultRecordMapper implements RecordMapper {
   private final boolean allowExtraFields;
   private final boolean allowMissingFields;
   private final Function<PreparedStatement, BoundStatementBuilder> boundStatementBuilderFactory;
+  @Nullable private final WriteTimeAndTtlGrouper grouper;
   private final int size;
 
   public DefaultRecordMapper(
@@ -81,6 +82,31 @@ public class DefaultRecordMapper implements RecordMapper {
         nullToUnset,
         allowExtraFields,
         allowMissingFields,
+        (WriteTimeAndTtlGrouper) null);
+  }
+
+  public DefaultRecordMapper(
+      List<PreparedStatement> insertStatements,
+      Set<CQLWord> partitionKeyVariables,
+      Set<CQLWord> clusteringColumnVariables,
+      ProtocolVersion protocolVersion,
+      Mapping mapping,
+      RecordMetadata recordMetadata,
+      boolean nullToUnset,
+      boolean allowExtraFields,
+      boolean allowMissingFields,
+      @Nullable WriteTimeAndTtlGrouper grouper) {
+    this(
+        insertStatements,
+        partitionKeyVariables,
+        clusteringColumnVariables,
+        protocolVersion,
+        mapping,
+        recordMetadata,
+        nullToUnset,
+        allowExtraFields,
+        allowMissingFields,
+        grouper,
         PreparedStatement::boundStatementBuilder);
   }
 
@@ -96,6 +122,32 @@ public class DefaultRecordMapper implements RecordMapper {
       boolean allowExtraFields,
       boolean allowMissingFields,
       Function<PreparedStatement, BoundStatementBuilder> boundStatementBuilderFactory) {
+    this(
+        insertStatements,
+        partitionKeyVariables,
+        clusteringColumnVariables,
+        protocolVersion,
+        mapping,
+        recordMetadata,
+        nullToUnset,
+        allowExtraFields,
+        allowMissingFields,
+        null,
+        boundStatementBuilderFactory);
+  }
+
+  private DefaultRecordMapper(
+      List<PreparedStatement> insertStatements,
+      Set<CQLWord> partitionKeyVariables,
+      Set<CQLWord> clusteringColumnVariables,
+      ProtocolVersion protocolVersion,
+      Mapping mapping,
+      RecordMetadata recordMetadata,
+      boolean nullToUnset,
+      boolean allowExtraFields,
+      boolean allowMissingFields,
+      @Nullable WriteTimeAndTtlGrouper grouper,
+      Function<PreparedStatement, BoundStatementBuilder> boundStatementBuilderFactory) {
     this.insertStatements = ImmutableList.copyOf(insertStatements);
     this.protocolVersion = protocolVersion;
     this.mapping = mapping;
@@ -103,6 +155,7 @@ public class DefaultRecordMapper implements RecordMapper {
     this.nullToUnset = nullToUnset;
     this.allowExtraFields = allowExtraFields;
     this.allowMissingFields = allowMissingFields;
+    this.grouper = grouper;
     this.boundStatementBuilderFactory = boundStatementBuilderFactory;
     primaryKeyVariables =
         ImmutableSet.<CQLWord>builder()
@@ -132,6 +185,9 @@ public class DefaultRecordMapper implements RecordMapper {
         }
         // Note: we only emit the generated bound statements if all of them were successfully
         // created; if any fails, we return one single UnmappableStatement instead.
+        if (grouper != null) {
+          statements = grouper.group(statements);
+        }
         return Flux.fromArray(statements);
       }
     } catch (Exception e) {
@@ -147,6 +203,8 @@ public class DefaultRecordMapper implements RecordMapper {
   private MappedBoundStatement bindStatement(Record record, PreparedStatement insertStatement) {
     BoundStatementBuilder builder = boundStatementBuilderFactory.apply(insertStatement);
     ColumnDefinitions variableDefinitions = insertStatement.getVariableDefinitions();
+    // the data size is computed while binding, so that it never needs to be computed again
+    long dataSize = 0;
     for (Field field : record.fields()) {
       Set<CQLWord> variables = mapping.fieldToVariables(field);
       for (CQLWord variable : variables) {
@@ -155,7 +213,19 @@ public class DefaultRecordMapper implements RecordMapper {
           DataType cqlType = variableDefinitions.get(name).getType();
           GenericType<?> fieldType = recordMetadata.getFieldType(field, cqlType);
           Object raw = record.getFieldValue(field);
-          builder = bindColumn(builder, field, variable, raw, cqlType, fieldType);
+          ByteBuffer bb = encodeColumn(builder, field, variable, raw, cqlType, fieldType);
+          if (isNull(bb, cqlType)) {
+            if (primaryKeyVariables.contains(variable)) {
+              throw InvalidMappingException.nullPrimaryKey(variable);
+            }
+            if (nullToUnset) {
+              continue;
+            }
+          }
+          builder = builder.setBytesUnsafe(name, bb);
+          if (bb != null) {
+            dataSize += bb.remaining();
+          }
         }
       }
     }
@@ -164,10 +234,10 @@ public class DefaultRecordMapper implements RecordMapper {
       ensureAllVariablesSet(builder, insertStatement);
     }
     BoundStatement bs = builder.build();
-    return new MappedBoundStatement(record, bs);
+    return new MappedBoundStatement(record, bs, dataSize);
   }
 
-  private <T> BoundStatementBuilder bindColumn(
+  private <T> ByteBuffer encodeColumn(
       BoundStatementBuilder builder,
       Field field,
       CQLWord variable,
@@ -175,21 +245,11 @@ public class DefaultRecordMapper implements RecordMapper {
       DataType cqlType,
       GenericType<? extends T> javaType) {
     TypeCodec<T> codec = mapping.codec(variable, cqlType, javaType);
-    ByteBuffer bb;
     try {
-      bb = codec.encode(raw, builder.protocolVersion());
+      return codec.encode(raw, builder.protocolVersion());
     } catch (Exception e) {
       throw InvalidMappingException.encodeFailed(field, variable, javaType, cqlType, raw, e);
     }
-    if (isNull(bb, cqlType)) {
-      if (primaryKeyVariables.contains(variable)) {
-        throw InvalidMappingException.nullPrimaryKey(variable);
-      }
-      if (nullToUnset) {
-        return builder;
-      }
-    }
-    return builder.setBytesUnsafe(variable.asIdentifier(), bb);
   }
 
   private boolean isNull(ByteBuffer bb, DataType cqlType) {
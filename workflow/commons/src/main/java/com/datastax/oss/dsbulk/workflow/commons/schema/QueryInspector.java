@@ -114,6 +114,7 @@ public class QueryInspector extends CqlBaseVisitor<CQLFragment> {
   private List<String> batchChildStatements;
   private BatchType batchType;
   private boolean hasBatchLevelUsingClause;
+  private boolean hasRelativeAssignments = false;
 
   public QueryInspector(String query) {
     this.query = query;
@@ -294,6 +295,16 @@ public class QueryInspector extends CqlBaseVisitor<CQLFragment> {
     return parallelizable;
   }
 
+  /**
+   * @return true if the query contains assignments relative to the current value of the column,
+   *     such as collection appends, prepends or removals (e.g. {@code SET l = l + :l} or {@code SET
+   *     m = m - :k}), or counter increments; the result of such assignments depends on the order in
+   *     which they are applied, and none of them can be skipped. Only used for write queries.
+   */
+  public boolean hasRelativeAssignments() {
+    return hasRelativeAssignments;
+  }
+
   /** @return true if the query is a BATCH query, false otherwise. */
   public boolean isBatch() {
     return batch;
@@ -368,10 +379,14 @@ public class QueryInspector extends CqlBaseVisitor<CQLFragment> {
   @Override
   public CQLFragment visitColumnOperationDifferentiator(ColumnOperationDifferentiatorContext ctx) {
     if (ctx.normalColumnOperation() != null) {
-      // normal update operation: column = :variable
+      // normal update operation: column = :variable, or column = column + :variable
+      if (ctx.normalColumnOperation().cident() != null) {
+        hasRelativeAssignments = true;
+      }
       return visitTerm(ctx.normalColumnOperation().term());
     } else if (ctx.shorthandColumnOperation() != null) {
       // shorthand update operation: column += :variable
+      hasRelativeAssignments = true;
       return visitTerm(ctx.shorthandColumnOperation().term());
     }
     // unsupported update operation
@@ -0,0 +1,76 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.schema;
+
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/** Identifies the row a bound statement writes to, for a given prepared statement. */
+final class RowKey {
+
+  /**
+   * Returns the key of the given statement, or null if one of the given key variables is unset or
+   * null.
+   *
+   * @param bs the statement.
+   * @param keyIndices the indices of the variables bound to primary key columns.
+   */
+  @Nullable
+  static RowKey of(@NonNull BoundStatement bs, @NonNull int[] keyIndices) {
+    ByteBuffer[] values = new ByteBuffer[keyIndices.length];
+    for (int i = 0; i < keyIndices.length; i++) {
+      if (!bs.isSet(keyIndices[i])) {
+        return null;
+      }
+      values[i] = bs.getBytesUnsafe(keyIndices[i]);
+      if (values[i] == null) {
+        return null;
+      }
+    }
+    return new RowKey(bs.getPreparedStatement(), values);
+  }
+
+  private final PreparedStatement ps;
+  private final ByteBuffer[] values;
+  private final int hashCode;
+
+  private RowKey(PreparedStatement ps, ByteBuffer[] values) {
+    this.ps = ps;
+    this.values = values;
+    hashCode = 31 * System.identityHashCode(ps) + Arrays.hashCode(values);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof RowKey)) {
+      return false;
+    }
+    RowKey that = (RowKey) o;
+    return ps == that.ps && Arrays.equals(values, that.values);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+}
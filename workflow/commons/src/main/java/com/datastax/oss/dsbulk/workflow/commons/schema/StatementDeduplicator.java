@@ -0,0 +1,236 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.schema;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.dsbulk.mapping.CQLWord;
+import com.datastax.oss.dsbulk.workflow.commons.statement.CollapsedStatement;
+import com.datastax.oss.dsbulk.workflow.commons.statement.MappedBoundStatement;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import reactor.core.publisher.Flux;
+
+/**
+ * Collapses statements writing to the same row within a bounded window of statements.
+ *
+ * <p>Statements are keyed by their prepared statement and by the values bound to the primary key
+ * columns. When a statement has the same key as a statement already in the window, only one of them
+ * survives: the one with the highest value bound to the {@code USING TIMESTAMP} variable, if both
+ * have one; otherwise, the last one. The other statement is emitted as a {@link
+ * CollapsedStatement}, and should not be written. A statement can only supersede another one if it
+ * sets all the variables that the other one sets; if it does not, the other statement leaves the
+ * window as is.
+ *
+ * <p>Statements leave the window in the order they first entered it, when the window is full, or
+ * when the upstream flow completes. Statements that cannot be deduplicated, such as conditional
+ * statements, non-idempotent statements, or statements not binding the entire primary key, are
+ * emitted immediately. Queries updating collections relative to their current value, e.g. {@code
+ * SET l = l + :l}, must not be deduplicated at all.
+ */
+public class StatementDeduplicator {
+
+  private static final CqlIdentifier APPLIED = CqlIdentifier.fromInternal("[applied]");
+
+  private final int windowSize;
+  private final Set<CQLWord> keyVariables;
+  @Nullable private final CQLWord timestampVariable;
+  private final ConcurrentMap<PreparedStatement, Layout> layouts = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new deduplicator.
+   *
+   * @param windowSize the maximum number of statements to keep in the window; must be strictly
+   *     positive.
+   * @param keyVariables the variables bound to the primary key columns; statements that don't bind
+   *     all of them are never collapsed.
+   * @param timestampVariable the variable bound in the {@code USING TIMESTAMP} clause, or null if
+   *     there is none.
+   */
+  public StatementDeduplicator(
+      int windowSize, @NonNull Set<CQLWord> keyVariables, @Nullable CQLWord timestampVariable) {
+    if (windowSize < 1) {
+      throw new IllegalArgumentException("Invalid deduplication window: " + windowSize);
+    }
+    this.windowSize = windowSize;
+    this.keyVariables = keyVariables;
+    this.timestampVariable = timestampVariable;
+  }
+
+  /**
+   * Deduplicates the given flow of statements; each subscription to the returned flow uses its own
+   * window.
+   */
+  @NonNull
+  public Flux<BatchableStatement<?>> deduplicate(@NonNull Flux<BatchableStatement<?>> statements) {
+    return Flux.defer(
+        () -> {
+          Window window = new Window();
+          return statements
+              .concatMapIterable(window::add)
+              .concatWith(Flux.defer(() -> Flux.fromIterable(window.drain())));
+        });
+  }
+
+  @NonNull
+  private Layout layout(@NonNull PreparedStatement ps) {
+    if (ps.getResultSetDefinitions().contains(APPLIED)) {
+      // conditional updates must all be applied, in order
+      return Layout.NOT_DEDUPLICABLE;
+    }
+    ColumnDefinitions variables = ps.getVariableDefinitions();
+    List<Integer> keyIndices = new ArrayList<>();
+    Set<CQLWord> found = new HashSet<>();
+    int timestampIndex = -1;
+    for (int i = 0; i < variables.size(); i++) {
+      CQLWord name = CQLWord.fromInternal(variables.get(i).getName().asInternal());
+      if (keyVariables.contains(name)) {
+        keyIndices.add(i);
+        found.add(name);
+      } else if (name.equals(timestampVariable)) {
+        timestampIndex = i;
+      }
+    }
+    if (keyVariables.isEmpty() || !found.equals(keyVariables)) {
+      return Layout.NOT_DEDUPLICABLE;
+    }
+    return new Layout(keyIndices.stream().mapToInt(Integer::intValue).toArray(), timestampIndex);
+  }
+
+  private static class Layout {
+
+    private static final Layout NOT_DEDUPLICABLE = new Layout(new int[0], -1);
+
+    private final int[] keyIndices;
+    private final int timestampIndex;
+
+    private Layout(int[] keyIndices, int timestampIndex) {
+      this.keyIndices = keyIndices;
+      this.timestampIndex = timestampIndex;
+    }
+
+    /** Returns the key of the given statement, or null if it cannot be deduplicated. */
+    @Nullable
+    RowKey key(@NonNull BoundStatement bs) {
+      return keyIndices.length == 0 ? null : RowKey.of(bs, keyIndices);
+    }
+
+    /** Returns the winner among two statements with the same key, the second one being the last. */
+    @NonNull
+    BoundStatement winner(@NonNull BoundStatement first, @NonNull BoundStatement last) {
+      if (timestampIndex != -1) {
+        ByteBuffer firstTimestamp = timestamp(first);
+        ByteBuffer lastTimestamp = timestamp(last);
+        if (firstTimestamp != null
+            && lastTimestamp != null
+            && firstTimestamp.getLong(firstTimestamp.position())
+                > lastTimestamp.getLong(lastTimestamp.position())) {
+          return first;
+        }
+      }
+      return last;
+    }
+
+    @Nullable
+    private ByteBuffer timestamp(@NonNull BoundStatement bs) {
+      if (!bs.isSet(timestampIndex)) {
+        return null;
+      }
+      ByteBuffer bytes = bs.getBytesUnsafe(timestampIndex);
+      return bytes == null || bytes.remaining() != 8 ? null : bytes;
+    }
+
+    /** Whether the winner sets all the variables that the loser sets. */
+    static boolean supersedes(@NonNull BoundStatement winner, @NonNull BoundStatement loser) {
+      int size = winner.getPreparedStatement().getVariableDefinitions().size();
+      for (int i = 0; i < size; i++) {
+        if (loser.isSet(i) && !winner.isSet(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private class Window {
+
+    private final Map<RowKey, MappedBoundStatement> entries = new LinkedHashMap<>();
+
+    @NonNull
+    List<BatchableStatement<?>> add(@NonNull BatchableStatement<?> statement) {
+      if (!(statement instanceof MappedBoundStatement)) {
+        return Collections.singletonList(statement);
+      }
+      MappedBoundStatement bs = (MappedBoundStatement) statement;
+      if (Boolean.FALSE.equals(bs.isIdempotent())) {
+        // non-idempotent statements must all be applied, in order
+        return Collections.singletonList(statement);
+      }
+      Layout layout = layouts.computeIfAbsent(bs.getPreparedStatement(), ps -> layout(ps));
+      RowKey key = layout.key(bs);
+      if (key == null) {
+        return Collections.singletonList(statement);
+      }
+      MappedBoundStatement existing = entries.get(key);
+      if (existing == null) {
+        entries.put(key, bs);
+        return evictIfFull();
+      }
+      BoundStatement winner = layout.winner(existing, bs);
+      if (winner == existing && Layout.supersedes(existing, bs)) {
+        return Collections.singletonList(new CollapsedStatement(bs.getRecord()));
+      }
+      // the entry keeps its position in the window
+      entries.put(key, bs);
+      if (winner == bs && Layout.supersedes(bs, existing)) {
+        return Collections.singletonList(new CollapsedStatement(existing.getRecord()));
+      }
+      return Collections.singletonList(existing);
+    }
+
+    @NonNull
+    private List<BatchableStatement<?>> evictIfFull() {
+      if (entries.size() <= windowSize) {
+        return Collections.emptyList();
+      }
+      Iterator<MappedBoundStatement> it = entries.values().iterator();
+      MappedBoundStatement eldest = it.next();
+      it.remove();
+      return Collections.singletonList(eldest);
+    }
+
+    @NonNull
+    List<BatchableStatement<?>> drain() {
+      List<BatchableStatement<?>> remaining = new ArrayList<>(entries.values());
+      entries.clear();
+      return remaining;
+    }
+  }
+}
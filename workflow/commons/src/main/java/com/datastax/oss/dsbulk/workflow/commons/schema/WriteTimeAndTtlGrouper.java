@@ -0,0 +1,270 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.schema;
+
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import com.datastax.oss.dsbulk.mapping.CQLWord;
+import com.datastax.oss.dsbulk.workflow.commons.statement.MappedBoundStatement;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Merges the single-column INSERT statements generated when preserving writetimes and TTLs into as
+ * few statements as possible.
+ *
+ * <p>When timestamps or TTLs are preserved, each regular column is written by its own child INSERT
+ * statement, bound with the column's writetime and TTL. In practice, most cells of a given row
+ * share the same writetime and TTL; this class groups the child statements of a record by writetime
+ * and TTL values, and replaces each group with a single INSERT writing all the columns in the
+ * group.
+ *
+ * <p>The INSERT statement for a given group of columns is prepared asynchronously the first time
+ * the group is encountered, and then cached; until it is prepared, the group's child statements are
+ * executed as is, so that grouping never blocks the calling thread. To avoid preparing too many
+ * statements when cells have highly variable writetimes and TTLs, at most {@link
+ * #MAX_PREPARED_GROUPS} statements are prepared; groups encountered after that are not merged.
+ */
+public class WriteTimeAndTtlGrouper {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WriteTimeAndTtlGrouper.class);
+
+  static final int MAX_PREPARED_GROUPS = 1024;
+
+  private static final ByteBuffer UNSET = ProtocolConstants.UNSET_VALUE;
+
+  /**
+   * A child INSERT statement writing one single regular column, along with its writetime or TTL.
+   */
+  public static class GroupableInsert {
+
+    private final int index;
+    private final CQLWord column;
+    private final CQLWord writetime;
+    private final CQLWord ttl;
+
+    /**
+     * Creates a new groupable insert.
+     *
+     * @param index the index of the child statement in the list of prepared child statements.
+     * @param column the column written by the child statement; its bound variable must have the
+     *     same name.
+     * @param writetime the bound variable holding the column writetime, or {@code null} if the
+     *     statement does not have one.
+     * @param ttl the bound variable holding the column TTL, or {@code null} if the statement does
+     *     not have one.
+     */
+    public GroupableInsert(
+        int index, @NonNull CQLWord column, @Nullable CQLWord writetime, @Nullable CQLWord ttl) {
+      this.index = index;
+      this.column = column;
+      this.writetime = writetime;
+      this.ttl = ttl;
+    }
+
+    @NonNull
+    public CQLWord getColumn() {
+      return column;
+    }
+
+    @Nullable
+    public CQLWord getWritetime() {
+      return writetime;
+    }
+
+    @Nullable
+    public CQLWord getTtl() {
+      return ttl;
+    }
+  }
+
+  private final ImmutableList<GroupableInsert> inserts;
+  private final ImmutableList<CQLWord> primaryKeyVariables;
+  private final Function<List<GroupableInsert>, CompletionStage<PreparedStatement>> preparer;
+  private final ConcurrentMap<BitSet, CompletableFuture<PreparedStatement>> preparedGroups =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new grouper.
+   *
+   * @param inserts the child statements that can be grouped.
+   * @param primaryKeyVariables the primary key variables, present in all child statements.
+   * @param preparer a function that asynchronously prepares an INSERT statement writing all the
+   *     columns of the given group, using the writetime and TTL variables of its first member.
+   */
+  public WriteTimeAndTtlGrouper(
+      @NonNull List<GroupableInsert> inserts,
+      @NonNull List<CQLWord> primaryKeyVariables,
+      @NonNull Function<List<GroupableInsert>, CompletionStage<PreparedStatement>> preparer) {
+    this.inserts = ImmutableList.copyOf(inserts);
+    this.primaryKeyVariables = ImmutableList.copyOf(primaryKeyVariables);
+    this.preparer = preparer;
+  }
+
+  /**
+   * Groups the given child statements, all bound for the same record.
+   *
+   * @param statements the bound child statements; must all be instances of {@link
+   *     MappedBoundStatement}.
+   * @return the statements to execute, with each group of child statements sharing the same
+   *     writetime and TTL replaced with a single statement.
+   */
+  @NonNull
+  public BatchableStatement<?>[] group(@NonNull BatchableStatement<?>[] statements) {
+    Map<List<Object>, List<GroupableInsert>> groups = new LinkedHashMap<>();
+    for (GroupableInsert insert : inserts) {
+      MappedBoundStatement child = (MappedBoundStatement) statements[insert.index];
+      groups.computeIfAbsent(groupingKey(insert, child), k -> new ArrayList<>(2)).add(insert);
+    }
+    if (groups.size() == inserts.size()) {
+      // nothing to group
+      return statements;
+    }
+    List<BatchableStatement<?>> grouped = new ArrayList<>(statements.length);
+    BitSet merged = new BitSet(statements.length);
+    for (List<GroupableInsert> group : groups.values()) {
+      if (group.size() > 1) {
+        PreparedStatement ps = prepare(group);
+        if (ps != null) {
+          grouped.add(merge(ps, group, statements));
+          for (GroupableInsert insert : group) {
+            merged.set(insert.index);
+          }
+        }
+      }
+    }
+    if (merged.isEmpty()) {
+      // no group could be merged, e.g. because their statements are not prepared yet
+      return statements;
+    }
+    for (int i = 0; i < statements.length; i++) {
+      if (!merged.get(i)) {
+        grouped.add(statements[i]);
+      }
+    }
+    return grouped.toArray(new BatchableStatement<?>[0]);
+  }
+
+  @NonNull
+  private static List<Object> groupingKey(
+      @NonNull GroupableInsert insert, @NonNull MappedBoundStatement child) {
+    // statements are grouped by shape first, then by values
+    return Arrays.asList(
+        insert.writetime != null,
+        insert.writetime == null ? null : child.getBytesUnsafe(insert.writetime.asIdentifier()),
+        insert.ttl != null,
+        insert.ttl == null ? null : child.getBytesUnsafe(insert.ttl.asIdentifier()));
+  }
+
+  /**
+   * Returns the statement prepared for the given group, or null if it is not prepared yet, or
+   * cannot be.
+   */
+  @Nullable
+  private PreparedStatement prepare(@NonNull List<GroupableInsert> group) {
+    BitSet key = new BitSet();
+    for (GroupableInsert insert : group) {
+      key.set(insert.index);
+    }
+    CompletableFuture<PreparedStatement> future = preparedGroups.get(key);
+    if (future == null) {
+      if (preparedGroups.size() >= MAX_PREPARED_GROUPS) {
+        return null;
+      }
+      CompletableFuture<PreparedStatement> preparing = new CompletableFuture<>();
+      future = preparedGroups.putIfAbsent(key, preparing);
+      if (future == null) {
+        future = preparing;
+        startPreparing(group, preparing);
+      }
+    }
+    // failed preparations are not retried, and their groups are never merged
+    return future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+  }
+
+  private void startPreparing(
+      @NonNull List<GroupableInsert> group,
+      @NonNull CompletableFuture<PreparedStatement> preparing) {
+    try {
+      preparer
+          .apply(group)
+          .whenComplete(
+              (ps, error) -> {
+                if (error == null) {
+                  preparing.complete(ps);
+                } else {
+                  LOGGER.debug("Could not prepare grouped INSERT statement", error);
+                  preparing.completeExceptionally(error);
+                }
+              });
+    } catch (RuntimeException e) {
+      LOGGER.debug("Could not prepare grouped INSERT statement", e);
+      preparing.completeExceptionally(e);
+    }
+  }
+
+  @NonNull
+  private MappedBoundStatement merge(
+      @NonNull PreparedStatement ps,
+      @NonNull List<GroupableInsert> group,
+      @NonNull BatchableStatement<?>[] statements) {
+    GroupableInsert first = group.get(0);
+    MappedBoundStatement firstChild = (MappedBoundStatement) statements[first.index];
+    List<CQLWord> sharedVariables = new ArrayList<>(primaryKeyVariables);
+    if (first.writetime != null) {
+      sharedVariables.add(first.writetime);
+    }
+    if (first.ttl != null) {
+      sharedVariables.add(first.ttl);
+    }
+    BoundStatementBuilder builder = ps.boundStatementBuilder();
+    long dataSize = 0;
+    // unset variables remain unset
+    for (CQLWord variable : sharedVariables) {
+      ByteBuffer bb = firstChild.getBytesUnsafe(variable.asIdentifier());
+      if (bb != UNSET) {
+        builder = builder.setBytesUnsafe(variable.asIdentifier(), bb);
+        dataSize += bb == null ? 0 : bb.remaining();
+      }
+    }
+    for (GroupableInsert insert : group) {
+      MappedBoundStatement child = (MappedBoundStatement) statements[insert.index];
+      ByteBuffer bb = child.getBytesUnsafe(insert.column.asIdentifier());
+      if (bb != UNSET) {
+        builder = builder.setBytesUnsafe(insert.column.asIdentifier(), bb);
+        dataSize += bb == null ? 0 : bb.remaining();
+      }
+    }
+    return new MappedBoundStatement(firstChild.getRecord(), builder.build(), dataSize);
+  }
+}
@@ -136,6 +136,14 @@ public class BatchSettings {
     return bufferSize;
   }
 
+  public int getMaxBatchStatements() {
+    return maxBatchStatements;
+  }
+
+  public long getMaxSizeInBytes() {
+    return maxSizeInBytes;
+  }
+
   public ReactiveStatementBatcher newStatementBatcher(CqlSession session) {
     ServiceLoader<ReactiveStatementBatcherFactory> loader =
         ServiceLoader.load(ReactiveStatementBatcherFactory.class);
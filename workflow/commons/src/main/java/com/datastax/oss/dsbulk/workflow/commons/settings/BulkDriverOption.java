@@ -19,6 +19,7 @@ import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverOption;
 import com.datastax.oss.dsbulk.workflow.commons.policies.lbp.SimpleNodeDistanceEvaluator;
 import com.datastax.oss.dsbulk.workflow.commons.policies.retry.MultipleRetryPolicy;
+import com.datastax.oss.dsbulk.workflow.commons.policies.specex.ExponentialSpeculativeExecutionPolicy;
 import edu.umd.cs.findbugs.annotations.NonNull;
 
 /** Driver options that are defined by DSBulk. */
@@ -39,6 +40,30 @@ public enum BulkDriverOption implements DriverOption {
    */
   RETRY_POLICY_MAX_RETRIES("advanced.retry-policy.max-retries"),
 
+  /**
+   * The delay before the first retry of a request that failed because of an overload, when using
+   * {@link MultipleRetryPolicy}. Zero disables backoff.
+   *
+   * <p>Expected type: duration.
+   */
+  RETRY_POLICY_BACKOFF_BASE_DELAY("advanced.retry-policy.backoff.base-delay"),
+
+  /**
+   * The maximum delay between two retries of a request that failed because of an overload, when
+   * using {@link MultipleRetryPolicy}.
+   *
+   * <p>Expected type: duration.
+   */
+  RETRY_POLICY_BACKOFF_MAX_DELAY("advanced.retry-policy.backoff.max-delay"),
+
+  /**
+   * The maximum delay before a speculative execution, when using {@link
+   * ExponentialSpeculativeExecutionPolicy}.
+   *
+   * <p>Expected type: duration.
+   */
+  SPECULATIVE_EXECUTION_MAX_DELAY("advanced.speculative-execution-policy.max-delay"),
+
   /**
    * The list of allowed nodes, for use when {@link SimpleNodeDistanceEvaluator} is used.
    *
@@ -30,9 +30,7 @@ import com.datastax.oss.dsbulk.codecs.api.util.CodecUtils;
 import com.datastax.oss.dsbulk.codecs.api.util.OverflowStrategy;
 import com.datastax.oss.dsbulk.codecs.api.util.TimeUUIDGenerator;
 import com.datastax.oss.dsbulk.codecs.text.TextConversionContext;
-import com.datastax.oss.dsbulk.codecs.text.json.JsonCodecUtils;
 import com.datastax.oss.dsbulk.config.ConfigUtils;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigException;
 import java.math.BigDecimal;
@@ -78,7 +76,6 @@ public class CodecSettings {
   private String dateFormat;
   private String timeFormat;
   private String timestampFormat;
-  private ObjectMapper objectMapper;
   private ZoneId timeZone;
   private TimeUnit timeUnit;
   private ZonedDateTime epoch;
@@ -132,9 +129,6 @@ public class CodecSettings {
       // UUID
       generator = config.getEnum(TimeUUIDGenerator.class, TIME_UUID_GENERATOR);
 
-      // json
-      objectMapper = JsonCodecUtils.getObjectMapper();
-
       // Binary
       binaryFormat = getBinaryFormat();
 
@@ -202,7 +196,6 @@ public class CodecSettings {
       boolean allowExtraFields, boolean allowMissingFields) {
     ConversionContext context =
         new TextConversionContext()
-            .setObjectMapper(objectMapper)
             .setLocale(locale)
             .setNullStrings(nullStrings)
             .setBooleanInputWords(booleanInputWords)
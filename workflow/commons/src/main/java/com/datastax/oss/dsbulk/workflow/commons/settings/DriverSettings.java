@@ -70,12 +70,14 @@ import com.datastax.oss.driver.internal.core.ssl.SslHandlerFactory;
 import com.datastax.oss.driver.internal.core.time.AtomicTimestampGenerator;
 import com.datastax.oss.driver.internal.core.time.ServerSideTimestampGenerator;
 import com.datastax.oss.driver.internal.core.time.ThreadLocalTimestampGenerator;
+import com.datastax.oss.driver.internal.core.type.codec.registry.DefaultCodecRegistry;
 import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
 import com.datastax.oss.driver.shaded.guava.common.base.Joiner;
 import com.datastax.oss.driver.shaded.guava.common.collect.BiMap;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
 import com.datastax.oss.dsbulk.config.ConfigUtils;
 import com.datastax.oss.dsbulk.config.shortcuts.ShortcutsFactory;
+import com.datastax.oss.dsbulk.workflow.api.session.SharedSessions;
 import com.datastax.oss.dsbulk.workflow.api.utils.WorkflowUtils;
 import com.datastax.oss.dsbulk.workflow.commons.auth.AuthProviderFactory;
 import com.datastax.oss.dsbulk.workflow.commons.ssl.SslHandlerFactoryFactory;
@@ -546,8 +548,29 @@ public class DriverSettings {
     return mergedDriverConfig;
   }
 
+  /**
+   * Creates a new session, or returns the shared session for the current driver configuration if
+   * {@linkplain SharedSessions session sharing} is enabled.
+   *
+   * <p>Shared sessions are named after the first operation using them, but do not belong to it:
+   * they are created with a default codec registry, which is equivalent to the registries of the
+   * operations since DSBulk does not register custom codecs, and with a metric registry of their
+   * own. Therefore, the metric registries of the operations sharing a session do not contain driver
+   * metrics.
+   */
   public CqlSession newSession(
       String executionId, MutableCodecRegistry codecRegistry, MetricRegistry metricRegistry) {
+    if (SharedSessions.isEnabled()) {
+      return SharedSessions.getOrCreate(
+          getDriverConfig(),
+          () ->
+              buildSession(executionId, new DefaultCodecRegistry("shared"), new MetricRegistry()));
+    }
+    return buildSession(executionId, codecRegistry, metricRegistry);
+  }
+
+  private CqlSession buildSession(
+      String executionId, MutableCodecRegistry codecRegistry, MetricRegistry metricRegistry) {
     CqlSessionBuilder sessionBuilder =
         new BulkLoaderSessionBuilder()
             .withApplicationVersion(getBulkLoaderVersion())
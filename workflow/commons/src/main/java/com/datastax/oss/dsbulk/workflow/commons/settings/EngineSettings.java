@@ -27,6 +27,9 @@ public class EngineSettings {
   private static final String EXECUTION_ID = "executionId";
   private static final String MAX_CONCURRENT_QUERIES = "maxConcurrentQueries";
   private static final String DATA_SIZE_SAMPLING_ENABLED = "dataSizeSamplingEnabled";
+  private static final String CONTINUOUS_SAMPLING_ENABLED = "continuousSamplingEnabled";
+  private static final String HEAP_PRESSURE_THRESHOLD = "heapPressureThreshold";
+  private static final String GC_OVERHEAD_THRESHOLD = "gcOverheadThreshold";
 
   private final Config config;
 
@@ -34,6 +37,9 @@ public class EngineSettings {
   private String executionId;
   private int maxConcurrentQueries;
   private boolean dataSizeSamplingEnabled;
+  private boolean continuousSamplingEnabled;
+  private double heapPressureThreshold;
+  private double gcOverheadThreshold;
 
   EngineSettings(Config config) {
     this.config = config;
@@ -48,6 +54,9 @@ public class EngineSettings {
               ? -1
               : ConfigUtils.getThreads(config, MAX_CONCURRENT_QUERIES);
       dataSizeSamplingEnabled = config.getBoolean(DATA_SIZE_SAMPLING_ENABLED);
+      continuousSamplingEnabled = config.getBoolean(CONTINUOUS_SAMPLING_ENABLED);
+      heapPressureThreshold = getRatio(HEAP_PRESSURE_THRESHOLD);
+      gcOverheadThreshold = getRatio(GC_OVERHEAD_THRESHOLD);
     } catch (ConfigException e) {
       throw ConfigUtils.convertConfigException(e, "dsbulk.engine");
     }
@@ -68,4 +77,35 @@ public class EngineSettings {
   public boolean isDataSizeSamplingEnabled() {
     return dataSizeSamplingEnabled;
   }
+
+  public boolean isContinuousSamplingEnabled() {
+    return continuousSamplingEnabled;
+  }
+
+  /**
+   * @return the fraction of the maximum heap size above which the heap is considered under
+   *     pressure, or zero if heap occupancy should not be watched.
+   */
+  public double getHeapPressureThreshold() {
+    return heapPressureThreshold;
+  }
+
+  /**
+   * @return the fraction of time spent in garbage collection above which the heap is considered
+   *     under pressure, or zero if garbage collection overhead should not be watched.
+   */
+  public double getGcOverheadThreshold() {
+    return gcOverheadThreshold;
+  }
+
+  private double getRatio(String path) {
+    double ratio = config.getDouble(path);
+    if (ratio < 0 || ratio >= 1) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Invalid value for dsbulk.engine.%s, expecting a number between 0 (inclusive) and 1 (exclusive), got '%s'",
+              path, ratio));
+    }
+    return ratio;
+  }
 }
@@ -21,7 +21,10 @@ import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.DefaultConsistencyLevel;
 import com.datastax.oss.driver.api.core.ProtocolVersion;
 import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
 import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.retry.RetryPolicy;
 import com.datastax.oss.dsbulk.config.ConfigUtils;
 import com.datastax.oss.dsbulk.executor.api.BulkExecutor;
 import com.datastax.oss.dsbulk.executor.api.BulkExecutorBuilder;
@@ -29,6 +32,7 @@ import com.datastax.oss.dsbulk.executor.api.BulkExecutorBuilderFactory;
 import com.datastax.oss.dsbulk.executor.api.listener.ExecutionListener;
 import com.datastax.oss.dsbulk.executor.api.reader.BulkReader;
 import com.datastax.oss.dsbulk.executor.api.writer.BulkWriter;
+import com.datastax.oss.dsbulk.workflow.commons.policies.retry.MultipleRetryPolicy;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigException;
 import edu.umd.cs.findbugs.annotations.NonNull;
@@ -129,9 +133,26 @@ public class ExecutorSettings {
         .withMaxRequestsPerSecond(maxPerSecond)
         .withMaxBytesPerSecond(maxBytesPerSecond)
         .failSafe();
+    configureRetryBackoff(session, builder);
     return builder.build();
   }
 
+  private static void configureRetryBackoff(
+      @NonNull CqlSession session, @NonNull BulkExecutorBuilder<?> builder) {
+    DriverContext context = session.getContext();
+    if (context != null) {
+      RetryPolicy retryPolicy = context.getRetryPolicy(DriverExecutionProfile.DEFAULT_NAME);
+      if (retryPolicy instanceof MultipleRetryPolicy) {
+        MultipleRetryPolicy policy = (MultipleRetryPolicy) retryPolicy;
+        if (policy.isBackoffEnabled()) {
+          // overload errors are rethrown by the policy, and retried by the executor after a delay
+          builder.withRetryBackoff(
+              policy.getMaxRetryCount(), policy.getBaseDelay(), policy.getMaxDelay());
+        }
+      }
+    }
+  }
+
   protected boolean checkContinuousPaging(@NonNull CqlSession session, boolean searchQuery) {
     if (continuousPagingEnabled) {
       boolean isContinuousPagingEnabledByUser =
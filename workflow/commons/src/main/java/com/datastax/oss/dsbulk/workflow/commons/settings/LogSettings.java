@@ -24,6 +24,7 @@ import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.FileAppender;
 import ch.qos.logback.core.OutputStreamAppender;
 import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.session.Session;
 import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
@@ -37,6 +38,7 @@ import com.datastax.oss.dsbulk.format.statement.StatementFormatter;
 import com.datastax.oss.dsbulk.workflow.api.error.ErrorThreshold;
 import com.datastax.oss.dsbulk.workflow.api.log.OperationDirectory;
 import com.datastax.oss.dsbulk.workflow.api.log.OperationDirectoryResolver;
+import com.datastax.oss.dsbulk.workflow.api.utils.OperationScope;
 import com.datastax.oss.dsbulk.workflow.api.utils.WorkflowUtils;
 import com.datastax.oss.dsbulk.workflow.commons.log.LogManager;
 import com.datastax.oss.dsbulk.workflow.commons.log.checkpoint.CheckpointManager;
@@ -318,7 +320,7 @@ public class LogSettings {
     ple.setCharset(StandardCharsets.UTF_8);
     ple.start();
     FileAppender<ILoggingEvent> mainLogFileAppender = new FileAppender<>();
-    mainLogFileAppender.setName(MAIN_LOG_FILE_APPENDER);
+    mainLogFileAppender.setName(mainLogFileAppenderName());
     mainLogFileAppender.setFile(mainLogFile.toFile().getAbsolutePath());
     mainLogFileAppender.setEncoder(ple);
     mainLogFileAppender.setContext(lc);
@@ -327,10 +329,30 @@ public class LogSettings {
     thresholdFilter.setLevel("INFO");
     thresholdFilter.start();
     mainLogFileAppender.addFilter(thresholdFilter);
+    OperationScope scope = OperationScope.current();
+    if (scope != null) {
+      // when running several operations in the same JVM, only log the events of this operation to
+      // its file, and stop logging to it once the operation is done
+      mainLogFileAppender.addFilter(new OperationScopeFilter(scope));
+      scope.onClose(
+          () -> {
+            root.detachAppender(mainLogFileAppender);
+            mainLogFileAppender.stop();
+          });
+    }
     mainLogFileAppender.start();
     root.addAppender(mainLogFileAppender);
   }
 
+  /**
+   * Returns the name of the main log file appender of the current operation; operations running in
+   * the same JVM each have their own appender.
+   */
+  private static String mainLogFileAppenderName() {
+    OperationScope scope = OperationScope.current();
+    return scope == null ? MAIN_LOG_FILE_APPENDER : MAIN_LOG_FILE_APPENDER + "-" + scope.getId();
+  }
+
   private static void installJavaLoggingToSLF4JBridge() {
     SLF4JBridgeHandler.removeHandlersForRootLogger();
     SLF4JBridgeHandler.install();
@@ -349,7 +371,7 @@ public class LogSettings {
   @VisibleForTesting
   public static void setVerbosityQuiet() {
     setAppenderThreshold(CONSOLE_APPENDER, "WARN");
-    setAppenderThreshold(MAIN_LOG_FILE_APPENDER, "WARN");
+    setAppenderThreshold(mainLogFileAppenderName(), "WARN");
     // raise log levels to WARN across the board
     seLoggerThreshold("com.datastax.oss.dsbulk", Level.WARN);
     seLoggerThreshold("com.datastax.oss.driver", Level.WARN);
@@ -361,7 +383,7 @@ public class LogSettings {
   @VisibleForTesting
   public static void setVerbosityHigh() {
     setAppenderThreshold(CONSOLE_APPENDER, "DEBUG");
-    setAppenderThreshold(MAIN_LOG_FILE_APPENDER, "DEBUG");
+    setAppenderThreshold(mainLogFileAppenderName(), "DEBUG");
     // downgrade log levels to DEBUG (dsbulk) and INFO (driver, Netty, Reactor)
     seLoggerThreshold("com.datastax.oss.dsbulk", Level.DEBUG);
     seLoggerThreshold("com.datastax.oss.driver", Level.INFO);
@@ -373,9 +395,9 @@ public class LogSettings {
   @VisibleForTesting
   public static void setVerbosityMax() {
     setAppenderThreshold(CONSOLE_APPENDER, "TRACE");
-    setAppenderThreshold(MAIN_LOG_FILE_APPENDER, "TRACE");
+    setAppenderThreshold(mainLogFileAppenderName(), "TRACE");
     setAppenderEncoderPattern(CONSOLE_APPENDER, DEBUG_LAYOUT_PATTERN);
-    setAppenderEncoderPattern(MAIN_LOG_FILE_APPENDER, DEBUG_LAYOUT_PATTERN);
+    setAppenderEncoderPattern(mainLogFileAppenderName(), DEBUG_LAYOUT_PATTERN);
     // downgrade log levels to TRACE (dsbulk, driver) and DEBUG (Netty, Reactor)
     seLoggerThreshold("com.datastax.oss.dsbulk", Level.TRACE);
     seLoggerThreshold("com.datastax.oss.driver", Level.TRACE);
@@ -387,7 +409,7 @@ public class LogSettings {
   @VisibleForTesting
   public static void setVerbosityNormal() {
     setAppenderThreshold(CONSOLE_APPENDER, "INFO");
-    setAppenderThreshold(MAIN_LOG_FILE_APPENDER, "INFO");
+    setAppenderThreshold(mainLogFileAppenderName(), "INFO");
     // These levels correspond to the ones declared in logback.xml,
     // but it doesn't hurt to force them programmatically
     seLoggerThreshold("com.datastax.oss.dsbulk", Level.INFO);
@@ -451,4 +473,20 @@ public class LogSettings {
     LOGGER.warn(
         "Numeric verbosity levels are deprecated, use 'quiet' (0), 'normal' (1), 'high' (2) or 'max' (3) instead.");
   }
+
+  /** Accepts the events logged by the threads of the given operation, and denies all others. */
+  private static class OperationScopeFilter extends Filter<ILoggingEvent> {
+
+    private final OperationScope scope;
+
+    private OperationScopeFilter(OperationScope scope) {
+      this.scope = scope;
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+      // filters are invoked by the thread logging the event
+      return OperationScope.current() == scope ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+  }
 }
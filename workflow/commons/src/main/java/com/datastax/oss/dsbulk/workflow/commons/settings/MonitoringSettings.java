@@ -45,6 +45,7 @@ public class MonitoringSettings {
   private static final String EXPECTED_WRITES = "expectedWrites";
   private static final String EXPECTED_READS = "expectedReads";
   private static final String TRACK_BYTES = "trackBytes";
+  private static final String STAGE_METRICS = "stageMetrics";
   private static final String JMX = "jmx";
   private static final String CSV = "csv";
   private static final String CONSOLE = "console";
@@ -59,6 +60,7 @@ public class MonitoringSettings {
   private long expectedWrites;
   private long expectedReads;
   private boolean trackBytes;
+  private boolean stageMetrics;
   private boolean jmx;
   private boolean csv;
   private boolean console;
@@ -88,6 +90,7 @@ public class MonitoringSettings {
       expectedWrites = config.getLong(EXPECTED_WRITES);
       expectedReads = config.getLong(EXPECTED_READS);
       trackBytes = config.getBoolean(TRACK_BYTES);
+      stageMetrics = config.getBoolean(STAGE_METRICS);
       jmx = config.getBoolean(JMX);
       csv = config.getBoolean(CSV);
       console = config.getBoolean(CONSOLE);
@@ -105,7 +108,11 @@ public class MonitoringSettings {
     }
     PullConfig pullConfig = null;
     if (pullEnabled) {
-      pullConfig = new PullConfig(config.getString("pull.hostname"), config.getInt("pull.port"));
+      pullConfig =
+          new PullConfig(
+              config.getString("pull.hostname"),
+              config.getInt("pull.port"),
+              config.getDuration("pull.snapshotMaxAge"));
     }
     PushConfig pushConfig = null;
     if (pushEnabled) {
@@ -116,7 +123,8 @@ public class MonitoringSettings {
               config.getString("push.password"),
               config.getBoolean("push.groupBy.instance"),
               config.getBoolean("push.groupBy.operation"),
-              ConfigUtils.getStringMap(config, "push.groupBy.keys"));
+              ConfigUtils.getStringMap(config, "push.groupBy.keys"),
+              config.getDuration("push.interval"));
     }
     return new PrometheusManager(
         registry,
@@ -156,6 +164,7 @@ public class MonitoringSettings {
         expectedWrites,
         expectedReads,
         trackBytes,
+        stageMetrics,
         jmx,
         csv,
         console,
@@ -85,6 +85,7 @@ import com.datastax.oss.dsbulk.mapping.MappingInspector;
 import com.datastax.oss.dsbulk.mapping.MappingPreference;
 import com.datastax.oss.dsbulk.mapping.TypedCQLLiteral;
 import com.datastax.oss.dsbulk.partitioner.TokenRangeReadStatementGenerator;
+import com.datastax.oss.dsbulk.workflow.commons.schema.CounterAggregator;
 import com.datastax.oss.dsbulk.workflow.commons.schema.DefaultReadResultCounter;
 import com.datastax.oss.dsbulk.workflow.commons.schema.DefaultReadResultMapper;
 import com.datastax.oss.dsbulk.workflow.commons.schema.DefaultRecordMapper;
@@ -93,6 +94,9 @@ import com.datastax.oss.dsbulk.workflow.commons.schema.QueryInspector;
 import com.datastax.oss.dsbulk.workflow.commons.schema.ReadResultCounter;
 import com.datastax.oss.dsbulk.workflow.commons.schema.ReadResultMapper;
 import com.datastax.oss.dsbulk.workflow.commons.schema.RecordMapper;
+import com.datastax.oss.dsbulk.workflow.commons.schema.StatementDeduplicator;
+import com.datastax.oss.dsbulk.workflow.commons.schema.WriteTimeAndTtlGrouper;
+import com.datastax.oss.dsbulk.workflow.commons.schema.WriteTimeAndTtlGrouper.GroupableInsert;
 import com.datastax.oss.dsbulk.workflow.commons.settings.StatsSettings.StatisticsMode;
 import com.datastax.oss.dsbulk.workflow.commons.statement.RangeReadBoundStatement;
 import com.datastax.oss.dsbulk.workflow.commons.statement.RangeReadStatement;
@@ -102,6 +106,7 @@ import com.typesafe.config.ConfigException;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.net.URI;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -145,8 +150,12 @@ public class SchemaSettings {
   private static final String QUERY_TIMESTAMP = "queryTimestamp";
   private static final String PRESERVE_TIMESTAMP = "preserveTimestamp";
   private static final String PRESERVE_TTL = "preserveTtl";
+  private static final String GROUP_BY_WRITETIME_AND_TTL = "groupByWritetimeAndTtl";
   private static final String CORE = "Core";
   private static final String SPLITS = "splits";
+  private static final String DEDUPLICATION_WINDOW = "deduplicationWindow";
+  private static final String COUNTER_AGGREGATION_WINDOW = "counterAggregationWindow";
+  private static final String COUNTER_AGGREGATION_MAX_AGE = "counterAggregationMaxAge";
 
   private static final Predicate<FunctionCall> WRITETIME_OR_TTL =
       fc -> fc.getFunctionName().equals(WRITETIME) || fc.getFunctionName().equals(TTL);
@@ -158,11 +167,17 @@ public class SchemaSettings {
   private boolean allowExtraFields;
   private boolean allowMissingFields;
   private int splits;
+  private int deduplicationWindow;
+  private int counterAggregationWindow;
+  private Duration counterAggregationMaxAge;
   private MappingInspector mapping;
   private int ttlSeconds;
   private long timestampMicros;
   private boolean preserveTimestamp;
   private boolean preserveTtl;
+  private boolean groupByWritetimeAndTtl;
+  private List<GroupableInsert> groupableInserts = Collections.emptyList();
+  private Set<Field> mappedFields = Collections.emptySet();
   private RelationMetadata table;
   private KeyspaceMetadata keyspace;
   private CQLWord keyspaceName;
@@ -272,6 +287,7 @@ public class SchemaSettings {
 
       preserveTimestamp = config.getBoolean(PRESERVE_TIMESTAMP);
       preserveTtl = config.getBoolean(PRESERVE_TTL);
+      groupByWritetimeAndTtl = config.getBoolean(GROUP_BY_WRITETIME_AND_TTL);
 
       // Custom Query
 
@@ -473,6 +489,27 @@ public class SchemaSettings {
       allowExtraFields = config.getBoolean(ALLOW_EXTRA_FIELDS);
       allowMissingFields = config.getBoolean(ALLOW_MISSING_FIELDS);
       splits = ConfigUtils.getThreads(config, SPLITS);
+      deduplicationWindow = config.getInt(DEDUPLICATION_WINDOW);
+      if (deduplicationWindow < 0) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Invalid value for dsbulk.schema.%s: expecting positive integer or zero, got: %s",
+                DEDUPLICATION_WINDOW, deduplicationWindow));
+      }
+      counterAggregationWindow = config.getInt(COUNTER_AGGREGATION_WINDOW);
+      if (counterAggregationWindow < 0) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Invalid value for dsbulk.schema.%s: expecting positive integer or zero, got: %s",
+                COUNTER_AGGREGATION_WINDOW, counterAggregationWindow));
+      }
+      counterAggregationMaxAge = config.getDuration(COUNTER_AGGREGATION_MAX_AGE);
+      if (counterAggregationMaxAge.isNegative()) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Invalid value for dsbulk.schema.%s: expecting positive duration or zero, got: %s",
+                COUNTER_AGGREGATION_MAX_AGE, config.getString(COUNTER_AGGREGATION_MAX_AGE)));
+      }
 
       // Final checks related to graph operations
 
@@ -528,6 +565,7 @@ public class SchemaSettings {
     Mapping mapping =
         prepareStatementAndCreateMapping(
             session, batchingEnabled, EnumSet.noneOf(StatisticsMode.class));
+    mappedFields = mapping.fields();
     ProtocolVersion protocolVersion = session.getContext().getProtocolVersion();
     if (protocolVersion.getCode() < DefaultProtocolVersion.V4.getCode() && nullToUnset) {
       LOGGER.warn(
@@ -537,6 +575,16 @@ public class SchemaSettings {
               protocolVersion));
       nullToUnset = false;
     }
+    WriteTimeAndTtlGrouper grouper = null;
+    // grouping requires the generated batch to be unwrapped into its child statements, which only
+    // happens when batching is enabled
+    if (groupByWritetimeAndTtl && preparedStatements.size() > 1 && groupableInserts.size() > 1) {
+      grouper =
+          new WriteTimeAndTtlGrouper(
+              groupableInserts,
+              primaryKeyColumns(),
+              group -> session.prepareAsync(inferGroupedInsertQuery(group)));
+    }
     return new DefaultRecordMapper(
         preparedStatements,
         partitionKeyVariables(),
@@ -546,7 +594,94 @@ public class SchemaSettings {
         recordMetadata,
         nullToUnset,
         allowExtraFields,
-        allowMissingFields);
+        allowMissingFields,
+        grouper);
+  }
+
+  /**
+   * Creates a new {@link StatementDeduplicator} for the statements produced by the record mapper;
+   * must be called after {@link #createRecordMapper(CqlSession, RecordMetadata, boolean)}.
+   *
+   * @return the deduplicator, or null if deduplication is disabled, or if the statements cannot be
+   *     deduplicated, because they target a counter table, update collections relative to their
+   *     current value, or don't bind the entire primary key.
+   */
+  @Nullable
+  public StatementDeduplicator createStatementDeduplicator() {
+    if (deduplicationWindow == 0) {
+      return null;
+    }
+    if (queryInspector == null) {
+      throw new IllegalStateException(
+          "Cannot create statement deduplicator before creating the record mapper");
+    }
+    if (isCounterTable()) {
+      // counter updates are not idempotent and must all be applied
+      LOGGER.warn(
+          "Deduplication is not supported for counter tables; ignoring schema.deduplicationWindow");
+      return null;
+    }
+    if (queryInspector.hasRelativeAssignments()) {
+      // collection appends, prepends and removals must all be applied, in order
+      LOGGER.warn(
+          "Deduplication is not supported for queries updating collections relative to their "
+              + "current value; ignoring schema.deduplicationWindow");
+      return null;
+    }
+    Set<CQLWord> keyVariables = new HashSet<>(partitionKeyVariables());
+    if (keyVariables.size() != table.getPartitionKey().size()) {
+      LOGGER.warn(
+          "The query does not bind the entire partition key; ignoring schema.deduplicationWindow");
+      return null;
+    }
+    if (!mutatesOnlyStaticColumns()) {
+      Set<CQLWord> clusteringVariables = clusteringColumnVariables();
+      if (clusteringVariables.size() != table.getClusteringColumns().size()) {
+        LOGGER.warn(
+            "The query does not bind the entire primary key; ignoring schema.deduplicationWindow");
+        return null;
+      }
+      keyVariables.addAll(clusteringVariables);
+    }
+    return new StatementDeduplicator(
+        deduplicationWindow, keyVariables, queryInspector.getUsingTimestampVariable().orElse(null));
+  }
+
+  /**
+   * Creates a new {@link CounterAggregator} for the statements produced by the record mapper; must
+   * be called after {@link #createRecordMapper(CqlSession, RecordMetadata, boolean)}.
+   *
+   * @return the aggregator, or null if aggregation is disabled, if the table is not a counter
+   *     table, or if the query does not bind the entire primary key.
+   */
+  @Nullable
+  public CounterAggregator createCounterAggregator() {
+    if (counterAggregationWindow == 0) {
+      return null;
+    }
+    if (queryInspector == null) {
+      throw new IllegalStateException(
+          "Cannot create counter aggregator before creating the record mapper");
+    }
+    if (!isCounterTable()) {
+      return null;
+    }
+    Set<CQLWord> keyVariables = new HashSet<>(partitionKeyVariables());
+    if (keyVariables.size() != table.getPartitionKey().size()) {
+      LOGGER.warn(
+          "The query does not bind the entire partition key; ignoring schema.counterAggregationWindow");
+      return null;
+    }
+    if (!mutatesOnlyStaticColumns()) {
+      Set<CQLWord> clusteringVariables = clusteringColumnVariables();
+      if (clusteringVariables.size() != table.getClusteringColumns().size()) {
+        LOGGER.warn(
+            "The query does not bind the entire primary key; ignoring schema.counterAggregationWindow");
+        return null;
+      }
+      keyVariables.addAll(clusteringVariables);
+    }
+    return new CounterAggregator(counterAggregationWindow, counterAggregationMaxAge, keyVariables);
   }
 
   /**
@@ -604,6 +739,7 @@ public class SchemaSettings {
     TokenRangeReadStatementGenerator generator =
         new TokenRangeReadStatementGenerator(table, metadata);
     Map<TokenRange, BoundStatement> statements;
+    int startVariableIndex = -1;
     if (variables.size() == 0) {
       statements = generator.generate(1, range -> preparedStatement.bind());
     } else {
@@ -628,6 +764,7 @@ public class SchemaSettings {
                 + "the WHERE clause is only allowed to contain one token range restriction "
                 + "of the form: WHERE token(...) > ? AND token(...) <= ?");
       }
+      startVariableIndex = queryInspector.getTokenRangeRestrictionStartVariableIndex();
       statements =
           generator.generate(
               splits,
@@ -643,13 +780,16 @@ public class SchemaSettings {
     }
 
     LOGGER.debug("Generated {} token range read statements", statements.size());
+    List<CqlIdentifier> partitionKey =
+        table.getPartitionKey().stream().map(ColumnMetadata::getName).collect(Collectors.toList());
     List<RangeReadBoundStatement> statementsList = new ArrayList<>();
     for (Entry<TokenRange, BoundStatement> entry : statements.entrySet()) {
       TokenRange range = entry.getKey();
       BoundStatement bs = entry.getValue();
       URI resource =
           RangeReadStatement.rangeReadResource(keyspace.getName(), table.getName(), range);
-      RangeReadBoundStatement stmt = new RangeReadBoundStatement(bs, range, resource);
+      RangeReadBoundStatement stmt =
+          new RangeReadBoundStatement(bs, range, resource, startVariableIndex, partitionKey);
       statementsList.add(stmt);
     }
     // Shuffle the statements to avoid hitting the same replicas sequentially when
@@ -675,6 +815,15 @@ public class SchemaSettings {
     return allowExtraFields;
   }
 
+  /**
+   * Returns the fields consumed by the mapping; only available after {@link
+   * #createRecordMapper(CqlSession, RecordMetadata, boolean)} has been called.
+   */
+  @NonNull
+  public Set<Field> getMappedFields() {
+    return mappedFields;
+  }
+
   public boolean isAllowMissingFields() {
     return allowMissingFields;
   }
@@ -1419,7 +1568,14 @@ public class SchemaSettings {
       }
       // for all variables having specific TTLs and/or writetimes,
       // generate a specific INSERT INTO query for that variable only + its TTL and/or writetime.
+      int index = hasRegularColumnsWithoutSpecificWritetimeAndTTL ? 1 : 0;
+      List<GroupableInsert> groupableInserts = new ArrayList<>();
       for (Entry<CQLWord, WriteTimeAndTTL> entry : specificWriteTimesAndTTLs.entrySet()) {
+        GroupableInsert groupableInsert =
+            toGroupableInsert(index++, entry.getKey(), entry.getValue());
+        if (groupableInsert != null) {
+          groupableInserts.add(groupableInsert);
+        }
         appendBatchChildQuery(
             sb,
             entry.getKey(),
@@ -1430,10 +1586,76 @@ public class SchemaSettings {
         sb.append("; ");
       }
       sb.append("APPLY BATCH");
+      this.groupableInserts = groupableInserts;
     }
     return sb.toString();
   }
 
+  /**
+   * Returns a {@link GroupableInsert} for the given batch child statement, or null if the child
+   * statement cannot be grouped with others: this is the case when its value, writetime or TTL is
+   * not a bound variable.
+   */
+  @Nullable
+  private GroupableInsert toGroupableInsert(
+      int index, CQLWord variable, WriteTimeAndTTL writeTimeAndTTL) {
+    if (!variable.equals(writeTimeAndTTL.value)) {
+      return null;
+    }
+    CQLWord writetime = null;
+    if (timestampMicros == -1 && writeTimeAndTTL.writetime != null) {
+      if (!(writeTimeAndTTL.writetime instanceof CQLWord)) {
+        return null;
+      }
+      writetime = (CQLWord) writeTimeAndTTL.writetime;
+    }
+    CQLWord ttl = null;
+    if (ttlSeconds == -1 && writeTimeAndTTL.ttl != null) {
+      if (!(writeTimeAndTTL.ttl instanceof CQLWord)) {
+        return null;
+      }
+      ttl = (CQLWord) writeTimeAndTTL.ttl;
+    }
+    return new GroupableInsert(index, variable, writetime, ttl);
+  }
+
+  /**
+   * Generates an INSERT query writing all the columns of the given group at once, using the
+   * writetime and TTL variables of the group's first member.
+   */
+  private String inferGroupedInsertQuery(List<GroupableInsert> group) {
+    List<CQLWord> pks = primaryKeyColumns();
+    StringBuilder sb = new StringBuilder("INSERT INTO ");
+    sb.append(keyspaceName.render(VARIABLE))
+        .append('.')
+        .append(tableName.render(VARIABLE))
+        .append(" (");
+    for (CQLWord pk : pks) {
+      sb.append(pk.render(VARIABLE)).append(", ");
+    }
+    for (int i = 0; i < group.size(); i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(group.get(i).getColumn().render(VARIABLE));
+    }
+    sb.append(") VALUES (");
+    for (CQLWord pk : pks) {
+      sb.append(pk.render(NAMED_ASSIGNMENT)).append(", ");
+    }
+    for (int i = 0; i < group.size(); i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(group.get(i).getColumn().render(NAMED_ASSIGNMENT));
+    }
+    sb.append(")");
+    appendWriteTimeAndTTL(sb, group.get(0).getWritetime(), group.get(0).getTtl());
+    String query = sb.toString();
+    LOGGER.debug("Inferred grouped query: {}", query);
+    return query;
+  }
+
   private void appendBatchChildQuery(
       StringBuilder sb,
       CQLWord variable,
@@ -0,0 +1,46 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.statement;
+
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.dsbulk.connectors.api.Record;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.List;
+
+/**
+ * A counter update combining the increments of several records updating the same row.
+ *
+ * @see com.datastax.oss.dsbulk.workflow.commons.schema.CounterAggregator
+ */
+public class AggregatedCounterStatement extends MappedBoundStatement {
+
+  private final List<Record> records;
+
+  public AggregatedCounterStatement(
+      @NonNull List<Record> records, @NonNull BoundStatement delegate, long dataSize) {
+    super(records.get(0), delegate, dataSize);
+    this.records = records;
+  }
+
+  /**
+   * Returns all the records whose increments were combined into this statement, in the order they
+   * were read; {@link #getRecord()} returns the first one.
+   */
+  @NonNull
+  public List<Record> getRecords() {
+    return records;
+  }
+}
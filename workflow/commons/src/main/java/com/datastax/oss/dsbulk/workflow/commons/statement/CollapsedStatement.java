@@ -0,0 +1,38 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.statement;
+
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.shaded.guava.common.base.MoreObjects;
+import com.datastax.oss.dsbulk.connectors.api.Record;
+
+/**
+ * A statement that won't be written, because another statement writing to the same row superseded
+ * it.
+ *
+ * @see com.datastax.oss.dsbulk.workflow.commons.schema.StatementDeduplicator
+ */
+public class CollapsedStatement extends MappedSimpleStatement {
+
+  public CollapsedStatement(Record record) {
+    super(record, SimpleStatement.newInstance(""));
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("record", getRecord()).toString();
+  }
+}
@@ -37,6 +37,11 @@ public class MappedBoundStatement extends SizeableBoundStatement implements Mapp
     this.source = source;
   }
 
+  public MappedBoundStatement(Record source, BoundStatement delegate, long dataSize) {
+    super(delegate, dataSize);
+    this.source = source;
+  }
+
   @Override
   public @NonNull Record getRecord() {
     return source;
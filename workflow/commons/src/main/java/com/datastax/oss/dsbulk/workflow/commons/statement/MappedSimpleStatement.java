@@ -17,21 +17,26 @@ package com.datastax.oss.dsbulk.workflow.commons.statement;
 
 import com.datastax.oss.driver.api.core.ConsistencyLevel;
 import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.ProtocolVersion;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.cql.SimpleStatement;
 import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.api.core.metadata.token.Token;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
 import com.datastax.oss.dsbulk.connectors.api.Record;
+import com.datastax.oss.dsbulk.sampler.DataSizes;
+import com.datastax.oss.dsbulk.sampler.Sizeable;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
-public class MappedSimpleStatement implements SimpleStatement, MappedStatement {
+public class MappedSimpleStatement implements SimpleStatement, MappedStatement, Sizeable {
 
   private final Record source;
   private SimpleStatement delegate;
+  private volatile long dataSize = -1;
 
   public MappedSimpleStatement(Record source, SimpleStatement delegate) {
     this.source = source;
@@ -44,6 +49,18 @@ public class MappedSimpleStatement implements SimpleStatement, MappedStatement {
     return source;
   }
 
+  @Override
+  public long getDataSize() {
+    long size = dataSize;
+    if (size == -1) {
+      // Simple statements are not attached to any session: their values are sized with the
+      // default codec registry, which is enough for all the types that they usually contain.
+      size = DataSizes.getDataSize(delegate, ProtocolVersion.DEFAULT, CodecRegistry.DEFAULT);
+      dataSize = size;
+    }
+    return size;
+  }
+
   @NonNull
   @Override
   public String getQuery() {
@@ -74,6 +91,7 @@ public class MappedSimpleStatement implements SimpleStatement, MappedStatement {
   @Override
   public SimpleStatement setPositionalValues(@NonNull List<Object> newPositionalValues) {
     delegate = delegate.setPositionalValues(newPositionalValues);
+    dataSize = -1;
     return this;
   }
 
@@ -87,6 +105,7 @@ public class MappedSimpleStatement implements SimpleStatement, MappedStatement {
   @Override
   public SimpleStatement setNamedValuesWithIds(@NonNull Map<CqlIdentifier, Object> newNamedValues) {
     delegate = delegate.setNamedValuesWithIds(newNamedValues);
+    dataSize = -1;
     return this;
   }
 
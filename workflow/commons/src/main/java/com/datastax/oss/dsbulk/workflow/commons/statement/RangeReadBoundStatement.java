@@ -32,6 +32,7 @@ import edu.umd.cs.findbugs.annotations.Nullable;
 import java.net.URI;
 import java.nio.ByteBuffer;
 import java.time.Duration;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -39,11 +40,71 @@ public class RangeReadBoundStatement implements RangeReadStatement, BoundStateme
   private BoundStatement delegate;
   private final TokenRange range;
   private final URI resource;
+  private final int startVariableIndex;
+  private final List<CqlIdentifier> partitionKey;
 
   public RangeReadBoundStatement(BoundStatement delegate, TokenRange range, URI resource) {
+    this(delegate, range, resource, -1, Collections.emptyList());
+  }
+
+  /**
+   * Creates a range read statement that can be narrowed with {@link #withStart(Token)}.
+   *
+   * @param delegate the statement to delegate to.
+   * @param range the token range read by the statement.
+   * @param resource the resource URI of the token range.
+   * @param startVariableIndex the index of the variable holding the start of the token range, or -1
+   *     if the start is not bound to a variable.
+   * @param partitionKey the partition key columns of the table being read.
+   */
+  public RangeReadBoundStatement(
+      BoundStatement delegate,
+      TokenRange range,
+      URI resource,
+      int startVariableIndex,
+      @NonNull List<CqlIdentifier> partitionKey) {
     this.delegate = delegate;
     this.range = range;
     this.resource = resource;
+    this.startVariableIndex = startVariableIndex;
+    this.partitionKey = partitionKey;
+  }
+
+  /**
+   * Returns true if this statement can be {@linkplain #withStart(Token) narrowed}, that is, if the
+   * start of its token range is bound to a variable, its partition key is known, and its token
+   * range does not wrap around the ring.
+   */
+  public boolean isResumable() {
+    return startVariableIndex >= 0 && !partitionKey.isEmpty() && !range.isWrappedAround();
+  }
+
+  /** Returns the partition key columns of the table being read. */
+  @NonNull
+  public List<CqlIdentifier> getPartitionKey() {
+    return partitionKey;
+  }
+
+  /**
+   * Returns a copy of this statement that only reads the tokens of its range that are strictly
+   * greater than the given one. The copy retains the token range and the resource URI of this
+   * statement.
+   *
+   * @param start the new (exclusive) start of the range; must be contained in the range.
+   * @return a narrowed copy of this statement.
+   * @throws IllegalStateException if this statement is not {@linkplain #isResumable() resumable}.
+   */
+  @NonNull
+  public RangeReadBoundStatement withStart(@NonNull Token start) {
+    if (!isResumable()) {
+      throw new IllegalStateException("Statement cannot be narrowed: " + resource);
+    }
+    return new RangeReadBoundStatement(
+        delegate.setToken(startVariableIndex, start),
+        range,
+        resource,
+        startVariableIndex,
+        partitionKey);
   }
 
   @Override
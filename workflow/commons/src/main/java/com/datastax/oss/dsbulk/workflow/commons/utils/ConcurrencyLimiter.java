@@ -0,0 +1,229 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.utils;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Limits the number of items being processed concurrently by a reactive pipeline, with a limit that
+ * can be changed at any time.
+ *
+ * <p>Unlike a {@link java.util.concurrent.Semaphore}, this limiter never blocks: when no permit is
+ * available, the pipeline simply stops requesting items from upstream until one is released. The
+ * pipeline is then resumed on the given scheduler, rather than on the thread that released the
+ * permit, which is usually a driver I/O thread.
+ *
+ * <p>Decreasing the limit never interrupts items being processed; instead, new items are held back
+ * until enough of them complete.
+ */
+public class ConcurrencyLimiter {
+
+  private final Scheduler scheduler;
+
+  private final Queue<Waiter> waiters = new ArrayDeque<>();
+  private final List<MonoSink<Void>> capacityWaiters = new ArrayList<>();
+
+  private int limit;
+  private int inFlight;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param limit the initial maximum number of items being processed; must be strictly positive.
+   * @param scheduler the scheduler to resume pipelines on, once they can proceed.
+   */
+  public ConcurrencyLimiter(int limit, @NonNull Scheduler scheduler) {
+    this.limit = checkLimit(limit);
+    this.scheduler = scheduler;
+  }
+
+  /** @return the current limit. */
+  public synchronized int getLimit() {
+    return limit;
+  }
+
+  /** @return the number of items currently being processed. */
+  public synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  /**
+   * Changes the limit.
+   *
+   * @param newLimit the new maximum number of items being processed; must be strictly positive.
+   */
+  public void setLimit(int newLimit) {
+    checkLimit(newLimit);
+    List<MonoSink<Void>> resumed;
+    synchronized (this) {
+      limit = newLimit;
+      resumed = grant();
+    }
+    resume(resumed);
+  }
+
+  /**
+   * Applies the given function to each item, while limiting the number of items being processed
+   * concurrently.
+   *
+   * @param items the items to process.
+   * @param function the function to apply; the item is processed until the publisher it returns
+   *     terminates, or is cancelled.
+   * @param maxConcurrency the maximum concurrency, regardless of the current limit.
+   * @return the results.
+   */
+  @NonNull
+  public <T, R> Flux<R> flatMap(
+      @NonNull Flux<T> items,
+      @NonNull Function<? super T, ? extends Publisher<R>> function,
+      int maxConcurrency) {
+    return items
+        .concatMap(item -> acquire().thenReturn(item), 0)
+        .flatMap(
+            item -> Flux.from(function.apply(item)).doFinally(signal -> release()), maxConcurrency);
+  }
+
+  @NonNull
+  Mono<Void> acquire() {
+    return Mono.create(
+        sink -> {
+          Waiter waiter = new Waiter(sink);
+          sink.onCancel(() -> cancel(waiter));
+          boolean acquired = false;
+          synchronized (this) {
+            if (!waiter.cancelled) {
+              if (waiters.isEmpty() && inFlight < limit) {
+                inFlight++;
+                waiter.granted = true;
+                acquired = true;
+              } else {
+                waiters.add(waiter);
+              }
+            }
+          }
+          if (acquired) {
+            sink.success();
+          }
+        });
+  }
+
+  /**
+   * Waits until there is room for more items to be processed, e.g. to hold back the production of
+   * new items while the limit is reached.
+   *
+   * @return a {@link Mono} completing when fewer items than the limit are being processed.
+   */
+  @NonNull
+  public Mono<Void> awaitCapacity() {
+    return Mono.create(
+        sink -> {
+          sink.onCancel(
+              () -> {
+                synchronized (this) {
+                  capacityWaiters.remove(sink);
+                }
+              });
+          boolean room;
+          synchronized (this) {
+            room = inFlight < limit;
+            if (!room) {
+              capacityWaiters.add(sink);
+            }
+          }
+          if (room) {
+            sink.success();
+          }
+        });
+  }
+
+  void release() {
+    List<MonoSink<Void>> resumed;
+    synchronized (this) {
+      inFlight--;
+      resumed = grant();
+    }
+    resume(resumed);
+  }
+
+  private void cancel(Waiter waiter) {
+    boolean granted;
+    synchronized (this) {
+      waiter.cancelled = true;
+      granted = waiter.granted;
+      if (!granted) {
+        waiters.remove(waiter);
+      }
+    }
+    if (granted) {
+      // the permit was granted, but the pipeline was cancelled before it could use it
+      release();
+    }
+  }
+
+  /** Must be called while holding the lock. */
+  private List<MonoSink<Void>> grant() {
+    List<MonoSink<Void>> resumed = new ArrayList<>();
+    while (inFlight < limit && !waiters.isEmpty()) {
+      Waiter waiter = waiters.poll();
+      waiter.granted = true;
+      inFlight++;
+      resumed.add(waiter.sink);
+    }
+    if (inFlight < limit && !capacityWaiters.isEmpty()) {
+      resumed.addAll(capacityWaiters);
+      capacityWaiters.clear();
+    }
+    return resumed;
+  }
+
+  private void resume(List<MonoSink<Void>> resumed) {
+    for (MonoSink<Void> sink : resumed) {
+      scheduler.schedule(sink::success);
+    }
+  }
+
+  private static int checkLimit(int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Limit must be strictly positive, got " + limit);
+    }
+    return limit;
+  }
+
+  private static class Waiter {
+
+    private final MonoSink<Void> sink;
+
+    /** Guarded by the limiter's lock. */
+    private boolean granted;
+
+    /** Guarded by the limiter's lock. */
+    private boolean cancelled;
+
+    private Waiter(MonoSink<Void> sink) {
+      this.sink = sink;
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.log;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
+import com.datastax.oss.driver.api.core.metadata.token.TokenRange;
+import com.datastax.oss.driver.internal.core.metadata.token.Murmur3Token;
+import com.datastax.oss.driver.internal.core.metadata.token.Murmur3TokenRange;
+import com.datastax.oss.dsbulk.executor.api.reader.BulkReader;
+import com.datastax.oss.dsbulk.executor.api.result.DefaultReadResult;
+import com.datastax.oss.dsbulk.executor.api.result.ReadResult;
+import com.datastax.oss.dsbulk.workflow.commons.statement.RangeReadBoundStatement;
+import com.datastax.oss.dsbulk.workflow.commons.statement.RangeReadStatement;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+class DefaultRangeReadResourceTest {
+
+  private static final CqlIdentifier PK = CqlIdentifier.fromInternal("pk");
+
+  private final TokenRange range =
+      new Murmur3TokenRange(new Murmur3Token(-100), new Murmur3Token(100));
+  private final URI resource =
+      RangeReadStatement.rangeReadResource(
+          CqlIdentifier.fromInternal("ks"), CqlIdentifier.fromInternal("t"), range);
+
+  private BoundStatement bs;
+  private BoundStatement narrowed;
+  private BulkReader executor;
+  private TokenMap tokenMap;
+
+  @BeforeEach
+  void setUp() {
+    bs = mock(BoundStatement.class);
+    narrowed = mock(BoundStatement.class);
+    when(bs.setToken(anyInt(), any(Token.class))).thenReturn(narrowed);
+    executor = mock(BulkReader.class);
+    tokenMap = mock(TokenMap.class);
+    when(tokenMap.parse("42")).thenReturn(new Murmur3Token(42));
+    when(tokenMap.parse("-50")).thenReturn(new Murmur3Token(-50));
+    when(tokenMap.parse("500")).thenReturn(new Murmur3Token(500));
+    when(tokenMap.format(any(Token.class)))
+        .thenAnswer(i -> String.valueOf(((Murmur3Token) i.getArgument(0)).getValue()));
+  }
+
+  @Test
+  void should_resume_after_token_and_shift_positions() {
+    RangeReadBoundStatement statement =
+        new RangeReadBoundStatement(bs, range, resource, 0, Collections.singletonList(PK));
+    when(executor.readReactive(any(RangeReadBoundStatement.class)))
+        .thenAnswer(
+            i -> {
+              RangeReadBoundStatement stmt = i.getArgument(0);
+              // the narrowed statement keeps the range and the resource
+              assertThat(stmt.getTokenRange()).isEqualTo(range);
+              assertThat(stmt.getResource()).isEqualTo(resource);
+              return Flux.just(
+                  new DefaultReadResult(stmt, mock(ExecutionInfo.class), mock(Row.class), 1),
+                  new DefaultReadResult(stmt, mock(ExecutionInfo.class), mock(Row.class), 2));
+            });
+    DefaultRangeReadResource res = new DefaultRangeReadResource(statement, executor, tokenMap);
+    List<ReadResult> results = Flux.from(res.read(1001, "42")).collectList().block();
+    assertThat(results).extracting(ReadResult::getPosition).containsExactly(1001L, 1002L);
+    verify(bs).setToken(0, new Murmur3Token(42));
+  }
+
+  @Test
+  void should_read_entire_range_when_not_resumable() {
+    RangeReadBoundStatement statement = new RangeReadBoundStatement(bs, range, resource);
+    Flux<ReadResult> all = Flux.empty();
+    when(executor.readReactive(statement)).thenReturn(all);
+    DefaultRangeReadResource res = new DefaultRangeReadResource(statement, executor, tokenMap);
+    assertThat(res.read(1001, "42")).isSameAs(all);
+    assertThat(res.getPartitionKey(mockResult(statement, true))).isNull();
+  }
+
+  @Test
+  void should_read_entire_range_when_token_not_in_range() {
+    RangeReadBoundStatement statement =
+        new RangeReadBoundStatement(bs, range, resource, 0, Collections.singletonList(PK));
+    Flux<ReadResult> all = Flux.empty();
+    when(executor.readReactive(statement)).thenReturn(all);
+    DefaultRangeReadResource res = new DefaultRangeReadResource(statement, executor, tokenMap);
+    assertThat(res.read(1001, "500")).isSameAs(all);
+  }
+
+  @Test
+  void should_check_token_order() {
+    RangeReadBoundStatement statement =
+        new RangeReadBoundStatement(bs, range, resource, 0, Collections.singletonList(PK));
+    DefaultRangeReadResource res = new DefaultRangeReadResource(statement, executor, tokenMap);
+    Token token42 = new Murmur3Token(42);
+    Token tokenMinus50 = new Murmur3Token(-50);
+    assertThat(res.canFollow(token42, null)).isTrue();
+    assertThat(res.canFollow(token42, tokenMinus50)).isTrue();
+    assertThat(res.canFollow(token42, token42)).isTrue();
+    assertThat(res.canFollow(tokenMinus50, token42)).isFalse();
+    // not in range
+    assertThat(res.canFollow(new Murmur3Token(500), null)).isFalse();
+    // no token map
+    assertThat(new DefaultRangeReadResource(statement, executor).canFollow(token42, null))
+        .isFalse();
+  }
+
+  @Test
+  void should_extract_partition_key_and_compute_token() {
+    RangeReadBoundStatement statement =
+        new RangeReadBoundStatement(bs, range, resource, 0, Collections.singletonList(PK));
+    when(tokenMap.newToken(any(ByteBuffer.class))).thenReturn(new Murmur3Token(12));
+    DefaultRangeReadResource res = new DefaultRangeReadResource(statement, executor, tokenMap);
+    ByteBuffer[] partitionKey = res.getPartitionKey(mockResult(statement, true));
+    assertThat(partitionKey).containsExactly(ByteBuffer.allocate(4));
+    assertThat(res.getPartitionKey(mockResult(statement, true))).isEqualTo(partitionKey);
+    Token token = res.getToken(partitionKey);
+    assertThat(token).isEqualTo(new Murmur3Token(12));
+    assertThat(res.formatToken(token)).isEqualTo("12");
+    // partition key not selected
+    assertThat(res.getPartitionKey(mockResult(statement, false))).isNull();
+    // no token map
+    assertThat(
+            new DefaultRangeReadResource(statement, executor)
+                .getPartitionKey(mockResult(statement, true)))
+        .isNull();
+  }
+
+  private static ReadResult mockResult(RangeReadBoundStatement statement, boolean withPk) {
+    Row row = mock(Row.class);
+    ColumnDefinitions definitions = mock(ColumnDefinitions.class);
+    when(row.getColumnDefinitions()).thenReturn(definitions);
+    when(definitions.firstIndexOf(PK)).thenReturn(withPk ? 0 : -1);
+    when(row.getBytesUnsafe(0)).thenReturn(ByteBuffer.allocate(4));
+    return new DefaultReadResult(statement, mock(ExecutionInfo.class), row, 1);
+  }
+}
@@ -71,6 +71,7 @@ import com.datastax.oss.dsbulk.workflow.commons.log.checkpoint.Checkpoint;
 import com.datastax.oss.dsbulk.workflow.commons.log.checkpoint.CheckpointManager;
 import com.datastax.oss.dsbulk.workflow.commons.log.checkpoint.Range;
 import com.datastax.oss.dsbulk.workflow.commons.log.checkpoint.ReplayStrategy;
+import com.datastax.oss.dsbulk.workflow.commons.statement.AggregatedCounterStatement;
 import com.datastax.oss.dsbulk.workflow.commons.statement.MappedBoundStatement;
 import com.datastax.oss.dsbulk.workflow.commons.statement.MappedBoundStatementPrinter;
 import com.datastax.oss.dsbulk.workflow.commons.statement.RangeReadBoundStatement;
@@ -80,6 +81,7 @@ import java.net.URI;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import org.assertj.core.api.Assertions;
@@ -609,6 +611,42 @@ class LogManagerTest {
         .contains("error batch");
   }
 
+  @Test
+  void should_report_all_records_of_failed_aggregated_counter_update() throws Exception {
+    Path outputDir = Files.createTempDirectory("test");
+    LogManager logManager =
+        new LogManager(
+            session,
+            outputDir,
+            ErrorThreshold.forAbsoluteValue(2),
+            ErrorThreshold.forAbsoluteValue(0),
+            statementFormatter,
+            EXTENDED,
+            rowFormatter,
+            true,
+            new CheckpointManager(),
+            resume);
+    logManager.init();
+    WriteResult result =
+        new DefaultWriteResult(
+            new BulkExecutionException(
+                new DriverTimeoutException("error counter"),
+                new AggregatedCounterStatement(
+                    Arrays.asList(csvRecord1, csvRecord2, csvRecord3),
+                    mockBoundStatement("UPDATE 1"),
+                    0)));
+    try {
+      Flux.just(result).transform(logManager.newFailedWritesHandler()).blockLast();
+      fail("Expecting TooManyErrorsException to be thrown");
+    } catch (TooManyErrorsException e) {
+      assertThat(e).hasMessage("Too many errors, the maximum allowed is 2.");
+    }
+    logManager.close();
+    Path bad = logManager.getOperationDirectory().resolve("load.bad");
+    List<String> badLines = Files.readAllLines(bad, UTF_8);
+    assertThat(badLines).containsExactly(source1.trim(), source2.trim(), source3.trim());
+  }
+
   @Test
   void should_stop_when_max_read_errors_reached() throws Exception {
     Path outputDir = Files.createTempDirectory("test");
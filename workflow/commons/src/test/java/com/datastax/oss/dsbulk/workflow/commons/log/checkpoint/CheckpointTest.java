@@ -18,6 +18,7 @@ package com.datastax.oss.dsbulk.workflow.commons.log.checkpoint;
 import static com.datastax.oss.dsbulk.workflow.commons.log.checkpoint.RangeUtilsTest.r;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.AbstractMap.SimpleEntry;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -188,4 +189,72 @@ class CheckpointTest {
     assertThat(cp.getConsumedSuccessful().stream()).containsExactly(r(1, 5));
     assertThat(cp.getConsumedFailed().stream()).containsExactly(r(1, 5));
   }
+
+  @Test
+  void should_parse_and_serialize_resume_points() {
+    Checkpoint cp = Checkpoint.parse("0;3000;1:3000;;1000:12345,3000:45678");
+    assertThat(cp.getResumePoints()).containsEntry(1000L, "12345").containsEntry(3000L, "45678");
+    assertThat(cp.asCsv()).isEqualTo("0;3000;1:3000;;3000:45678");
+  }
+
+  @Test
+  void should_sample_resume_points() {
+    Checkpoint cp = new Checkpoint();
+    for (long position = 1; position <= 2500; position++) {
+      cp.addResumePoint(position, position * 10);
+    }
+    cp.addResumePoint(3001, -1);
+    assertThat(cp.getResumePoints())
+        .containsOnlyKeys(1L, 1001L, 2001L)
+        .containsEntry(2001L, "20010");
+    assertThat(cp.acceptsResumePoint(3000)).isFalse();
+    assertThat(cp.acceptsResumePoint(3001)).isTrue();
+  }
+
+  @Test
+  void should_thin_out_older_resume_points() {
+    Checkpoint cp = new Checkpoint();
+    long interval = Checkpoint.RESUME_POINT_INTERVAL;
+    for (int i = 0; i <= Checkpoint.MAX_RESUME_POINTS; i++) {
+      cp.addResumePoint(1 + i * interval, i);
+    }
+    assertThat(cp.getResumePoints())
+        .hasSize(Checkpoint.MAX_RESUME_POINTS - Checkpoint.MAX_RESUME_POINTS / 4 + 1)
+        .containsKey(1L)
+        .doesNotContainKey(1 + interval)
+        .containsKey(1 + Checkpoint.MAX_RESUME_POINTS * interval);
+  }
+
+  @Test
+  void should_return_resume_point_preceding_first_record_to_replay() {
+    Checkpoint cp = new Checkpoint();
+    cp.addResumePoint(1, 10);
+    cp.addResumePoint(1001, 10010);
+    cp.addResumePoint(2001, 20010);
+    assertThat(cp.getResumePoint()).isNull();
+    for (long position = 1; position <= 1500; position++) {
+      cp.updateConsumed(position, position != 800);
+    }
+    cp.updateConsumed(2500, true);
+    // first record not consumed is 1501
+    assertThat(cp.getResumePoint()).isEqualTo(new SimpleEntry<>(1001L, "10010"));
+    // first record not consumed successfully is 800
+    assertThat(cp.asCsv()).isEqualTo("0;0;1:799,801:1500,2500;800;1:10,1001:10010");
+    ReplayStrategy.retry.reset(cp);
+    assertThat(cp.getResumePoint()).isEqualTo(new SimpleEntry<>(1L, "10"));
+  }
+
+  @Test
+  void should_parse_and_serialize_token_resume_points() {
+    Checkpoint cp = new Checkpoint();
+    cp.addResumePoint(1, "-9223372036854775808");
+    cp.addResumePoint(1001, "-1234");
+    for (long position = 1; position <= 1500; position++) {
+      cp.updateConsumed(position, true);
+    }
+    assertThat(cp.getResumePoint()).isEqualTo(new SimpleEntry<>(1001L, "-1234"));
+    String csv = cp.asCsv();
+    assertThat(csv).isEqualTo("0;0;1:1500;;1001:-1234");
+    assertThat(Checkpoint.parse(csv).getResumePoint()).isEqualTo(new SimpleEntry<>(1001L, "-1234"));
+  }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class HeapPressureGovernorTest {
+
+  private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final MetricRegistry registry = new MetricRegistry();
+  private final AtomicLong used = new AtomicLong();
+  private final AtomicLong usedAfterGc = new AtomicLong(-1);
+  private final AtomicLong gcCount = new AtomicLong();
+  private final AtomicLong gcTime = new AtomicLong();
+
+  private long now;
+
+  HeapPressureGovernorTest() {
+    registry.gauge("memory/used", () -> (Gauge<Long>) used::get);
+    registry.gauge("memory/used_after_gc", () -> (Gauge<Long>) usedAfterGc::get);
+    registry.gauge("memory/available", () -> (Gauge<Long>) () -> 1000L);
+    registry.gauge("memory/gc_count", () -> (Gauge<Long>) gcCount::get);
+    registry.gauge("memory/gc_time", () -> (Gauge<Long>) gcTime::get);
+  }
+
+  @Test
+  void should_register_scale_gauge() {
+    HeapPressureGovernor governor = new HeapPressureGovernor(registry, 0.85, 0.25);
+    assertThat(registry.getGauges()).containsKey("memory/pressure_scale");
+    assertThat(governor.getScale()).isEqualTo(1);
+    assertThat(governor.isUnderPressure()).isFalse();
+    assertThat(governor.scale(100)).isEqualTo(100);
+  }
+
+  @Test
+  void should_lower_limits_when_heap_occupied_after_gc() {
+    HeapPressureGovernor governor = new HeapPressureGovernor(registry, 0.85, 0);
+    sample(governor);
+    usedAfterGc.set(900);
+    gcCount.incrementAndGet();
+    sample(governor);
+    assertThat(governor.isUnderPressure()).isTrue();
+    assertThat(governor.scale(100)).isEqualTo(50);
+    gcCount.incrementAndGet();
+    sample(governor);
+    assertThat(governor.scale(100)).isEqualTo(25);
+    // no new collection, but occupancy still high: hold
+    sample(governor);
+    assertThat(governor.scale(100)).isEqualTo(25);
+    // occupancy dropped after a collection: restore progressively
+    usedAfterGc.set(300);
+    gcCount.incrementAndGet();
+    sample(governor);
+    assertThat(governor.scale(100)).isEqualTo(50);
+    sample(governor);
+    assertThat(governor.scale(100)).isEqualTo(100);
+    assertThat(governor.isUnderPressure()).isFalse();
+  }
+
+  @Test
+  void should_ignore_heap_usage_without_collection() {
+    HeapPressureGovernor governor = new HeapPressureGovernor(registry, 0.85, 0);
+    sample(governor);
+    used.set(990);
+    sample(governor);
+    assertThat(governor.isUnderPressure()).isFalse();
+  }
+
+  @Test
+  void should_fall_back_to_current_heap_usage() {
+    HeapPressureGovernor governor = new HeapPressureGovernor(registry, 0.85, 0);
+    sample(governor);
+    used.set(990);
+    gcCount.incrementAndGet();
+    sample(governor);
+    assertThat(governor.isUnderPressure()).isTrue();
+  }
+
+  @Test
+  void should_lower_limits_when_gc_overhead_high() {
+    HeapPressureGovernor governor = new HeapPressureGovernor(registry, 0, 0.25);
+    sample(governor);
+    gcCount.incrementAndGet();
+    gcTime.addAndGet(400);
+    sample(governor);
+    assertThat(governor.isUnderPressure()).isTrue();
+    gcTime.addAndGet(10);
+    sample(governor);
+    assertThat(governor.isUnderPressure()).isFalse();
+  }
+
+  @Test
+  void should_never_scale_below_minimum() {
+    HeapPressureGovernor governor = new HeapPressureGovernor(registry, 0, 0.25);
+    sample(governor);
+    for (int i = 0; i < 20; i++) {
+      gcTime.addAndGet(900);
+      sample(governor);
+    }
+    assertThat(governor.getScale()).isEqualTo(HeapPressureGovernor.MIN_SCALE);
+    assertThat(governor.scale(10)).isEqualTo(1);
+  }
+
+  private void sample(HeapPressureGovernor governor) {
+    now += ONE_SECOND;
+    governor.sample(now);
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+class StageMonitorTest {
+
+  private static final int ITEMS = StageMonitor.SAMPLE_RATE * 100;
+
+  private final MetricRegistry registry = new MetricRegistry();
+  private final StageMonitor stage = new StageMonitor(registry, "test");
+
+  @Test
+  void should_register_metrics() {
+    assertThat(registry.getTimers()).containsKey("stages/test/time");
+    assertThat(registry.getGauges()).containsKey("stages/test/pending");
+  }
+
+  @Test
+  void should_count_pending_items() {
+    AtomicLong maxPending = new AtomicLong();
+    Flux.range(0, 10)
+        .transform(stage.enter())
+        .collectList()
+        .flatMapIterable(list -> list)
+        .doOnNext(i -> maxPending.accumulateAndGet(stage.getPending(), Math::max))
+        .transform(stage.exit())
+        .blockLast();
+    assertThat(maxPending).hasValue(10);
+    assertThat(stage.getPending()).isZero();
+  }
+
+  @Test
+  void should_count_pending_weighted_items() {
+    Flux.range(0, 10)
+        .transform(stage.enter())
+        .buffer(5)
+        .transform(stage.exit(List::size))
+        .blockLast();
+    assertThat(stage.getPending()).isZero();
+  }
+
+  @Test
+  void should_sample_timed_function() {
+    Function<Integer, Integer> function = stage.timed(i -> i + 1);
+    for (int i = 0; i < ITEMS; i++) {
+      assertThat(function.apply(i)).isEqualTo(i + 1);
+    }
+    assertThat(stage.getTimer().getCount()).isBetween(1L, ITEMS / 4L);
+  }
+
+  @Test
+  void should_time_async_function() {
+    Function<Integer, Flux<Integer>> function =
+        stage.timedAsync(i -> Mono.just(i).delayElement(Duration.ofMillis(1)));
+    Flux.range(0, ITEMS / 4)
+        .flatMap(function, 64)
+        .doOnNext(i -> assertThat(stage.getPending()).isPositive())
+        .blockLast();
+    // the last items are accounted for right after their completion reaches the subscriber
+    await().atMost(Duration.ofSeconds(5)).until(() -> stage.getPending() == 0);
+    Timer timer = stage.getTimer();
+    assertThat(timer.getCount()).isPositive();
+    assertThat(timer.getSnapshot().getMin())
+        .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(1));
+  }
+
+  @Test
+  void should_time_items_between_entry_and_exit() {
+    Flux.range(0, ITEMS / 4)
+        .transform(stage.enterTimed())
+        .concatMap(i -> Mono.just(i).delayElement(Duration.ofMillis(1)))
+        .transform(stage.exitTimed())
+        .blockLast();
+    assertThat(stage.getPending()).isZero();
+    Timer timer = stage.getTimer();
+    assertThat(timer.getCount()).isPositive();
+    assertThat(timer.getSnapshot().getMin())
+        .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(1));
+  }
+
+  @Test
+  void should_time_production_but_not_downstream_processing() {
+    Flux.range(0, ITEMS / 4)
+        .concatMap(i -> Mono.just(i).delayElement(Duration.ofMillis(2)), 1)
+        .transform(stage.timeProduction())
+        .doOnNext(i -> sleep(1))
+        .blockLast();
+    Timer timer = stage.getTimer();
+    assertThat(timer.getCount()).isPositive();
+    // production takes 2 ms, downstream processing takes 1 ms and should not be counted
+    assertThat(timer.getSnapshot().getMin())
+        .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(2));
+    assertThat(timer.getSnapshot().getMedian()).isLessThan(TimeUnit.MILLISECONDS.toNanos(3));
+  }
+
+  @Test
+  void should_time_production_of_fuseable_publisher() {
+    AtomicLong counter = new AtomicLong();
+    List<Long> items =
+        Flux.<Long>generate(
+                sink -> {
+                  long next = counter.getAndIncrement();
+                  if (next == ITEMS) {
+                    sink.complete();
+                  } else {
+                    sink.next(next);
+                  }
+                })
+            .transform(stage.timeProduction())
+            .filter(i -> i % 2 == 0)
+            .map(i -> i / 2)
+            .collectList()
+            .block();
+    assertThat(items).hasSize(ITEMS / 2);
+    assertThat(stage.getTimer().getCount()).isPositive();
+  }
+
+  @Test
+  void should_time_items_exiting_in_parallel() {
+    Flux.range(0, ITEMS)
+        .transform(stage.enterTimed())
+        .parallel(4)
+        .runOn(Schedulers.parallel())
+        .map(i -> i)
+        .sequential()
+        .transform(stage.exitTimed())
+        .blockLast();
+    assertThat(stage.getPending()).isZero();
+    assertThat(stage.getTimer().getCount()).isPositive();
+  }
+
+  @Test
+  void should_not_instrument_pipelines_when_disabled() {
+    StageMonitor disabled = StageMonitor.DISABLED;
+    Flux<Integer> upstream = Flux.range(0, 10);
+    assertThat(upstream.transform(disabled.enter())).isSameAs(upstream);
+    assertThat(upstream.transform(disabled.exit())).isSameAs(upstream);
+    assertThat(upstream.transform(disabled.enterTimed())).isSameAs(upstream);
+    assertThat(upstream.transform(disabled.exitTimed())).isSameAs(upstream);
+    assertThat(upstream.transform(disabled.timeProduction())).isSameAs(upstream);
+    Function<Integer, Integer> function = i -> i + 1;
+    assertThat(disabled.timed(function)).isSameAs(function);
+    assertThat(disabled.timedAsync(Mono::just).apply(1).blockLast()).isEqualTo(1);
+    assertThat(disabled.getPending()).isZero();
+    assertThat(disabled.getTimer().getCount()).isZero();
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.metrics;
+
+import static com.datastax.oss.dsbulk.tests.assertions.TestAssertions.assertThat;
+import static org.slf4j.event.Level.DEBUG;
+
+import com.codahale.metrics.MetricRegistry;
+import com.datastax.oss.dsbulk.executor.api.listener.LogSink;
+import com.datastax.oss.dsbulk.tests.logging.LogCapture;
+import com.datastax.oss.dsbulk.tests.logging.LogInterceptingExtension;
+import com.datastax.oss.dsbulk.tests.logging.LogInterceptor;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+
+@ExtendWith(LogInterceptingExtension.class)
+class StageReporterTest {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(StageReporter.class);
+
+  private final MetricRegistry registry = new MetricRegistry();
+
+  @Test
+  void should_report_stages_in_pipeline_order(
+      @LogCapture(value = StageReporter.class, level = DEBUG) LogInterceptor interceptor) {
+    StageMonitor write = new StageMonitor(registry, "write");
+    StageMonitor read = new StageMonitor(registry, "read");
+    write.getTimer().update(2, TimeUnit.MILLISECONDS);
+    read.getTimer().update(500, TimeUnit.MICROSECONDS);
+    Flux.range(0, 3).transform(write.enter()).blockLast();
+    LogSink sink = LogSink.buildFrom(LOGGER::isDebugEnabled, LOGGER::debug);
+    StageReporter reporter =
+        new StageReporter(
+            registry,
+            sink,
+            Executors.newSingleThreadScheduledExecutor(),
+            Arrays.asList("read", "write"));
+    reporter.report();
+    assertThat(interceptor)
+        .hasMessageContaining(
+            "Stages: read: 0.500 ms mean, 0.500 ms p99, 0 pending; "
+                + "write: 2.000 ms mean, 2.000 ms p99, 3 pending");
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.metrics.prometheus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.prometheus.client.Collector;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class CachingCollectorTest {
+
+  private final AtomicInteger collections = new AtomicInteger();
+
+  private final Collector delegate =
+      new Collector() {
+        @Override
+        public List<MetricFamilySamples> collect() {
+          double value = collections.incrementAndGet();
+          return Collections.singletonList(
+              new MetricFamilySamples(
+                  "test",
+                  Type.GAUGE,
+                  "test",
+                  Collections.singletonList(
+                      new MetricFamilySamples.Sample(
+                          "test", Collections.emptyList(), Collections.emptyList(), value))));
+        }
+      };
+
+  @Test
+  void should_serve_cached_snapshot_until_expired() throws InterruptedException {
+    CachingCollector collector = new CachingCollector(delegate, Duration.ofMillis(200));
+    List<Collector.MetricFamilySamples> first = collector.collect();
+    assertThat(collector.collect()).isSameAs(first);
+    assertThat(collections).hasValue(1);
+    Thread.sleep(250);
+    assertThat(collector.collect()).isNotSameAs(first);
+    assertThat(collections).hasValue(2);
+  }
+
+  @Test
+  void should_collect_every_time_when_max_age_is_zero() {
+    CachingCollector collector = new CachingCollector(delegate, Duration.ZERO);
+    collector.collect();
+    collector.collect();
+    assertThat(collections).hasValue(2);
+  }
+}
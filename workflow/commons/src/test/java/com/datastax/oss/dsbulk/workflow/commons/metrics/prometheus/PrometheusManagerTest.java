@@ -107,6 +107,55 @@ class PrometheusManagerTest {
     }
   }
 
+  @Test
+  void should_share_http_server_between_operations() throws IOException {
+    // given
+    int port = NetworkUtils.findAvailablePort();
+    PullConfig pullConfig = new PullConfig("", port);
+    MetricRegistry registry2 = new MetricRegistry();
+    PrometheusManager manager1 =
+        new PrometheusManager(registry, "execution1", "job1", ImmutableMap.of(), pullConfig, null);
+    PrometheusManager manager2 =
+        new PrometheusManager(registry2, "execution2", "job1", ImmutableMap.of(), pullConfig, null);
+    URL url = new URL("http", "localhost", port, "/metrics");
+    registry.counter("records/total").inc();
+    registry2.counter("records/total").inc(2);
+    // when
+    manager1.init();
+    manager2.init();
+    try {
+      manager1.start();
+      // then
+      manager2.start();
+      assertThat(Resources.readLines(url, StandardCharsets.UTF_8))
+          .anySatisfy(
+              line ->
+                  assertThat(line)
+                      .startsWith("dsbulk_records_total")
+                      .contains("operation_id=\"execution1\"")
+                      .endsWith("1.0"))
+          .anySatisfy(
+              line ->
+                  assertThat(line)
+                      .startsWith("dsbulk_records_total")
+                      .contains("operation_id=\"execution2\"")
+                      .endsWith("2.0"));
+      manager1.close();
+      assertThat(Resources.readLines(url, StandardCharsets.UTF_8))
+          .noneSatisfy(line -> assertThat(line).contains("operation_id=\"execution1\""))
+          .anySatisfy(line -> assertThat(line).contains("operation_id=\"execution2\""));
+    } finally {
+      manager1.close();
+      manager2.close();
+      await()
+          .atMost(Duration.ofSeconds(5))
+          .untilAsserted(
+              () ->
+                  assertThatThrownBy(() -> url.openConnection().connect())
+                      .isInstanceOf(IOException.class));
+    }
+  }
+
   @Test
   void should_not_expose_http_server_when_wrong_config() {
     // given
@@ -203,6 +252,55 @@ class PrometheusManagerTest {
             "/metrics/job/job1/instance/.+/operation_id/execution1/key1/value1/key2/value2"));
   }
 
+  @Test
+  @ExtendWith(WiremockResolver.class)
+  void should_push_metrics_to_gateway_periodically(@Wiremock WireMockServer server)
+      throws MalformedURLException {
+    // given
+    PushConfig pushConfig =
+        new PushConfig(
+            new URL(server.baseUrl()),
+            "",
+            "",
+            false,
+            false,
+            ImmutableMap.of(),
+            Duration.ofMillis(100));
+    PrometheusManager manager =
+        new PrometheusManager(registry, "execution1", "job1", ImmutableMap.of(), null, pushConfig);
+    server.givenThat(
+        post(urlPathEqualTo("/metrics/job/job1")).willReturn(aResponse().withStatus(201)));
+    // when
+    manager.init();
+    manager.start();
+    registry.counter("records/total").inc(42);
+    // then
+    RequestPatternBuilder running =
+        postRequestedFor(urlPathEqualTo("/metrics/job/job1"))
+            .withRequestBody(containing("dsbulk_elapsed_time_seconds"))
+            .withRequestBody(containing("dsbulk_records_total"))
+            .withRequestBody(containing(" 42.0"))
+            .withRequestBody(notMatching("(?s).*dsbulk_success.*"));
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(() -> assertThat(server.findAll(running)).hasSizeGreaterThan(1));
+    // when
+    manager.close();
+    manager.pushMetrics(Duration.ofSeconds(1), true);
+    int pushes = server.findAll(postRequestedFor(urlPathEqualTo("/metrics/job/job1"))).size();
+    // then
+    server.verify(
+        postRequestedFor(urlPathEqualTo("/metrics/job/job1"))
+            .withRequestBody(containing("dsbulk_success")));
+    await()
+        .during(Duration.ofMillis(300))
+        .atMost(Duration.ofSeconds(1))
+        .untilAsserted(
+            () ->
+                assertThat(server.findAll(postRequestedFor(urlPathEqualTo("/metrics/job/job1"))))
+                    .hasSize(pushes));
+  }
+
   @Test
   @ExtendWith(WiremockResolver.class)
   @ExtendWith(LogInterceptingExtension.class)
@@ -0,0 +1,97 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.policies.retry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.DefaultConsistencyLevel;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.retry.RetryDecision;
+import com.datastax.oss.driver.api.core.servererrors.OverloadedException;
+import com.datastax.oss.driver.api.core.servererrors.ServerError;
+import com.datastax.oss.driver.api.core.servererrors.WriteType;
+import com.datastax.oss.dsbulk.workflow.commons.settings.BulkDriverOption;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("deprecation")
+class MultipleRetryPolicyTest {
+
+  private final SimpleStatement statement = SimpleStatement.newInstance("INSERT");
+  private final Node node = mock(Node.class);
+
+  @Test
+  void should_retry_timeouts_immediately_when_backoff_disabled() {
+    MultipleRetryPolicy policy = newPolicy(Duration.ZERO);
+    assertThat(policy.isBackoffEnabled()).isFalse();
+    assertThat(
+            policy.onWriteTimeout(
+                statement, DefaultConsistencyLevel.ONE, WriteType.SIMPLE, 1, 0, 0))
+        .isEqualTo(RetryDecision.RETRY_SAME);
+    assertThat(policy.onReadTimeout(statement, DefaultConsistencyLevel.ONE, 1, 0, false, 0))
+        .isEqualTo(RetryDecision.RETRY_SAME);
+    assertThat(policy.onErrorResponse(statement, new OverloadedException(node), 0))
+        .isEqualTo(RetryDecision.RETRY_NEXT);
+    assertThat(
+            policy.onWriteTimeout(
+                statement, DefaultConsistencyLevel.ONE, WriteType.SIMPLE, 1, 0, 3))
+        .isEqualTo(RetryDecision.RETHROW);
+  }
+
+  @Test
+  void should_rethrow_overload_errors_when_backoff_enabled() {
+    MultipleRetryPolicy policy = newPolicy(Duration.ofMillis(100));
+    assertThat(policy.isBackoffEnabled()).isTrue();
+    assertThat(policy.getMaxRetryCount()).isEqualTo(3);
+    assertThat(policy.getBaseDelay()).isEqualTo(Duration.ofMillis(100));
+    assertThat(policy.getMaxDelay()).isEqualTo(Duration.ofSeconds(10));
+    assertThat(
+            policy.onWriteTimeout(
+                statement, DefaultConsistencyLevel.ONE, WriteType.SIMPLE, 1, 0, 0))
+        .isEqualTo(RetryDecision.RETHROW);
+    assertThat(policy.onReadTimeout(statement, DefaultConsistencyLevel.ONE, 1, 0, false, 0))
+        .isEqualTo(RetryDecision.RETHROW);
+    assertThat(policy.onErrorResponse(statement, new OverloadedException(node), 0))
+        .isEqualTo(RetryDecision.RETHROW);
+    // other errors are still retried immediately
+    assertThat(policy.onErrorResponse(statement, new ServerError(node, "boom"), 0))
+        .isEqualTo(RetryDecision.RETRY_NEXT);
+  }
+
+  private static MultipleRetryPolicy newPolicy(Duration baseDelay) {
+    DriverContext context = mock(DriverContext.class);
+    DriverConfig config = mock(DriverConfig.class);
+    DriverExecutionProfile profile = mock(DriverExecutionProfile.class);
+    when(context.getConfig()).thenReturn(config);
+    when(config.getProfile(anyString())).thenReturn(profile);
+    when(profile.getInt(eq(BulkDriverOption.RETRY_POLICY_MAX_RETRIES), anyInt())).thenReturn(3);
+    when(profile.getDuration(eq(BulkDriverOption.RETRY_POLICY_BACKOFF_BASE_DELAY), any()))
+        .thenReturn(baseDelay);
+    when(profile.getDuration(eq(BulkDriverOption.RETRY_POLICY_BACKOFF_MAX_DELAY), any()))
+        .thenReturn(Duration.ofSeconds(10));
+    return new MultipleRetryPolicy(context, DriverExecutionProfile.DEFAULT_NAME);
+  }
+}
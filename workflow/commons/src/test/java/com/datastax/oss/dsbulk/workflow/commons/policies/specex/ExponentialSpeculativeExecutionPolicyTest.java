@@ -0,0 +1,99 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.policies.specex;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.dsbulk.workflow.commons.settings.BulkDriverOption;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class ExponentialSpeculativeExecutionPolicyTest {
+
+  private final SimpleStatement statement = SimpleStatement.newInstance("INSERT");
+  private final Node node = mock(Node.class);
+
+  @Test
+  void should_grow_delays_exponentially_up_to_max_delay() {
+    ExponentialSpeculativeExecutionPolicy policy =
+        newPolicy(5, Duration.ofMillis(100), Duration.ofMillis(300));
+    for (int i = 0; i < 100; i++) {
+      assertThat(policy.nextExecution(node, null, statement, 1)).isBetween(50L, 100L);
+      assertThat(policy.nextExecution(node, null, statement, 2)).isBetween(100L, 200L);
+      assertThat(policy.nextExecution(node, null, statement, 3)).isBetween(150L, 300L);
+      assertThat(policy.nextExecution(node, null, statement, 4)).isBetween(150L, 300L);
+    }
+  }
+
+  @Test
+  void should_stop_after_max_executions() {
+    ExponentialSpeculativeExecutionPolicy policy =
+        newPolicy(2, Duration.ofMillis(100), Duration.ofSeconds(1));
+    assertThat(policy.nextExecution(node, null, statement, 1)).isNotNegative();
+    assertThat(policy.nextExecution(node, null, statement, 2)).isNegative();
+    policy = newPolicy(1, Duration.ofMillis(100), Duration.ofSeconds(1));
+    assertThat(policy.nextExecution(node, null, statement, 1)).isNegative();
+  }
+
+  @Test
+  void should_not_overflow_with_many_executions() {
+    ExponentialSpeculativeExecutionPolicy policy =
+        newPolicy(Integer.MAX_VALUE, Duration.ofMillis(100), Duration.ofSeconds(1));
+    assertThat(policy.nextExecution(node, null, statement, 100)).isBetween(500L, 1000L);
+  }
+
+  @Test
+  void should_error_out_when_settings_invalid() {
+    assertThatThrownBy(() -> newPolicy(0, Duration.ofMillis(100), Duration.ofSeconds(1)))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage(
+            "Max executions for ExponentialSpeculativeExecutionPolicy must be strictly positive, got 0");
+    assertThatThrownBy(() -> newPolicy(3, Duration.ZERO, Duration.ofSeconds(1)))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage(
+            "Delay for ExponentialSpeculativeExecutionPolicy must be strictly positive, got PT0S");
+    assertThatThrownBy(() -> newPolicy(3, Duration.ofSeconds(2), Duration.ofSeconds(1)))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage(
+            "Max delay for ExponentialSpeculativeExecutionPolicy must be greater than or equal to delay, got PT1S < PT2S");
+  }
+
+  private static ExponentialSpeculativeExecutionPolicy newPolicy(
+      int maxExecutions, Duration delay, Duration maxDelay) {
+    DriverContext context = mock(DriverContext.class);
+    DriverConfig config = mock(DriverConfig.class);
+    DriverExecutionProfile profile = mock(DriverExecutionProfile.class);
+    when(context.getConfig()).thenReturn(config);
+    when(config.getProfile(anyString())).thenReturn(profile);
+    when(profile.getInt(DefaultDriverOption.SPECULATIVE_EXECUTION_MAX)).thenReturn(maxExecutions);
+    when(profile.getDuration(DefaultDriverOption.SPECULATIVE_EXECUTION_DELAY)).thenReturn(delay);
+    when(profile.getDuration(eq(BulkDriverOption.SPECULATIVE_EXECUTION_MAX_DELAY), any()))
+        .thenReturn(maxDelay);
+    return new ExponentialSpeculativeExecutionPolicy(context, DriverExecutionProfile.DEFAULT_NAME);
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.schema;
+
+import static com.datastax.oss.driver.api.core.type.DataTypes.COUNTER;
+import static com.datastax.oss.driver.api.core.type.DataTypes.INT;
+import static com.datastax.oss.dsbulk.tests.driver.DriverUtils.mockColumnDefinition;
+import static com.datastax.oss.dsbulk.tests.driver.DriverUtils.mockColumnDefinitions;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.dsbulk.connectors.api.Record;
+import com.datastax.oss.dsbulk.mapping.CQLWord;
+import com.datastax.oss.dsbulk.workflow.commons.statement.AggregatedCounterStatement;
+import com.datastax.oss.dsbulk.workflow.commons.statement.MappedBoundStatement;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+class CounterAggregatorTest {
+
+  private static final CQLWord PK = CQLWord.fromInternal("pk");
+
+  // UPDATE t SET c1 = c1 + :c1, c2 = c2 + :c2 WHERE pk = :pk
+  private final PreparedStatement ps = mock(PreparedStatement.class);
+
+  private CounterAggregator aggregator;
+
+  @BeforeEach
+  void setUp() {
+    ColumnDefinitions variables =
+        mockColumnDefinitions(
+            mockColumnDefinition("c1", COUNTER),
+            mockColumnDefinition("c2", COUNTER),
+            mockColumnDefinition("pk", INT));
+    when(ps.getVariableDefinitions()).thenReturn(variables);
+    aggregator = new CounterAggregator(10, Duration.ZERO, new HashSet<>(Arrays.asList(PK)));
+  }
+
+  @Test
+  void should_combine_increments_of_same_row() {
+    MappedBoundStatement s1 = statement(1, 1L, 10L);
+    MappedBoundStatement s2 = statement(2, 5L, null);
+    MappedBoundStatement s3 = statement(1, -3L, null);
+    MappedBoundStatement s4 = statement(1, 4L, 1L);
+    List<BatchableStatement<?>> result = aggregate(s1, s2, s3, s4);
+    assertThat(result).hasSize(2);
+    assertThat(result.get(0)).isInstanceOf(AggregatedCounterStatement.class);
+    AggregatedCounterStatement combined = (AggregatedCounterStatement) result.get(0);
+    assertThat(combined.getRecords())
+        .containsExactly(s1.getRecord(), s3.getRecord(), s4.getRecord());
+    assertThat(combined.getBytesUnsafe(0)).isEqualTo(bytes(2L));
+    assertThat(combined.getBytesUnsafe(1)).isEqualTo(bytes(11L));
+    assertThat(result.get(1)).isSameAs(s2);
+  }
+
+  @Test
+  void should_not_combine_increments_that_would_overflow() {
+    MappedBoundStatement s1 = statement(1, Long.MAX_VALUE, null);
+    MappedBoundStatement s2 = statement(1, 1L, null);
+    List<BatchableStatement<?>> result = aggregate(s1, s2);
+    assertThat(result).containsExactly(s1, s2);
+  }
+
+  @Test
+  void should_emit_eldest_row_when_window_is_full() {
+    aggregator = new CounterAggregator(1, Duration.ZERO, new HashSet<>(Arrays.asList(PK)));
+    MappedBoundStatement s1 = statement(1, 1L, null);
+    MappedBoundStatement s2 = statement(2, 1L, null);
+    MappedBoundStatement s3 = statement(1, 1L, null);
+    List<BatchableStatement<?>> result = aggregate(s1, s2, s3);
+    assertThat(result).containsExactly(s1, s2, s3);
+  }
+
+  @Test
+  void should_emit_rows_older_than_max_age() {
+    aggregator = new CounterAggregator(10, Duration.ofMillis(50), new HashSet<>(Arrays.asList(PK)));
+    MappedBoundStatement s1 = statement(1, 1L, null);
+    MappedBoundStatement s2 = statement(1, 2L, null);
+    // the upstream flow never completes, and the window never fills up
+    BatchableStatement<?> first =
+        aggregator
+            .aggregate(Flux.<BatchableStatement<?>>just(s1, s2).concatWith(Flux.never()))
+            .blockFirst(Duration.ofSeconds(10));
+    assertThat(first).isInstanceOf(AggregatedCounterStatement.class);
+    assertThat(((AggregatedCounterStatement) first).getRecords())
+        .containsExactly(s1.getRecord(), s2.getRecord());
+    assertThat(((AggregatedCounterStatement) first).getBytesUnsafe(0)).isEqualTo(bytes(3L));
+  }
+
+  @Test
+  void should_emit_each_row_once_when_max_age_enabled() {
+    aggregator = new CounterAggregator(10, Duration.ofMillis(1), new HashSet<>(Arrays.asList(PK)));
+    MappedBoundStatement s1 = statement(1, 1L, null);
+    MappedBoundStatement s2 = statement(2, 1L, null);
+    MappedBoundStatement s3 = statement(3, 1L, null);
+    List<BatchableStatement<?>> result = aggregate(s1, s2, s3);
+    assertThat(result).containsExactlyInAnyOrder(s1, s2, s3);
+  }
+
+  @Test
+  void should_pass_through_statements_without_primary_key() {
+    MappedBoundStatement s1 = statement(null, 1L, null);
+    MappedBoundStatement s2 = statement(null, 1L, null);
+    List<BatchableStatement<?>> result = aggregate(s1, s2);
+    assertThat(result).containsExactly(s1, s2);
+  }
+
+  private List<BatchableStatement<?>> aggregate(BatchableStatement<?>... statements) {
+    return aggregator.aggregate(Flux.fromArray(statements)).collectList().block();
+  }
+
+  private MappedBoundStatement statement(Integer pk, Long c1, Long c2) {
+    BoundStatement bs = mock(BoundStatement.class);
+    ByteBuffer[] values = {
+      c1 == null ? ProtocolConstants.UNSET_VALUE : bytes(c1),
+      c2 == null ? ProtocolConstants.UNSET_VALUE : bytes(c2),
+      pk == null ? ProtocolConstants.UNSET_VALUE : TypeCodecs.INT.encodePrimitive(pk, null)
+    };
+    when(bs.getPreparedStatement()).thenReturn(ps);
+    when(bs.getBytesUnsafe(anyInt()))
+        .thenAnswer(invocation -> values[(int) invocation.getArgument(0)]);
+    when(bs.setBytesUnsafe(anyInt(), any(ByteBuffer.class)))
+        .thenAnswer(
+            invocation -> {
+              values[(int) invocation.getArgument(0)] = invocation.getArgument(1);
+              return bs;
+            });
+    return new MappedBoundStatement(mock(Record.class), bs);
+  }
+
+  private static ByteBuffer bytes(long value) {
+    return TypeCodecs.BIGINT.encodePrimitive(value, null);
+  }
+}
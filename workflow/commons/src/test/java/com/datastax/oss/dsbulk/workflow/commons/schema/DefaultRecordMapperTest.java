@@ -29,8 +29,10 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -241,6 +243,9 @@ class DefaultRecordMapperTest {
     assertParameter(0, C1, TypeCodecs.INT.encode(42, V4));
     assertParameter(1, C2, TypeCodecs.BIGINT.encode(4242L, V4));
     assertParameter(2, C3, TypeCodecs.TEXT.encode("foo", V4));
+    // size computed while binding: 4 (int) + 8 (bigint) + 3 (text)
+    assertThat(((MappedBoundStatement) result).getDataSize()).isEqualTo(15);
+    verify(boundStatement, never()).getBytesUnsafe(anyInt());
   }
 
   @Test
@@ -835,4 +835,23 @@ class QueryInspectorTest {
             "BEGIN BATCH INSERT INTO t1 (pk,cc,v) VALUES (?,?,?) USING TTL 123 APPLY BATCH",
             false));
   }
+
+  @ParameterizedTest
+  @MethodSource
+  void should_detect_relative_assignments(String query, boolean expected) {
+    QueryInspector inspector = new QueryInspector(query);
+    assertThat(inspector.hasRelativeAssignments()).isEqualTo(expected);
+  }
+
+  @SuppressWarnings("unused")
+  static List<Arguments> should_detect_relative_assignments() {
+    return Lists.newArrayList(
+        arguments("INSERT INTO t1 (pk,cc,v) VALUES (?,?,?)", false),
+        arguments("UPDATE t1 SET v = :v WHERE pk = :pk", false),
+        arguments("UPDATE t1 SET l = l + :l WHERE pk = :pk", true),
+        arguments("UPDATE t1 SET l = :l + l WHERE pk = :pk", true),
+        arguments("UPDATE t1 SET m = m - :k WHERE pk = :pk", true),
+        arguments("UPDATE t1 SET s += :s WHERE pk = :pk", true),
+        arguments("UPDATE t1 SET m[:k] = :v WHERE pk = :pk", false));
+  }
 }
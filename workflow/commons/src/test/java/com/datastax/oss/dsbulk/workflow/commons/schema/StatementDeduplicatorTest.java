@@ -0,0 +1,187 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.schema;
+
+import static com.datastax.oss.driver.api.core.type.DataTypes.BIGINT;
+import static com.datastax.oss.driver.api.core.type.DataTypes.BOOLEAN;
+import static com.datastax.oss.driver.api.core.type.DataTypes.INT;
+import static com.datastax.oss.dsbulk.tests.driver.DriverUtils.mockColumnDefinition;
+import static com.datastax.oss.dsbulk.tests.driver.DriverUtils.mockColumnDefinitions;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.dsbulk.connectors.api.Record;
+import com.datastax.oss.dsbulk.mapping.CQLWord;
+import com.datastax.oss.dsbulk.workflow.commons.statement.CollapsedStatement;
+import com.datastax.oss.dsbulk.workflow.commons.statement.MappedBoundStatement;
+import com.datastax.oss.dsbulk.workflow.commons.statement.MappedStatement;
+import com.datastax.oss.dsbulk.workflow.commons.statement.UnmappableStatement;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+class StatementDeduplicatorTest {
+
+  private static final CQLWord PK = CQLWord.fromInternal("pk");
+  private static final CQLWord CK = CQLWord.fromInternal("ck");
+  private static final CQLWord TS = CQLWord.fromInternal("ts");
+
+  // variables: pk, ck, v, ts
+  private final PreparedStatement ps = mock(PreparedStatement.class);
+
+  private StatementDeduplicator deduplicator;
+
+  @BeforeEach
+  void setUp() {
+    ColumnDefinitions variables =
+        mockColumnDefinitions(
+            mockColumnDefinition("pk", INT),
+            mockColumnDefinition("ck", INT),
+            mockColumnDefinition("v", INT),
+            mockColumnDefinition("ts", BIGINT));
+    when(ps.getVariableDefinitions()).thenReturn(variables);
+    when(ps.getResultSetDefinitions()).thenReturn(mockColumnDefinitions());
+    deduplicator = new StatementDeduplicator(10, new HashSet<>(Arrays.asList(PK, CK)), TS);
+  }
+
+  @Test
+  void should_keep_last_statement_for_same_row() {
+    MappedBoundStatement s1 = statement(1, 1, 1, null);
+    MappedBoundStatement s2 = statement(1, 2, 2, null);
+    MappedBoundStatement s3 = statement(1, 1, 3, null);
+    List<BatchableStatement<?>> result = deduplicate(s1, s2, s3);
+    assertThat(result).hasSize(3);
+    assertThat(result.get(0)).isInstanceOf(CollapsedStatement.class);
+    assertThat(((CollapsedStatement) result.get(0)).getRecord()).isSameAs(s1.getRecord());
+    // s3 takes the place of s1 in the window
+    assertThat(result.subList(1, 3)).containsExactly(s3, s2);
+  }
+
+  @Test
+  void should_keep_statement_with_highest_timestamp() {
+    MappedBoundStatement s1 = statement(1, 1, 1, 2000L);
+    MappedBoundStatement s2 = statement(1, 1, 2, 1000L);
+    List<BatchableStatement<?>> result = deduplicate(s1, s2);
+    assertThat(result).hasSize(2);
+    assertThat(((CollapsedStatement) result.get(0)).getRecord()).isSameAs(s2.getRecord());
+    assertThat(result.get(1)).isSameAs(s1);
+  }
+
+  @Test
+  void should_not_collapse_statement_setting_more_columns() {
+    MappedBoundStatement s1 = statement(1, 1, 1, null);
+    MappedBoundStatement s2 = statement(1, 1, null, null);
+    List<BatchableStatement<?>> result = deduplicate(s1, s2);
+    assertThat(result).containsExactly(s1, s2);
+  }
+
+  @Test
+  void should_emit_eldest_statement_when_window_is_full() {
+    deduplicator = new StatementDeduplicator(1, new HashSet<>(Arrays.asList(PK, CK)), TS);
+    MappedBoundStatement s1 = statement(1, 1, 1, null);
+    MappedBoundStatement s2 = statement(1, 2, 2, null);
+    MappedBoundStatement s3 = statement(1, 1, 3, null);
+    List<BatchableStatement<?>> result = deduplicate(s1, s2, s3);
+    assertThat(result).containsExactly(s1, s2, s3);
+  }
+
+  @Test
+  void should_pass_through_statements_that_cannot_be_deduplicated() {
+    UnmappableStatement unmappable =
+        new UnmappableStatement(mock(Record.class), new RuntimeException("boom"));
+    MappedBoundStatement s1 = statement(1, null, 1, null);
+    MappedBoundStatement s2 = statement(1, null, 2, null);
+    List<BatchableStatement<?>> result = deduplicate(unmappable, s1, s2);
+    assertThat(result).containsExactly(unmappable, s1, s2);
+  }
+
+  @Test
+  void should_not_deduplicate_conditional_statements() {
+    ColumnDefinitions resultSet = mockColumnDefinitions(mockColumnDefinition("[applied]", BOOLEAN));
+    when(ps.getResultSetDefinitions()).thenReturn(resultSet);
+    MappedBoundStatement s1 = statement(1, 1, 1, null);
+    MappedBoundStatement s2 = statement(1, 1, 2, null);
+    List<BatchableStatement<?>> result = deduplicate(s1, s2);
+    assertThat(result).containsExactly(s1, s2);
+  }
+
+  @Test
+  void should_not_deduplicate_non_idempotent_statements() {
+    MappedBoundStatement s1 = statement(1, 1, 1, null, false);
+    MappedBoundStatement s2 = statement(1, 1, 2, null, false);
+    List<BatchableStatement<?>> result = deduplicate(s1, s2);
+    assertThat(result).containsExactly(s1, s2);
+  }
+
+  @Test
+  void should_use_one_window_per_subscription() {
+    MappedBoundStatement s1 = statement(1, 1, 1, null);
+    MappedBoundStatement s2 = statement(1, 1, 2, null);
+    assertThat(deduplicate(s1)).containsExactly(s1);
+    assertThat(deduplicate(s2)).containsExactly(s2);
+  }
+
+  private List<BatchableStatement<?>> deduplicate(BatchableStatement<?>... statements) {
+    List<BatchableStatement<?>> result =
+        deduplicator.deduplicate(Flux.fromArray(statements)).collectList().block();
+    assertThat(result).isNotNull();
+    // all records are accounted for
+    assertThat(result.stream().map(s -> ((MappedStatement) s).getRecord()))
+        .containsExactlyInAnyOrderElementsOf(
+            Arrays.stream(statements)
+                .map(s -> ((MappedStatement) s).getRecord())
+                .collect(Collectors.toList()));
+    return result;
+  }
+
+  private MappedBoundStatement statement(Integer pk, Integer ck, Integer v, Long ts) {
+    return statement(pk, ck, v, ts, null);
+  }
+
+  private MappedBoundStatement statement(
+      Integer pk, Integer ck, Integer v, Long ts, Boolean idempotent) {
+    BoundStatement bs = mock(BoundStatement.class);
+    when(bs.getPreparedStatement()).thenReturn(ps);
+    when(bs.isIdempotent()).thenReturn(idempotent);
+    when(bs.getBytesUnsafe(0)).thenReturn(bytes(pk));
+    when(bs.getBytesUnsafe(1)).thenReturn(bytes(ck));
+    when(bs.getBytesUnsafe(2)).thenReturn(bytes(v));
+    when(bs.getBytesUnsafe(3))
+        .thenReturn(
+            ts == null
+                ? ProtocolConstants.UNSET_VALUE
+                : TypeCodecs.BIGINT.encodePrimitive(ts, null));
+    return new MappedBoundStatement(mock(Record.class), bs);
+  }
+
+  private static ByteBuffer bytes(Integer value) {
+    return value == null
+        ? ProtocolConstants.UNSET_VALUE
+        : TypeCodecs.INT.encodePrimitive(value, null);
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.schema;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.dsbulk.connectors.api.Record;
+import com.datastax.oss.dsbulk.mapping.CQLWord;
+import com.datastax.oss.dsbulk.workflow.commons.schema.WriteTimeAndTtlGrouper.GroupableInsert;
+import com.datastax.oss.dsbulk.workflow.commons.statement.MappedBoundStatement;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class WriteTimeAndTtlGrouperTest {
+
+  private static final CQLWord PK = CQLWord.fromInternal("pk");
+  private static final CQLWord C1 = CQLWord.fromInternal("c1");
+  private static final CQLWord C2 = CQLWord.fromInternal("c2");
+  private static final CQLWord C3 = CQLWord.fromInternal("c3");
+
+  private final Record record = mock(Record.class);
+
+  private final List<GroupableInsert> inserts =
+      Arrays.asList(insert(0, C1), insert(1, C2), insert(2, C3));
+
+  private final List<List<GroupableInsert>> prepared = new ArrayList<>();
+
+  private CompletableFuture<PreparedStatement> preparing;
+  private PreparedStatement ps;
+  private BoundStatementBuilder builder;
+  private BoundStatement grouped;
+  private WriteTimeAndTtlGrouper grouper;
+
+  @BeforeEach
+  void setUp() {
+    ps = mock(PreparedStatement.class);
+    builder = mock(BoundStatementBuilder.class, RETURNS_SELF);
+    grouped = mock(BoundStatement.class);
+    when(ps.boundStatementBuilder()).thenReturn(builder);
+    when(builder.build()).thenReturn(grouped);
+    Function<List<GroupableInsert>, CompletionStage<PreparedStatement>> preparer =
+        group -> {
+          prepared.add(group);
+          return preparing == null ? CompletableFuture.completedFuture(ps) : preparing;
+        };
+    grouper = new WriteTimeAndTtlGrouper(inserts, Arrays.asList(PK), preparer);
+  }
+
+  @Test
+  void should_group_columns_with_same_writetime_and_ttl() {
+    BatchableStatement<?>[] children = {
+      child(C1, 1000L, 3600), child(C2, 2000L, 3600), child(C3, 1000L, 3600)
+    };
+    BatchableStatement<?>[] result = grouper.group(children);
+    assertThat(result).hasSize(2);
+    assertThat(result[0]).isInstanceOf(MappedBoundStatement.class);
+    assertThat(((MappedBoundStatement) result[0]).getRecord()).isSameAs(record);
+    // pk + writetime + ttl + c1 + c3
+    assertThat(((MappedBoundStatement) result[0]).getDataSize()).isEqualTo(2 + 8 + 4 + 2 + 2);
+    assertThat(result[1]).isSameAs(children[1]);
+    assertThat(prepared).containsExactly(Arrays.asList(inserts.get(0), inserts.get(2)));
+    verify(builder).setBytesUnsafe(PK.asIdentifier(), bytes("pk"));
+    verify(builder).setBytesUnsafe(C1.asIdentifier(), bytes("c1"));
+    verify(builder).setBytesUnsafe(C3.asIdentifier(), bytes("c3"));
+    verify(builder).setBytesUnsafe(writetime(C1).asIdentifier(), bytes(1000L));
+    verify(builder).setBytesUnsafe(ttl(C1).asIdentifier(), bytes(3600));
+    verify(builder, never()).setBytesUnsafe(C2.asIdentifier(), bytes("c2"));
+  }
+
+  @Test
+  void should_prepare_each_group_only_once() {
+    grouper.group(
+        new BatchableStatement<?>[] {
+          child(C1, 1000L, 3600), child(C2, 1000L, 3600), child(C3, 1000L, 3600)
+        });
+    BatchableStatement<?>[] result =
+        grouper.group(
+            new BatchableStatement<?>[] {
+              child(C1, 2000L, 0), child(C2, 2000L, 0), child(C3, 2000L, 0)
+            });
+    assertThat(result).hasSize(1);
+    assertThat(prepared).hasSize(1);
+    verify(builder, times(2)).build();
+  }
+
+  @Test
+  void should_not_group_columns_until_group_is_prepared() {
+    preparing = new CompletableFuture<>();
+    BatchableStatement<?>[] children = {
+      child(C1, 1000L, 3600), child(C2, 1000L, 3600), child(C3, 1000L, 3600)
+    };
+    assertThat(grouper.group(children)).isSameAs(children);
+    assertThat(grouper.group(children)).isSameAs(children);
+    preparing.complete(ps);
+    assertThat(grouper.group(children)).hasSize(1);
+    assertThat(prepared).hasSize(1);
+  }
+
+  @Test
+  void should_not_group_columns_when_preparation_fails() {
+    preparing = new CompletableFuture<>();
+    preparing.completeExceptionally(new RuntimeException("boom"));
+    BatchableStatement<?>[] children = {
+      child(C1, 1000L, 3600), child(C2, 1000L, 3600), child(C3, 1000L, 3600)
+    };
+    assertThat(grouper.group(children)).isSameAs(children);
+    assertThat(grouper.group(children)).isSameAs(children);
+    // failed preparations are not retried
+    assertThat(prepared).hasSize(1);
+  }
+
+  @Test
+  void should_not_group_columns_with_distinct_writetimes() {
+    BatchableStatement<?>[] children = {
+      child(C1, 1000L, 3600), child(C2, 2000L, 3600), child(C3, 3000L, 3600)
+    };
+    assertThat(grouper.group(children)).isSameAs(children);
+    assertThat(prepared).isEmpty();
+    verify(builder, never()).setBytesUnsafe(any(CqlIdentifier.class), any());
+  }
+
+  private MappedBoundStatement child(CQLWord column, long writetime, int ttl) {
+    BoundStatement bs = mock(BoundStatement.class);
+    List<CqlIdentifier> names =
+        Arrays.asList(
+            PK.asIdentifier(),
+            column.asIdentifier(),
+            writetime(column).asIdentifier(),
+            ttl(column).asIdentifier());
+    List<ByteBuffer> values =
+        Arrays.asList(
+            bytes("pk"), bytes(column.asIdentifier().asInternal()), bytes(writetime), bytes(ttl));
+    for (int i = 0; i < names.size(); i++) {
+      when(bs.firstIndexOf(names.get(i))).thenReturn(i);
+      when(bs.getBytesUnsafe(i)).thenReturn(values.get(i));
+    }
+    return new MappedBoundStatement(record, bs);
+  }
+
+  private static GroupableInsert insert(int index, CQLWord column) {
+    return new GroupableInsert(index, column, writetime(column), ttl(column));
+  }
+
+  private static CQLWord writetime(CQLWord column) {
+    return CQLWord.fromInternal("writetime(" + column.asIdentifier().asInternal() + ")");
+  }
+
+  private static CQLWord ttl(CQLWord column) {
+    return CQLWord.fromInternal("ttl(" + column.asIdentifier().asInternal() + ")");
+  }
+
+  private static ByteBuffer bytes(String s) {
+    return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static ByteBuffer bytes(long l) {
+    return ByteBuffer.allocate(8).putLong(0, l);
+  }
+
+  private static ByteBuffer bytes(int i) {
+    return ByteBuffer.allocate(4).putInt(0, i);
+  }
+}
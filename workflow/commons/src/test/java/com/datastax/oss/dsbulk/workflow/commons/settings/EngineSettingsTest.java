@@ -84,4 +84,43 @@ class EngineSettingsTest {
     settings.init();
     assertThat(settings.isDataSizeSamplingEnabled()).isFalse();
   }
+
+  @Test
+  void should_create_continuous_sampling_enabled() {
+    Config config =
+        TestConfigUtils.createTestConfig("dsbulk.engine", "continuousSamplingEnabled", true);
+    EngineSettings settings = new EngineSettings(config);
+    settings.init();
+    assertThat(settings.isContinuousSamplingEnabled()).isTrue();
+  }
+
+  @Test
+  void should_report_default_heap_pressure_thresholds() {
+    Config config = TestConfigUtils.createTestConfig("dsbulk.engine");
+    EngineSettings settings = new EngineSettings(config);
+    settings.init();
+    assertThat(settings.getHeapPressureThreshold()).isZero();
+    assertThat(settings.getGcOverheadThreshold()).isZero();
+  }
+
+  @Test
+  void should_create_custom_heap_pressure_thresholds() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.engine", "heapPressureThreshold", 0, "gcOverheadThreshold", 0.5);
+    EngineSettings settings = new EngineSettings(config);
+    settings.init();
+    assertThat(settings.getHeapPressureThreshold()).isZero();
+    assertThat(settings.getGcOverheadThreshold()).isEqualTo(0.5);
+  }
+
+  @Test
+  void should_throw_when_heap_pressure_threshold_invalid() {
+    Config config = TestConfigUtils.createTestConfig("dsbulk.engine", "heapPressureThreshold", 1.5);
+    EngineSettings settings = new EngineSettings(config);
+    assertThatThrownBy(settings::init)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining(
+            "Invalid value for dsbulk.engine.heapPressureThreshold, expecting a number between 0 (inclusive) and 1 (exclusive), got '1.5'");
+  }
 }
@@ -17,6 +17,7 @@ package com.datastax.oss.dsbulk.workflow.commons.settings;
 
 import static com.datastax.oss.dsbulk.tests.logging.StreamType.STDERR;
 import static com.datastax.oss.dsbulk.tests.utils.StringUtils.quoteJson;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -34,6 +35,7 @@ import com.datastax.oss.dsbulk.workflow.api.error.AbsoluteErrorThreshold;
 import com.datastax.oss.dsbulk.workflow.api.error.ErrorThreshold;
 import com.datastax.oss.dsbulk.workflow.api.error.RatioErrorThreshold;
 import com.datastax.oss.dsbulk.workflow.api.error.UnlimitedErrorThreshold;
+import com.datastax.oss.dsbulk.workflow.api.utils.OperationScope;
 import com.datastax.oss.dsbulk.workflow.commons.log.LogManager;
 import com.datastax.oss.dsbulk.workflow.commons.settings.LogSettings.Verbosity;
 import com.typesafe.config.Config;
@@ -441,4 +443,32 @@ class LogSettingsTest {
         .hasMessageContaining(
             "Invalid value for dsbulk.log.verbosity, expecting one of quiet, normal, high, max, got: 'NotAValidVerbosity'");
   }
+
+  @Test
+  void should_log_events_of_each_operation_to_its_own_main_log_file() throws Exception {
+    Path mainLogFile1 = customLogsDirectory.resolve("operation1.log");
+    Path mainLogFile2 = customLogsDirectory.resolve("operation2.log");
+    OperationScope scope1 = OperationScope.open();
+    LogSettings.createMainLogFileAppender(mainLogFile1);
+    Thread thread =
+        new Thread(
+            () -> {
+              try (OperationScope ignored = OperationScope.open()) {
+                LogSettings.createMainLogFileAppender(mainLogFile2);
+                LOGGER.info("message from operation 2");
+              }
+            });
+    thread.start();
+    thread.join();
+    LOGGER.info("message from operation 1");
+    scope1.close();
+    LOGGER.info("message after operation 1");
+    assertThat(new String(Files.readAllBytes(mainLogFile1), UTF_8))
+        .contains("message from operation 1")
+        .doesNotContain("message from operation 2")
+        .doesNotContain("message after operation 1");
+    assertThat(new String(Files.readAllBytes(mainLogFile2), UTF_8))
+        .contains("message from operation 2")
+        .doesNotContain("message from operation 1");
+  }
 }
@@ -108,6 +108,8 @@ import com.datastax.oss.dsbulk.workflow.commons.schema.QueryInspector;
 import com.datastax.oss.dsbulk.workflow.commons.schema.ReadResultCounter;
 import com.datastax.oss.dsbulk.workflow.commons.schema.ReadResultMapper;
 import com.datastax.oss.dsbulk.workflow.commons.schema.RecordMapper;
+import com.datastax.oss.dsbulk.workflow.commons.schema.WriteTimeAndTtlGrouper;
+import com.datastax.oss.dsbulk.workflow.commons.schema.WriteTimeAndTtlGrouper.GroupableInsert;
 import com.datastax.oss.dsbulk.workflow.commons.statement.RangeReadBoundStatement;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigValueFactory;
@@ -122,6 +124,9 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -288,6 +293,110 @@ class SchemaSettingsTest {
     assertMapping(mapper, C2, C2, C1, C1, C3, C3);
   }
 
+  @Test
+  void should_create_statement_deduplicator_when_window_provided() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.schema", "keyspace", "ks", "table", "t1", "deduplicationWindow", 100);
+    SchemaSettings settings = new SchemaSettings(config, MAP_AND_WRITE);
+    settings.init(session, codecFactory, false, true);
+    assertThat(settings.createRecordMapper(session, recordMetadata, false)).isNotNull();
+    assertThat(settings.createStatementDeduplicator()).isNotNull();
+  }
+
+  @Test
+  void should_not_create_statement_deduplicator_when_window_not_provided() {
+    Config config =
+        TestConfigUtils.createTestConfig("dsbulk.schema", "keyspace", "ks", "table", "t1");
+    SchemaSettings settings = new SchemaSettings(config, MAP_AND_WRITE);
+    settings.init(session, codecFactory, false, true);
+    assertThat(settings.createRecordMapper(session, recordMetadata, false)).isNotNull();
+    assertThat(settings.createStatementDeduplicator()).isNull();
+  }
+
+  @Test
+  void should_not_create_statement_deduplicator_when_counter_table() {
+    when(col1.getType()).thenReturn(COUNTER);
+    when(col2.getType()).thenReturn(COUNTER);
+    when(col3.getType()).thenReturn(COUNTER);
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.schema", "keyspace", "ks", "table", "t1", "deduplicationWindow", 100);
+    SchemaSettings settings = new SchemaSettings(config, MAP_AND_WRITE);
+    settings.init(session, codecFactory, false, true);
+    assertThat(settings.createRecordMapper(session, recordMetadata, false)).isNotNull();
+    assertThat(settings.createStatementDeduplicator()).isNull();
+  }
+
+  @Test
+  void should_not_create_statement_deduplicator_when_query_appends_to_collection() {
+    ColumnDefinitions definitions =
+        mockColumnDefinitions(
+            mockColumnDefinition(C1, TEXT), mockColumnDefinition(C3, DataTypes.listOf(TEXT)));
+    when(ps.getVariableDefinitions()).thenReturn(definitions);
+    when(col3.getType()).thenReturn(DataTypes.listOf(TEXT));
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.schema",
+            "query",
+            "\"UPDATE ks.t1 SET c3 = c3 + :c3 WHERE c1 = :c1\"",
+            "deduplicationWindow",
+            100);
+    SchemaSettings settings = new SchemaSettings(config, MAP_AND_WRITE);
+    settings.init(session, codecFactory, false, true);
+    assertThat(settings.createRecordMapper(session, recordMetadata, false)).isNotNull();
+    assertThat(settings.createStatementDeduplicator()).isNull();
+  }
+
+  @Test
+  void should_create_counter_aggregator_when_counter_table() {
+    when(col1.getType()).thenReturn(COUNTER);
+    when(col2.getType()).thenReturn(COUNTER);
+    when(col3.getType()).thenReturn(COUNTER);
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.schema", "keyspace", "ks", "table", "t1", "counterAggregationWindow", 100);
+    SchemaSettings settings = new SchemaSettings(config, MAP_AND_WRITE);
+    settings.init(session, codecFactory, false, true);
+    assertThat(settings.createRecordMapper(session, recordMetadata, false)).isNotNull();
+    assertThat(settings.createCounterAggregator()).isNotNull();
+  }
+
+  @Test
+  void should_not_create_counter_aggregator_when_regular_table() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.schema", "keyspace", "ks", "table", "t1", "counterAggregationWindow", 100);
+    SchemaSettings settings = new SchemaSettings(config, MAP_AND_WRITE);
+    settings.init(session, codecFactory, false, true);
+    assertThat(settings.createRecordMapper(session, recordMetadata, false)).isNotNull();
+    assertThat(settings.createCounterAggregator()).isNull();
+  }
+
+  @Test
+  void should_error_out_when_counter_aggregation_max_age_negative() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.schema", "keyspace", "ks", "table", "t1", "counterAggregationMaxAge", "-1s");
+    SchemaSettings settings = new SchemaSettings(config, MAP_AND_WRITE);
+    assertThatThrownBy(() -> settings.init(session, codecFactory, false, true))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage(
+            "Invalid value for dsbulk.schema.counterAggregationMaxAge: expecting positive duration or zero, got: -1s");
+  }
+
+  @Test
+  void should_error_out_when_deduplication_window_negative() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.schema", "keyspace", "ks", "table", "t1", "deduplicationWindow", -1);
+    SchemaSettings settings = new SchemaSettings(config, MAP_AND_WRITE);
+    assertThatThrownBy(() -> settings.init(session, codecFactory, false, true))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage(
+            "Invalid value for dsbulk.schema.deduplicationWindow: expecting positive integer or zero, got: -1");
+  }
+
   @Test
   void should_error_out_when_counter_table_and_mapping_has_ttl() {
     when(col1.getType()).thenReturn(COUNTER);
@@ -2504,6 +2613,62 @@ class SchemaSettingsTest {
                 + "FROM ks.t1 WHERE token(c1) > :start AND token(c1) <= :end"));
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  void should_group_columns_by_writetime_and_ttl() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.schema",
+            "keyspace",
+            "ks",
+            "table",
+            "t1",
+            "preserveTimestamp",
+            true,
+            "preserveTtl",
+            true,
+            "groupByWritetimeAndTtl",
+            true);
+    SchemaSettings settings = new SchemaSettings(config, MAP_AND_WRITE);
+    settings.init(session, codecFactory, true, true);
+    RecordMapper mapper = settings.createRecordMapper(session, recordMetadata, true);
+    Object grouper = getInternalState(mapper, "grouper");
+    assertThat(grouper).isInstanceOf(WriteTimeAndTtlGrouper.class);
+    List<GroupableInsert> inserts = (List<GroupableInsert>) getInternalState(grouper, "inserts");
+    assertThat(inserts)
+        .extracting(insert -> insert.getColumn().asIdentifier())
+        .containsExactly(C2, C3);
+    when(session.prepareAsync(anyString()))
+        .thenReturn(CompletableFuture.completedFuture(mock(PreparedStatement.class)));
+    Function<List<GroupableInsert>, CompletionStage<PreparedStatement>> preparer =
+        (Function<List<GroupableInsert>, CompletionStage<PreparedStatement>>)
+            getInternalState(grouper, "preparer");
+    assertThat(preparer.apply(inserts)).isNotNull();
+    verify(session)
+        .prepareAsync(
+            "INSERT INTO ks.t1 (c1, \"COL 2\", c3) VALUES (:c1, :\"COL 2\", :c3) "
+                + "USING TTL :\"ttl(COL 2)\" AND TIMESTAMP :\"writetime(COL 2)\"");
+  }
+
+  @Test
+  void should_not_group_columns_by_writetime_and_ttl_when_batching_disabled() {
+    Config config =
+        TestConfigUtils.createTestConfig(
+            "dsbulk.schema",
+            "keyspace",
+            "ks",
+            "table",
+            "t1",
+            "preserveTimestamp",
+            true,
+            "groupByWritetimeAndTtl",
+            true);
+    SchemaSettings settings = new SchemaSettings(config, MAP_AND_WRITE);
+    settings.init(session, codecFactory, true, true);
+    RecordMapper mapper = settings.createRecordMapper(session, recordMetadata, false);
+    assertThat(getInternalState(mapper, "grouper")).isNull();
+  }
+
   @Test
   void should_reject_writetime_star_when_preserving_timestamp() {
     Config config =
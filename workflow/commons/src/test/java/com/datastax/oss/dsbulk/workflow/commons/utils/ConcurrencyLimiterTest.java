@@ -0,0 +1,120 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.dsbulk.workflow.commons.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+class ConcurrencyLimiterTest {
+
+  private final ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, Schedulers.immediate());
+
+  @Test
+  void should_limit_concurrency() {
+    AtomicInteger current = new AtomicInteger();
+    AtomicInteger max = new AtomicInteger();
+    List<Integer> results =
+        limiter
+            .flatMap(
+                Flux.range(0, 100),
+                i ->
+                    Mono.just(i)
+                        .doOnSubscribe(
+                            s -> max.accumulateAndGet(current.incrementAndGet(), Math::max))
+                        .delayElement(Duration.ofMillis(1))
+                        .doOnTerminate(current::decrementAndGet),
+                16)
+            .collectList()
+            .block();
+    assertThat(results).hasSize(100);
+    assertThat(max.get()).isEqualTo(2);
+    // permits are released right after the last item completes downstream
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(() -> assertThat(limiter.getInFlight()).isZero());
+  }
+
+  @Test
+  void should_hold_back_items_until_limit_grows() {
+    Disposable first = limiter.acquire().subscribe();
+    Disposable second = limiter.acquire().subscribe();
+    AtomicInteger acquired = new AtomicInteger();
+    limiter.acquire().subscribe(v -> {}, e -> {}, acquired::incrementAndGet);
+    assertThat(acquired).hasValue(0);
+    limiter.setLimit(3);
+    assertThat(acquired).hasValue(1);
+    assertThat(limiter.getInFlight()).isEqualTo(3);
+    first.dispose();
+    second.dispose();
+  }
+
+  @Test
+  void should_not_interrupt_items_when_limit_shrinks() {
+    limiter.acquire().subscribe();
+    limiter.acquire().subscribe();
+    limiter.setLimit(1);
+    AtomicInteger acquired = new AtomicInteger();
+    limiter.acquire().subscribe(v -> {}, e -> {}, acquired::incrementAndGet);
+    limiter.release();
+    assertThat(acquired).hasValue(0);
+    limiter.release();
+    assertThat(acquired).hasValue(1);
+    assertThat(limiter.getInFlight()).isOne();
+  }
+
+  @Test
+  void should_give_up_permit_when_cancelled() {
+    limiter.acquire().subscribe();
+    limiter.acquire().subscribe();
+    Disposable waiting = limiter.acquire().subscribe();
+    waiting.dispose();
+    limiter.release();
+    assertThat(limiter.getInFlight()).isOne();
+  }
+
+  @Test
+  void should_await_capacity() {
+    limiter.acquire().subscribe();
+    limiter.acquire().subscribe();
+    AtomicInteger resumed = new AtomicInteger();
+    limiter.awaitCapacity().subscribe(v -> {}, e -> {}, resumed::incrementAndGet);
+    limiter.awaitCapacity().subscribe(v -> {}, e -> {}, resumed::incrementAndGet);
+    assertThat(resumed).hasValue(0);
+    limiter.release();
+    assertThat(resumed).hasValue(2);
+    assertThat(limiter.getInFlight()).isOne();
+  }
+
+  @Test
+  void should_reject_non_positive_limit() {
+    assertThatThrownBy(() -> new ConcurrencyLimiter(0, Schedulers.immediate()))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Limit must be strictly positive, got 0");
+    assertThatThrownBy(() -> limiter.setLimit(-1))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Limit must be strictly positive, got -1");
+  }
+}
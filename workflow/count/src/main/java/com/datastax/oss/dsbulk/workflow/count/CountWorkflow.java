@@ -16,6 +16,7 @@
 package com.datastax.oss.dsbulk.workflow.count;
 
 import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
 import com.datastax.oss.driver.shaded.guava.common.base.Stopwatch;
 import com.datastax.oss.dsbulk.codecs.api.ConvertingCodecFactory;
 import com.datastax.oss.dsbulk.executor.api.reader.BulkReader;
@@ -43,8 +44,10 @@ import com.datastax.oss.dsbulk.workflow.commons.utils.ClusterInformationUtils;
 import com.typesafe.config.Config;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import java.time.Duration;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
@@ -65,11 +68,12 @@ public class CountWorkflow implements Workflow {
   private String executionId;
   private Scheduler scheduler;
   private ReadResultCounter readResultCounter;
-  private MetricsManager metricsManager;
+  private volatile MetricsManager metricsManager;
   private LogManager logManager;
   private CqlSession session;
   private BulkReader executor;
   private List<RangeReadBoundStatement> readStatements;
+  private TokenMap tokenMap;
   private volatile boolean success;
   private Function<Flux<ReadResult>, Flux<ReadResult>> totalItemsMonitor;
   private Function<Flux<ReadResult>, Flux<ReadResult>> totalItemsCounter;
@@ -142,6 +146,7 @@ public class CountWorkflow implements Workflow {
     // incorporate totals from the previous run
     readResultCounter.newCountingUnit(logManager.getTotalItems());
     readStatements = schemaSettings.createReadStatements(session);
+    tokenMap = session.getMetadata().getTokenMap().orElse(null);
     closed.set(false);
     success = false;
     totalItemsMonitor = metricsManager.newTotalItemsMonitor();
@@ -169,7 +174,7 @@ public class CountWorkflow implements Workflow {
     metricsManager.start();
     Stopwatch timer = Stopwatch.createStarted();
     Flux.fromIterable(readStatements)
-        .map(stmt -> (RangeReadResource) new DefaultRangeReadResource(stmt, executor))
+        .map(stmt -> (RangeReadResource) new DefaultRangeReadResource(stmt, executor, tokenMap))
         .transform(checkpointHandler)
         .flatMap(
             results ->
@@ -210,6 +215,12 @@ public class CountWorkflow implements Workflow {
     return totalErrors == 0;
   }
 
+  @Override
+  public Map<String, Long> getProgress() {
+    MetricsManager metricsManager = this.metricsManager;
+    return metricsManager == null ? Collections.emptyMap() : metricsManager.getProgress();
+  }
+
   @Override
   public void close() throws Exception {
     if (closed.compareAndSet(false, true)) {
@@ -18,10 +18,15 @@ package com.datastax.oss.dsbulk.workflow.load;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Snapshot;
 import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
 import com.datastax.oss.driver.api.core.cql.BatchableStatement;
 import com.datastax.oss.driver.api.core.cql.BoundStatement;
 import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
 import com.datastax.oss.driver.shaded.guava.common.base.Stopwatch;
+import com.datastax.oss.dsbulk.batcher.api.DefaultStatementBatcher;
+import com.datastax.oss.dsbulk.batcher.api.ReactiveStatementBatcher;
 import com.datastax.oss.dsbulk.codecs.api.ConvertingCodecFactory;
 import com.datastax.oss.dsbulk.connectors.api.CommonConnectorFeature;
 import com.datastax.oss.dsbulk.connectors.api.Connector;
@@ -30,14 +35,20 @@ import com.datastax.oss.dsbulk.connectors.api.Resource;
 import com.datastax.oss.dsbulk.executor.api.result.EmptyWriteResult;
 import com.datastax.oss.dsbulk.executor.api.result.WriteResult;
 import com.datastax.oss.dsbulk.executor.api.writer.BulkWriter;
+import com.datastax.oss.dsbulk.sampler.ContinuousWriteSampler;
 import com.datastax.oss.dsbulk.sampler.DataSizeSampler;
+import com.datastax.oss.dsbulk.sampler.DataSizes;
 import com.datastax.oss.dsbulk.workflow.api.Workflow;
 import com.datastax.oss.dsbulk.workflow.api.utils.DurationUtils;
 import com.datastax.oss.dsbulk.workflow.api.utils.ThrowableUtils;
 import com.datastax.oss.dsbulk.workflow.commons.log.LogManager;
+import com.datastax.oss.dsbulk.workflow.commons.metrics.HeapPressureGovernor;
 import com.datastax.oss.dsbulk.workflow.commons.metrics.MetricsManager;
+import com.datastax.oss.dsbulk.workflow.commons.metrics.StageMonitor;
+import com.datastax.oss.dsbulk.workflow.commons.schema.CounterAggregator;
 import com.datastax.oss.dsbulk.workflow.commons.schema.NestedBatchException;
 import com.datastax.oss.dsbulk.workflow.commons.schema.RecordMapper;
+import com.datastax.oss.dsbulk.workflow.commons.schema.StatementDeduplicator;
 import com.datastax.oss.dsbulk.workflow.commons.settings.BatchSettings;
 import com.datastax.oss.dsbulk.workflow.commons.settings.CodecSettings;
 import com.datastax.oss.dsbulk.workflow.commons.settings.ConnectorSettings;
@@ -51,9 +62,13 @@ import com.datastax.oss.dsbulk.workflow.commons.settings.SchemaSettings;
 import com.datastax.oss.dsbulk.workflow.commons.settings.SettingsManager;
 import com.datastax.oss.dsbulk.workflow.commons.utils.CloseableUtils;
 import com.datastax.oss.dsbulk.workflow.commons.utils.ClusterInformationUtils;
+import com.datastax.oss.dsbulk.workflow.commons.utils.ConcurrencyLimiter;
 import com.typesafe.config.Config;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
@@ -61,6 +76,7 @@ import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 import reactor.util.concurrent.Queues;
@@ -73,12 +89,21 @@ public class LoadWorkflow implements Workflow {
   private static final int _1_KB = 1024;
   private static final int _10_KB = 10 * _1_KB;
 
+  private static final int SAMPLE_SIZE = 1000;
+  private static final int MAX_SAMPLED_RESOURCES = 10;
+
+  private static final long TUNING_INTERVAL_SECONDS = 5;
+  private static final int MIN_TUNING_SAMPLES = 100;
+  private static final double TAIL_LATENCY_FACTOR = 4;
+
+  private static final long HEAP_SAMPLING_INTERVAL_SECONDS = 1;
+
   private final SettingsManager settingsManager;
   private final AtomicBoolean closed = new AtomicBoolean(false);
 
   private String executionId;
   private Connector connector;
-  private MetricsManager metricsManager;
+  private volatile MetricsManager metricsManager;
   private LogManager logManager;
   private EngineSettings engineSettings;
   private CqlSession session;
@@ -91,8 +116,26 @@ public class LoadWorkflow implements Workflow {
   private int readConcurrency;
   private int writeConcurrency;
   private boolean hasManyReaders;
+  private Histogram initialSample;
+  private ProtocolVersion protocolVersion;
+  private CodecRegistry codecRegistry;
+  private ContinuousWriteSampler writeSampler;
+  private boolean tuningWriteConcurrency;
+  private volatile int nominalWriteConcurrency;
+  private ConcurrencyLimiter writePermits;
+  private DefaultStatementBatcher tunableBatcher;
+  private int maxBatchStatements;
+  private Scheduler writeGate;
+  private Scheduler tuningScheduler;
+  private HeapPressureGovernor heapGovernor;
+  private Scheduler heapGovernorScheduler;
+  private StageMonitor readStage;
+  private StageMonitor batchStage;
+  private StageMonitor writeStage;
 
   private Function<Record, Flux<BatchableStatement<?>>> mapper;
+  // the mapper without stage metrics, to map sampled records without counting them
+  private Function<Record, Flux<BatchableStatement<?>>> samplingMapper;
   private Function<Publisher<BatchableStatement<?>>, Publisher<Statement<?>>> batcher;
   private Function<Flux<Record>, Flux<Record>> totalItemsMonitor;
   private Function<Flux<Record>, Flux<Record>> totalItemsCounter;
@@ -103,6 +146,12 @@ public class LoadWorkflow implements Workflow {
   private Function<Flux<Record>, Flux<Record>> failedRecordsHandler;
   private Function<Flux<BatchableStatement<?>>, Flux<BatchableStatement<?>>>
       unmappableStatementsHandler;
+  private Function<Flux<BatchableStatement<?>>, Flux<BatchableStatement<?>>> deduplicator;
+  private Function<Flux<BatchableStatement<?>>, Flux<BatchableStatement<?>>> counterAggregator;
+  private Function<Flux<BatchableStatement<?>>, Flux<BatchableStatement<?>>>
+      collapsedStatementsMonitor;
+  private Function<Flux<BatchableStatement<?>>, Flux<BatchableStatement<?>>>
+      collapsedStatementsHandler;
   private Function<Flux<Statement<?>>, Flux<Statement<?>>> batcherMonitor;
   private Function<Flux<Void>, Flux<Void>> terminationHandler;
   private Function<Flux<WriteResult>, Flux<WriteResult>> failedWritesHandler;
@@ -167,8 +216,34 @@ public class LoadWorkflow implements Workflow {
           schemaSettings.createRecordMapper(session, connector.getRecordMetadata(), false);
     }
     mapper = recordMapper::map;
+    samplingMapper = mapper;
+    StatementDeduplicator statementDeduplicator = schemaSettings.createStatementDeduplicator();
+    if (statementDeduplicator == null) {
+      deduplicator = upstream -> upstream;
+    } else {
+      deduplicator = statementDeduplicator::deduplicate;
+    }
+    CounterAggregator aggregator = schemaSettings.createCounterAggregator();
+    if (aggregator == null) {
+      counterAggregator = upstream -> upstream;
+    } else {
+      counterAggregator = aggregator::aggregate;
+    }
+    if (schemaSettings.isAllowExtraFields()) {
+      // unmapped fields would be discarded anyway, let the connector skip them
+      connector.setProjectedFields(schemaSettings.getMappedFields());
+    }
     if (batchingEnabled) {
-      batcher = batchSettings.newStatementBatcher(session)::batchByGroupingKey;
+      ReactiveStatementBatcher statementBatcher = batchSettings.newStatementBatcher(session);
+      batcher = statementBatcher::batchByGroupingKey;
+      // only retune the batch byte target if the user did not set one
+      if (engineSettings.isContinuousSamplingEnabled()
+          && batchSettings.getMaxSizeInBytes() <= 0
+          && batchSettings.getMaxBatchStatements() > 0
+          && statementBatcher instanceof DefaultStatementBatcher) {
+        tunableBatcher = (DefaultStatementBatcher) statementBatcher;
+        maxBatchStatements = batchSettings.getMaxBatchStatements();
+      }
     }
     if (executorSettings.isTrackingBytes()) {
       monitoringSettings.forceTrackBytes();
@@ -183,6 +258,12 @@ public class LoadWorkflow implements Workflow {
             session.getContext().getCodecRegistry(),
             schemaSettings.getRowType());
     metricsManager.init(logManager.getTotalItems(), logManager.getTotalErrors());
+    readStage = metricsManager.newStageMonitor("read");
+    mapper = metricsManager.newStageMonitor("map").timed(mapper);
+    if (batchingEnabled) {
+      batchStage = metricsManager.newStageMonitor("batch");
+    }
+    writeStage = metricsManager.newStageMonitor("write");
     if (driverSettings.isCloud()) {
       executorSettings.enforceCloudRateLimit(session.getMetadata().getNodes().size());
     }
@@ -195,11 +276,13 @@ public class LoadWorkflow implements Workflow {
     totalItemsMonitor = metricsManager.newTotalItemsMonitor();
     failedRecordsMonitor = metricsManager.newFailedRecordsMonitor();
     unmappableStatementsMonitor = metricsManager.newUnmappableStatementsMonitor();
+    collapsedStatementsMonitor = metricsManager.newCollapsedStatementsMonitor();
     failedWritesMonitor = metricsManager.newFailedResultsMonitor();
     batcherMonitor = metricsManager.newBatcherMonitor();
     totalItemsCounter = logManager.newTotalItemsCounter();
     failedRecordsHandler = logManager.newFailedRecordsHandler();
     unmappableStatementsHandler = logManager.newUnmappableStatementsHandler();
+    collapsedStatementsHandler = logManager.newCollapsedStatementsHandler();
     queryWarningsHandler = logManager.newQueryWarningsHandler();
     failedWritesHandler = logManager.newFailedWritesHandler();
     successfulWritesHandler = logManager.newSuccessfulWritesHandler();
@@ -219,12 +302,51 @@ public class LoadWorkflow implements Workflow {
         "Using write concurrency: {} (user-supplied: {})",
         writeConcurrency,
         engineSettings.getMaxConcurrentQueries().isPresent());
+    if (engineSettings.isContinuousSamplingEnabled() && !dryRun) {
+      protocolVersion = session.getContext().getProtocolVersion();
+      codecRegistry = session.getContext().getCodecRegistry();
+      writeSampler = new ContinuousWriteSampler();
+      if (initialSample != null) {
+        writeSampler.seed(initialSample.getSnapshot());
+      }
+      tuningWriteConcurrency = !engineSettings.getMaxConcurrentQueries().isPresent();
+      LOGGER.debug(
+          "Continuous sampling enabled (tuning write concurrency: {}, tuning batch size: {})",
+          tuningWriteConcurrency,
+          tunableBatcher != null);
+    } else {
+      tunableBatcher = null;
+    }
+    double heapPressureThreshold = engineSettings.getHeapPressureThreshold();
+    double gcOverheadThreshold = engineSettings.getGcOverheadThreshold();
+    if (!dryRun && (heapPressureThreshold > 0 || gcOverheadThreshold > 0)) {
+      heapGovernor =
+          metricsManager.newHeapPressureGovernor(heapPressureThreshold, gcOverheadThreshold);
+    }
+    if (tuningWriteConcurrency || heapGovernor != null) {
+      nominalWriteConcurrency = writeConcurrency;
+      writeGate = Schedulers.newSingle(new DefaultThreadFactory("write-gate", true));
+      writePermits = new ConcurrencyLimiter(writeConcurrency, writeGate);
+    }
   }
 
   @Override
   public boolean execute() {
     LOGGER.debug("{} started.", this);
     metricsManager.start();
+    if (writeSampler != null) {
+      tuningScheduler = Schedulers.newSingle(new DefaultThreadFactory("write-tuner", true));
+      tuningScheduler.schedulePeriodically(
+          this::retune, TUNING_INTERVAL_SECONDS, TUNING_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+    if (heapGovernor != null) {
+      heapGovernorScheduler = Schedulers.newSingle(new DefaultThreadFactory("heap-governor", true));
+      heapGovernorScheduler.schedulePeriodically(
+          this::governHeap,
+          HEAP_SAMPLING_INTERVAL_SECONDS,
+          HEAP_SAMPLING_INTERVAL_SECONDS,
+          TimeUnit.SECONDS);
+    }
     Stopwatch timer = Stopwatch.createStarted();
     Flux<Statement<?>> statements;
     if (hasManyReaders) {
@@ -272,6 +394,8 @@ public class LoadWorkflow implements Workflow {
         .flatMap(
             records ->
                 Flux.from(records)
+                    .transform(readStage.timeProduction())
+                    .transform(this::throttleReads)
                     .transform(totalItemsMonitor)
                     .transform(totalItemsCounter)
                     .transform(failedRecordsMonitor)
@@ -279,6 +403,11 @@ public class LoadWorkflow implements Workflow {
                     .flatMap(mapper)
                     .transform(unmappableStatementsMonitor)
                     .transform(unmappableStatementsHandler)
+                    .transform(deduplicator)
+                    .transform(collapsedStatementsMonitor)
+                    .transform(collapsedStatementsHandler)
+                    .transform(counterAggregator)
+                    .transform(this::sampleSizes)
                     .transform(this::bufferAndBatch)
                     .subscribeOn(scheduler),
             readConcurrency);
@@ -299,11 +428,15 @@ public class LoadWorkflow implements Workflow {
         .flatMap(
             records ->
                 Flux.from(records)
+                    .transform(readStage.timeProduction())
+                    .transform(this::throttleReads)
+                    .transform(readStage.enter())
                     .window(batchingEnabled ? batchBufferSize : Queues.SMALL_BUFFER_SIZE),
             readConcurrency)
         .flatMap(
             records ->
                 records
+                    .transform(readStage.exit())
                     .transform(totalItemsMonitor)
                     .transform(totalItemsCounter)
                     .transform(failedRecordsMonitor)
@@ -311,6 +444,11 @@ public class LoadWorkflow implements Workflow {
                     .flatMap(mapper)
                     .transform(unmappableStatementsMonitor)
                     .transform(unmappableStatementsHandler)
+                    .transform(deduplicator)
+                    .transform(collapsedStatementsMonitor)
+                    .transform(collapsedStatementsHandler)
+                    .transform(counterAggregator)
+                    .transform(this::sampleSizes)
                     .transform(this::batchBuffered)
                     .subscribeOn(scheduler),
             numCores);
@@ -324,7 +462,12 @@ public class LoadWorkflow implements Workflow {
    */
   private Flux<? extends Statement<?>> bufferAndBatch(Flux<BatchableStatement<?>> stmts) {
     return batchingEnabled
-        ? stmts.window(batchBufferSize).flatMap(batcher).transform(batcherMonitor)
+        ? stmts
+            .transform(batchStage.enter())
+            .window(batchBufferSize)
+            .flatMap(batcher)
+            .transform(batchStage.exit(LoadWorkflow::statementCount))
+            .transform(batcherMonitor)
         : stmts;
   }
 
@@ -335,27 +478,177 @@ public class LoadWorkflow implements Workflow {
    * applies batching immediately.
    */
   private Flux<? extends Statement<?>> batchBuffered(Flux<BatchableStatement<?>> stmts) {
-    return batchingEnabled ? stmts.transform(batcher).transform(batcherMonitor) : stmts;
+    return batchingEnabled
+        ? stmts
+            .transform(batchStage.enter())
+            .transform(batcher)
+            .transform(batchStage.exit(LoadWorkflow::statementCount))
+            .transform(batcherMonitor)
+        : stmts;
+  }
+
+  private static long statementCount(Statement<?> stmt) {
+    return stmt instanceof BatchStatement ? ((BatchStatement) stmt).size() : 1;
+  }
+
+  /** Samples the size of each statement in the given flow, if continuous sampling is enabled. */
+  private Flux<BatchableStatement<?>> sampleSizes(Flux<BatchableStatement<?>> stmts) {
+    return writeSampler == null
+        ? stmts
+        : stmts.doOnNext(
+            stmt ->
+                writeSampler.sampleSize(
+                    DataSizes.getDataSize(stmt, protocolVersion, codecRegistry)));
+  }
+
+  /**
+   * Holds back reading while the heap is under pressure and writes have no room for more
+   * statements, so that records only enter the pipeline when writes can absorb them, and the items
+   * buffered between reading and writing can drain. Reading is held back by not requesting more
+   * records, never by blocking a thread.
+   */
+  private <T> Flux<T> throttleReads(Flux<T> records) {
+    return heapGovernor == null
+        ? records
+        : records.concatMap(
+            record ->
+                heapGovernor.isUnderPressure()
+                    ? writePermits.awaitCapacity().thenReturn(record)
+                    : Mono.just(record),
+            0);
   }
 
   /**
    * Executes the given statement flow, unless we are running in dry-run mode, in which case a
    * successful write is emulated.
+   *
+   * <p>When write concurrency is tuned continuously, or lowered under heap pressure, the flow is
+   * executed with the highest possible concurrency, and the actual concurrency is enforced by
+   * {@code writePermits}, which stops requesting statements while no permit is available. Waiting
+   * writes are resumed on a dedicated thread, rather than on the driver I/O thread that completed
+   * the write releasing the permit.
    */
   private Flux<WriteResult> executeStatements(Flux<? extends Statement<?>> stmts) {
-    return dryRun
-        ? stmts.map(EmptyWriteResult::new)
-        : stmts.flatMap(executor::writeReactive, writeConcurrency);
+    if (dryRun) {
+      return stmts.map(EmptyWriteResult::new);
+    } else if (writePermits != null) {
+      int maxConcurrency = tuningWriteConcurrency ? writeConcurrencyFor(0) : writeConcurrency;
+      return writePermits.flatMap(stmts, writeStage.timedAsync(this::executeWrite), maxConcurrency);
+    } else if (writeSampler == null) {
+      return stmts.flatMap(writeStage.timedAsync(executor::writeReactive), writeConcurrency);
+    } else {
+      return stmts.flatMap(writeStage.timedAsync(this::executeWrite), writeConcurrency);
+    }
+  }
+
+  private Flux<WriteResult> executeWrite(Statement<?> stmt) {
+    Flux<WriteResult> result = Flux.defer(() -> executor.writeReactive(stmt));
+    if (writeSampler != null) {
+      long start = System.nanoTime();
+      result = result.doOnNext(r -> writeSampler.sampleLatency(System.nanoTime() - start));
+    }
+    return result;
+  }
+
+  /**
+   * Applies the nominal write concurrency to {@code writePermits}, scaled down if the heap is under
+   * pressure.
+   */
+  private synchronized void applyWriteLimit() {
+    int limit =
+        heapGovernor == null
+            ? nominalWriteConcurrency
+            : heapGovernor.scale(nominalWriteConcurrency);
+    if (limit != writePermits.getLimit()) {
+      writePermits.setLimit(limit);
+    }
+  }
+
+  /** Samples heap pressure, and lowers or restores the write concurrency accordingly. */
+  private void governHeap() {
+    try {
+      heapGovernor.sample();
+      applyWriteLimit();
+    } catch (Exception e) {
+      LOGGER.debug("Heap pressure sampling failed: {}", ThrowableUtils.getSanitizedErrorMessage(e));
+    }
+  }
+
+  /**
+   * Retunes write concurrency and the batch byte target from the statement sizes and write
+   * latencies sampled so far.
+   */
+  private void retune() {
+    try {
+      Histogram latencies = writeSampler.pollLatencies();
+      if (writeSampler.getSizeCount() < MIN_TUNING_SAMPLES) {
+        return;
+      }
+      Snapshot sizes = writeSampler.getSizes();
+      if (tuningWriteConcurrency) {
+        int concurrency = writeConcurrencyFor(meanRowSize(sizes));
+        int current = nominalWriteConcurrency;
+        if (concurrency != current) {
+          LOGGER.debug("Changing write concurrency from {} to {}", current, concurrency);
+          nominalWriteConcurrency = concurrency;
+          applyWriteLimit();
+        }
+      }
+      if (tunableBatcher != null) {
+        long target = nextBatchSizeTarget(sizes.getMean(), latencies);
+        long current = tunableBatcher.getMaxSizeInBytes();
+        if (target != current) {
+          LOGGER.debug("Changing maximum batch size in bytes from {} to {}", current, target);
+          tunableBatcher.setMaxSizeInBytes(target);
+        }
+      }
+    } catch (Exception e) {
+      LOGGER.debug("Tuning failed: {}", ThrowableUtils.getSanitizedErrorMessage(e));
+    }
+  }
+
+  /**
+   * Computes the next batch byte target.
+   *
+   * <p>The target never exceeds the size of a batch made of {@code maxBatchStatements} statements
+   * of mean size, so that batches of wider-than-usual rows are cut early. When the tail latency of
+   * writes grows disproportionately compared to the median, which large batches are prone to cause,
+   * the target is halved, down to two statements of mean size; otherwise, it doubles back towards
+   * its maximum.
+   */
+  private long nextBatchSizeTarget(double meanSize, Histogram latencies) {
+    long fullBatch = Math.max(1, (long) Math.ceil(meanSize * maxBatchStatements));
+    long current = tunableBatcher.getMaxSizeInBytes();
+    if (current <= 0) {
+      return fullBatch;
+    }
+    if (latencies.getCount() >= MIN_TUNING_SAMPLES) {
+      Snapshot snapshot = latencies.getSnapshot();
+      if (snapshot.get99thPercentile() > TAIL_LATENCY_FACTOR * snapshot.getMedian()) {
+        long minimum = Math.min(fullBatch, (long) Math.ceil(2 * meanSize));
+        return Math.max(minimum, Math.min(current, fullBatch) / 2);
+      }
+    }
+    return Math.min(fullBatch, current * 2);
+  }
+
+  @Override
+  public Map<String, Long> getProgress() {
+    MetricsManager metricsManager = this.metricsManager;
+    return metricsManager == null ? Collections.emptyMap() : metricsManager.getProgress();
   }
 
   @Override
   public void close() throws Exception {
     if (closed.compareAndSet(false, true)) {
       LOGGER.debug("{} closing.", this);
-      Exception e = CloseableUtils.closeQuietly(metricsManager, null);
+      Exception e = CloseableUtils.closeQuietly(tuningScheduler, null);
+      e = CloseableUtils.closeQuietly(heapGovernorScheduler, e);
+      e = CloseableUtils.closeQuietly(metricsManager, e);
       e = CloseableUtils.closeQuietly(logManager, e);
       e = CloseableUtils.closeQuietly(connector, e);
       e = CloseableUtils.closeQuietly(scheduler, e);
+      e = CloseableUtils.closeQuietly(writeGate, e);
       e = CloseableUtils.closeQuietly(executor, e);
       e = CloseableUtils.closeQuietly(session, e);
       if (metricsManager != null) {
@@ -392,6 +685,10 @@ public class LoadWorkflow implements Workflow {
       // Can't sample data, so use a common value
       meanSize = _1_KB;
     }
+    return writeConcurrencyFor(meanSize);
+  }
+
+  private int writeConcurrencyFor(double meanSize) {
     int writeConcurrency;
     if (meanSize <= 512) {
       if (hasManyReaders) {
@@ -420,32 +717,24 @@ public class LoadWorkflow implements Workflow {
     double meanSize;
     try {
       LOGGER.debug("Sampling data...");
-      Histogram sample =
-          DataSizeSampler.sampleWrites(
-              session.getContext(),
-              Flux.from(connector.read())
-                  .flatMap(Resource::read)
-                  .take(1000)
-                  .<Statement<?>>flatMap(mapper)
-                  .filter(BoundStatement.class::isInstance)
-                  .toIterable());
-      if (sample.getCount() < 1000) {
+      Histogram sample = sampleRowSizes();
+      initialSample = sample;
+      if (sample.getCount() < SAMPLE_SIZE) {
         // sample too small, go with a common value
         LOGGER.debug("Data sample is too small: {}, discarding", sample.getCount());
         meanSize = _1_KB;
       } else {
         Snapshot snapshot = sample.getSnapshot();
-        meanSize = snapshot.getMean();
         double standardDeviation = snapshot.getStdDev();
-        double coefficientOfVariation = standardDeviation / meanSize;
+        double coefficientOfVariation = standardDeviation / snapshot.getMean();
         LOGGER.debug(
             "Average record size in bytes: {}, std dev: {}, coefficientOfVariation: {}",
-            meanSize,
+            snapshot.getMean(),
             standardDeviation,
             coefficientOfVariation);
+        meanSize = meanRowSize(snapshot);
         if (coefficientOfVariation >= 1) {
           LOGGER.debug("Data sample is too spread out, discarding");
-          meanSize = _1_KB;
         }
       }
     } catch (Exception e) {
@@ -454,4 +743,52 @@ public class LoadWorkflow implements Workflow {
     }
     return meanSize;
   }
+
+  /**
+   * Samples the data size of {@value #SAMPLE_SIZE} records, taken in equal shares from the first
+   * {@value #MAX_SAMPLED_RESOURCES} resources, so that the sample is not only representative of the
+   * first resource. If some of these resources hold fewer records than their share, the sample is
+   * topped up with the remaining records of the larger ones, then with records from the other
+   * resources.
+   */
+  private Histogram sampleRowSizes() {
+    List<Resource> resources =
+        Flux.from(connector.read()).take(MAX_SAMPLED_RESOURCES).collectList().block();
+    assert resources != null;
+    int recordsPerResource = (SAMPLE_SIZE + resources.size() - 1) / Math.max(1, resources.size());
+    Flux<Record> shares =
+        Flux.fromIterable(resources)
+            .concatMap(resource -> Flux.from(resource.read()).take(recordsPerResource));
+    // only subscribed to if the shares are not enough to fill the sample
+    Flux<Record> remaining =
+        Flux.fromIterable(resources)
+            .concatMap(resource -> Flux.from(resource.read()).skip(recordsPerResource));
+    if (resources.size() == MAX_SAMPLED_RESOURCES) {
+      remaining =
+          remaining.concatWith(
+              Flux.from(connector.read())
+                  .skip(MAX_SAMPLED_RESOURCES)
+                  .concatMap(resource -> Flux.from(resource.read())));
+    }
+    return DataSizeSampler.sampleWrites(
+        session.getContext(),
+        shares
+            .concatWith(remaining)
+            .take(SAMPLE_SIZE)
+            .<Statement<?>>flatMap(samplingMapper)
+            .filter(BoundStatement.class::isInstance)
+            .toIterable());
+  }
+
+  /**
+   * Returns the mean of the given sample of row sizes, or a common value if the sample is too
+   * spread out to be meaningful.
+   */
+  private static double meanRowSize(Snapshot sizes) {
+    double meanSize = sizes.getMean();
+    if (sizes.getStdDev() / meanSize >= 1) {
+      return _1_KB;
+    }
+    return meanSize;
+  }
 }
@@ -16,6 +16,7 @@
 package com.datastax.oss.dsbulk.workflow.unload;
 
 import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
 import com.datastax.oss.driver.shaded.guava.common.base.Stopwatch;
 import com.datastax.oss.dsbulk.codecs.api.ConvertingCodecFactory;
 import com.datastax.oss.dsbulk.connectors.api.CommonConnectorFeature;
@@ -30,6 +31,7 @@ import com.datastax.oss.dsbulk.workflow.commons.log.DefaultRangeReadResource;
 import com.datastax.oss.dsbulk.workflow.commons.log.LogManager;
 import com.datastax.oss.dsbulk.workflow.commons.log.RangeReadResource;
 import com.datastax.oss.dsbulk.workflow.commons.metrics.MetricsManager;
+import com.datastax.oss.dsbulk.workflow.commons.metrics.StageMonitor;
 import com.datastax.oss.dsbulk.workflow.commons.schema.ReadResultMapper;
 import com.datastax.oss.dsbulk.workflow.commons.settings.CodecSettings;
 import com.datastax.oss.dsbulk.workflow.commons.settings.ConnectorSettings;
@@ -47,8 +49,12 @@ import com.datastax.oss.dsbulk.workflow.commons.utils.ClusterInformationUtils;
 import com.typesafe.config.Config;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -71,12 +77,13 @@ public class UnloadWorkflow implements Workflow {
   private String executionId;
   private Connector connector;
   private Set<Scheduler> schedulers;
-  private ReadResultMapper readResultMapper;
-  private MetricsManager metricsManager;
+  private Function<ReadResult, Record> readResultMapper;
+  private volatile MetricsManager metricsManager;
   private LogManager logManager;
   private CqlSession session;
   private BulkReader executor;
   private List<RangeReadBoundStatement> readStatements;
+  private TokenMap tokenMap;
   private Function<Publisher<Record>, Publisher<Record>> writer;
   private Function<Flux<ReadResult>, Flux<ReadResult>> totalItemsMonitor;
   private Function<Flux<Record>, Flux<Record>> failedRecordsMonitor;
@@ -92,6 +99,8 @@ public class UnloadWorkflow implements Workflow {
   private int readConcurrency;
   private int numCores;
   private int writeConcurrency;
+  private StageMonitor readStage;
+  private StageMonitor writeStage;
 
   UnloadWorkflow(Config config) {
     settingsManager = new SettingsManager(config);
@@ -153,9 +162,13 @@ public class UnloadWorkflow implements Workflow {
             schemaSettings.getRowType());
     metricsManager.init(logManager.getTotalItems(), logManager.getTotalErrors());
     RecordMetadata recordMetadata = connector.getRecordMetadata();
-    readResultMapper =
+    ReadResultMapper mapper =
         schemaSettings.createReadResultMapper(session, recordMetadata, logSettings.isSources());
+    readStage = metricsManager.newStageMonitor("read");
+    readResultMapper = metricsManager.newStageMonitor("map").timed(mapper::map);
+    writeStage = metricsManager.newStageMonitor("write");
     readStatements = schemaSettings.createReadStatements(session);
+    tokenMap = session.getMetadata().getTokenMap().orElse(null);
     executor =
         executorSettings.newReadExecutor(
             session, metricsManager.getExecutionListener(), schemaSettings.isSearchQuery());
@@ -232,68 +245,93 @@ public class UnloadWorkflow implements Workflow {
             : Schedulers.newParallel(numThreads, new DefaultThreadFactory("workflow"));
     schedulers.add(scheduler);
     return Flux.fromIterable(readStatements)
-        .map(stmt -> (RangeReadResource) new DefaultRangeReadResource(stmt, executor))
+        .map(stmt -> (RangeReadResource) new DefaultRangeReadResource(stmt, executor, tokenMap))
         .transform(checkpointHandler)
         .flatMap(
             results ->
                 results
+                    .transform(readStage.timeProduction())
+                    .transform(readStage.enter())
                     .publishOn(scheduler, 500)
+                    .transform(readStage.exit())
                     .transform(queryWarningsHandler)
                     .transform(totalItemsMonitor)
                     .transform(totalItemsCounter)
                     .transform(failedReadResultsMonitor)
                     .transform(failedReadsHandler)
-                    .map(readResultMapper::map)
+                    .map(readResultMapper)
                     .transform(failedRecordsMonitor)
                     .transform(unmappableRecordsHandler),
             readConcurrency,
             500)
-        .transform(writer)
+        .transform(this::writeRecords)
         .transform(failedRecordsMonitor)
         .transform(failedRecordsHandler)
         .transform(successfulRecordsHandler);
   }
 
+  /**
+   * Splits the token ranges to read into lanes, one per writer, and processes each lane end to end
+   * on a single thread: rows are read, mapped and written by the same thread, to the same
+   * destination. Lanes are assigned contiguous slices of the ring, and the ranges of a lane are
+   * read concurrently but emitted in token order, so each destination is naturally ordered by
+   * token.
+   */
   private Flux<Void> fewWriters() {
-    // writeConcurrency cannot be 1 here, but readConcurrency can
-    int numThreadsForReads = Math.min(numCores, readConcurrency);
-    Scheduler schedulerForReads =
-        numThreadsForReads == 1
-            ? Schedulers.immediate()
-            : Schedulers.newParallel(numThreadsForReads, new DefaultThreadFactory("workflow-read"));
-    int numThreadsForWrites = Math.min(numCores, writeConcurrency);
-    Scheduler schedulerForWrites =
-        Schedulers.newParallel(numThreadsForWrites, new DefaultThreadFactory("workflow-write"));
-    schedulers.add(schedulerForReads);
-    schedulers.add(schedulerForWrites);
-    return Flux.fromIterable(readStatements)
-        .map(stmt -> (RangeReadResource) new DefaultRangeReadResource(stmt, executor))
-        .transform(checkpointHandler)
+    // writeConcurrency cannot be 1 here, but readConcurrency can; each lane reads at least one
+    // range at a time, so there cannot be more lanes than concurrent reads
+    int numLanes = Math.max(1, Math.min(writeConcurrency, readConcurrency));
+    if (numLanes < writeConcurrency) {
+      LOGGER.info(
+          "Using {} writers instead of {}, since at most {} token ranges are read concurrently.",
+          numLanes,
+          writeConcurrency,
+          readConcurrency);
+    }
+    int readConcurrencyPerLane = Math.max(1, readConcurrency / numLanes);
+    int numThreads = Math.min(numCores, numLanes);
+    // always hop off the driver I/O threads, even with a single lane
+    Scheduler scheduler = Schedulers.newParallel(numThreads, new DefaultThreadFactory("workflow"));
+    schedulers.add(scheduler);
+    List<RangeReadBoundStatement> sorted = new ArrayList<>(readStatements);
+    sorted.sort(Comparator.comparing(RangeReadBoundStatement::getTokenRange));
+    List<List<RangeReadBoundStatement>> lanes = new ArrayList<>(numLanes);
+    for (int i = 0; i < numLanes; i++) {
+      lanes.add(sorted.subList(i * sorted.size() / numLanes, (i + 1) * sorted.size() / numLanes));
+    }
+    return Flux.fromIterable(lanes)
         .flatMap(
-            results ->
-                results
-                    .publishOn(schedulerForReads, 500)
+            lane ->
+                Flux.fromIterable(lane)
+                    .map(
+                        stmt ->
+                            (RangeReadResource)
+                                new DefaultRangeReadResource(stmt, executor, tokenMap))
+                    .transform(checkpointHandler)
+                    .flatMapSequential(
+                        results ->
+                            results
+                                .transform(readStage.timeProduction())
+                                .transform(readStage.enter()),
+                        readConcurrencyPerLane,
+                        500)
+                    // the only thread hop: from driver I/O threads to the lane's thread, which
+                    // is the same for the entire lane
+                    .publishOn(scheduler, 500)
+                    .transform(readStage.exit())
                     .transform(queryWarningsHandler)
                     .transform(totalItemsMonitor)
                     .transform(totalItemsCounter)
                     .transform(failedReadResultsMonitor)
                     .transform(failedReadsHandler)
-                    .map(readResultMapper::map)
+                    .map(readResultMapper)
                     .transform(failedRecordsMonitor)
-                    .transform(unmappableRecordsHandler),
-            readConcurrency,
-            500)
-        .parallel(writeConcurrency)
-        .runOn(schedulerForWrites)
-        .groups()
-        .flatMap(
-            records ->
-                records
-                    .transform(writer)
+                    .transform(unmappableRecordsHandler)
+                    .transform(this::writeRecords)
                     .transform(failedRecordsMonitor)
                     .transform(failedRecordsHandler)
                     .transform(successfulRecordsHandler),
-            writeConcurrency,
+            numLanes,
             500);
   }
 
@@ -304,23 +342,26 @@ public class UnloadWorkflow implements Workflow {
     Scheduler scheduler = Schedulers.newParallel(numThreads, new DefaultThreadFactory("workflow"));
     schedulers.add(scheduler);
     return Flux.fromIterable(readStatements)
-        .map(stmt -> (RangeReadResource) new DefaultRangeReadResource(stmt, executor))
+        .map(stmt -> (RangeReadResource) new DefaultRangeReadResource(stmt, executor, tokenMap))
         .transform(checkpointHandler)
         .flatMap(
             results -> {
               Flux<Record> records =
                   results
+                      .transform(readStage.timeProduction())
+                      .transform(readStage.enter())
                       .publishOn(scheduler, 500)
+                      .transform(readStage.exit())
                       .transform(queryWarningsHandler)
                       .transform(totalItemsMonitor)
                       .transform(totalItemsCounter)
                       .transform(failedReadResultsMonitor)
                       .transform(failedReadsHandler)
-                      .map(readResultMapper::map)
+                      .map(readResultMapper)
                       .transform(failedRecordsMonitor)
                       .transform(unmappableRecordsHandler);
               if (actualConcurrency == writeConcurrency) {
-                records = records.transform(writer);
+                records = records.transform(this::writeRecords);
               } else {
                 // If the actual concurrency is lesser than the connector's desired write
                 // concurrency, we need to give the connector a chance to switch writers
@@ -328,7 +369,10 @@ public class UnloadWorkflow implements Workflow {
                 // (to that many files on disk for example). If the connector is correctly
                 // implemented, each window will be redirected to a different destination
                 // in a round-robin fashion.
-                records = records.window(500).flatMap(window -> window.transform(writer), 1, 500);
+                records =
+                    records
+                        .window(500)
+                        .flatMap(window -> window.transform(this::writeRecords), 1, 500);
               }
               return records
                   .transform(failedRecordsMonitor)
@@ -339,6 +383,20 @@ public class UnloadWorkflow implements Workflow {
             500);
   }
 
+  /** Writes the given records with the connector, timing how long records spend in the writer. */
+  private Flux<Record> writeRecords(Flux<Record> records) {
+    return records
+        .transform(writeStage.enterTimed())
+        .transform(writer)
+        .transform(writeStage.exitTimed());
+  }
+
+  @Override
+  public Map<String, Long> getProgress() {
+    MetricsManager metricsManager = this.metricsManager;
+    return metricsManager == null ? Collections.emptyMap() : metricsManager.getProgress();
+  }
+
   @Override
   public void close() throws Exception {
     if (closed.compareAndSet(false, true)) {